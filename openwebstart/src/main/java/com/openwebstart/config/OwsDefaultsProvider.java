@@ -29,6 +29,7 @@ public class OwsDefaultsProvider implements DefaultsProvider {
     public static final String ALLOW_DOWNLOAD_SERVER_FROM_JNLP = "ows.jvm.manager.server.allowFromJnlp";
     public static final String JVM_SERVER_WHITELIST = "ows.jvm.manager.server.allowFromJnlp.whitelist";
     public static final String JVM_CACHE_DIR = "ows.jvm.manager.cache.dir";
+    public static final String JVM_SHARED_CACHE_DIR = "ows.jvm.manager.sharedCache.dir";
     public static final String JVM_CACHE_CLEANUP_ENABLED = "ows.jvm.manager.cache.cleanup";
     public static final String JVM_VENDOR = "ows.jvm.manager.vendor";
     public static final String ALLOW_VENDOR_FROM_JNLP = "ows.jvm.manager.vendor.allowFromJnlp";
@@ -39,6 +40,24 @@ public class OwsDefaultsProvider implements DefaultsProvider {
     public static final String MAX_DAYS_UNUSED_IN_JVM_CACHE = "ows.jvm.manager.maxDaysUnusedInJvmCache";
     public static final String MAX_DAYS_UNUSED_IN_JVM_CACHE_DEFAULT_VALUE = "30";
 
+    public static final String JVM_DOWNLOAD_SEGMENTS = "ows.jvm.manager.download.segments";
+    public static final String JVM_DOWNLOAD_SEGMENTS_DEFAULT_VALUE = "1";
+
+    public static final String JVM_DOWNLOAD_MAX_BANDWIDTH = "ows.jvm.manager.download.maxBandwidth";
+    public static final String JVM_DOWNLOAD_BACKGROUND_MAX_BANDWIDTH = "ows.jvm.manager.download.backgroundMaxBandwidth";
+    public static final String JVM_DOWNLOAD_MAX_BANDWIDTH_DEFAULT_VALUE = "0";
+
+    public static final String JVM_EXTRACT_WRITER_THREADS = "ows.jvm.manager.extract.writerThreads";
+    public static final String JVM_EXTRACT_WRITER_THREADS_DEFAULT_VALUE = "4";
+
+    public static final String JVM_ARCHIVE_STORE_MAX_SIZE = "ows.jvm.manager.archiveStore.maxSize";
+    public static final String JVM_ARCHIVE_STORE_MAX_SIZE_DEFAULT_VALUE = "512";
+
+    public static final String JVM_DEDUPLICATION_ENABLED = "ows.jvm.manager.deduplication.enabled";
+
+    public static final String JVM_CDS_ENABLED = "ows.jvm.manager.cds.enabled";
+    public static final String JVM_APP_CDS_ENABLED = "ows.jvm.manager.cds.applicationArchives.enabled";
+
     public static final String SEARCH_FOR_LOCAL_JVM_ON_STARTUP = "ows.jvm.manager.searchLocalAtStartup";
     public static final String EXCLUDE_DEFAULT_JVM_LOCATION = "ows.jvm.manager.excludeDefaultSearchLocation";
     public static final String CUSTOM_JVM_LOCATION = "ows.jvm.manager.customSearchLocation";
@@ -109,6 +128,11 @@ public class OwsDefaultsProvider implements DefaultsProvider {
                         PathAndFiles.JVM_CACHE_DIR.getDefaultFullPath(),
                         ValidatorFactory.createFilePathValidator()
                 ),
+                Setting.createDefault(
+                        JVM_SHARED_CACHE_DIR,
+                        null,
+                        null
+                ),
                 Setting.createDefault(
                         JVM_CACHE_CLEANUP_ENABLED,
                         Boolean.TRUE.toString(),
@@ -181,6 +205,46 @@ public class OwsDefaultsProvider implements DefaultsProvider {
                         MAX_DAYS_UNUSED_IN_JVM_CACHE_DEFAULT_VALUE,
                         ValidatorFactory.createRangedIntegerValidator(0, 3_650)
                 ),
+                Setting.createDefault(
+                        JVM_DOWNLOAD_SEGMENTS,
+                        JVM_DOWNLOAD_SEGMENTS_DEFAULT_VALUE,
+                        ValidatorFactory.createRangedIntegerValidator(1, 16)
+                ),
+                Setting.createDefault(
+                        JVM_DOWNLOAD_MAX_BANDWIDTH,
+                        JVM_DOWNLOAD_MAX_BANDWIDTH_DEFAULT_VALUE,
+                        ValidatorFactory.createRangedIntegerValidator(0, 10_000_000)
+                ),
+                Setting.createDefault(
+                        JVM_DOWNLOAD_BACKGROUND_MAX_BANDWIDTH,
+                        JVM_DOWNLOAD_MAX_BANDWIDTH_DEFAULT_VALUE,
+                        ValidatorFactory.createRangedIntegerValidator(0, 10_000_000)
+                ),
+                Setting.createDefault(
+                        JVM_EXTRACT_WRITER_THREADS,
+                        JVM_EXTRACT_WRITER_THREADS_DEFAULT_VALUE,
+                        ValidatorFactory.createRangedIntegerValidator(1, 16)
+                ),
+                Setting.createDefault(
+                        JVM_ARCHIVE_STORE_MAX_SIZE,
+                        JVM_ARCHIVE_STORE_MAX_SIZE_DEFAULT_VALUE,
+                        ValidatorFactory.createRangedIntegerValidator(0, 100_000)
+                ),
+                Setting.createDefault(
+                        JVM_DEDUPLICATION_ENABLED,
+                        Boolean.TRUE.toString(),
+                        ValidatorFactory.createBooleanValidator()
+                ),
+                Setting.createDefault(
+                        JVM_CDS_ENABLED,
+                        Boolean.TRUE.toString(),
+                        ValidatorFactory.createBooleanValidator()
+                ),
+                Setting.createDefault(
+                        JVM_APP_CDS_ENABLED,
+                        Boolean.FALSE.toString(),
+                        ValidatorFactory.createBooleanValidator()
+                ),
                 Setting.createDefault(
                         SEARCH_FOR_LOCAL_JVM_ON_STARTUP,
                         Boolean.FALSE.toString(),
@@ -0,0 +1,164 @@
+package com.openwebstart.http;
+
+import net.adoptopenjdk.icedteaweb.Assert;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token bucket that limits the number of bytes per second that are read from the network. The bucket holds
+ * at most the bytes of one second, so a short burst after an idle period is possible. A limiter can have a
+ * parent. Bytes are always taken from the parent as well, by doing so several downloads can share a budget.
+ * <p>
+ * Next to limiting the bandwidth the limiter measures the current throughput of all streams it limits.
+ */
+public class BandwidthLimiter {
+
+    /**
+     * A rate of 0 bytes per second disables the limitation.
+     */
+    public static final long UNLIMITED = 0;
+
+    private static final long MEASUREMENT_INTERVAL_IN_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final BandwidthLimiter parent;
+
+    private volatile long bytesPerSecond;
+
+    private double availableTokens;
+
+    private long lastRefillTime;
+
+    private long measurementStart;
+
+    private long measuredBytes;
+
+    private volatile long throughput;
+
+    public BandwidthLimiter(final long bytesPerSecond) {
+        this(bytesPerSecond, null);
+    }
+
+    public BandwidthLimiter(final long bytesPerSecond, final BandwidthLimiter parent) {
+        this.parent = parent;
+        setBytesPerSecond(bytesPerSecond);
+        this.lastRefillTime = System.nanoTime();
+        this.measurementStart = lastRefillTime;
+    }
+
+    /**
+     * Changes the rate of the limiter. Streams that are already limited use the new rate with their next read.
+     *
+     * @param bytesPerSecond the max number of bytes per second or {@link #UNLIMITED}
+     */
+    public void setBytesPerSecond(final long bytesPerSecond) {
+        if (bytesPerSecond < 0) {
+            throw new IllegalArgumentException("bytes per second must be >= 0");
+        }
+        this.bytesPerSecond = bytesPerSecond;
+    }
+
+    public long getBytesPerSecond() {
+        return bytesPerSecond;
+    }
+
+    /**
+     * @return the number of bytes per second that have been read recently
+     */
+    public long getThroughput() {
+        synchronized (this) {
+            updateMeasurement(System.nanoTime(), 0);
+        }
+        return throughput;
+    }
+
+    /**
+     * Takes the given number of bytes from the bucket. If the bucket does not contain enough bytes the
+     * calling thread waits until the bytes are available.
+     */
+    public void acquire(final int bytes) throws InterruptedIOException {
+        if (bytes <= 0) {
+            return;
+        }
+        final long waitTimeInNanos = reserve(bytes);
+        if (waitTimeInNanos > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(waitTimeInNanos);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for bandwidth");
+            }
+        }
+        if (parent != null) {
+            parent.acquire(bytes);
+        }
+    }
+
+    /**
+     * Wraps the stream. Every read of the returned stream takes the read bytes from this limiter.
+     */
+    public InputStream limit(final InputStream inputStream) {
+        Assert.requireNonNull(inputStream, "inputStream");
+        return new FilterInputStream(inputStream) {
+
+            @Override
+            public int read() throws IOException {
+                final int value = in.read();
+                if (value >= 0) {
+                    acquire(1);
+                }
+                return value;
+            }
+
+            @Override
+            public int read(final byte[] b, final int off, final int len) throws IOException {
+                final int count = in.read(b, off, len);
+                acquire(count);
+                return count;
+            }
+        };
+    }
+
+    /**
+     * Takes the bytes from the bucket even if the bucket does not contain enough bytes. The missing bytes
+     * are paid back by waiting. By doing so a large read does not starve behind several small reads.
+     *
+     * @return the time in nanoseconds the caller needs to wait
+     */
+    private synchronized long reserve(final int bytes) {
+        final long now = System.nanoTime();
+        updateMeasurement(now, bytes);
+
+        final long rate = bytesPerSecond;
+        if (rate == UNLIMITED) {
+            availableTokens = 0;
+            lastRefillTime = now;
+            return 0;
+        }
+        final double refill = (now - lastRefillTime) * rate / (double) TimeUnit.SECONDS.toNanos(1);
+        availableTokens = Math.min(rate, availableTokens + refill) - bytes;
+        lastRefillTime = now;
+        if (availableTokens >= 0) {
+            return 0;
+        }
+        return (long) (-availableTokens * TimeUnit.SECONDS.toNanos(1) / rate);
+    }
+
+    /**
+     * The throughput is smoothed over the last measurement intervals, so slow downloads that only read
+     * every few seconds do not toggle between a high value and 0.
+     */
+    private void updateMeasurement(final long now, final int bytes) {
+        measuredBytes += bytes;
+        final long elapsed = now - measurementStart;
+        if (elapsed >= MEASUREMENT_INTERVAL_IN_NANOS) {
+            final long currentThroughput = measuredBytes * MEASUREMENT_INTERVAL_IN_NANOS / elapsed;
+            throughput = (throughput + currentThroughput) / 2;
+            measurementStart = now;
+            measuredBytes = 0;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.openwebstart.http;
+
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Byte range of a partial response as described by its {@code Content-Range} header, for example
+ * {@code bytes 21010-47021/47022}. The total length is {@code -1} if the server does not know it
+ * ({@code bytes 21010-47021/*}).
+ */
+class ContentRange {
+
+    private static final Pattern CONTENT_RANGE = Pattern.compile("\\s*bytes\\s+(\\d+)-(\\d+)/(\\d+|\\*)\\s*", Pattern.CASE_INSENSITIVE);
+
+    private final long start;
+
+    private final long end;
+
+    private final long totalLength;
+
+    ContentRange(final long start, final long end, final long totalLength) {
+        this.start = start;
+        this.end = end;
+        this.totalLength = totalLength;
+    }
+
+    /**
+     * @return the range of the header value or an empty optional if the value is missing or malformed
+     */
+    static Optional<ContentRange> parse(final String contentRange) {
+        if (contentRange == null) {
+            return Optional.empty();
+        }
+        final Matcher matcher = CONTENT_RANGE.matcher(contentRange);
+        if (!matcher.matches()) {
+            return Optional.empty();
+        }
+        try {
+            final long start = Long.parseLong(matcher.group(1));
+            final long end = Long.parseLong(matcher.group(2));
+            final long totalLength = "*".equals(matcher.group(3)) ? -1 : Long.parseLong(matcher.group(3));
+            if (end < start || (totalLength >= 0 && end >= totalLength)) {
+                return Optional.empty();
+            }
+            return Optional.of(new ContentRange(start, end, totalLength));
+        } catch (final NumberFormatException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * @return the position of the first byte of the range
+     */
+    long getStart() {
+        return start;
+    }
+
+    /**
+     * @return the position of the last byte of the range (inclusive)
+     */
+    long getEnd() {
+        return end;
+    }
+
+    long getTotalLength() {
+        return totalLength;
+    }
+
+    @Override
+    public String toString() {
+        return "bytes " + start + "-" + end + "/" + (totalLength >= 0 ? Long.toString(totalLength) : "*");
+    }
+}
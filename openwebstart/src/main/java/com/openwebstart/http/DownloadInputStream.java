@@ -14,17 +14,21 @@ import java.util.List;
 import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 
 import static com.openwebstart.http.ConnectionUtils.HashAlgorithm.SHA_256;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
 
 public class DownloadInputStream extends InputStream {
 
     private static final Logger LOG = LoggerFactory.getLogger(DownloadInputStream.class);
 
+    private static final long DEFAULT_UPDATE_INTERVAL_IN_MILLIS = 50;
+
     private final List<Consumer<Double>> downloadPercentageListeners;
 
     private final List<Consumer<Long>> downloadDoneListeners;
@@ -39,16 +43,24 @@ public class DownloadInputStream extends InputStream {
 
     private final URL connectionUrl;
 
-    private final AtomicLong updateChunkSize;
-
     private final AtomicLong downloaded;
 
-    private final AtomicLong lastUpdateSize;
+    private volatile long updateIntervalInNanos;
+
+    private long lastUpdateTime;
 
     private final AtomicBoolean firstRead;
 
+    private final AtomicBoolean done;
+
     private final DownloadType downloadType;
 
+    private volatile long expectedSize = -1;
+
+    private volatile String expectedSha256;
+
+    private volatile BandwidthLimiter bandwidthLimiter;
+
     public DownloadInputStream(HttpResponse response) throws IOException {
         this(response.getContentStream(), response.getContentSize(), response.getConnectionUrl());
     }
@@ -62,15 +74,12 @@ public class DownloadInputStream extends InputStream {
             downloadType = DownloadType.INDETERMINATE;
         }
         this.downloaded = new AtomicLong(0);
-        this.lastUpdateSize = new AtomicLong(0);
         this.firstRead = new AtomicBoolean(true);
+        this.done = new AtomicBoolean(false);
         this.downloadPercentageListeners = new CopyOnWriteArrayList<>();
         this.downloadDoneListeners = new CopyOnWriteArrayList<>();
         this.onErrorListeners = new CopyOnWriteArrayList<>();
-        this.updateChunkSize = new AtomicLong(1000);
-        if (dataSize > 0) {
-            this.updateChunkSize.set(dataSize / 1000);
-        }
+        this.updateIntervalInNanos = MILLISECONDS.toNanos(DEFAULT_UPDATE_INTERVAL_IN_MILLIS);
 
         hash = new CompletableFuture<>();
         try {
@@ -80,11 +89,60 @@ public class DownloadInputStream extends InputStream {
         }
     }
 
-    public void setUpdateChunkSize(final long updateChunkSize) {
-        if (updateChunkSize <= 0) {
-            throw new IllegalArgumentException("chunk size must be > 0");
+    /**
+     * Defines the minimum time between two events that are sent to the download percentage listeners.
+     * Listeners are called by the reading thread, so a short interval slows down the download.
+     *
+     * @param interval the minimum time between two percentage events
+     * @param unit     the unit of the interval
+     */
+    public void setUpdateInterval(final long interval, final TimeUnit unit) {
+        Assert.requireNonNull(unit, "unit");
+        if (interval <= 0) {
+            throw new IllegalArgumentException("update interval must be > 0");
         }
-        this.updateChunkSize.set(updateChunkSize);
+        this.updateIntervalInNanos = unit.toNanos(interval);
+    }
+
+    /**
+     * Defines the size of the content. The download is aborted with a {@link DownloadVerificationException}
+     * as soon as more bytes are received or if the content ends early.
+     *
+     * @param size the expected size in bytes
+     */
+    public void setExpectedSize(final long size) {
+        if (size < 0) {
+            throw new IllegalArgumentException("expected size must be >= 0");
+        }
+        this.expectedSize = size;
+    }
+
+    /**
+     * Defines the SHA-256 checksum of the content. The checksum is verified when the end of the content
+     * has been reached. A mismatch ends in a {@link DownloadVerificationException}.
+     *
+     * @param sha256 the expected checksum (hex encoded)
+     */
+    public void setExpectedSha256(final String sha256) {
+        this.expectedSha256 = Assert.requireNonBlank(sha256, "sha256").trim();
+    }
+
+    /**
+     * Defines the limiter of the network transfer that provides this stream. The throughput that is measured
+     * by the limiter is available by {@link #getThroughput()}.
+     *
+     * @param bandwidthLimiter the limiter of the network transfer
+     */
+    public void setBandwidthLimiter(final BandwidthLimiter bandwidthLimiter) {
+        this.bandwidthLimiter = Assert.requireNonNull(bandwidthLimiter, "bandwidthLimiter");
+    }
+
+    /**
+     * @return the number of bytes per second that are currently received from the network or -1 if unknown
+     */
+    public long getThroughput() {
+        final BandwidthLimiter limiter = bandwidthLimiter;
+        return limiter != null ? limiter.getThroughput() : -1;
     }
 
     public CompletableFuture<String> getHash() {
@@ -98,9 +156,12 @@ public class DownloadInputStream extends InputStream {
     @Override
     public int read(final byte[] b, final int off, final int len) throws IOException {
         try {
-            final int count = super.read(b, off, len);
+            checkForStart();
+            final int count = wrappedStream.read(b, off, len);
             if (count < 0) {
-                onDone();
+                onEndOfContent();
+            } else {
+                update(count);
             }
             return count;
         } catch (final Exception e) {
@@ -115,7 +176,7 @@ public class DownloadInputStream extends InputStream {
     @Override
     public void close() throws IOException {
         try {
-            super.close();
+            wrappedStream.close();
         } catch (final Exception e) {
             try {
                 onError(e);
@@ -128,12 +189,11 @@ public class DownloadInputStream extends InputStream {
 
     public int read() throws IOException {
         try {
-            if (firstRead.get()) {
-                onStart();
-                firstRead.set(false);
-            }
+            checkForStart();
             final int value = wrappedStream.read();
-            if (value >= 0) {
+            if (value < 0) {
+                onEndOfContent();
+            } else {
                 update(1);
             }
             return value;
@@ -149,11 +209,7 @@ public class DownloadInputStream extends InputStream {
     @Override
     public int available() throws IOException {
         try {
-            final int available = super.available();
-            if (available < 0) {
-                onDone();
-            }
-            return available;
+            return wrappedStream.available();
         } catch (final Exception e) {
             try {
                 onError(e);
@@ -181,10 +237,37 @@ public class DownloadInputStream extends InputStream {
         return () -> onErrorListeners.remove(listener);
     }
 
-    private void onDone() {
+    private void onEndOfContent() throws DownloadVerificationException {
+        completeHash();
+        verifyContent();
+        onDone();
+    }
+
+    private void verifyContent() throws DownloadVerificationException {
+        final long size = expectedSize;
+        if (size >= 0 && downloaded.get() != size) {
+            throw new DownloadVerificationException("Download from " + connectionUrl + " ended after " + downloaded.get() + " bytes but " + size + " bytes were expected");
+        }
+        final String sha256 = expectedSha256;
+        if (sha256 != null) {
+            final String actualSha256 = getHash().join();
+            if (!sha256.equalsIgnoreCase(actualSha256)) {
+                throw new DownloadVerificationException("SHA-256 checksum " + actualSha256 + " of download from " + connectionUrl + " does not match expected checksum " + sha256);
+            }
+            LOG.debug("Verified SHA-256 checksum of download from {}", connectionUrl);
+        }
+    }
+
+    private void completeHash() {
         if (!hash.isDone()) {
-            LOG.debug("Done Download of size {} from {}", downloaded.get(), connectionUrl);
             hash.complete(wrappedStream.getMessageDigest().digest());
+        }
+    }
+
+    private void onDone() {
+        if (!done.getAndSet(true)) {
+            LOG.debug("Done Download of size {} from {}", downloaded.get(), connectionUrl);
+            completeHash();
             logHash();
             downloadDoneListeners.forEach(l -> l.accept(dataSize));
         }
@@ -198,7 +281,14 @@ public class DownloadInputStream extends InputStream {
         }
     }
 
+    private void checkForStart() {
+        if (firstRead.getAndSet(false)) {
+            onStart();
+        }
+    }
+
     private void onStart() {
+        lastUpdateTime = System.nanoTime();
         LOG.debug("Download of size {} started from {}", dataSize, connectionUrl);
     }
 
@@ -207,10 +297,15 @@ public class DownloadInputStream extends InputStream {
         onErrorListeners.forEach(l -> l.accept(e));
     }
 
-    private synchronized void update(final int len) {
+    private void update(final int len) throws DownloadVerificationException {
         final long currentSize = downloaded.addAndGet(len);
-        if (lastUpdateSize.get() + updateChunkSize.get() <= currentSize) {
-            lastUpdateSize.set(currentSize);
+        final long size = expectedSize;
+        if (size >= 0 && currentSize > size) {
+            throw new DownloadVerificationException("Download from " + connectionUrl + " exceeds the expected size of " + size + " bytes");
+        }
+        final long now = System.nanoTime();
+        if (now - lastUpdateTime >= updateIntervalInNanos) {
+            lastUpdateTime = now;
             if (Objects.equals(downloadType, DownloadType.NORMAL)) {
                 final double percentageDone = (((double) currentSize) / ((double) dataSize / 100.0)) / 100.0;
                 downloadPercentageListeners.forEach(l -> l.accept(percentageDone));
@@ -0,0 +1,135 @@
+package com.openwebstart.http;
+
+import net.adoptopenjdk.icedteaweb.Assert;
+import net.adoptopenjdk.icedteaweb.StringUtils;
+import net.adoptopenjdk.icedteaweb.logging.Logger;
+import net.adoptopenjdk.icedteaweb.logging.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.Properties;
+
+/**
+ * Small journal that is stored next to a partial download and describes the bytes that have already been
+ * persisted. It contains the validators (ETag / Last-Modified) of the remote resource, the number of
+ * persisted bytes and the SHA-256 checksum of these bytes.
+ */
+class DownloadJournal {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DownloadJournal.class);
+
+    private static final String URL_KEY = "url";
+    private static final String ETAG_KEY = "etag";
+    private static final String LAST_MODIFIED_KEY = "lastModified";
+    private static final String LENGTH_KEY = "length";
+    private static final String TOTAL_LENGTH_KEY = "totalLength";
+    private static final String HASH_KEY = "sha256";
+
+    private final String url;
+
+    private final String etag;
+
+    private final String lastModified;
+
+    private final long length;
+
+    private final long totalLength;
+
+    private final String hash;
+
+    DownloadJournal(final String url, final String etag, final String lastModified, final long length, final long totalLength, final String hash) {
+        this.url = Assert.requireNonNull(url, "url");
+        this.etag = etag;
+        this.lastModified = lastModified;
+        this.length = length;
+        this.totalLength = totalLength;
+        this.hash = hash;
+    }
+
+    String getUrl() {
+        return url;
+    }
+
+    String getEtag() {
+        return etag;
+    }
+
+    String getLastModified() {
+        return lastModified;
+    }
+
+    long getLength() {
+        return length;
+    }
+
+    long getTotalLength() {
+        return totalLength;
+    }
+
+    String getHash() {
+        return hash;
+    }
+
+    /**
+     * A partial download can only be continued if the server can tell us that the resource has not changed.
+     *
+     * @return the value for the {@code If-Range} header or {@code null} if the journal contains no validator
+     */
+    String getRangeValidator() {
+        if (!StringUtils.isBlank(etag) && !etag.startsWith("W/")) {
+            return etag;
+        }
+        if (!StringUtils.isBlank(lastModified)) {
+            return lastModified;
+        }
+        return null;
+    }
+
+    DownloadJournal withProgress(final long newLength, final String newHash) {
+        return new DownloadJournal(url, etag, lastModified, newLength, totalLength, newHash);
+    }
+
+    void save(final Path journalFile) throws IOException {
+        Assert.requireNonNull(journalFile, "journalFile");
+
+        final Properties properties = new Properties();
+        properties.setProperty(URL_KEY, url);
+        Optional.ofNullable(etag).ifPresent(v -> properties.setProperty(ETAG_KEY, v));
+        Optional.ofNullable(lastModified).ifPresent(v -> properties.setProperty(LAST_MODIFIED_KEY, v));
+        properties.setProperty(LENGTH_KEY, Long.toString(length));
+        properties.setProperty(TOTAL_LENGTH_KEY, Long.toString(totalLength));
+        Optional.ofNullable(hash).ifPresent(v -> properties.setProperty(HASH_KEY, v));
+
+        try (final OutputStream outputStream = Files.newOutputStream(journalFile)) {
+            properties.store(outputStream, "OpenWebStart partial download");
+        }
+    }
+
+    static Optional<DownloadJournal> load(final Path journalFile) {
+        Assert.requireNonNull(journalFile, "journalFile");
+
+        if (!Files.isRegularFile(journalFile)) {
+            return Optional.empty();
+        }
+
+        try (final InputStream inputStream = Files.newInputStream(journalFile)) {
+            final Properties properties = new Properties();
+            properties.load(inputStream);
+            return Optional.of(new DownloadJournal(
+                    properties.getProperty(URL_KEY),
+                    properties.getProperty(ETAG_KEY),
+                    properties.getProperty(LAST_MODIFIED_KEY),
+                    Long.parseLong(properties.getProperty(LENGTH_KEY)),
+                    Long.parseLong(properties.getProperty(TOTAL_LENGTH_KEY)),
+                    properties.getProperty(HASH_KEY)
+            ));
+        } catch (final Exception e) {
+            LOG.warn("Could not read download journal {}: {}", journalFile, e.getMessage());
+            return Optional.empty();
+        }
+    }
+}
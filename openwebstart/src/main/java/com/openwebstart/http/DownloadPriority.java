@@ -0,0 +1,17 @@
+package com.openwebstart.http;
+
+/**
+ * Defines which bandwidth budget is used by a download.
+ */
+public enum DownloadPriority {
+
+    /**
+     * A user waits for the download, for example to start an application.
+     */
+    INTERACTIVE,
+
+    /**
+     * Nobody waits for the download, for example an upgrade or the pre-provisioning of a runtime.
+     */
+    BACKGROUND;
+}
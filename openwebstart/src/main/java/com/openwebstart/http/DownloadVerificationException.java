@@ -0,0 +1,14 @@
+package com.openwebstart.http;
+
+import java.io.IOException;
+
+/**
+ * Thrown if downloaded content does not match the size or checksum that has been published for it.
+ * Content that fails the verification is corrupt and must not be resumed.
+ */
+public class DownloadVerificationException extends IOException {
+
+    public DownloadVerificationException(final String message) {
+        super(message);
+    }
+}
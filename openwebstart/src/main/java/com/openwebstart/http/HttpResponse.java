@@ -9,6 +9,7 @@ import java.io.InputStream;
 import java.net.HttpURLConnection;
 import java.net.URL;
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 public class HttpResponse implements Closeable {
@@ -19,7 +20,7 @@ public class HttpResponse implements Closeable {
         this.connection = Assert.requireNonNull(connection, "connection");
     }
 
-    private int readResponseCode() throws IOException {
+    public int readResponseCode() throws IOException {
         return connection.getResponseCode();
     }
 
@@ -27,10 +28,10 @@ public class HttpResponse implements Closeable {
         return connection.getResponseMessage();
     }
 
-    private HttpHeader getResponseHeader(final String name) {
+    public HttpHeader getResponseHeader(final String name) {
         return getResponseHeaders().stream()
                 .filter(h -> h.getName() != null)
-                .filter(h -> h.getName().equals(name))
+                .filter(h -> h.getName().equalsIgnoreCase(name))
                 .findFirst()
                 .orElse(null);
     }
@@ -43,6 +44,18 @@ public class HttpResponse implements Closeable {
                 collect(Collectors.toList());
     }
 
+    /**
+     * @return the strong ETag or otherwise the Last-Modified value of the response or null if the response has none
+     */
+    public String getValidator() {
+        return Optional.ofNullable(getResponseHeader("ETag"))
+                .map(HttpHeader::getContent)
+                .filter(etag -> !etag.startsWith("W/"))
+                .orElseGet(() -> Optional.ofNullable(getResponseHeader("Last-Modified"))
+                        .map(HttpHeader::getContent)
+                        .orElse(null));
+    }
+
     public long getContentSize() {
         return connection.getContentLengthLong();
     }
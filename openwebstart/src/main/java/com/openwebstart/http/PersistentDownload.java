@@ -0,0 +1,61 @@
+package com.openwebstart.http;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.file.Path;
+
+/**
+ * Download of a remote resource that stores the received bytes in a local file while they are consumed.
+ */
+public interface PersistentDownload extends Closeable {
+
+    /**
+     * Starts the download.
+     *
+     * @return a stream that provides the complete content of the remote resource in order
+     * @throws IOException if the download can not be started
+     */
+    InputStream open() throws IOException;
+
+    URL getUrl();
+
+    /**
+     * @return the local file that contains the downloaded bytes
+     */
+    Path getPartFile();
+
+    /**
+     * @return the size of the complete remote resource or -1 if the size is unknown
+     */
+    long getContentSize();
+
+    /**
+     * @return the number of bytes that have been taken from an earlier partial download
+     */
+    long getResumedFrom();
+
+    /**
+     * @return the number of bytes of the remote resource that are persisted in the local file
+     */
+    long getPersistedSize();
+
+    /**
+     * @return the ETag or Last-Modified value of the remote resource or null if the server sent none
+     */
+    String getValidator();
+
+    /**
+     * @return true if all bytes of the remote resource have been received and persisted
+     */
+    boolean isComplete();
+
+    /**
+     * Closes the download and removes all local files of the download.
+     * Should be called once the content has been processed successfully.
+     *
+     * @throws IOException if the files can not be removed
+     */
+    void discard() throws IOException;
+}
@@ -0,0 +1,420 @@
+package com.openwebstart.http;
+
+import net.adoptopenjdk.icedteaweb.Assert;
+import net.adoptopenjdk.icedteaweb.logging.Logger;
+import net.adoptopenjdk.icedteaweb.logging.LoggerFactory;
+import org.apache.commons.compress.utils.BoundedInputStream;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Download of a remote resource that persists all received bytes to a {@code .part} file. Next to the
+ * {@code .part} file a {@link DownloadJournal} is written. If a download breaks the next download of the
+ * same URL continues with a HTTP {@code Range} request instead of starting from byte zero.
+ * <p>
+ * The stream returned by {@link #open()} always provides the complete content. Bytes that are already
+ * available in the {@code .part} file are read from disc, all other bytes are read from the network.
+ */
+public class ResumableDownload implements PersistentDownload {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ResumableDownload.class);
+
+    static final String JOURNAL_SUFFIX = ".journal";
+
+    private static final String HASH_ALGORITHM = "SHA-256";
+
+    private static final long JOURNAL_UPDATE_INTERVAL = 4 * 1024 * 1024;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final int HTTP_RANGE_NOT_SATISFIABLE = 416;
+
+    private final URL url;
+
+    private final Path partFile;
+
+    private final Path journalFile;
+
+    private final BandwidthLimiter bandwidthLimiter;
+
+    private final Set<String> mirrors;
+
+    private HttpResponse response;
+
+    private PersistingInputStream persistingStream;
+
+    private long contentSize = -1;
+
+    private long resumedFrom = 0;
+
+    private String validator;
+
+    public ResumableDownload(final URL url, final Path partFile) {
+        this(url, partFile, new BandwidthLimiter(BandwidthLimiter.UNLIMITED));
+    }
+
+    /**
+     * @param bandwidthLimiter limits the bytes that are read from the network
+     */
+    public ResumableDownload(final URL url, final Path partFile, final BandwidthLimiter bandwidthLimiter) {
+        this(url, partFile, bandwidthLimiter, Collections.emptyList());
+    }
+
+    /**
+     * A download can continue a partial download of a mirror that provides the same content. Since the
+     * content of different hosts is combined the complete content should be verified by a checksum.
+     *
+     * @param bandwidthLimiter limits the bytes that are read from the network
+     * @param mirrors          other URLs that provide exactly the same content
+     */
+    public ResumableDownload(final URL url, final Path partFile, final BandwidthLimiter bandwidthLimiter, final Collection<URL> mirrors) {
+        this.url = Assert.requireNonNull(url, "url");
+        this.partFile = Assert.requireNonNull(partFile, "partFile");
+        this.journalFile = Paths.get(partFile + JOURNAL_SUFFIX);
+        this.bandwidthLimiter = Assert.requireNonNull(bandwidthLimiter, "bandwidthLimiter");
+        this.mirrors = Assert.requireNonNull(mirrors, "mirrors").stream()
+                .map(URL::toString)
+                .collect(Collectors.toSet());
+    }
+
+    @Override
+    public InputStream open() throws IOException {
+        if (persistingStream != null) {
+            throw new IllegalStateException("Download of " + url + " already opened");
+        }
+        Files.createDirectories(partFile.toAbsolutePath().getParent());
+
+        final MessageDigest digest = createDigest();
+        final DownloadJournal journal = DownloadJournal.load(journalFile)
+                .filter(j -> Objects.equals(url.toString(), j.getUrl()) || mirrors.contains(j.getUrl()))
+                .orElse(null);
+        long offset = journal != null ? verifiedPrefixLength(journal, digest) : 0;
+
+        final HttpGetRequest request = new HttpGetRequest(url);
+        if (offset > 0) {
+            request.addRequestHeader("Range", "bytes=" + offset + "-");
+            if (Objects.equals(url.toString(), journal.getUrl())) {
+                request.addRequestHeader("If-Range", journal.getRangeValidator());
+            } else {
+                // the validator of another host is meaningless
+                LOG.info("Continuing download of mirror {} with {}", journal.getUrl(), url);
+            }
+        }
+        response = request.handle();
+
+        final int responseCode = response.readResponseCode();
+        final InputStream contentStream;
+        if (offset > 0 && responseCode == HTTP_RANGE_NOT_SATISFIABLE && offset == journal.getTotalLength()) {
+            LOG.info("Download of {} is already complete", url);
+            contentSize = offset;
+            contentStream = new ByteArrayInputStream(new byte[0]);
+        } else if (offset > 0 && responseCode == HTTP_RANGE_NOT_SATISFIABLE) {
+            // for example the content of a mirror that sent no If-Range has changed. Continuing would fail again
+            LOG.info("Server cannot continue the download of {} at byte {}. Will start from the beginning.", url, offset);
+            return restart();
+        } else if (offset > 0 && responseCode == HttpURLConnection.HTTP_PARTIAL) {
+            final Optional<ContentRange> contentRange = ContentRange.parse(headerValue("Content-Range"));
+            if (!contentRange.isPresent() || contentRange.get().getStart() != offset) {
+                // appending the bytes of another range would corrupt the download
+                LOG.info("Server sent range '{}' instead of the download of {} at byte {}. Will start from the beginning.", headerValue("Content-Range"), url, offset);
+                return restart();
+            }
+            LOG.info("Continuing download of {} at byte {}", url, offset);
+            contentSize = getTotalSizeOfPartialResponse(contentRange.get(), offset);
+            contentStream = bandwidthLimiter.limit(response.getContentStream());
+        } else if (responseCode == HttpURLConnection.HTTP_OK) {
+            if (offset > 0) {
+                LOG.info("Server does not support to continue the download of {}. Will start from the beginning.", url);
+                offset = 0;
+                digest.reset();
+            }
+            contentSize = response.getContentSize();
+            contentStream = bandwidthLimiter.limit(response.getContentStream());
+        } else {
+            throw new IOException("Unexpected HTTP response code " + responseCode + " for " + url);
+        }
+        resumedFrom = offset;
+
+        final DownloadJournal newJournal = new DownloadJournal(
+                url.toString(),
+                headerValue("ETag"),
+                headerValue("Last-Modified"),
+                offset,
+                contentSize,
+                null
+        );
+        validator = newJournal.getRangeValidator();
+
+        final FileChannel channel = FileChannel.open(partFile, CREATE, WRITE);
+        try {
+            channel.truncate(offset);
+            channel.position(offset);
+        } catch (final IOException e) {
+            channel.close();
+            throw e;
+        }
+        persistingStream = new PersistingInputStream(contentStream, channel, digest, newJournal, offset);
+
+        if (offset > 0) {
+            return new SequenceInputStream(new BoundedInputStream(Files.newInputStream(partFile), offset), persistingStream);
+        }
+        return persistingStream;
+    }
+
+    @Override
+    public URL getUrl() {
+        return url;
+    }
+
+    @Override
+    public Path getPartFile() {
+        return partFile;
+    }
+
+    @Override
+    public long getContentSize() {
+        return contentSize;
+    }
+
+    @Override
+    public long getResumedFrom() {
+        return resumedFrom;
+    }
+
+    @Override
+    public long getPersistedSize() {
+        return persistingStream != null ? persistingStream.persisted : resumedFrom;
+    }
+
+    @Override
+    public String getValidator() {
+        return validator;
+    }
+
+    @Override
+    public boolean isComplete() {
+        return persistingStream != null && persistingStream.endOfStream;
+    }
+
+    @Override
+    public void discard() throws IOException {
+        close();
+        Files.deleteIfExists(journalFile);
+        Files.deleteIfExists(partFile);
+    }
+
+    /**
+     * Closes the download. The {@code .part} file and the journal are kept and will be reused by the next
+     * download of the same URL.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            if (persistingStream != null) {
+                persistingStream.close();
+            }
+        } finally {
+            if (response != null) {
+                response.close();
+            }
+        }
+    }
+
+    private String headerValue(final String name) {
+        return Optional.ofNullable(response.getResponseHeader(name))
+                .map(HttpHeader::getContent)
+                .orElse(null);
+    }
+
+    /**
+     * Drops the partial download and downloads the resource from the beginning.
+     */
+    private InputStream restart() throws IOException {
+        response.close();
+        response = null;
+        Files.deleteIfExists(partFile);
+        Files.deleteIfExists(journalFile);
+        return open();
+    }
+
+    private long getTotalSizeOfPartialResponse(final ContentRange contentRange, final long offset) {
+        if (contentRange.getTotalLength() >= 0) {
+            return contentRange.getTotalLength();
+        }
+        final long remainingSize = response.getContentSize();
+        return remainingSize >= 0 ? offset + remainingSize : -1;
+    }
+
+    private long verifiedPrefixLength(final DownloadJournal journal, final MessageDigest digest) {
+        final long length = journal.getLength();
+        try {
+            if (length <= 0 || journal.getRangeValidator() == null || journal.getHash() == null) {
+                return 0;
+            }
+            if (!Files.isRegularFile(partFile) || Files.size(partFile) < length) {
+                LOG.debug("Partial download {} is shorter than described in the journal", partFile);
+                return 0;
+            }
+            final byte[] buffer = new byte[BUFFER_SIZE];
+            try (final InputStream inputStream = new BoundedInputStream(Files.newInputStream(partFile), length)) {
+                int read;
+                while ((read = inputStream.read(buffer)) >= 0) {
+                    digest.update(buffer, 0, read);
+                }
+            }
+            if (!Objects.equals(journal.getHash(), hashOf(digest))) {
+                LOG.info("Partial download {} does not match its journal and will be dropped", partFile);
+                digest.reset();
+                return 0;
+            }
+            return length;
+        } catch (final IOException e) {
+            LOG.warn("Could not read partial download {}: {}", partFile, e.getMessage());
+            digest.reset();
+            return 0;
+        }
+    }
+
+    private static MessageDigest createDigest() {
+        try {
+            return MessageDigest.getInstance(HASH_ALGORITHM);
+        } catch (final NoSuchAlgorithmException e) {
+            throw new RuntimeException("No " + HASH_ALGORITHM + " support", e);
+        }
+    }
+
+    /**
+     * Calculates the hash of the bytes the digest has seen so far without resetting the digest.
+     */
+    private static String hashOf(final MessageDigest digest) {
+        try {
+            return ConnectionUtils.toHex(((MessageDigest) digest.clone()).digest());
+        } catch (final CloneNotSupportedException e) {
+            throw new IllegalStateException("Digest " + digest.getAlgorithm() + " can not be cloned", e);
+        }
+    }
+
+    /**
+     * Stream that writes every byte it reads to the {@code .part} file and regularly updates the journal.
+     */
+    private class PersistingInputStream extends FilterInputStream {
+
+        private final FileChannel channel;
+
+        private final MessageDigest digest;
+
+        private final DownloadJournal journal;
+
+        private long persisted;
+
+        private long persistedInJournal;
+
+        private boolean endOfStream;
+
+        private boolean closed;
+
+        PersistingInputStream(final InputStream inputStream, final FileChannel channel, final MessageDigest digest, final DownloadJournal journal, final long persisted) {
+            super(inputStream);
+            this.channel = channel;
+            this.digest = digest;
+            this.journal = journal;
+            this.persisted = persisted;
+            this.persistedInJournal = -1;
+        }
+
+        @Override
+        public int read() throws IOException {
+            final byte[] singleByte = new byte[1];
+            final int read = read(singleByte, 0, 1);
+            return read < 0 ? -1 : singleByte[0] & 0xFF;
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) throws IOException {
+            final int read = in.read(b, off, len);
+            if (read < 0) {
+                endOfStream = true;
+                return read;
+            }
+            final ByteBuffer buffer = ByteBuffer.wrap(b, off, read);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            digest.update(b, off, read);
+            persisted += read;
+            if (persisted - persistedInJournal >= JOURNAL_UPDATE_INTERVAL) {
+                updateJournal();
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(final long n) throws IOException {
+            // all bytes must pass this stream to be persisted
+            final byte[] buffer = new byte[(int) Math.min(BUFFER_SIZE, Math.max(n, 0))];
+            long skipped = 0;
+            while (skipped < n) {
+                final int read = read(buffer, 0, (int) Math.min(buffer.length, n - skipped));
+                if (read < 0) {
+                    break;
+                }
+                skipped += read;
+            }
+            return skipped;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        private void updateJournal() throws IOException {
+            if (persisted == persistedInJournal) {
+                return;
+            }
+            // the data must be on disc before the journal references it
+            channel.force(false);
+            journal.withProgress(persisted, hashOf(digest)).save(journalFile);
+            persistedInJournal = persisted;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                updateJournal();
+            } finally {
+                try {
+                    channel.close();
+                } finally {
+                    in.close();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,438 @@
+package com.openwebstart.http;
+
+import com.openwebstart.concurrent.ThreadPoolHolder;
+import net.adoptopenjdk.icedteaweb.Assert;
+import net.adoptopenjdk.icedteaweb.logging.Logger;
+import net.adoptopenjdk.icedteaweb.logging.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Download that splits a remote resource into byte ranges which are fetched concurrently over separate
+ * connections. All ranges are written into a preallocated local file by positional writes. The stream
+ * returned by {@link #open()} reassembles the content in order and blocks until the requested bytes have
+ * been received.
+ * <p>
+ * If the server does not answer the initial range request with {@code 206 Partial Content} the complete
+ * resource is fetched over a single connection.
+ */
+public class SegmentedDownload implements PersistentDownload {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SegmentedDownload.class);
+
+    static final long MIN_SEGMENT_SIZE = 1024 * 1024;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final int MAX_SEGMENT_ATTEMPTS = 3;
+
+    private final URL url;
+
+    private final Path partFile;
+
+    private final int maxSegments;
+
+    private final BandwidthLimiter bandwidthLimiter;
+
+    private final List<Segment> segments = new ArrayList<>();
+
+    private final Lock progressLock = new ReentrantLock();
+
+    private final Condition progressCondition = progressLock.newCondition();
+
+    private FileChannel channel;
+
+    private long contentSize = -1;
+
+    private long segmentSize;
+
+    private String rangeValidator;
+
+    private volatile boolean closed;
+
+    public SegmentedDownload(final URL url, final Path partFile, final int maxSegments) {
+        this(url, partFile, maxSegments, new BandwidthLimiter(BandwidthLimiter.UNLIMITED));
+    }
+
+    /**
+     * @param bandwidthLimiter limits the bytes that are read from the network by all segments together
+     */
+    public SegmentedDownload(final URL url, final Path partFile, final int maxSegments, final BandwidthLimiter bandwidthLimiter) {
+        this.url = Assert.requireNonNull(url, "url");
+        this.partFile = Assert.requireNonNull(partFile, "partFile");
+        if (maxSegments < 1) {
+            throw new IllegalArgumentException("number of segments must be > 0");
+        }
+        this.maxSegments = maxSegments;
+        this.bandwidthLimiter = Assert.requireNonNull(bandwidthLimiter, "bandwidthLimiter");
+    }
+
+    @Override
+    public InputStream open() throws IOException {
+        if (channel != null) {
+            throw new IllegalStateException("Download of " + url + " already opened");
+        }
+        Files.createDirectories(partFile.toAbsolutePath().getParent());
+        // a partial download of a different kind can not be reused
+        Files.deleteIfExists(Paths.get(partFile + ResumableDownload.JOURNAL_SUFFIX));
+
+        final HttpGetRequest request = new HttpGetRequest(url);
+        request.addRequestHeader("Range", "bytes=0-");
+        final HttpResponse firstResponse = request.handle();
+        try {
+            final int responseCode = firstResponse.readResponseCode();
+            final boolean rangesSupported;
+            if (responseCode == HttpURLConnection.HTTP_PARTIAL) {
+                final ContentRange contentRange = contentRangeOf(firstResponse, 0, -1);
+                contentSize = contentRange.getTotalLength();
+                rangesSupported = contentSize > 0 && !isRangeSupportDenied(firstResponse);
+            } else if (responseCode == HttpURLConnection.HTTP_OK) {
+                contentSize = firstResponse.getContentSize();
+                rangesSupported = false;
+            } else {
+                throw new IOException("Unexpected HTTP response code " + responseCode + " for " + url);
+            }
+            rangeValidator = firstResponse.getValidator();
+
+            final int segmentCount = rangesSupported ? segmentCountFor(contentSize) : 1;
+            segmentSize = segmentCount > 1 ? (contentSize + segmentCount - 1) / segmentCount : Long.MAX_VALUE;
+            for (int i = 0; i < segmentCount; i++) {
+                final long start = i * segmentSize;
+                final long end = segmentCount > 1 ? Math.min(contentSize, start + segmentSize) : Long.MAX_VALUE;
+                segments.add(new Segment(start, end));
+            }
+
+            channel = FileChannel.open(partFile, CREATE, READ, WRITE, TRUNCATE_EXISTING);
+            if (contentSize > 0) {
+                // preallocate the file so that all segments can write at their position
+                channel.write(ByteBuffer.allocate(1), contentSize - 1);
+            }
+        } catch (final IOException e) {
+            firstResponse.close();
+            throw e;
+        }
+
+        if (segments.size() > 1) {
+            LOG.info("Downloading {} bytes from {} in {} segments", contentSize, url, segments.size());
+        } else {
+            LOG.info("Server does not support range requests for {}. Will download in a single stream", url);
+        }
+
+        segments.get(0).response = firstResponse;
+        segments.forEach(s -> ThreadPoolHolder.getDaemonExecutorService().execute(s::download));
+        return new ReassemblingInputStream();
+    }
+
+    @Override
+    public URL getUrl() {
+        return url;
+    }
+
+    @Override
+    public Path getPartFile() {
+        return partFile;
+    }
+
+    @Override
+    public long getContentSize() {
+        return contentSize;
+    }
+
+    @Override
+    public long getResumedFrom() {
+        return 0;
+    }
+
+    @Override
+    public long getPersistedSize() {
+        return segments.stream().mapToLong(s -> s.written).sum();
+    }
+
+    @Override
+    public String getValidator() {
+        return rangeValidator;
+    }
+
+    @Override
+    public boolean isComplete() {
+        return !segments.isEmpty() && segments.stream().allMatch(s -> s.done && s.error == null);
+    }
+
+    /**
+     * @return the number of segments that are used by this download
+     */
+    public int getSegmentCount() {
+        return segments.size();
+    }
+
+    @Override
+    public void discard() throws IOException {
+        close();
+        Files.deleteIfExists(partFile);
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        signalProgress();
+        for (Segment segment : segments) {
+            final HttpResponse response = segment.response;
+            if (response != null) {
+                response.close();
+            }
+        }
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    private int segmentCountFor(final long size) {
+        final long possibleSegments = Math.max(1, size / MIN_SEGMENT_SIZE);
+        return (int) Math.min(maxSegments, possibleSegments);
+    }
+
+    private static boolean isRangeSupportDenied(final HttpResponse response) {
+        return Optional.ofNullable(response.getResponseHeader("Accept-Ranges"))
+                .map(HttpHeader::getContent)
+                .map(v -> v.trim().equalsIgnoreCase("none"))
+                .orElse(false);
+    }
+
+    /**
+     * Bytes of another range would be written at the wrong position of the file, so the range of a partial
+     * response must match the requested one.
+     *
+     * @param end the expected last byte of the range (inclusive) or {@code -1} if any end is expected
+     */
+    private ContentRange contentRangeOf(final HttpResponse response, final long start, final long end) throws IOException {
+        final String header = Optional.ofNullable(response.getResponseHeader("Content-Range"))
+                .map(HttpHeader::getContent)
+                .orElse(null);
+        final ContentRange contentRange = ContentRange.parse(header)
+                .orElseThrow(() -> new IOException("Invalid Content-Range '" + header + "' for range request to " + url));
+        if (contentRange.getStart() != start || (end >= 0 && contentRange.getEnd() != end)) {
+            throw new IOException("Server sent range '" + header + "' instead of bytes " + start + "-" + (end >= 0 ? end : "") + " of " + url);
+        }
+        return contentRange;
+    }
+
+    private void signalProgress() {
+        progressLock.lock();
+        try {
+            progressCondition.signalAll();
+        } finally {
+            progressLock.unlock();
+        }
+    }
+
+    /**
+     * Byte range {@code [start, end)} of the remote resource that is fetched by one connection.
+     */
+    private class Segment {
+
+        private final long start;
+
+        private final long end;
+
+        private volatile long written;
+
+        private volatile boolean done;
+
+        private volatile Exception error;
+
+        private volatile HttpResponse response;
+
+        Segment(final long start, final long end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        long length() {
+            return end - start;
+        }
+
+        void download() {
+            int attempt = 1;
+            while (true) {
+                try {
+                    if (response == null) {
+                        response = openRangeRequest(start + written);
+                    }
+                    transfer(response);
+                    // the initial response of the first segment still carries the remaining content
+                    response.close();
+                    done = true;
+                    break;
+                } catch (final Exception e) {
+                    if (closed) {
+                        error = e;
+                        break;
+                    }
+                    final HttpResponse failedResponse = response;
+                    response = null;
+                    if (failedResponse != null) {
+                        failedResponse.close();
+                    }
+                    if (attempt >= MAX_SEGMENT_ATTEMPTS || segments.size() == 1) {
+                        LOG.error("Download of bytes {}-{} from {} failed: {}", start + written, end, url, e.getMessage());
+                        error = e;
+                        break;
+                    }
+                    attempt++;
+                    LOG.info("Download of bytes {}-{} from {} failed. Will try again (attempt {} of {})", start + written, end, url, attempt, MAX_SEGMENT_ATTEMPTS);
+                }
+            }
+            signalProgress();
+        }
+
+        private HttpResponse openRangeRequest(final long from) throws IOException {
+            final HttpGetRequest request = new HttpGetRequest(url);
+            request.addRequestHeader("Range", "bytes=" + from + "-" + (end - 1));
+            if (rangeValidator != null) {
+                request.addRequestHeader("If-Range", rangeValidator);
+            }
+            final HttpResponse rangeResponse = request.handle();
+            final int responseCode = rangeResponse.readResponseCode();
+            if (responseCode != HttpURLConnection.HTTP_PARTIAL) {
+                rangeResponse.close();
+                throw new IOException("Unexpected HTTP response code " + responseCode + " for range request to " + url);
+            }
+            try {
+                contentRangeOf(rangeResponse, from, end - 1);
+            } catch (final IOException e) {
+                rangeResponse.close();
+                throw e;
+            }
+            return rangeResponse;
+        }
+
+        private void transfer(final HttpResponse source) throws IOException {
+            final byte[] buffer = new byte[BUFFER_SIZE];
+            try (final InputStream inputStream = bandwidthLimiter.limit(source.getContentStream())) {
+                while (written < length() && !closed) {
+                    final int toRead = (int) Math.min(buffer.length, length() - written);
+                    final int read = inputStream.read(buffer, 0, toRead);
+                    if (read < 0) {
+                        break;
+                    }
+                    final ByteBuffer byteBuffer = ByteBuffer.wrap(buffer, 0, read);
+                    long position = start + written;
+                    while (byteBuffer.hasRemaining()) {
+                        position += channel.write(byteBuffer, position);
+                    }
+                    written += read;
+                    signalProgress();
+                }
+            }
+            if (closed) {
+                throw new IOException("Download of " + url + " has been closed");
+            }
+            if (end != Long.MAX_VALUE && written < length()) {
+                throw new IOException("Connection closed after " + written + " of " + length() + " bytes of segment starting at " + start);
+            }
+        }
+    }
+
+    /**
+     * Reads the local file in order. Blocks until the segment that contains the current position has
+     * received the requested bytes.
+     */
+    private class ReassemblingInputStream extends InputStream {
+
+        private long position;
+
+        @Override
+        public int read() throws IOException {
+            final byte[] singleByte = new byte[1];
+            final int read = read(singleByte, 0, 1);
+            return read < 0 ? -1 : singleByte[0] & 0xFF;
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            final long available = awaitAvailableBytes();
+            if (available < 0) {
+                return -1;
+            }
+            final ByteBuffer buffer = ByteBuffer.wrap(b, off, (int) Math.min(len, available));
+            final int read = channel.read(buffer, position);
+            if (read > 0) {
+                position += read;
+            }
+            return read;
+        }
+
+        @Override
+        public int available() {
+            final Segment segment = currentSegment();
+            return segment == null ? 0 : (int) Math.min(Integer.MAX_VALUE, segment.start + segment.written - position);
+        }
+
+        @Override
+        public void close() throws IOException {
+            SegmentedDownload.this.close();
+        }
+
+        private Segment currentSegment() {
+            final int index = segments.size() == 1 ? 0 : (int) (position / segmentSize);
+            if (index >= segments.size() || position >= segments.get(index).end) {
+                return null;
+            }
+            return segments.get(index);
+        }
+
+        private long awaitAvailableBytes() throws IOException {
+            progressLock.lock();
+            try {
+                while (true) {
+                    final Segment segment = currentSegment();
+                    if (segment == null) {
+                        if (closed || segments.stream().allMatch(s -> s.done || s.error != null)) {
+                            return -1;
+                        }
+                        progressCondition.awaitUninterruptibly();
+                        continue;
+                    }
+                    final long available = segment.start + segment.written - position;
+                    if (available > 0) {
+                        return available;
+                    }
+                    if (segment.error != null) {
+                        throw new IOException("Error while downloading " + url, segment.error);
+                    }
+                    if (segment.done) {
+                        return -1;
+                    }
+                    if (closed) {
+                        throw new IOException("Download of " + url + " has been closed");
+                    }
+                    progressCondition.awaitUninterruptibly();
+                }
+            } finally {
+                progressLock.unlock();
+            }
+        }
+    }
+}
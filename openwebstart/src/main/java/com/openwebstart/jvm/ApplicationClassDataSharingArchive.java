@@ -0,0 +1,146 @@
+package com.openwebstart.jvm;
+
+import com.openwebstart.jvm.runtimes.LocalJavaRuntime;
+import net.adoptopenjdk.icedteaweb.Assert;
+import net.adoptopenjdk.icedteaweb.jnlp.version.VersionString;
+import net.adoptopenjdk.icedteaweb.logging.Logger;
+import net.adoptopenjdk.icedteaweb.logging.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static com.openwebstart.util.PathQuoteUtil.quoteIfRequired;
+
+/**
+ * Dynamic class data sharing (CDS) archive of an application. The archive is recorded by the JVM with
+ * {@code -XX:ArchiveClassesAtExit} when the application is launched the first time and contains all classes
+ * the application has loaded on top of the {@link ClassDataSharingArchive archive of the runtime}. Later
+ * launches pass the archive by {@code -XX:SharedArchiveFile}. Dynamic archives are supported by Java 13+.
+ * <p>
+ * The archive is recorded again if the runtime, the archive of the runtime or the jar resources of the
+ * application have changed. Classes of a jar that has been updated without a new version are not taken
+ * from the archive, since the JVM compares the checksum of a class before it uses an archived class.
+ */
+public class ApplicationClassDataSharingArchive {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ApplicationClassDataSharingArchive.class);
+
+    static final String APPLICATIONS_DIR_NAME = "apps";
+
+    private static final String ARCHIVE_SUFFIX = ".jsa";
+
+    private static final String STAMP_SUFFIX = ".properties";
+
+    private static final VersionString JAVA_13_OR_GREATER = VersionString.fromString("13+");
+
+    private final ClassDataSharingArchive runtimeArchive;
+
+    private final String applicationId;
+
+    private final List<String> resources;
+
+    private final Path archive;
+
+    private final Path stampFile;
+
+    private Path recordedArchive;
+
+    private Properties recordedStamp;
+
+    /**
+     * @param runtimeArchive the archive of the runtime the application is launched with
+     * @param applicationId  the id of the application, normally the location of the JNLP file
+     * @param resources      the jar resources of the application including their versions
+     */
+    public ApplicationClassDataSharingArchive(final ClassDataSharingArchive runtimeArchive, final String applicationId, final Collection<String> resources) {
+        this.runtimeArchive = Assert.requireNonNull(runtimeArchive, "runtimeArchive");
+        this.applicationId = Assert.requireNonNull(applicationId, "applicationId");
+        this.resources = Assert.requireNonNull(resources, "resources").stream().sorted().collect(Collectors.toList());
+        final String fileName = UUID.nameUUIDFromBytes(applicationId.getBytes(StandardCharsets.UTF_8)).toString();
+        final Path applicationsDir = runtimeArchive.getArchiveDir().resolve(APPLICATIONS_DIR_NAME);
+        this.archive = applicationsDir.resolve(fileName + ARCHIVE_SUFFIX);
+        this.stampFile = applicationsDir.resolve(fileName + STAMP_SUFFIX);
+    }
+
+    public static boolean isSupported(final LocalJavaRuntime runtime) {
+        Assert.requireNonNull(runtime, "runtime");
+        return JAVA_13_OR_GREATER.contains(runtime.getVersion());
+    }
+
+    /**
+     * Returns the arguments that let the JVM use the archive of the application. If no up-to-date archive
+     * exists the arguments let the JVM record a new archive when the application exits. In that case
+     * {@link #onApplicationExit()} must be called once the JVM has terminated.
+     */
+    public List<String> getVmArgs() {
+        final List<String> runtimeArgs = runtimeArchive.getVmArgs();
+        final boolean useRuntimeArchive = !runtimeArgs.isEmpty();
+        try {
+            final Properties stamp = createStamp(useRuntimeArchive);
+            if (Files.isRegularFile(archive) && ClassDataSharingArchive.matches(stampFile, stamp)) {
+                final String archives = useRuntimeArchive ? runtimeArchive.getArchive() + File.pathSeparator + archive : archive.toString();
+                return Arrays.asList("-XX:SharedArchiveFile=" + quoteIfRequired(archives), "-Xshare:auto");
+            }
+
+            LOG.info("Recording CDS archive for application {}", applicationId);
+            Files.createDirectories(archive.getParent());
+            recordedArchive = archive.resolveSibling(archive.getFileName() + "." + UUID.randomUUID());
+            recordedStamp = stamp;
+            final List<String> args = new ArrayList<>(runtimeArgs);
+            args.add("-XX:ArchiveClassesAtExit=" + quoteIfRequired(recordedArchive.toString()));
+            return args;
+        } catch (final Exception e) {
+            LOG.warn("Could not use CDS archive for application {}: {}", applicationId, e.getMessage());
+            return runtimeArgs;
+        }
+    }
+
+    /**
+     * Activates the archive that has been recorded by the JVM.
+     */
+    public void onApplicationExit() {
+        if (recordedArchive == null) {
+            return;
+        }
+        try {
+            if (Files.isRegularFile(recordedArchive)) {
+                ClassDataSharingArchive.moveAtomically(recordedArchive, archive);
+                ClassDataSharingArchive.writeProperties(stampFile, recordedStamp);
+                LOG.info("CDS archive for application {} recorded", applicationId);
+            } else {
+                LOG.info("JVM did not record a CDS archive for application {}", applicationId);
+            }
+        } catch (final IOException e) {
+            LOG.warn("Could not save CDS archive for application {}: {}", applicationId, e.getMessage());
+        } finally {
+            try {
+                Files.deleteIfExists(recordedArchive);
+            } catch (final IOException e) {
+                LOG.debug("Could not delete {}: {}", recordedArchive, e.getMessage());
+            }
+            recordedArchive = null;
+        }
+    }
+
+    private Properties createStamp(final boolean useRuntimeArchive) throws IOException {
+        final Properties stamp = runtimeArchive.createStamp();
+        if (useRuntimeArchive) {
+            ClassDataSharingArchive.addFileStamp(stamp, "base", runtimeArchive.getArchive());
+        }
+        stamp.setProperty("application", applicationId);
+        for (int i = 0; i < resources.size(); i++) {
+            stamp.setProperty("resource." + i, resources.get(i));
+        }
+        return stamp;
+    }
+}
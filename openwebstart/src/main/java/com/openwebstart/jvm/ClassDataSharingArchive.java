@@ -0,0 +1,410 @@
+package com.openwebstart.jvm;
+
+import com.openwebstart.jvm.runtimes.LocalJavaRuntime;
+import com.openwebstart.jvm.util.JavaExecutableFinder;
+import com.openwebstart.util.FilenameUtil;
+import com.openwebstart.util.ProcessResult;
+import net.adoptopenjdk.icedteaweb.Assert;
+import net.adoptopenjdk.icedteaweb.io.FileUtils;
+import net.adoptopenjdk.icedteaweb.jnlp.version.VersionString;
+import net.adoptopenjdk.icedteaweb.jvm.JvmUtils;
+import net.adoptopenjdk.icedteaweb.logging.Logger;
+import net.adoptopenjdk.icedteaweb.logging.LoggerFactory;
+import net.sourceforge.jnlp.runtime.Boot;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static com.openwebstart.concurrent.ThreadPoolHolder.getDaemonExecutorService;
+import static com.openwebstart.util.PathQuoteUtil.quoteIfRequired;
+import static com.openwebstart.util.ProcessUtil.runProcess;
+
+/**
+ * Class data sharing (CDS) archive of a managed runtime. The archive contains the parsed classes that are
+ * loaded when OpenWebStart starts an application, so the JVM can map them into memory instead of loading
+ * them from the jar files for every launch.
+ * <p>
+ * Java 8 to 10 only share the classes of the JDK. For these versions the default archive of the runtime is
+ * created by {@code -Xshare:dump}. Starting with Java 11 the classes of the {@code openwebstart.jar} can be
+ * shared as well. For these versions the classes that are loaded by a training run of {@link Boot} are
+ * dumped to an archive in the cache of OpenWebStart.
+ * <p>
+ * A stamp file next to the archive remembers the java executable and the {@code openwebstart.jar} the archive
+ * has been created for. The archive is only passed to the JVM if both are unchanged. In addition the archive
+ * is always passed with {@code -Xshare:auto}, so the JVM ignores an archive that does not match.
+ * <p>
+ * Every attempt to create the archive is counted in a failure stamp for the same java executable and
+ * {@code openwebstart.jar} before it starts. Once {@value #MAX_ATTEMPTS} attempts have failed or have been
+ * aborted, no further attempt is made until the runtime or OpenWebStart is updated.
+ */
+public class ClassDataSharingArchive {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ClassDataSharingArchive.class);
+
+    static final String ARCHIVE_FILENAME = "ows.jsa";
+
+    static final String STAMP_FILENAME = "cds.properties";
+
+    static final String FAILURE_STAMP_FILENAME = "cds.failed.properties";
+
+    private static final String ATTEMPTS_PROPERTY = "attempts";
+
+    static final int MAX_ATTEMPTS = 3;
+
+    private static final String CLASS_LIST_FILENAME = "ows.classlist";
+
+    private static final String TYPE_PROPERTY = "type";
+
+    private static final String DEFAULT_ARCHIVE_TYPE = "default";
+
+    private static final String APPLICATION_ARCHIVE_TYPE = "application";
+
+    private static final long TRAINING_TIMEOUT_IN_SECONDS = 60;
+
+    private static final long DUMP_TIMEOUT_IN_SECONDS = 120;
+
+    /**
+     * Temporary files of another process that are older than this have been left behind by an aborted attempt.
+     */
+    private static final long STALE_FILE_AGE_IN_MILLIS = TimeUnit.SECONDS.toMillis(TRAINING_TIMEOUT_IN_SECONDS + DUMP_TIMEOUT_IN_SECONDS);
+
+    private static final VersionString JAVA_11_OR_GREATER = VersionString.fromString("11+");
+
+    private static final VersionString JAVA_9_OR_GREATER = VersionString.fromString("9+");
+
+    private static final VersionString JAVA_18_OR_GREATER = VersionString.fromString("18+");
+
+    private static final Map<Path, CompletableFuture<Void>> ARCHIVES_IN_PROGRESS = new ConcurrentHashMap<>();
+
+    private final LocalJavaRuntime runtime;
+
+    private final File webStartJar;
+
+    private final Path archiveDir;
+
+    public ClassDataSharingArchive(final LocalJavaRuntime runtime, final File webStartJar) {
+        this(RuntimeManagerConfig.getCachePath(), runtime, webStartJar);
+    }
+
+    ClassDataSharingArchive(final Path cacheDir, final LocalJavaRuntime runtime, final File webStartJar) {
+        Assert.requireNonNull(cacheDir, "cacheDir");
+        this.runtime = Assert.requireNonNull(runtime, "runtime");
+        this.webStartJar = Assert.requireNonNull(webStartJar, "webStartJar");
+        this.archiveDir = getArchiveDir(cacheDir, runtime);
+    }
+
+    /**
+     * @return the arguments that let the JVM of the runtime use the archive or an empty list if no
+     * up-to-date archive exists
+     */
+    public List<String> getVmArgs() {
+        if (!isUpToDate()) {
+            return Collections.emptyList();
+        }
+        if (isApplicationArchiveSupported()) {
+            return Arrays.asList("-XX:SharedArchiveFile=" + quoteIfRequired(getArchive().toString()), "-Xshare:auto");
+        }
+        return Collections.singletonList("-Xshare:auto");
+    }
+
+    boolean isUpToDate() {
+        if (isApplicationArchiveSupported() && !Files.isRegularFile(getArchive())) {
+            return false;
+        }
+        try {
+            return matches(archiveDir.resolve(STAMP_FILENAME), createStamp());
+        } catch (final Exception e) {
+            LOG.debug("Could not create CDS stamp for runtime {}: {}", runtime.getJavaHome(), e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Creates the archive on a background thread if no up-to-date archive exists. Nothing happens if the
+     * archive is already created by this process or if the previous attempts for the runtime failed.
+     * A process that creates an archive must call {@link #awaitGenerations()} before it exits.
+     */
+    public void generateInBackground() {
+        if (isUpToDate() || hasFailedBefore()) {
+            return;
+        }
+        final CompletableFuture<Void> generation = new CompletableFuture<>();
+        if (ARCHIVES_IN_PROGRESS.putIfAbsent(archiveDir, generation) != null) {
+            return;
+        }
+        getDaemonExecutorService().execute(() -> {
+            try {
+                generate();
+            } catch (final Exception e) {
+                LOG.warn("Could not create CDS archive for runtime {}: {}", runtime.getJavaHome(), e.getMessage());
+            } finally {
+                ARCHIVES_IN_PROGRESS.remove(archiveDir);
+                generation.complete(null);
+            }
+        });
+    }
+
+    /**
+     * Waits until all archives that are created by this process are complete. The java processes that
+     * create an archive would be left behind if this process exits before.
+     */
+    public static void awaitGenerations() {
+        for (final CompletableFuture<Void> generation : ARCHIVES_IN_PROGRESS.values()) {
+            LOG.info("Waiting for the creation of CDS archives to finish");
+            try {
+                generation.get();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (final ExecutionException e) {
+                // already logged by the generation
+            }
+        }
+    }
+
+    void generate() throws Exception {
+        LOG.info("Creating CDS archive for runtime {}", runtime.getJavaHome());
+        final long start = System.currentTimeMillis();
+        final String java = JavaExecutableFinder.findJavaExecutable(runtime.getJavaHome());
+        Files.createDirectories(archiveDir);
+        deleteStaleFiles();
+        recordAttempt();
+        if (isApplicationArchiveSupported()) {
+            generateApplicationArchive(java);
+        } else {
+            run(new ProcessBuilder(java, "-Xshare:dump"), DUMP_TIMEOUT_IN_SECONDS);
+        }
+        writeStamp();
+        Files.deleteIfExists(archiveDir.resolve(FAILURE_STAMP_FILENAME));
+        LOG.info("CDS archive for runtime {} created in {} ms", runtime.getJavaHome(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Removes the archive of the runtime.
+     */
+    static void delete(final Path cacheDir, final LocalJavaRuntime runtime) throws IOException {
+        final Path archiveDir = getArchiveDir(cacheDir, runtime);
+        if (Files.isDirectory(archiveDir)) {
+            FileUtils.recursiveDelete(archiveDir.toFile(), cacheDir.toFile());
+        }
+    }
+
+    /**
+     * @return true if the maximum number of attempts to create the archive for the current java executable
+     * and {@code openwebstart.jar} is reached
+     */
+    boolean hasFailedBefore() {
+        try {
+            return getFailedAttempts(createStamp()) >= MAX_ATTEMPTS;
+        } catch (final Exception e) {
+            LOG.debug("Could not create CDS stamp for runtime {}: {}", runtime.getJavaHome(), e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * The attempt is recorded before it starts, so an attempt that is aborted together with its process
+     * counts as a failure as well.
+     */
+    private void recordAttempt() throws IOException {
+        final Properties stamp = createStamp();
+        final int attempts = getFailedAttempts(stamp) + 1;
+        stamp.setProperty(ATTEMPTS_PROPERTY, Integer.toString(attempts));
+        writeProperties(archiveDir.resolve(FAILURE_STAMP_FILENAME), stamp);
+    }
+
+    private int getFailedAttempts(final Properties expectedStamp) {
+        final Path failureStampFile = archiveDir.resolve(FAILURE_STAMP_FILENAME);
+        if (!Files.isRegularFile(failureStampFile)) {
+            return 0;
+        }
+        final Properties stamp = new Properties();
+        try (final InputStream inputStream = Files.newInputStream(failureStampFile)) {
+            stamp.load(inputStream);
+            final Object attempts = stamp.remove(ATTEMPTS_PROPERTY);
+            return stamp.equals(expectedStamp) && attempts != null ? Integer.parseInt(attempts.toString()) : 0;
+        } catch (final IOException | NumberFormatException e) {
+            LOG.debug("Could not read CDS failure stamp {}: {}", failureStampFile, e.getMessage());
+            return 0;
+        }
+    }
+
+    /**
+     * Removes the temporary files of attempts that have been aborted together with their process.
+     */
+    private void deleteStaleFiles() throws IOException {
+        final List<String> prefixes = Arrays.asList(CLASS_LIST_FILENAME + ".", ARCHIVE_FILENAME + ".", STAMP_FILENAME + ".", FAILURE_STAMP_FILENAME + ".");
+        final long staleBefore = System.currentTimeMillis() - STALE_FILE_AGE_IN_MILLIS;
+        try (final DirectoryStream<Path> files = Files.newDirectoryStream(archiveDir, Files::isRegularFile)) {
+            for (final Path file : files) {
+                final String name = file.getFileName().toString();
+                if (prefixes.stream().anyMatch(name::startsWith) && Files.getLastModifiedTime(file).toMillis() < staleBefore) {
+                    LOG.debug("Deleting stale CDS file {}", file);
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+    }
+
+    /**
+     * Several processes might create the archive at the same time, so all files are created with a unique
+     * name and the archive is moved to its final name once it is complete.
+     */
+    private void generateApplicationArchive(final String java) throws Exception {
+        final String suffix = "." + UUID.randomUUID();
+        final Path classList = archiveDir.resolve(CLASS_LIST_FILENAME + suffix);
+        final Path tempArchive = archiveDir.resolve(ARCHIVE_FILENAME + suffix);
+        try {
+            final List<String> training = new ArrayList<>();
+            training.add(java);
+            training.add("-Xshare:off");
+            training.add("-XX:DumpLoadedClassList=" + quoteIfRequired(classList.toString()));
+            training.add(bootClassPathArg());
+            training.addAll(moduleArgs());
+            training.add("-Djava.awt.headless=true");
+            training.add(Boot.class.getName());
+            training.add("-version");
+            run(new ProcessBuilder(training), TRAINING_TIMEOUT_IN_SECONDS);
+
+            final List<String> dump = new ArrayList<>();
+            dump.add(java);
+            dump.add("-Xshare:dump");
+            dump.add("-XX:SharedClassListFile=" + quoteIfRequired(classList.toString()));
+            dump.add("-XX:SharedArchiveFile=" + quoteIfRequired(tempArchive.toString()));
+            dump.add(bootClassPathArg());
+            dump.addAll(moduleArgs());
+            run(new ProcessBuilder(dump), DUMP_TIMEOUT_IN_SECONDS);
+
+            moveAtomically(tempArchive, getArchive());
+        } finally {
+            Files.deleteIfExists(classList);
+            Files.deleteIfExists(tempArchive);
+        }
+    }
+
+    /**
+     * The boot class path is part of the archive and must be identical to the one of the launch.
+     */
+    private String bootClassPathArg() {
+        return quoteIfRequired("-Xbootclasspath/a:" + webStartJar.getPath());
+    }
+
+    private List<String> moduleArgs() {
+        if (!JAVA_9_OR_GREATER.contains(runtime.getVersion())) {
+            return Collections.emptyList();
+        }
+        final List<String> args = JvmUtils.mergeJavaModulesVMArgs(new ArrayList<>());
+        if (JAVA_18_OR_GREATER.contains(runtime.getVersion())) {
+            args.add("-Djava.security.manager=allow");
+        }
+        return args;
+    }
+
+    private static void run(final ProcessBuilder builder, final long timeoutInSeconds) throws Exception {
+        final ProcessResult result = runProcess(builder, timeoutInSeconds, TimeUnit.SECONDS);
+        if (result.wasUnsuccessful()) {
+            LOG.debug("The command {} printed the following content to 'error out': {}", builder.command(), result.getErrorOut());
+            throw new IOException("Command " + builder.command().get(1) + " failed with exit value " + result.getExitValue());
+        }
+    }
+
+    void writeStamp() throws IOException {
+        writeProperties(archiveDir.resolve(STAMP_FILENAME), createStamp());
+    }
+
+    /**
+     * @return true if the stamp file exists and contains the expected stamp
+     */
+    static boolean matches(final Path stampFile, final Properties expectedStamp) {
+        if (!Files.isRegularFile(stampFile)) {
+            return false;
+        }
+        final Properties stamp = new Properties();
+        try (final InputStream inputStream = Files.newInputStream(stampFile)) {
+            stamp.load(inputStream);
+            return stamp.equals(expectedStamp);
+        } catch (final IOException e) {
+            LOG.debug("Could not read CDS stamp {}: {}", stampFile, e.getMessage());
+            return false;
+        }
+    }
+
+    static void writeProperties(final Path file, final Properties properties) throws IOException {
+        final Path tempFile = file.resolveSibling(file.getFileName() + "." + UUID.randomUUID());
+        try {
+            try (final OutputStream outputStream = Files.newOutputStream(tempFile)) {
+                properties.store(outputStream, null);
+            }
+            moveAtomically(tempFile, file);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    static void moveAtomically(final Path source, final Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (final AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    Properties createStamp() throws IOException {
+        final Properties stamp = new Properties();
+        final Path java = Paths.get(JavaExecutableFinder.findJavaExecutable(runtime.getJavaHome()));
+        addFileStamp(stamp, "java", java);
+        if (isApplicationArchiveSupported()) {
+            stamp.setProperty(TYPE_PROPERTY, APPLICATION_ARCHIVE_TYPE);
+            addFileStamp(stamp, "openwebstart", webStartJar.toPath());
+        } else {
+            stamp.setProperty(TYPE_PROPERTY, DEFAULT_ARCHIVE_TYPE);
+        }
+        return stamp;
+    }
+
+    static void addFileStamp(final Properties stamp, final String prefix, final Path file) throws IOException {
+        stamp.setProperty(prefix + ".path", file.toAbsolutePath().toString());
+        stamp.setProperty(prefix + ".size", Long.toString(Files.size(file)));
+        stamp.setProperty(prefix + ".lastModified", Long.toString(Files.getLastModifiedTime(file).toMillis()));
+    }
+
+    boolean isApplicationArchiveSupported() {
+        return JAVA_11_OR_GREATER.contains(runtime.getVersion());
+    }
+
+    public LocalJavaRuntime getRuntime() {
+        return runtime;
+    }
+
+    Path getArchiveDir() {
+        return archiveDir;
+    }
+
+    Path getArchive() {
+        return archiveDir.resolve(ARCHIVE_FILENAME);
+    }
+
+    private static Path getArchiveDir(final Path cacheDir, final LocalJavaRuntime runtime) {
+        final String runtimeName = runtime.getJavaHome().getFileName().toString();
+        return cacheDir.resolve(RuntimeManagerConstants.CDS_DIR_NAME).resolve(FilenameUtil.toSimplifiedFileName(runtimeName));
+    }
+}
@@ -0,0 +1,124 @@
+package com.openwebstart.jvm;
+
+import net.adoptopenjdk.icedteaweb.Assert;
+import net.adoptopenjdk.icedteaweb.logging.Logger;
+import net.adoptopenjdk.icedteaweb.logging.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Remembers the throughput of the hosts runtimes have been downloaded from. The values are kept across
+ * launches and help to choose the fastest mirror of a runtime.
+ */
+class HostThroughputStore {
+
+    private static final Logger LOG = LoggerFactory.getLogger(HostThroughputStore.class);
+
+    static final String FILENAME = "host-throughput.properties";
+
+    /**
+     * Downloads that ended after a few bytes do not tell anything about the throughput of a host.
+     */
+    static final long MIN_MEASURED_BYTES = 1024 * 1024;
+
+    private static final Lock STORE_LOCK = new ReentrantLock();
+
+    private final Path file;
+
+    HostThroughputStore(final Path cacheDir) {
+        this.file = Assert.requireNonNull(cacheDir, "cacheDir").resolve(FILENAME);
+    }
+
+    /**
+     * @return the throughput of the host of the URL in bytes per second or 0 if unknown
+     */
+    long getThroughput(final URL url) {
+        Assert.requireNonNull(url, "url");
+        STORE_LOCK.lock();
+        try {
+            final String value = load().getProperty(toKey(url));
+            return value != null ? Long.parseLong(value) : 0;
+        } catch (final NumberFormatException e) {
+            return 0;
+        } finally {
+            STORE_LOCK.unlock();
+        }
+    }
+
+    /**
+     * Records a download from the host of the URL. The new value is averaged with the known throughput,
+     * so a single slow download does not disqualify a host.
+     */
+    void record(final URL url, final long bytes, final long timeInNanos) {
+        Assert.requireNonNull(url, "url");
+        if (bytes < MIN_MEASURED_BYTES || timeInNanos <= 0) {
+            return;
+        }
+        final long measured = bytes * TimeUnit.SECONDS.toNanos(1) / timeInNanos;
+        STORE_LOCK.lock();
+        try {
+            final Properties properties = load();
+            final String knownValue = properties.getProperty(toKey(url));
+            long throughput = measured;
+            if (knownValue != null) {
+                try {
+                    throughput = (Long.parseLong(knownValue) + measured) / 2;
+                } catch (final NumberFormatException e) {
+                    LOG.debug("Ignoring invalid throughput '{}' of {}", knownValue, toKey(url));
+                }
+            }
+            properties.setProperty(toKey(url), Long.toString(throughput));
+            save(properties);
+            LOG.debug("Throughput of {} is {} bytes per second", toKey(url), throughput);
+        } catch (final IOException e) {
+            LOG.warn("Could not save throughput of {}: {}", toKey(url), e.getMessage());
+        } finally {
+            STORE_LOCK.unlock();
+        }
+    }
+
+    private static String toKey(final URL url) {
+        return url.getProtocol() + "://" + url.getAuthority();
+    }
+
+    private Properties load() {
+        final Properties properties = new Properties();
+        if (Files.isRegularFile(file)) {
+            try (final InputStream inputStream = Files.newInputStream(file)) {
+                properties.load(inputStream);
+            } catch (final IOException e) {
+                LOG.debug("Could not read {}: {}", file, e.getMessage());
+            }
+        }
+        return properties;
+    }
+
+    private void save(final Properties properties) throws IOException {
+        Files.createDirectories(file.getParent());
+        final Path tempFile = file.resolveSibling(FILENAME + "." + UUID.randomUUID());
+        try {
+            try (final OutputStream outputStream = Files.newOutputStream(tempFile)) {
+                properties.store(outputStream, null);
+            }
+            try {
+                Files.move(tempFile, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (final AtomicMoveNotSupportedException e) {
+                Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+}
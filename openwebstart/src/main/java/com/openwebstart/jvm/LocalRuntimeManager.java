@@ -2,24 +2,35 @@ package com.openwebstart.jvm;
 
 import com.openwebstart.config.OwsDefaultsProvider;
 import com.openwebstart.func.Result;
+import com.openwebstart.http.BandwidthLimiter;
 import com.openwebstart.http.DownloadInputStream;
+import com.openwebstart.http.DownloadPriority;
+import com.openwebstart.http.DownloadVerificationException;
 import com.openwebstart.http.HttpGetRequest;
 import com.openwebstart.http.HttpResponse;
-import com.openwebstart.jvm.json.CacheStore;
-import com.openwebstart.jvm.json.JsonHandler;
+import com.openwebstart.http.PersistentDownload;
+import com.openwebstart.http.ResumableDownload;
+import com.openwebstart.http.SegmentedDownload;
+import com.openwebstart.jvm.json.CacheStoreChange;
 import com.openwebstart.jvm.listener.RuntimeAddedListener;
 import com.openwebstart.jvm.listener.RuntimeRemovedListener;
 import com.openwebstart.jvm.listener.RuntimeUpdateListener;
 import com.openwebstart.jvm.localfinder.JdkFinder;
+import com.openwebstart.jvm.localfinder.LocalRuntimeWatcher;
 import com.openwebstart.jvm.os.OperationSystem;
 import com.openwebstart.jvm.runtimes.LocalJavaRuntime;
 import com.openwebstart.jvm.runtimes.RemoteJavaRuntime;
+import com.openwebstart.jvm.runtimes.RemoteRuntimeDelta;
 import com.openwebstart.jvm.runtimes.Vendor;
+import com.openwebstart.jvm.util.RuntimeIndex;
 import com.openwebstart.jvm.util.RuntimeVersionComparator;
+import com.openwebstart.launcher.OwsJvmLauncher;
 import com.openwebstart.mimetype.MimeType;
 import com.openwebstart.mimetype.MimeTypeInputStream;
 import com.openwebstart.util.ExtractUtil;
+import com.openwebstart.util.FilenameUtil;
 import com.openwebstart.util.FolderFactory;
+import com.openwebstart.util.PipelinedInputStream;
 import com.openwebstart.util.Subscription;
 import net.adoptopenjdk.icedteaweb.Assert;
 import net.adoptopenjdk.icedteaweb.i18n.Translator;
@@ -32,7 +43,10 @@ import net.adoptopenjdk.icedteaweb.os.OsUtil;
 import net.sourceforge.jnlp.config.DeploymentConfiguration;
 
 import java.io.File;
+import java.io.FilterInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
 import java.net.URL;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -42,16 +56,17 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.OptionalLong;
 import java.util.concurrent.CopyOnWriteArrayList;
-import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
+import static com.openwebstart.concurrent.ThreadPoolHolder.getDaemonExecutorService;
 import static com.openwebstart.config.OwsDefaultsProvider.JVM_CACHE_CLEANUP_ENABLED;
-import static com.openwebstart.jvm.runtimes.Vendor.ANY_VENDOR;
 import static java.lang.Boolean.parseBoolean;
 import static java.time.temporal.ChronoUnit.DAYS;
 import static net.sourceforge.jnlp.runtime.JNLPRuntime.getConfiguration;
@@ -62,6 +77,12 @@ public final class LocalRuntimeManager {
 
     private static final LocalRuntimeManager INSTANCE = new LocalRuntimeManager();
 
+    private static final int MAX_DOWNLOAD_ATTEMPTS = 3;
+
+    private static final long TOUCH_GRANULARITY_IN_MINUTES = 60;
+
+    private static final long BACKGROUND_SAVE_DELAY_IN_MILLIS = 2_000;
+
     private final List<LocalJavaRuntime> runtimes = new CopyOnWriteArrayList<>();
 
     private final List<RuntimeRemovedListener> removedListeners = new CopyOnWriteArrayList<>();
@@ -70,9 +91,29 @@ public final class LocalRuntimeManager {
 
     private final Lock jsonStoreLock = new ReentrantLock();
 
+    private LocalRuntimeStore runtimeStore;
+
+    private final Lock runtimeDirectoryLock = new ReentrantLock();
+
+    private final BandwidthLimiter bandwidthLimiter = new BandwidthLimiter(BandwidthLimiter.UNLIMITED);
+
+    private final BandwidthLimiter backgroundBandwidthLimiter = new BandwidthLimiter(BandwidthLimiter.UNLIMITED, bandwidthLimiter);
+
     private final AtomicBoolean firstTimeLoading = new AtomicBoolean(true);
 
+    private final AtomicBoolean saveScheduled = new AtomicBoolean();
+
+    private final AtomicBoolean shutdownHookRegistered = new AtomicBoolean();
+
+    private final AtomicLong runtimesModCount = new AtomicLong();
+
+    private volatile RuntimeIndexes runtimeIndexes;
+
     private LocalRuntimeManager() {
+        // the indexes are rebuilt on the next lookup after the runtimes have been changed
+        addedListeners.add(runtime -> runtimesModCount.incrementAndGet());
+        removedListeners.add(runtime -> runtimesModCount.incrementAndGet());
+        updatedListeners.add((oldRuntime, newRuntime) -> runtimesModCount.incrementAndGet());
     }
 
     public List<LocalJavaRuntime> getAll() {
@@ -98,35 +139,72 @@ public final class LocalRuntimeManager {
         jsonStoreLock.lock();
         try {
             LOG.debug("Saving runtime cache to filesystem");
-            final File cachePath = cacheBaseDir();
-            if (!cachePath.exists()) {
-                final boolean dirCreated = cachePath.mkdirs();
-                if (!dirCreated) {
-                    throw new IOException("Cannot create cache dir '" + cachePath + "'");
-                }
+            applyChangesOfOtherProcesses(getRuntimeStore().save(runtimes));
+        } catch (final Exception e) {
+            throw new RuntimeException("Error while saving JVM cache.", e);
+        } finally {
+            jsonStoreLock.unlock();
+        }
+    }
+
+    /**
+     * Loads the changes that other processes have saved to the runtime cache since it has been loaded or saved by
+     * this process. The runtime cache is only read if it has been changed.
+     */
+    public void loadChangesOfOtherProcesses() {
+        jsonStoreLock.lock();
+        try {
+            if (runtimeStore == null) {
+                return;
             }
-            final File jsonFile = new File(cachePath, RuntimeManagerConstants.JSON_STORE_FILENAME);
-            if (jsonFile.exists() && !jsonFile.delete()) {
-                // if the file is locked, try again after sometime
-                LOG.debug("Could not delete {}. File maybe locked. Trying again.", RuntimeManagerConstants.JSON_STORE_FILENAME);
-                try {
-                    TimeUnit.SECONDS.sleep(1);
-                } catch (InterruptedException ignored) {
-                }
-                if (jsonFile.exists() && !jsonFile.delete()) {
-                    throw new IOException("Unable to delete old config file!");
-                }
+            if (saveScheduled.get()) {
+                // saving merges the changes of other processes
+                savePendingChanges();
+            } else {
+                applyChangesOfOtherProcesses(runtimeStore.reload());
             }
-            final CacheStore cacheStore = new CacheStore(runtimes);
-            final String jsonString = JsonHandler.getInstance().toJson(cacheStore);
-            FileUtils.saveFileUtf8(jsonString, jsonFile);
         } catch (final Exception e) {
-            throw new RuntimeException("Error while saving JVM cache.", e);
+            LOG.warn("Could not load changes of runtime cache: {}", e.getMessage());
         } finally {
             jsonStoreLock.unlock();
         }
     }
 
+    /**
+     * Applies changes of other processes to the runtimes in memory. The files of runtimes that have been removed by
+     * another process are not touched.
+     */
+    private void applyChangesOfOtherProcesses(final List<CacheStoreChange> changes) {
+        for (final CacheStoreChange change : changes) {
+            if (change.getRemove() != null) {
+                removeRuntimesByJavaHome(change.getRemove().getJavaHome());
+            }
+            final LocalJavaRuntime newRuntime = change.getPut();
+            if (newRuntime != null) {
+                final Optional<LocalJavaRuntime> oldRuntime = runtimes.stream()
+                        .filter(r -> Objects.equals(r.getJavaHome(), newRuntime.getJavaHome()))
+                        .findFirst();
+                if (oldRuntime.isPresent() && oldRuntime.get().isManaged() == newRuntime.isManaged()) {
+                    replaceInMemory(oldRuntime.get(), newRuntime);
+                } else {
+                    removeRuntimesByJavaHome(newRuntime.getJavaHome());
+                    loadIntoMemory(newRuntime);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the store of the runtime cache. A new store is created if the cache path has been changed.
+     */
+    private LocalRuntimeStore getRuntimeStore() {
+        final Path cachePath = cacheBasePath();
+        if (runtimeStore == null || !Objects.equals(runtimeStore.getCacheDir(), cachePath)) {
+            runtimeStore = new LocalRuntimeStore(cachePath);
+        }
+        return runtimeStore;
+    }
+
     /**
      * Load runtimes from filesystem into cache.
      * <p>
@@ -139,30 +217,54 @@ public final class LocalRuntimeManager {
     void loadRuntimes(DeploymentConfiguration configuration) {
         LOG.debug("Loading runtime cache from filesystem");
         jsonStoreLock.lock();
-        final File jsonFile = new File(cacheBaseDir(), RuntimeManagerConstants.JSON_STORE_FILENAME);
+        final LocalRuntimeStore store = new LocalRuntimeStore(cacheBasePath());
         try {
+            savePendingChanges();
             clearInMemory();
-            if (jsonFile.exists()) {
-                final String content = FileUtils.loadFileAsUtf8String(jsonFile);
-                final CacheStore cacheStore = JsonHandler.getInstance().fromJson(content, CacheStore.class);
-                final List<LocalJavaRuntime> runtimesFromFile = cacheStore.getRuntimes();
-
-                runtimesFromFile.forEach(this::loadIntoMemory);
-                cleanupJvmCacheFile(runtimesFromFile);
-            }
+            runtimeStore = store;
+            final List<LocalJavaRuntime> runtimesFromFile = store.load();
+            runtimesFromFile.forEach(this::loadIntoMemory);
+            cleanupJvmCacheFile(runtimesFromFile);
+            loadSharedRuntimes();
 
             final boolean isFirstTimeLoading = firstTimeLoading.getAndSet(false);
             if (isFirstTimeLoading) {
                 findAndAddNewLocalRuntimes(configuration);
             }
         } catch (IOException e) {
-            LOG.error("Could not load file: {}", jsonFile);
+            LOG.error("Could not load runtime cache: {}", store.getCacheDir());
             throw new RuntimeException(e);
         } finally {
             jsonStoreLock.unlock();
         }
     }
 
+    /**
+     * Loads the runtimes of the machine-wide shared cache. The shared cache is read-only for the user.
+     * Its runtimes are therefore handled as not managed and will never be deleted. The state of the user
+     * (active, last usage) is stored in the runtime cache of the user.
+     */
+    private void loadSharedRuntimes() {
+        final Optional<Path> sharedCachePath = RuntimeManagerConfig.getSharedCachePath();
+        if (!sharedCachePath.isPresent()) {
+            return;
+        }
+
+        try {
+            new LocalRuntimeStore(sharedCachePath.get()).read().stream()
+                    .map(r -> new LocalJavaRuntime(r.getVersion().toString(), r.getOperationSystem(), r.getVendor().toString(), r.getJavaHome(), LocalDateTime.now(), true, false))
+                    .forEach(this::loadIntoMemory);
+        } catch (final Exception e) {
+            LOG.warn("Could not load shared runtime cache {}: {}", sharedCachePath.get(), e.getMessage());
+        }
+    }
+
+    private boolean isShared(final LocalJavaRuntime localJavaRuntime) {
+        return RuntimeManagerConfig.getSharedCachePath()
+                .map(sharedCachePath -> localJavaRuntime.getJavaHome().startsWith(sharedCachePath))
+                .orElse(false);
+    }
+
     private void cleanupJvmCacheFile(List<LocalJavaRuntime> cacheFileContent) {
         final boolean jvmCleanupDisabled = !parseBoolean(getConfiguration().getProperty(JVM_CACHE_CLEANUP_ENABLED));
         if (jvmCleanupDisabled) {
@@ -217,6 +319,11 @@ public final class LocalRuntimeManager {
     }
 
     public void replace(final LocalJavaRuntime oldRuntime, final LocalJavaRuntime newRuntime) {
+        replaceInMemory(oldRuntime, newRuntime);
+        saveRuntimes();
+    }
+
+    private void replaceInMemory(final LocalJavaRuntime oldRuntime, final LocalJavaRuntime newRuntime) {
         LOG.debug("Replacing runtime definition with new one");
 
         Assert.requireNonNull(oldRuntime, "oldRuntime");
@@ -237,14 +344,12 @@ public final class LocalRuntimeManager {
         runtimes.remove(index);
         runtimes.add(index, newRuntime);
         updatedListeners.forEach(l -> l.onRuntimeUpdated(oldRuntime, newRuntime));
-
-        saveRuntimes();
     }
 
     private void findAndAddNewLocalRuntimes(DeploymentConfiguration configuration) {
         final String searchOnStartValue = configuration.getProperty(OwsDefaultsProvider.SEARCH_FOR_LOCAL_JVM_ON_STARTUP);
         if (parseBoolean(searchOnStartValue)) {
-            final List<LocalJavaRuntime> found = JdkFinder.findLocalRuntimes(configuration)
+            final List<LocalJavaRuntime> found = JdkFinder.findLocalRuntimesInChangedSearchRoots(configuration)
                     .stream()
                     .filter(Objects::nonNull)
                     .filter(Result::isSuccessful)
@@ -255,6 +360,32 @@ public final class LocalRuntimeManager {
         }
     }
 
+    /**
+     * Adds JVMs that are installed in the search roots and removes JVMs that are removed from the search roots
+     * until the returned subscription is unsubscribed. Nothing is watched if the search for local JVMs is disabled.
+     */
+    public Subscription watchLocalRuntimes(final DeploymentConfiguration configuration) {
+        Assert.requireNonNull(configuration, "configuration");
+        if (!parseBoolean(configuration.getProperty(OwsDefaultsProvider.SEARCH_FOR_LOCAL_JVM_ON_STARTUP))) {
+            return () -> {};
+        }
+        try {
+            final LocalRuntimeWatcher watcher = LocalRuntimeWatcher.start(configuration, found -> addNewLocalJavaRuntime(found, s -> {}), this::removeLocalRuntime);
+            return watcher::close;
+        } catch (final IOException e) {
+            LOG.warn("Could not watch for installed or removed JVMs: {}", e.getMessage());
+            return () -> {};
+        }
+    }
+
+    private void removeLocalRuntime(final Path javaHome) {
+        final List<LocalJavaRuntime> removed = runtimes.stream()
+                .filter(runtime -> !runtime.isManaged())
+                .filter(runtime -> Objects.equals(runtime.getJavaHome(), javaHome))
+                .collect(Collectors.toList());
+        removeAll(removed);
+    }
+
     public int addNewLocalJavaRuntime(List<LocalJavaRuntime> newRuntimes, Consumer<String> errorMessageHandler) {
         Assert.requireNonNull(newRuntimes, "runtimes");
         int numAdded = 0;
@@ -347,10 +478,15 @@ public final class LocalRuntimeManager {
         if (runtimes.remove(localJavaRuntime)) {
             if (localJavaRuntime.isManaged()) {
                 final Path runtimeDir = localJavaRuntime.getJavaHome();
+                // files of the runtime might currently be replaced by hard links
+                runtimeDirectoryLock.lock();
                 try {
                     FileUtils.recursiveDelete(runtimeDir.toFile(), cacheBaseDir());
+                    ClassDataSharingArchive.delete(cacheBasePath(), localJavaRuntime);
                 } catch (IOException e) {
                     throw new RuntimeException(e);
+                } finally {
+                    runtimeDirectoryLock.unlock();
                 }
             }
 
@@ -360,6 +496,11 @@ public final class LocalRuntimeManager {
         return false;
     }
 
+    /**
+     * Updates the last usage of the runtime. The last usage is only updated if it is older than
+     * {@link #TOUCH_GRANULARITY_IN_MINUTES}, since unused runtimes are detected by days. The runtime cache is
+     * saved in the background, so the launch of an application does not wait for it.
+     */
     public static void touch(final LocalJavaRuntime currentRuntime) {
         final boolean jvmCleanupDisabled = !parseBoolean(getConfiguration().getProperty(JVM_CACHE_CLEANUP_ENABLED));
         final boolean isNotManagedByOws = !currentRuntime.isManaged();
@@ -368,6 +509,12 @@ public final class LocalRuntimeManager {
             return;
         }
 
+        final LocalDateTime lastUsage = currentRuntime.getLastUsage();
+        if (lastUsage != null && lastUsage.isAfter(LocalDateTime.now().minusMinutes(TOUCH_GRANULARITY_IN_MINUTES))) {
+            LOG.debug("Runtime has been used recently, not saving.");
+            return;
+        }
+
         LocalJavaRuntime newRuntime = new LocalJavaRuntime(
                 currentRuntime.getVersion().toString(),
                 currentRuntime.getOperationSystem(),
@@ -378,7 +525,43 @@ public final class LocalRuntimeManager {
                 currentRuntime.isManaged()
         );
 
-        LocalRuntimeManager.getInstance().replace(currentRuntime, newRuntime);
+        final LocalRuntimeManager manager = LocalRuntimeManager.getInstance();
+        manager.replaceInMemory(currentRuntime, newRuntime);
+        manager.saveRuntimesInBackground();
+    }
+
+    /**
+     * Saves the runtime cache after a short delay, so several changes are saved at once. Pending changes are
+     * saved when the JVM shuts down.
+     */
+    private void saveRuntimesInBackground() {
+        if (shutdownHookRegistered.compareAndSet(false, true)) {
+            Runtime.getRuntime().addShutdownHook(new Thread(this::savePendingChanges, "ows-runtime-cache-shutdown"));
+        }
+        if (saveScheduled.compareAndSet(false, true)) {
+            getDaemonExecutorService().execute(() -> {
+                try {
+                    Thread.sleep(BACKGROUND_SAVE_DELAY_IN_MILLIS);
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                savePendingChanges();
+            });
+        }
+    }
+
+    private void savePendingChanges() {
+        // the lock lets the shutdown hook wait for a save that is in progress
+        jsonStoreLock.lock();
+        try {
+            if (saveScheduled.getAndSet(false)) {
+                saveRuntimes();
+            }
+        } catch (final Exception e) {
+            LOG.warn("Could not save runtime cache: {}", e.getMessage());
+        } finally {
+            jsonStoreLock.unlock();
+        }
     }
 
     public static LocalRuntimeManager getInstance() {
@@ -386,7 +569,16 @@ public final class LocalRuntimeManager {
     }
 
     LocalJavaRuntime install(final RemoteJavaRuntime remoteRuntime, final Consumer<DownloadInputStream> downloadConsumer) throws IOException {
+        return install(remoteRuntime, downloadConsumer, DownloadPriority.INTERACTIVE);
+    }
+
+    /**
+     * Installs the remote runtime. Downloads in the {@link DownloadPriority#BACKGROUND background} use the
+     * bandwidth that is defined by {@link RuntimeManagerConfig#getBackgroundDownloadMaxBandwidth()}.
+     */
+    LocalJavaRuntime install(final RemoteJavaRuntime remoteRuntime, final Consumer<DownloadInputStream> downloadConsumer, final DownloadPriority priority) throws IOException {
         Assert.requireNonNull(remoteRuntime, "remoteRuntime");
+        Assert.requireNonNull(priority, "priority");
 
         LOG.debug("Installing remote runtime {} on local cache", remoteRuntime);
 
@@ -395,55 +587,470 @@ public final class LocalRuntimeManager {
                     + " on " + OperationSystem.getLocalSystem().getDescription());
         }
 
-        final FolderFactory folderFactory = new FolderFactory(cacheBasePath(), true);
         final String vendorName = remoteRuntime.getVendor().getShortName();
         final VersionId version = remoteRuntime.getVersion();
         final String architecture = remoteRuntime.getOperationSystem().getArchitectureName();
-        final Path runtimePath = folderFactory.createSubFolder(vendorName + "_" + version + "_" + architecture);
+        final String runtimeName = vendorName + "_" + version + "_" + architecture;
+
+        try (final RuntimeInstallLock installLock = new RuntimeInstallLock(installLockBasePath(), runtimeName)) {
+            if (!installLock.tryLock()) {
+                awaitInstallOfOtherProcess(remoteRuntime, installLock, downloadConsumer);
+            }
+
+            final Optional<LocalJavaRuntime> installedRuntime = loadRuntimeInstalledByOtherProcess(remoteRuntime);
+            if (installedRuntime.isPresent()) {
+                LOG.info("Remote runtime {} has been installed by another process in {}", remoteRuntime.getHref(), installedRuntime.get().getJavaHome());
+                return installedRuntime.get();
+            }
+
+            return install(remoteRuntime, runtimeName, publishingProgress(downloadConsumer, installLock), priority);
+        }
+    }
+
+    private LocalJavaRuntime install(final RemoteJavaRuntime remoteRuntime, final String runtimeName, final Consumer<DownloadInputStream> downloadConsumer, final DownloadPriority priority) throws IOException {
+        final FolderFactory folderFactory = new FolderFactory(cacheBasePath(), true);
+        final Path runtimePath = folderFactory.createSubFolder(runtimeName);
 
         LOG.info("Runtime {} will be installed in {}", remoteRuntime.getHref(), runtimePath);
 
-        final URL downloadRequest = remoteRuntime.getEndpoint();
-        final HttpGetRequest request = new HttpGetRequest(downloadRequest);
-        try (final HttpResponse response = request.handle()) {
-            final DownloadInputStream inputStream = new DownloadInputStream(response);
+        if (!installFromArchiveStore(remoteRuntime, runtimePath, downloadConsumer)
+                && !installFromDelta(remoteRuntime, runtimeName, runtimePath, downloadConsumer, priority)) {
+            download(remoteRuntime, runtimeName, runtimePath, downloadConsumer, priority);
+        }
+        LOG.info("Remote runtime {} successfully installed in {}", remoteRuntime.getHref(), runtimePath);
+        final LocalJavaRuntime newRuntime = LocalJavaRuntime.createManaged(remoteRuntime, runtimePath);
+
+        if (addNewRuntimeInMemory(newRuntime)) {
+            saveRuntimes();
+            deduplicateInBackground();
+            generateClassDataSharingArchiveInBackground(newRuntime);
+            return newRuntime;
+        } else {
+            return runtimes.stream()
+                    .filter(rt -> Objects.equals(rt, newRuntime))
+                    .findFirst()
+                    .orElseThrow(() -> new RuntimeException("Cannot add local runtime and cannot find it in memory either. Please restart OpenWebStart"));
+        }
+    }
+
+    /**
+     * Waits until another process that installs the same runtime has released the install lock.
+     * The progress of the other process is passed to the download consumer.
+     */
+    private void awaitInstallOfOtherProcess(final RemoteJavaRuntime remoteRuntime, final RuntimeInstallLock installLock, final Consumer<DownloadInputStream> downloadConsumer) throws IOException {
+        LOG.info("Runtime {} is installed by another process. Waiting for it", remoteRuntime.getHref());
+        final long size = remoteRuntime.getSize().orElse(-1);
+        try (final DownloadInputStream inputStream = new DownloadInputStream(installLock.awaitLock(), size, remoteRuntime.getEndpoint())) {
+            if (downloadConsumer != null) {
+                downloadConsumer.accept(inputStream);
+            }
+            readRemaining(inputStream);
+        }
+    }
 
+    /**
+     * Returns the runtime if another process has installed it into the runtime cache.
+     */
+    private Optional<LocalJavaRuntime> loadRuntimeInstalledByOtherProcess(final RemoteJavaRuntime remoteRuntime) {
+        loadChangesOfOtherProcesses();
+        return runtimes.stream()
+                .filter(LocalJavaRuntime::isManaged)
+                .filter(LocalJavaRuntime::isActive)
+                .filter(r -> Objects.equals(r.getVersion(), remoteRuntime.getVersion()))
+                .filter(r -> Objects.equals(r.getVendor(), remoteRuntime.getVendor()))
+                .filter(r -> r.getOperationSystem() == remoteRuntime.getOperationSystem())
+                .filter(r -> !isJvmMissing(r))
+                .findFirst();
+    }
+
+    private static Consumer<DownloadInputStream> publishingProgress(final Consumer<DownloadInputStream> downloadConsumer, final RuntimeInstallLock installLock) {
+        return inputStream -> {
+            inputStream.addDownloadPercentageListener(percentage -> installLock.publishProgress(inputStream.getDownloaded()));
             if (downloadConsumer != null) {
                 downloadConsumer.accept(inputStream);
             }
-            LOG.info("Trying to download and extract runtime {}", remoteRuntime.getHref());
+        };
+    }
+
+    /**
+     * Replaces identical files of all managed runtimes by hard links.
+     */
+    private void deduplicateInBackground() {
+        if (!RuntimeManagerConfig.isDeduplicationEnabled()) {
+            return;
+        }
+        getDaemonExecutorService().execute(() -> {
+            runtimeDirectoryLock.lock();
+            try {
+                final Path cachePath = cacheBasePath();
+                final List<Path> runtimeDirs = runtimes.stream()
+                        .filter(LocalJavaRuntime::isManaged)
+                        .map(LocalJavaRuntime::getJavaHome)
+                        .filter(javaHome -> javaHome.startsWith(cachePath))
+                        .collect(Collectors.toList());
+                new RuntimeDeduplicator(cachePath).deduplicate(runtimeDirs);
+            } catch (final Exception e) {
+                LOG.warn("Deduplication of runtimes failed: {}", e.getMessage());
+            } finally {
+                runtimeDirectoryLock.unlock();
+            }
+        });
+    }
+
+    private void generateClassDataSharingArchiveInBackground(final LocalJavaRuntime runtime) {
+        if (!RuntimeManagerConfig.isClassDataSharingEnabled()) {
+            return;
+        }
+        try {
+            new ClassDataSharingArchive(cacheBasePath(), runtime, OwsJvmLauncher.getOpenWebStartJar()).generateInBackground();
+        } catch (final Exception e) {
+            LOG.warn("Could not create CDS archive for runtime {}: {}", runtime.getJavaHome(), e.getMessage());
+        }
+    }
+
+    private void download(final RemoteJavaRuntime remoteRuntime, final String runtimeName, final Path runtimePath, final Consumer<DownloadInputStream> downloadConsumer, final DownloadPriority priority) throws IOException {
+        final HostThroughputStore throughputStore = new HostThroughputStore(cacheBasePath());
+        final List<URL> endpoints = new MirrorSelector(throughputStore).order(remoteRuntime.getEndpoints(), remoteRuntime.getSize());
+        // content of different mirrors is only combined if it is verified by a checksum
+        final List<URL> mirrors = remoteRuntime.getSha256().isPresent() ? endpoints : Collections.emptyList();
+        final Path partFile = downloadBasePath().resolve(FilenameUtil.toSimplifiedFileName(runtimeName) + RuntimeManagerConstants.PARTIAL_DOWNLOAD_SUFFIX);
+        int endpointIndex = 0;
+        int attempt = 1;
+        while (true) {
+            final URL downloadRequest = endpoints.get(endpointIndex);
+            final BandwidthLimiter downloadBandwidthLimiter = createBandwidthLimiter(priority);
+            final PersistentDownload download = createDownload(downloadRequest, partFile, downloadBandwidthLimiter, mirrors);
+            final long startTime = System.nanoTime();
+            try {
+                downloadAndExtract(remoteRuntime, download, downloadBandwidthLimiter, runtimePath, downloadConsumer);
+                throughputStore.record(downloadRequest, download.getPersistedSize() - download.getResumedFrom(), System.nanoTime() - startTime);
+                break;
+            } catch (final Exception e) {
+                LOG.error("Error in runtime {} download: {}", downloadRequest, e.getMessage());
+                closeQuietly(download);
+                throughputStore.record(downloadRequest, download.getPersistedSize() - download.getResumedFrom(), System.nanoTime() - startTime);
+                if (isVerificationFailure(e)) {
+                    LOG.error("Download of runtime {} is corrupt and will be removed", downloadRequest);
+                    discardQuietly(download);
+                }
+                try {
+                    FileUtils.recursiveDelete(runtimePath.toFile(), cacheBaseDir());
+                } catch (IOException ex) {
+                    throw new IOException("Error in Download + Cannot delete directory", e);
+                }
+                if (endpointIndex + 1 < endpoints.size()) {
+                    endpointIndex++;
+                    LOG.info("Download of runtime {} failed after {} bytes. Will continue download from mirror {}",
+                            downloadRequest, download.getPersistedSize(), endpoints.get(endpointIndex));
+                    Files.createDirectories(runtimePath);
+                    continue;
+                }
+                if (shouldRetryDownload(e, download, attempt)) {
+                    attempt++;
+                    LOG.info("Download of runtime {} was interrupted after {} bytes. Will continue download (attempt {} of {})",
+                            downloadRequest, download.getPersistedSize(), attempt, MAX_DOWNLOAD_ATTEMPTS);
+                    Files.createDirectories(runtimePath);
+                    continue;
+                }
+                throw new IOException("Error in runtime download", e);
+            }
+        }
+    }
+
+    /**
+     * Installs the runtime from an archive that has been downloaded before. If the archive is corrupt
+     * it is removed from the store and the runtime needs to be downloaded.
+     *
+     * @return true if the runtime has been installed
+     */
+    private boolean installFromArchiveStore(final RemoteJavaRuntime remoteRuntime, final Path runtimePath, final Consumer<DownloadInputStream> downloadConsumer) throws IOException {
+        final RuntimeArchiveStore archiveStore = archiveStore();
+        if (!archiveStore.isEnabled()) {
+            return false;
+        }
+        final String validator = RuntimeArchiveStore.isValidatorRequired(remoteRuntime) ? fetchValidator(remoteRuntime) : null;
+        final Optional<Path> archive = archiveStore.find(remoteRuntime, validator);
+        if (!archive.isPresent()) {
+            return false;
+        }
+
+        LOG.info("Runtime {} will be installed from stored archive {}", remoteRuntime.getHref(), archive.get());
+        try {
+            final Path archivePath = archive.get();
+            final DownloadInputStream inputStream = new DownloadInputStream(Files.newInputStream(archivePath), Files.size(archivePath), archivePath.toUri().toURL());
+            inputStream.setExpectedSha256(archivePath.getFileName().toString());
+            if (getMimeType(archivePath) == MimeType.ZIP) {
+                // a ZIP file on disk can be extracted in parallel once its checksum is verified
+                if (downloadConsumer != null) {
+                    downloadConsumer.accept(inputStream);
+                }
+                try (final InputStream verifiedStream = inputStream) {
+                    readRemaining(verifiedStream);
+                }
+                LOG.info("Stored runtime archive is a ZIP. Will extract it in parallel");
+                ExtractUtil.unZip(archivePath, runtimePath, RuntimeManagerConfig.getExtractWriterThreads());
+            } else {
+                extract(remoteRuntime, inputStream, runtimePath, downloadConsumer);
+            }
+            return true;
+        } catch (final Exception e) {
+            LOG.warn("Could not install runtime {} from stored archive: {}. Will download it", remoteRuntime.getHref(), e.getMessage());
+            archiveStore.remove(archive.get());
+            try {
+                FileUtils.recursiveDelete(runtimePath.toFile(), cacheBaseDir());
+            } catch (IOException ex) {
+                throw new IOException("Error in installation from stored archive + Cannot delete directory", e);
+            }
+            Files.createDirectories(runtimePath);
+            return false;
+        }
+    }
+
+    /**
+     * Creates the runtime from an installed runtime of a base version and a patch archive. Only the patch
+     * archive needs to be downloaded. If no base runtime is installed or the patch cannot be applied the
+     * complete archive of the runtime needs to be downloaded.
+     *
+     * @return true if the runtime has been installed
+     */
+    private boolean installFromDelta(final RemoteJavaRuntime remoteRuntime, final String runtimeName, final Path runtimePath, final Consumer<DownloadInputStream> downloadConsumer, final DownloadPriority priority) throws IOException {
+        for (final RemoteRuntimeDelta delta : remoteRuntime.getDeltas()) {
+            final Optional<LocalJavaRuntime> baseRuntime = findDeltaBase(remoteRuntime, delta);
+            if (!baseRuntime.isPresent()) {
+                continue;
+            }
+
+            LOG.info("Runtime {} will be installed from patch {} for installed runtime {}", remoteRuntime.getHref(), delta.getHref(), baseRuntime.get().getJavaHome());
+            final Path partFile = downloadBasePath().resolve(FilenameUtil.toSimplifiedFileName(runtimeName) + RuntimeManagerConstants.DELTA_DOWNLOAD_SUFFIX + RuntimeManagerConstants.PARTIAL_DOWNLOAD_SUFFIX);
+            final BandwidthLimiter downloadBandwidthLimiter = createBandwidthLimiter(priority);
+            final PersistentDownload download = createDownload(delta.getEndpoint(), partFile, downloadBandwidthLimiter);
+            try {
+                final DownloadInputStream inputStream = new DownloadInputStream(download.open(), download.getContentSize(), download.getUrl());
+                inputStream.setBandwidthLimiter(downloadBandwidthLimiter);
+                delta.getSize().ifPresent(inputStream::setExpectedSize);
+                delta.getSha256().ifPresent(inputStream::setExpectedSha256);
+                if (downloadConsumer != null) {
+                    downloadConsumer.accept(inputStream);
+                }
+                try (final InputStream verifiedStream = inputStream) {
+                    readRemaining(verifiedStream);
+                }
+                download.close();
+
+                runtimeDirectoryLock.lock();
+                try {
+                    new RuntimeDeltaInstaller(baseRuntime.get().getJavaHome(), RuntimeManagerConfig.getExtractWriterThreads())
+                            .install(download.getPartFile(), runtimePath);
+                } finally {
+                    runtimeDirectoryLock.unlock();
+                }
+                return true;
+            } catch (final Exception e) {
+                LOG.warn("Could not install runtime {} from patch {}: {}. Will download the complete runtime", remoteRuntime.getHref(), delta.getHref(), e.getMessage());
+                closeQuietly(download);
+                try {
+                    FileUtils.recursiveDelete(runtimePath.toFile(), cacheBaseDir());
+                } catch (IOException ex) {
+                    throw new IOException("Error in installation from patch + Cannot delete directory", e);
+                }
+                Files.createDirectories(runtimePath);
+                return false;
+            } finally {
+                discardQuietly(download);
+            }
+        }
+        return false;
+    }
+
+    private Optional<LocalJavaRuntime> findDeltaBase(final RemoteJavaRuntime remoteRuntime, final RemoteRuntimeDelta delta) {
+        return runtimes.stream()
+                .filter(LocalJavaRuntime::isManaged)
+                .filter(runtime -> Objects.equals(runtime.getVersion(), delta.getBaseVersion()))
+                .filter(runtime -> Objects.equals(runtime.getVendor(), remoteRuntime.getVendor()))
+                .filter(runtime -> runtime.getOperationSystem() == remoteRuntime.getOperationSystem())
+                .filter(runtime -> !isJvmMissing(runtime))
+                .findFirst();
+    }
+
+    private void downloadAndExtract(final RemoteJavaRuntime remoteRuntime, final PersistentDownload download, final BandwidthLimiter downloadBandwidthLimiter, final Path runtimePath, final Consumer<DownloadInputStream> downloadConsumer) throws IOException {
+        final InputStream content = download.open();
+        verifyContentSize(remoteRuntime, download, content);
+        final DownloadInputStream inputStream = new DownloadInputStream(content, download.getContentSize(), download.getUrl());
+        inputStream.setBandwidthLimiter(downloadBandwidthLimiter);
+        remoteRuntime.getSize().ifPresent(inputStream::setExpectedSize);
+        remoteRuntime.getSha256().ifPresent(inputStream::setExpectedSha256);
 
-            MimeTypeInputStream wrappedStream = new MimeTypeInputStream(inputStream);
+        extract(remoteRuntime, inputStream, runtimePath, downloadConsumer);
+
+        storeArchive(remoteRuntime, download, inputStream.getHash().getNow(null));
+    }
+
+    /**
+     * @return the ETag or Last-Modified value of the remote archive of the runtime or null if it is unknown
+     */
+    private static String fetchValidator(final RemoteJavaRuntime remoteRuntime) {
+        HttpResponse response = null;
+        try {
+            final HttpGetRequest request = new HttpGetRequest(remoteRuntime.getEndpoint());
+            // only the headers are needed
+            request.addRequestHeader("Range", "bytes=0-0");
+            response = request.handle();
+            final int responseCode = response.readResponseCode();
+            if (responseCode == HttpURLConnection.HTTP_OK || responseCode == HttpURLConnection.HTTP_PARTIAL) {
+                return response.getValidator();
+            }
+            LOG.debug("Could not get validator of runtime {}: HTTP response code {}", remoteRuntime.getHref(), responseCode);
+        } catch (final IOException e) {
+            LOG.debug("Could not get validator of runtime {}: {}", remoteRuntime.getHref(), e.getMessage());
+        } finally {
+            if (response != null) {
+                response.close();
+            }
+        }
+        return null;
+    }
+
+    private void extract(final RemoteJavaRuntime remoteRuntime, final DownloadInputStream inputStream, final Path runtimePath, final Consumer<DownloadInputStream> downloadConsumer) throws IOException {
+        if (downloadConsumer != null) {
+            downloadConsumer.accept(inputStream);
+        }
+        LOG.info("Trying to download and extract runtime {}", remoteRuntime.getHref());
+
+        // network transfer and extraction run on different threads
+        final PipelinedInputStream pipelinedStream = new PipelinedInputStream(inputStream, remoteRuntime.getHref());
+        try (final MimeTypeInputStream wrappedStream = new MimeTypeInputStream(pipelinedStream)) {
             final MimeType mimeType = wrappedStream.getMimeType();
+            final int writerThreads = RuntimeManagerConfig.getExtractWriterThreads();
             if (MimeType.ZIP == mimeType) {
                 LOG.info("Remote runtime is distributed as ZIP. Will extract it");
-                ExtractUtil.unZip(wrappedStream, runtimePath);
+                ExtractUtil.unZip(nonClosing(wrappedStream), runtimePath, writerThreads);
             } else if (MimeType.GZIP == mimeType) {
                 LOG.info("Remote runtime is distributed as GZIP. Will extract it");
-                ExtractUtil.unTarGzip(wrappedStream, runtimePath); //We assume that GZIP is always a tar.gz
+                ExtractUtil.unTarGzip(nonClosing(wrappedStream), runtimePath, writerThreads); //We assume that GZIP is always a tar.gz
+            } else if (MimeType.XZ == mimeType) {
+                LOG.info("Remote runtime is distributed as XZ. Will extract it");
+                ExtractUtil.unTarXz(nonClosing(wrappedStream), runtimePath, writerThreads); //We assume that XZ is always a tar.xz
+            } else if (MimeType.ZSTD == mimeType) {
+                LOG.info("Remote runtime is distributed as ZSTD. Will extract it");
+                ExtractUtil.unTarZstd(nonClosing(wrappedStream), runtimePath, writerThreads); //We assume that ZSTD is always a tar.zst
             } else {
                 throw new IllegalStateException("The remote runtime is distributed in an unknown mimetype.");
             }
-        } catch (final Exception e) {
-            LOG.error("Error in runtime {} download: {}", remoteRuntime.getHref(), e.getMessage());
+            // an archive can end before the downloaded content. The remaining bytes are needed for the verification
+            readRemaining(wrappedStream);
+        } finally {
+            pipelinedStream.close();
+        }
+    }
+
+    /**
+     * Moves a completely downloaded archive into the archive store. Otherwise the partial download is removed.
+     */
+    private void storeArchive(final RemoteJavaRuntime remoteRuntime, final PersistentDownload download, final String sha256) {
+        final RuntimeArchiveStore archiveStore = archiveStore();
+        if (archiveStore.isEnabled() && sha256 != null && download.isComplete()) {
             try {
-                FileUtils.recursiveDelete(runtimePath.toFile(), cacheBaseDir());
-            } catch (IOException ex) {
-                throw new IOException("Error in Download + Cannot delete directory", e);
+                download.close();
+                archiveStore.add(remoteRuntime, download.getPartFile(), sha256, download.getValidator());
+            } catch (final IOException e) {
+                LOG.warn("Could not store archive of runtime {}: {}", remoteRuntime.getHref(), e.getMessage());
             }
-            throw new IOException("Error in runtime download", e);
         }
-        LOG.info("Remote runtime {} successfully installed in {}", remoteRuntime.getHref(), runtimePath);
-        final LocalJavaRuntime newRuntime = LocalJavaRuntime.createManaged(remoteRuntime, runtimePath);
+        discardQuietly(download);
+    }
 
-        if (addNewRuntimeInMemory(newRuntime)) {
-            saveRuntimes();
-            return newRuntime;
-        } else {
-            return runtimes.stream()
-                    .filter(rt -> Objects.equals(rt, newRuntime))
-                    .findFirst()
-                    .orElseThrow(() -> new RuntimeException("Cannot add local runtime and cannot find it in memory either. Please restart OpenWebStart"));
+    private static void verifyContentSize(final RemoteJavaRuntime remoteRuntime, final PersistentDownload download, final InputStream content) throws IOException {
+        final OptionalLong expectedSize = remoteRuntime.getSize();
+        if (expectedSize.isPresent() && download.getContentSize() > 0 && download.getContentSize() != expectedSize.getAsLong()) {
+            content.close();
+            throw new DownloadVerificationException("Server announced " + download.getContentSize() + " bytes for " + remoteRuntime.getHref() + " but " + expectedSize.getAsLong() + " bytes were expected");
+        }
+    }
+
+    private static MimeType getMimeType(final Path archive) throws IOException {
+        try (final MimeTypeInputStream inputStream = new MimeTypeInputStream(Files.newInputStream(archive))) {
+            return inputStream.getMimeType();
+        }
+    }
+
+    private static InputStream nonClosing(final InputStream inputStream) {
+        return new FilterInputStream(inputStream) {
+            @Override
+            public void close() {
+                // closed after the verification of the remaining content
+            }
+        };
+    }
+
+    private static void readRemaining(final InputStream inputStream) throws IOException {
+        final byte[] buffer = new byte[8192];
+        while (inputStream.read(buffer) >= 0) {
+            // only the downloaded bytes are of interest
+        }
+    }
+
+    private static boolean isVerificationFailure(final Throwable throwable) {
+        Throwable current = throwable;
+        while (current != null) {
+            if (current instanceof DownloadVerificationException) {
+                return true;
+            }
+            current = current.getCause();
+        }
+        return false;
+    }
+
+    /**
+     * A download is only retried if it was interrupted while receiving data. The next attempt continues
+     * at the last byte that has been persisted.
+     */
+    private boolean shouldRetryDownload(final Exception e, final PersistentDownload download, final int attempt) {
+        return attempt < MAX_DOWNLOAD_ATTEMPTS
+                && e instanceof IOException
+                && !isVerificationFailure(e)
+                && !download.isComplete()
+                && download.getPersistedSize() > download.getResumedFrom();
+    }
+
+    private PersistentDownload createDownload(final URL url, final Path partFile, final BandwidthLimiter downloadBandwidthLimiter) {
+        return createDownload(url, partFile, downloadBandwidthLimiter, Collections.emptyList());
+    }
+
+    /**
+     * @param mirrors URLs with the same content whose partial downloads can be continued
+     */
+    private PersistentDownload createDownload(final URL url, final Path partFile, final BandwidthLimiter downloadBandwidthLimiter, final List<URL> mirrors) {
+        final int segments = RuntimeManagerConfig.getDownloadSegments();
+        if (segments > 1) {
+            return new SegmentedDownload(url, partFile, segments, downloadBandwidthLimiter);
+        }
+        return new ResumableDownload(url, partFile, downloadBandwidthLimiter, mirrors);
+    }
+
+    /**
+     * Every download has its own limiter that measures the throughput of the download. The bandwidth is
+     * limited by the shared limiters of all downloads and of all downloads in the background.
+     */
+    private BandwidthLimiter createBandwidthLimiter(final DownloadPriority priority) {
+        bandwidthLimiter.setBytesPerSecond(RuntimeManagerConfig.getDownloadMaxBandwidth() * 1024);
+        backgroundBandwidthLimiter.setBytesPerSecond(RuntimeManagerConfig.getBackgroundDownloadMaxBandwidth() * 1024);
+        final BandwidthLimiter parent = priority == DownloadPriority.BACKGROUND ? backgroundBandwidthLimiter : bandwidthLimiter;
+        return new BandwidthLimiter(BandwidthLimiter.UNLIMITED, parent);
+    }
+
+    private void discardQuietly(final PersistentDownload download) {
+        try {
+            download.discard();
+        } catch (final IOException e) {
+            LOG.warn("Could not remove partial download {}: {}", download.getPartFile(), e.getMessage());
+        }
+    }
+
+    private void closeQuietly(final PersistentDownload download) {
+        try {
+            download.close();
+        } catch (final IOException e) {
+            LOG.debug("Error while closing download of {}: {}", download.getUrl(), e.getMessage());
         }
     }
 
@@ -475,13 +1082,35 @@ public final class LocalRuntimeManager {
         LOG.debug("Trying to find local Java runtime. Requested version: '{}' Requested vendor: '{}' requested os: '{}' active: '{}'",
                 versionString, vendor, operationSystem, active);
 
-        return runtimes.stream()
-                .filter(r -> r.isActive() == active)
-                .filter(r -> Objects.equals(vendor, ANY_VENDOR) || Objects.equals(vendor, r.getVendor()))
-                .filter(r -> versionString.contains(r.getVersion()))
+        loadChangesOfOtherProcesses();
+
+        final List<LocalJavaRuntime> candidates = getRuntimeIndex(active).find(versionString, vendor, operationSystem).stream()
                 .filter(r -> Optional.ofNullable(RuntimeManagerConfig.getSupportedVersionRange()).map(v -> v.contains(r.getVersion())).orElse(true))
-                .filter(r -> operationSystem == r.getOperationSystem())
-                .max(new RuntimeVersionComparator(versionString));
+                .collect(Collectors.toList());
+
+        // the shared cache is consulted first. A runtime of the user is only used if it is a better match
+        final RuntimeVersionComparator comparator = new RuntimeVersionComparator(versionString);
+        final Optional<LocalJavaRuntime> bestShared = candidates.stream()
+                .filter(this::isShared)
+                .max(comparator);
+        final Optional<LocalJavaRuntime> bestOfUser = candidates.stream()
+                .filter(r -> !isShared(r))
+                .max(comparator);
+
+        if (bestShared.isPresent() && (!bestOfUser.isPresent() || comparator.compare(bestShared.get(), bestOfUser.get()) >= 0)) {
+            return bestShared;
+        }
+        return bestOfUser;
+    }
+
+    private RuntimeIndex<LocalJavaRuntime> getRuntimeIndex(final boolean active) {
+        final long modCount = runtimesModCount.get();
+        RuntimeIndexes indexes = runtimeIndexes;
+        if (indexes == null || indexes.modCount != modCount) {
+            indexes = new RuntimeIndexes(modCount, runtimes);
+            runtimeIndexes = indexes;
+        }
+        return active ? indexes.active : indexes.deactivated;
     }
 
     boolean hasManagedRuntime(final VersionId versionId, final Vendor vendor, final OperationSystem os) {
@@ -499,4 +1128,35 @@ public final class LocalRuntimeManager {
     private Path cacheBasePath() {
         return RuntimeManagerConfig.getCachePath();
     }
+
+    private Path installLockBasePath() {
+        return cacheBasePath().resolve(RuntimeManagerConstants.INSTALL_LOCK_DIR_NAME);
+    }
+
+    private Path downloadBasePath() {
+        return cacheBasePath().resolve(RuntimeManagerConstants.DOWNLOAD_DIR_NAME);
+    }
+
+    private RuntimeArchiveStore archiveStore() {
+        final long maxSizeInBytes = RuntimeManagerConfig.getArchiveStoreMaxSize() * 1024 * 1024;
+        return new RuntimeArchiveStore(cacheBasePath().resolve(RuntimeManagerConstants.ARCHIVE_STORE_DIR_NAME), maxSizeInBytes);
+    }
+
+    /**
+     * Indexes of the active and the deactivated runtimes at a modification of the runtimes.
+     */
+    private static final class RuntimeIndexes {
+
+        private final long modCount;
+
+        private final RuntimeIndex<LocalJavaRuntime> active;
+
+        private final RuntimeIndex<LocalJavaRuntime> deactivated;
+
+        private RuntimeIndexes(final long modCount, final List<LocalJavaRuntime> runtimes) {
+            this.modCount = modCount;
+            this.active = new RuntimeIndex<>(runtimes.stream().filter(LocalJavaRuntime::isActive).collect(Collectors.toList()));
+            this.deactivated = new RuntimeIndex<>(runtimes.stream().filter(r -> !r.isActive()).collect(Collectors.toList()));
+        }
+    }
 }
@@ -0,0 +1,416 @@
+package com.openwebstart.jvm;
+
+import com.google.gson.JsonSyntaxException;
+import com.openwebstart.jvm.json.CacheStore;
+import com.openwebstart.jvm.json.CacheStoreChange;
+import com.openwebstart.jvm.json.JsonHandler;
+import com.openwebstart.jvm.runtimes.LocalJavaRuntime;
+import net.adoptopenjdk.icedteaweb.Assert;
+import net.adoptopenjdk.icedteaweb.logging.Logger;
+import net.adoptopenjdk.icedteaweb.logging.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AccessDeniedException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.file.StandardOpenOption.APPEND;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.CREATE_NEW;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Persists the runtimes of a runtime cache in a snapshot ({@code cache.json}) and a journal
+ * ({@code cache.journal}) of the changes since the snapshot has been written. Saving the runtimes only appends
+ * the changes to the journal. Once the journal has grown too large it is folded into a new snapshot. Files are
+ * replaced by writing a temporary file that is moved into place atomically, so a crash never leaves a partially
+ * written snapshot behind. A partially written last entry of the journal is ignored when the store is read.
+ * <p>
+ * The first line of the journal is the id of the snapshot it belongs to. A journal with another id is outdated,
+ * for example because another process has written a new snapshot, and is ignored.
+ * <p>
+ * Several processes share the store. Saving holds a file lock ({@code cache.lock}) while the store is read,
+ * merged with the changes of this process and written, so the changes of other processes are never overwritten.
+ * The version of the store consists of the id and the length of the journal and the modification time and the
+ * length of the snapshot. As the journal only grows until it gets a new id, every change of another process
+ * changes the version. A process can therefore check for changes of other processes without reading the store.
+ * <p>
+ * This class is not thread safe.
+ */
+class LocalRuntimeStore {
+
+    private static final Logger LOG = LoggerFactory.getLogger(LocalRuntimeStore.class);
+
+    static final String JOURNAL_FILENAME = "cache.journal";
+
+    static final String LOCK_FILENAME = "cache.lock";
+
+    static final int MAX_JOURNAL_ENTRIES = 100;
+
+    private static final String LINE_SEPARATOR = "\n";
+
+    private final Path cacheDir;
+
+    private final Path snapshotFile;
+
+    private final Path journalFile;
+
+    private final Path lockFile;
+
+    /**
+     * The runtimes as they have been read or written by this store, identified by their java home.
+     */
+    private final Map<Path, LocalJavaRuntime> persisted = new LinkedHashMap<>();
+
+    private String journalId;
+
+    private int journalEntries;
+
+    /**
+     * The version of the files when the store has been read or written by this store.
+     */
+    private String version;
+
+    LocalRuntimeStore(final Path cacheDir) {
+        this.cacheDir = Assert.requireNonNull(cacheDir, "cacheDir");
+        this.snapshotFile = cacheDir.resolve(RuntimeManagerConstants.JSON_STORE_FILENAME);
+        this.journalFile = cacheDir.resolve(JOURNAL_FILENAME);
+        this.lockFile = cacheDir.resolve(LOCK_FILENAME);
+    }
+
+    Path getCacheDir() {
+        return cacheDir;
+    }
+
+    /**
+     * Reads the runtimes of the store. Later calls of {@link #save(List)} only persist the changes compared to
+     * the runtimes that have been loaded.
+     */
+    List<LocalJavaRuntime> load() throws IOException {
+        // the version is read first, so a change while reading is detected by the next check
+        version = readVersion();
+        final State state = readState();
+        setPersisted(state);
+        return new ArrayList<>(state.runtimes.values());
+    }
+
+    /**
+     * @return true if another process has changed the store since it has been read or written by this store
+     */
+    boolean isModified() throws IOException {
+        return !Objects.equals(version, readVersion());
+    }
+
+    /**
+     * Reads the store if another process has changed it and returns the changes of the other process compared to
+     * the runtimes this store has read or written.
+     */
+    List<CacheStoreChange> reload() throws IOException {
+        final String currentVersion = readVersion();
+        if (Objects.equals(version, currentVersion)) {
+            return Collections.emptyList();
+        }
+        LOG.debug("Runtime cache {} has been changed by another process", snapshotFile);
+        version = currentVersion;
+        final State state = readState();
+        final List<CacheStoreChange> changes = getChanges(persisted, state.runtimes);
+        setPersisted(state);
+        return changes;
+    }
+
+    /**
+     * Reads the runtimes of the store including the changes of other processes.
+     */
+    List<LocalJavaRuntime> read() throws IOException {
+        return new ArrayList<>(readState().runtimes.values());
+    }
+
+    /**
+     * Saves the changes of the runtimes compared to the runtimes this store has read or written. If another process
+     * has changed the store in the meantime, the changes of both processes are merged. A runtime that has been
+     * removed by the other process stays removed.
+     *
+     * @return the changes of other processes that need to be applied to the given runtimes to get the saved runtimes
+     */
+    List<CacheStoreChange> save(final List<LocalJavaRuntime> runtimes) throws IOException {
+        Assert.requireNonNull(runtimes, "runtimes");
+        final Map<Path, LocalJavaRuntime> current = byJavaHome(runtimes);
+        final List<CacheStoreChange> changes = getChanges(persisted, current);
+        if (changes.isEmpty() && !isModified()) {
+            return Collections.emptyList();
+        }
+
+        Files.createDirectories(cacheDir);
+        try (final FileChannel lockChannel = FileChannel.open(lockFile, CREATE, WRITE);
+             final FileLock ignored = lock(lockChannel)) {
+            Map<Path, LocalJavaRuntime> merged = current;
+            List<CacheStoreChange> mergedChanges = changes;
+            if (isModified()) {
+                final State state = readState();
+                final Map<Path, LocalJavaRuntime> removedByOtherProcess = new LinkedHashMap<>(persisted);
+                removedByOtherProcess.keySet().removeAll(state.runtimes.keySet());
+                mergedChanges = new ArrayList<>();
+                for (final CacheStoreChange change : changes) {
+                    if (change.getPut() == null || !removedByOtherProcess.containsKey(change.getPut().getJavaHome())) {
+                        mergedChanges.add(change);
+                    }
+                }
+                merged = new LinkedHashMap<>(state.runtimes);
+                for (final CacheStoreChange change : mergedChanges) {
+                    apply(merged, change);
+                }
+                setPersisted(state);
+            }
+
+            if (!mergedChanges.isEmpty() && (journalId == null || journalEntries + mergedChanges.size() > MAX_JOURNAL_ENTRIES || !appendToJournal(mergedChanges))) {
+                compact(mergedChanges);
+            }
+            persisted.clear();
+            persisted.putAll(merged);
+            version = readVersion();
+            return getChanges(current, merged);
+        }
+    }
+
+    private static List<CacheStoreChange> getChanges(final Map<Path, LocalJavaRuntime> from, final Map<Path, LocalJavaRuntime> to) {
+        final JsonHandler jsonHandler = JsonHandler.getInstance();
+        final List<CacheStoreChange> changes = new ArrayList<>();
+        from.forEach((javaHome, runtime) -> {
+            if (!to.containsKey(javaHome)) {
+                changes.add(CacheStoreChange.remove(runtime));
+            }
+        });
+        // the equals method of a runtime ignores its state, so the serialized runtimes are compared
+        to.forEach((javaHome, runtime) -> {
+            final LocalJavaRuntime fromRuntime = from.get(javaHome);
+            if (fromRuntime == null || !jsonHandler.toCompactJson(fromRuntime).equals(jsonHandler.toCompactJson(runtime))) {
+                changes.add(CacheStoreChange.put(runtime));
+            }
+        });
+        return changes;
+    }
+
+    private void setPersisted(final State state) {
+        persisted.clear();
+        persisted.putAll(state.runtimes);
+        journalId = state.journalId;
+        journalEntries = state.journalEntries;
+    }
+
+    /**
+     * Locks the store for other processes. Returns null if the file system does not support locks, in that case
+     * the store is saved without a lock.
+     */
+    private FileLock lock(final FileChannel lockChannel) {
+        try {
+            return lockChannel.lock();
+        } catch (final IOException | OverlappingFileLockException e) {
+            LOG.debug("Could not lock {}: {}", lockFile, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * @return false if the journal does not belong to the snapshot this store knows
+     */
+    private boolean appendToJournal(final List<CacheStoreChange> changes) throws IOException {
+        if (!Objects.equals(journalId, readJournalId())) {
+            LOG.debug("Journal {} has been replaced by another process", journalFile);
+            return false;
+        }
+        // every entry starts on a new line, so an incomplete last entry does not corrupt the appended ones
+        final StringBuilder entries = new StringBuilder();
+        changes.forEach(change -> entries.append(LINE_SEPARATOR).append(JsonHandler.getInstance().toCompactJson(change)));
+        try {
+            write(journalFile, entries.toString(), WRITE, APPEND);
+        } catch (final NoSuchFileException e) {
+            return false;
+        }
+        journalEntries += changes.size();
+        return true;
+    }
+
+    /**
+     * Writes a new snapshot that contains the runtimes of the current snapshot, all changes of its journal and
+     * the given changes. The journal is replaced by an empty journal of the new snapshot.
+     */
+    private void compact(final List<CacheStoreChange> changes) throws IOException {
+        LOG.debug("Writing snapshot of runtime cache {}", snapshotFile);
+        Map<Path, LocalJavaRuntime> runtimes;
+        try {
+            runtimes = readState().runtimes;
+        } catch (final IOException | JsonSyntaxException e) {
+            LOG.warn("Could not read runtime cache {}, it will be overwritten: {}", snapshotFile, e.getMessage());
+            runtimes = new LinkedHashMap<>(persisted);
+        }
+        for (final CacheStoreChange change : changes) {
+            apply(runtimes, change);
+        }
+
+        final String newJournalId = UUID.randomUUID().toString();
+        writeAtomically(snapshotFile, JsonHandler.getInstance().toCompactJson(new CacheStore(new ArrayList<>(runtimes.values()), newJournalId)));
+        writeAtomically(journalFile, newJournalId);
+        journalId = newJournalId;
+        journalEntries = 0;
+    }
+
+    private State readState() throws IOException {
+        final Map<Path, LocalJavaRuntime> runtimes = new LinkedHashMap<>();
+        if (!Files.isRegularFile(snapshotFile)) {
+            return new State(runtimes, null, 0);
+        }
+        final CacheStore cacheStore = JsonHandler.getInstance().fromJson(readUtf8(snapshotFile), CacheStore.class);
+        if (cacheStore == null) {
+            return new State(runtimes, null, 0);
+        }
+        cacheStore.getRuntimes().forEach(runtime -> runtimes.put(runtime.getJavaHome(), runtime));
+
+        final String snapshotJournalId = cacheStore.getJournalId();
+        int entries = 0;
+        if (snapshotJournalId != null && Files.isRegularFile(journalFile)) {
+            final String[] lines = readUtf8(journalFile).split(LINE_SEPARATOR);
+            if (snapshotJournalId.equals(lines[0])) {
+                for (int i = 1; i < lines.length; i++) {
+                    if (lines[i].trim().isEmpty()) {
+                        continue;
+                    }
+                    try {
+                        apply(runtimes, JsonHandler.getInstance().fromJson(lines[i], CacheStoreChange.class));
+                        entries++;
+                    } catch (final JsonSyntaxException e) {
+                        LOG.debug("Ignoring incomplete entry in {}", journalFile);
+                    }
+                }
+            } else {
+                LOG.debug("Ignoring outdated journal {}", journalFile);
+            }
+        }
+        return new State(runtimes, snapshotJournalId, entries);
+    }
+
+    private String readVersion() throws IOException {
+        return readJournalId() + "@" + size(journalFile) + "/" + lastModified(snapshotFile) + "@" + size(snapshotFile);
+    }
+
+    private String readJournalId() throws IOException {
+        try (final BufferedReader reader = Files.newBufferedReader(journalFile, StandardCharsets.UTF_8)) {
+            return reader.readLine();
+        } catch (final NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    private static void apply(final Map<Path, LocalJavaRuntime> runtimes, final CacheStoreChange change) {
+        if (change == null) {
+            return;
+        }
+        if (change.getPut() != null) {
+            runtimes.put(change.getPut().getJavaHome(), change.getPut());
+        }
+        if (change.getRemove() != null) {
+            runtimes.remove(change.getRemove().getJavaHome());
+        }
+    }
+
+    private static long size(final Path file) throws IOException {
+        try {
+            return Files.readAttributes(file, BasicFileAttributes.class).size();
+        } catch (final NoSuchFileException e) {
+            return -1;
+        }
+    }
+
+    private static long lastModified(final Path file) throws IOException {
+        try {
+            return Files.readAttributes(file, BasicFileAttributes.class).lastModifiedTime().toMillis();
+        } catch (final NoSuchFileException e) {
+            return -1;
+        }
+    }
+
+    private static Map<Path, LocalJavaRuntime> byJavaHome(final List<LocalJavaRuntime> runtimes) {
+        final Map<Path, LocalJavaRuntime> result = new LinkedHashMap<>();
+        runtimes.forEach(runtime -> result.put(runtime.getJavaHome(), runtime));
+        return result;
+    }
+
+    private static String readUtf8(final Path file) throws IOException {
+        return new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+    }
+
+    private static void writeAtomically(final Path file, final String content) throws IOException {
+        final Path tempFile = file.resolveSibling(file.getFileName() + "." + UUID.randomUUID());
+        try {
+            write(tempFile, content, WRITE, CREATE_NEW);
+            try {
+                move(tempFile, file);
+            } catch (final AccessDeniedException e) {
+                // if the file is locked, try again after sometime
+                LOG.debug("Could not replace {}. File maybe locked. Trying again.", file);
+                try {
+                    TimeUnit.SECONDS.sleep(1);
+                } catch (final InterruptedException ignored) {
+                    Thread.currentThread().interrupt();
+                }
+                move(tempFile, file);
+            }
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    private static void move(final Path source, final Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (final AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Writes the content and forces it to the storage device before returning.
+     */
+    private static void write(final Path file, final String content, final OpenOption... options) throws IOException {
+        try (final FileChannel channel = FileChannel.open(file, options)) {
+            final ByteBuffer buffer = ByteBuffer.wrap(content.getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        }
+    }
+
+    private static class State {
+
+        private final Map<Path, LocalJavaRuntime> runtimes;
+
+        private final String journalId;
+
+        private final int journalEntries;
+
+        private State(final Map<Path, LocalJavaRuntime> runtimes, final String journalId, final int journalEntries) {
+            this.runtimes = runtimes;
+            this.journalId = journalId;
+            this.journalEntries = journalEntries;
+        }
+    }
+}
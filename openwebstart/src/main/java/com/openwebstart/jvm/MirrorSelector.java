@@ -0,0 +1,127 @@
+package com.openwebstart.jvm;
+
+import com.openwebstart.http.HttpGetRequest;
+import com.openwebstart.http.HttpResponse;
+import net.adoptopenjdk.icedteaweb.Assert;
+import net.adoptopenjdk.icedteaweb.logging.Logger;
+import net.adoptopenjdk.icedteaweb.logging.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+import static com.openwebstart.concurrent.ThreadPoolHolder.getDaemonExecutorService;
+
+/**
+ * Orders the mirrors of a runtime archive by their expected download time. All mirrors are probed in
+ * parallel by requesting the first byte of the archive. The expected download time of a mirror is the
+ * time to the first byte plus the size of the archive divided by the throughput that has been measured
+ * for the host in former downloads. Mirrors that do not answer in time are kept at the end of the list
+ * in their original order, so they can still be used if all other mirrors fail.
+ */
+class MirrorSelector {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MirrorSelector.class);
+
+    private static final long PROBE_TIMEOUT_IN_MILLIS = 3_000;
+
+    private final HostThroughputStore throughputStore;
+
+    MirrorSelector(final HostThroughputStore throughputStore) {
+        this.throughputStore = Assert.requireNonNull(throughputStore, "throughputStore");
+    }
+
+    List<URL> order(final List<URL> mirrors, final OptionalLong size) {
+        Assert.requireNonNull(mirrors, "mirrors");
+        Assert.requireNonNull(size, "size");
+        if (mirrors.size() < 2) {
+            return mirrors;
+        }
+
+        // URL#equals resolves the host names, so mirrors are not used as keys of a map
+        final List<Future<Long>> probes = new ArrayList<>();
+        mirrors.forEach(mirror -> probes.add(getDaemonExecutorService().submit(() -> probe(mirror))));
+
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(PROBE_TIMEOUT_IN_MILLIS);
+        final List<Candidate> candidates = new ArrayList<>();
+        final List<URL> unanswered = new ArrayList<>();
+        for (int i = 0; i < mirrors.size(); i++) {
+            final URL mirror = mirrors.get(i);
+            try {
+                final long remaining = Math.max(0, deadline - System.nanoTime());
+                final long latency = probes.get(i).get(remaining, TimeUnit.NANOSECONDS);
+                candidates.add(new Candidate(mirror, latency, throughputStore.getThroughput(mirror)));
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return mirrors;
+            } catch (final ExecutionException | TimeoutException e) {
+                LOG.info("Mirror {} did not answer: {}", mirror, e.getCause() != null ? e.getCause().getMessage() : "timeout");
+                probes.get(i).cancel(true);
+                unanswered.add(mirror);
+            }
+        }
+
+        // a host without measurement is expected to be as fast as the best known host, so it gets a chance
+        final long bestThroughput = candidates.stream().mapToLong(c -> c.throughput).max().orElse(0);
+        candidates.sort(Comparator.comparingLong(c -> c.expectedDownloadTime(size, bestThroughput)));
+
+        final List<URL> result = candidates.stream().map(c -> c.mirror).collect(Collectors.toList());
+        result.addAll(unanswered);
+        LOG.debug("Mirrors ordered by expected download time: {}", result);
+        return result;
+    }
+
+    /**
+     * @return the time in nanoseconds until the first byte of the archive has been received
+     */
+    private static long probe(final URL mirror) throws IOException {
+        final long start = System.nanoTime();
+        final HttpGetRequest request = new HttpGetRequest(mirror);
+        request.addRequestHeader("Range", "bytes=0-0");
+        try (final HttpResponse response = request.handle()) {
+            final int responseCode = response.readResponseCode();
+            if (responseCode != HttpURLConnection.HTTP_OK && responseCode != HttpURLConnection.HTTP_PARTIAL) {
+                throw new IOException("Unexpected HTTP response code " + responseCode);
+            }
+            try (final InputStream inputStream = response.getContentStream()) {
+                if (inputStream.read() < 0) {
+                    throw new IOException("Empty response");
+                }
+            }
+            return System.nanoTime() - start;
+        }
+    }
+
+    private static class Candidate {
+
+        private final URL mirror;
+
+        private final long latency;
+
+        private final long throughput;
+
+        private Candidate(final URL mirror, final long latency, final long throughput) {
+            this.mirror = mirror;
+            this.latency = latency;
+            this.throughput = throughput;
+        }
+
+        private long expectedDownloadTime(final OptionalLong size, final long defaultThroughput) {
+            final long expectedThroughput = throughput > 0 ? throughput : defaultThroughput;
+            if (!size.isPresent() || expectedThroughput <= 0) {
+                return latency;
+            }
+            return latency + size.getAsLong() * TimeUnit.SECONDS.toNanos(1) / expectedThroughput;
+        }
+    }
+}
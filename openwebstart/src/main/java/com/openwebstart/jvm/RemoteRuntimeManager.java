@@ -10,6 +10,7 @@ import com.openwebstart.jvm.os.OperationSystem;
 import com.openwebstart.jvm.runtimes.RemoteJavaRuntime;
 import com.openwebstart.jvm.runtimes.Vendor;
 import com.openwebstart.jvm.util.RemoteRuntimeManagerCache;
+import com.openwebstart.jvm.util.RuntimeIndex;
 import com.openwebstart.jvm.util.RuntimeVersionComparator;
 import net.adoptopenjdk.icedteaweb.Assert;
 import net.adoptopenjdk.icedteaweb.io.IOUtils;
@@ -24,9 +25,6 @@ import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.atomic.AtomicReference;
-import java.util.stream.Collectors;
-
-import static com.openwebstart.jvm.runtimes.Vendor.ANY_VENDOR;
 
 class RemoteRuntimeManager {
 
@@ -57,8 +55,8 @@ class RemoteRuntimeManager {
             LOG.debug("JVM Server URL {} found in JVM Server Whitelist", specificServerEndpoint);
         }
         final URL endpointForRequest = getEndpointForRequest(specificServerEndpoint);
-        final List<RemoteJavaRuntime> remoteRuntimes = loadListOfRemoteRuntimes(endpointForRequest);
-        return selectBestRuntime(remoteRuntimes, versionString, vendor, operationSystem);
+        return loadRemoteRuntimes(endpointForRequest)
+                .flatMap(remoteRuntimes -> selectBestRuntime(remoteRuntimes.getIndex(), versionString, vendor, operationSystem));
     }
 
     private URL getEndpointForRequest(URL specificServerEndpoint) {
@@ -71,26 +69,33 @@ class RemoteRuntimeManager {
     }
 
     List<RemoteJavaRuntime> loadListOfRemoteRuntimes(URL endpointForRequest) {
-        final Result<RemoteRuntimeList> result = Optional.ofNullable(cache.get())
+        return loadRemoteRuntimes(endpointForRequest)
+                .map(remoteRuntimes -> remoteRuntimes.getList().getRuntimes())
+                .orElse(Collections.emptyList());
+    }
+
+    private Optional<RemoteRuntimeManagerCache> loadRemoteRuntimes(URL endpointForRequest) {
+        final Result<RemoteRuntimeManagerCache> result = Optional.ofNullable(cache.get())
                 .filter(RemoteRuntimeManagerCache::isStillValid)
                 .filter(c -> Objects.equals(endpointForRequest, c.getEndpointForRequest()))
-                .map(c -> (Result<RemoteRuntimeList>) new Success<>(c.getList()))
+                .map(c -> (Result<RemoteRuntimeManagerCache>) new Success<>(c))
                 .orElseGet(Result.of(() -> {
                     final HttpGetRequest request = new HttpGetRequest(endpointForRequest);
                     try (final HttpResponse response = request.handle()) {
                         final String jsonContent = IOUtils.readContentAsUtf8String(response.getContentStream());
                         final RemoteRuntimeList receivedList = parseRemoteRuntimeJson(jsonContent);
-                        cache.set(new RemoteRuntimeManagerCache(endpointForRequest, receivedList));
-                        return receivedList;
+                        final RemoteRuntimeManagerCache receivedRuntimes = new RemoteRuntimeManagerCache(endpointForRequest, receivedList);
+                        cache.set(receivedRuntimes);
+                        return receivedRuntimes;
                     }
                 }));
 
         if (result.isSuccessful()) {
-            LOG.debug("Received {} possible runtime definitions from server", result.getResult().getRuntimes().size());
-            return result.getResult().getRuntimes();
+            LOG.debug("Received {} possible runtime definitions from server", result.getResult().getList().getRuntimes().size());
+            return Optional.of(result.getResult());
         } else {
             LOG.error("Error while trying to find a remote version", result.getException());
-            return Collections.emptyList();
+            return Optional.empty();
         }
 
     }
@@ -99,12 +104,9 @@ class RemoteRuntimeManager {
         return JsonHandler.getInstance().fromJson(jsonContent, RemoteRuntimeList.class);
     }
 
-    private Optional<RemoteJavaRuntime> selectBestRuntime(List<RemoteJavaRuntime> remoteRuntimes, VersionString versionString, Vendor vendor, OperationSystem operationSystem) {
+    private Optional<RemoteJavaRuntime> selectBestRuntime(RuntimeIndex<RemoteJavaRuntime> remoteRuntimes, VersionString versionString, Vendor vendor, OperationSystem operationSystem) {
         final LocalRuntimeManager localRuntimeManager = LocalRuntimeManager.getInstance();
-        return remoteRuntimes.stream()
-                .filter(r -> r.getOperationSystem() == operationSystem)
-                .filter(r -> Objects.equals(vendor, ANY_VENDOR) || Objects.equals(vendor, r.getVendor()))
-                .filter(r -> versionString.contains(r.getVersion()))
+        return remoteRuntimes.find(versionString, vendor, operationSystem).stream()
                 .filter(r -> Optional.ofNullable(RuntimeManagerConfig.getSupportedVersionRange()).map(v -> v.contains(r.getVersion())).orElse(true))
                 .filter(r -> !localRuntimeManager.hasManagedRuntime(r.getVersion(), r.getVendor(), r.getOperationSystem()))
                 .max(new RuntimeVersionComparator(versionString));
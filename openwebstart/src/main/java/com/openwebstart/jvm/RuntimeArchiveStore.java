@@ -0,0 +1,290 @@
+package com.openwebstart.jvm;
+
+import com.openwebstart.jvm.runtimes.RemoteJavaRuntime;
+import net.adoptopenjdk.icedteaweb.Assert;
+import net.adoptopenjdk.icedteaweb.logging.Logger;
+import net.adoptopenjdk.icedteaweb.logging.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Content addressed store for downloaded runtime archives. Every archive is stored under its SHA-256
+ * checksum, so an archive that is listed for several runtimes is only stored once. An index maps the
+ * download url of a runtime to the checksum of its archive for runtimes whose checksum is not published.
+ * If neither the checksum nor the size of a runtime is published, the stored archive can not be checked
+ * against the runtime. For these runtimes the index entry also contains the validator (ETag or
+ * Last-Modified) of the remote archive, so an archive that is republished under the same url is not used.
+ * <p>
+ * The size of the store is limited. The least recently used archives are removed first.
+ * <p>
+ * Several processes share the store. Adding an archive holds a file lock ({@code store.lock}) while the
+ * index is updated.
+ */
+class RuntimeArchiveStore {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RuntimeArchiveStore.class);
+
+    private static final String INDEX_FILENAME = "index.properties";
+
+    private static final String LOCK_FILENAME = "store.lock";
+
+    private static final Pattern SHA_256_PATTERN = Pattern.compile("[0-9a-f]{64}");
+
+    private final Path storeDir;
+
+    private final long maxSizeInBytes;
+
+    private static final Lock STORE_LOCK = new ReentrantLock();
+
+    RuntimeArchiveStore(final Path storeDir, final long maxSizeInBytes) {
+        this.storeDir = Assert.requireNonNull(storeDir, "storeDir");
+        this.maxSizeInBytes = maxSizeInBytes;
+    }
+
+    boolean isEnabled() {
+        return maxSizeInBytes > 0;
+    }
+
+    /**
+     * @return true if neither the checksum nor the size of the runtime is published. The archive of such a
+     * runtime can only be found by the validator of its remote archive.
+     */
+    static boolean isValidatorRequired(final RemoteJavaRuntime runtime) {
+        return !runtime.getSha256().flatMap(RuntimeArchiveStore::normalizeSha256).isPresent() && !runtime.getSize().isPresent();
+    }
+
+    /**
+     * Returns the archive of the given runtime if it is part of the store. The archive is marked as used.
+     *
+     * @param validator the ETag or Last-Modified value of the remote archive, only used if
+     *                  {@link #isValidatorRequired(RemoteJavaRuntime)} is true for the runtime
+     */
+    Optional<Path> find(final RemoteJavaRuntime runtime, final String validator) {
+        Assert.requireNonNull(runtime, "runtime");
+        if (!isEnabled()) {
+            return Optional.empty();
+        }
+        STORE_LOCK.lock();
+        try {
+            final Optional<Path> archive = getSha256(runtime, validator)
+                    .map(storeDir::resolve)
+                    .filter(Files::isRegularFile)
+                    .filter(path -> !runtime.getSize().isPresent() || runtime.getSize().getAsLong() == sizeOf(path));
+            archive.ifPresent(this::markAsUsed);
+            return archive;
+        } finally {
+            STORE_LOCK.unlock();
+        }
+    }
+
+    /**
+     * Moves the given archive into the store. Archives that exceed the size of the store are removed
+     * afterwards, starting with the least recently used one. The archive is not stored if it could not be
+     * found again because the runtime requires a validator and none is given.
+     *
+     * @param validator the ETag or Last-Modified value of the downloaded archive or null if the server sent none
+     */
+    void add(final RemoteJavaRuntime runtime, final Path archive, final String sha256, final String validator) throws IOException {
+        Assert.requireNonNull(runtime, "runtime");
+        Assert.requireNonNull(archive, "archive");
+        final String normalizedSha256 = Assert.requireNonBlank(sha256, "sha256").toLowerCase(Locale.ROOT);
+        if (!SHA_256_PATTERN.matcher(normalizedSha256).matches()) {
+            throw new IllegalArgumentException("Not a SHA-256 checksum: " + sha256);
+        }
+        if (!isEnabled()) {
+            return;
+        }
+        final Optional<String> indexKey = getIndexKey(runtime, validator);
+        if (!indexKey.isPresent()) {
+            LOG.debug("Archive of runtime {} is not stored since it has no checksum, size or validator", runtime.getHref());
+            return;
+        }
+        STORE_LOCK.lock();
+        try {
+            Files.createDirectories(storeDir);
+            try (final FileChannel lockChannel = FileChannel.open(storeDir.resolve(LOCK_FILENAME), CREATE, WRITE);
+                 final FileLock ignored = lock(lockChannel)) {
+                final Path target = storeDir.resolve(normalizedSha256);
+                if (Files.isRegularFile(target)) {
+                    Files.delete(archive);
+                } else {
+                    move(archive, target);
+                }
+                markAsUsed(target);
+
+                final Properties index = loadIndex();
+                index.setProperty(indexKey.get(), normalizedSha256);
+                saveIndex(index);
+                LOG.debug("Archive of runtime {} stored as {}", runtime.getHref(), target);
+
+                evict();
+            }
+        } finally {
+            STORE_LOCK.unlock();
+        }
+    }
+
+    /**
+     * Removes an archive from the store, for example because it turned out to be corrupt.
+     */
+    void remove(final Path archive) {
+        STORE_LOCK.lock();
+        try {
+            Files.deleteIfExists(archive);
+        } catch (final IOException e) {
+            LOG.warn("Could not remove archive {} from store: {}", archive, e.getMessage());
+        } finally {
+            STORE_LOCK.unlock();
+        }
+    }
+
+    /**
+     * @return the checksum of the archive of the given runtime, either published by the server or taken from the index.
+     * The checksum is used as file name in the store, so values that are not a SHA-256 checksum are ignored.
+     */
+    Optional<String> getSha256(final RemoteJavaRuntime runtime, final String validator) {
+        final Optional<String> published = runtime.getSha256().flatMap(RuntimeArchiveStore::normalizeSha256);
+        if (published.isPresent()) {
+            return published;
+        }
+        return getIndexKey(runtime, validator)
+                .map(loadIndex()::getProperty)
+                .flatMap(RuntimeArchiveStore::normalizeSha256);
+    }
+
+    private static Optional<String> getIndexKey(final RemoteJavaRuntime runtime, final String validator) {
+        if (!isValidatorRequired(runtime)) {
+            return Optional.of(runtime.getHref());
+        }
+        if (validator == null || validator.trim().isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(runtime.getHref() + " " + validator.trim());
+    }
+
+    /**
+     * Locks the store for other processes. Returns null if the file system does not support locks, in that case
+     * the index is updated without a lock.
+     */
+    private FileLock lock(final FileChannel lockChannel) {
+        try {
+            return lockChannel.lock();
+        } catch (final IOException | OverlappingFileLockException e) {
+            LOG.debug("Could not lock archive store {}: {}", storeDir, e.getMessage());
+            return null;
+        }
+    }
+
+    private static Optional<String> normalizeSha256(final String sha256) {
+        final String normalized = sha256.trim().toLowerCase(Locale.ROOT);
+        if (!SHA_256_PATTERN.matcher(normalized).matches()) {
+            LOG.warn("Ignoring invalid SHA-256 checksum '{}'", sha256);
+            return Optional.empty();
+        }
+        return Optional.of(normalized);
+    }
+
+    private void evict() throws IOException {
+        final List<Path> archives;
+        try (final Stream<Path> files = Files.list(storeDir)) {
+            archives = files
+                    .filter(path -> SHA_256_PATTERN.matcher(path.getFileName().toString()).matches())
+                    .sorted(Comparator.comparing(RuntimeArchiveStore::lastUsed))
+                    .collect(Collectors.toList());
+        }
+
+        long size = archives.stream().mapToLong(RuntimeArchiveStore::sizeOf).sum();
+        for (final Path archive : archives) {
+            if (size <= maxSizeInBytes) {
+                break;
+            }
+            final long archiveSize = sizeOf(archive);
+            Files.deleteIfExists(archive);
+            size -= archiveSize;
+            LOG.debug("Removed least recently used archive {} from store", archive);
+        }
+
+        final Properties index = loadIndex();
+        if (index.values().removeIf(sha256 -> !normalizeSha256(sha256.toString()).map(storeDir::resolve).filter(Files::isRegularFile).isPresent())) {
+            saveIndex(index);
+        }
+    }
+
+    private Properties loadIndex() {
+        final Properties index = new Properties();
+        final Path indexFile = storeDir.resolve(INDEX_FILENAME);
+        if (Files.isRegularFile(indexFile)) {
+            try (final InputStream inputStream = Files.newInputStream(indexFile)) {
+                index.load(inputStream);
+            } catch (final IOException e) {
+                LOG.warn("Could not read index of archive store {}: {}", indexFile, e.getMessage());
+            }
+        }
+        return index;
+    }
+
+    private void saveIndex(final Properties index) throws IOException {
+        final Path indexFile = storeDir.resolve(INDEX_FILENAME);
+        final Path tempFile = storeDir.resolve(INDEX_FILENAME + "." + UUID.randomUUID());
+        try (final OutputStream outputStream = Files.newOutputStream(tempFile)) {
+            index.store(outputStream, null);
+        }
+        move(tempFile, indexFile);
+    }
+
+    private void markAsUsed(final Path archive) {
+        try {
+            Files.setLastModifiedTime(archive, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (final IOException e) {
+            LOG.debug("Could not update last usage of archive {}: {}", archive, e.getMessage());
+        }
+    }
+
+    private static void move(final Path source, final Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (final AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static FileTime lastUsed(final Path path) {
+        try {
+            return Files.getLastModifiedTime(path);
+        } catch (final IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    private static long sizeOf(final Path path) {
+        try {
+            return Files.size(path);
+        } catch (final IOException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,259 @@
+package com.openwebstart.jvm;
+
+import net.adoptopenjdk.icedteaweb.Assert;
+import net.adoptopenjdk.icedteaweb.logging.Logger;
+import net.adoptopenjdk.icedteaweb.logging.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Replaces identical files of the managed runtimes by hard links to a single copy. Several patch releases
+ * of the same major version often contain many byte-identical files.
+ * <p>
+ * The checksums of all files are kept in an index together with the size and modification time of the
+ * file. By doing so only files of new runtimes need to be hashed. Deleting a runtime stays safe since the
+ * content of a hard linked file is only removed together with its last link.
+ */
+class RuntimeDeduplicator {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RuntimeDeduplicator.class);
+
+    static final String INDEX_FILENAME = "deduplication-index.properties";
+
+    /**
+     * Linking small files does not save a noticeable amount of disk space.
+     */
+    static final long MIN_FILE_SIZE = 4 * 1024;
+
+    private static final String LINK_SUFFIX = ".link";
+
+    private final Path cacheDir;
+
+    RuntimeDeduplicator(final Path cacheDir) {
+        this.cacheDir = Assert.requireNonNull(cacheDir, "cacheDir");
+    }
+
+    /**
+     * Links identical files of the given runtime directories.
+     *
+     * @return the number of bytes that are saved by hard links in the given directories
+     */
+    long deduplicate(final Collection<Path> runtimeDirs) throws IOException {
+        Assert.requireNonNull(runtimeDirs, "runtimeDirs");
+
+        final Properties oldIndex = loadIndex();
+        final Properties newIndex = new Properties();
+        final Map<String, Path> firstFileByContent = new HashMap<>();
+        long savedBytes = 0;
+        long newlySavedBytes = 0;
+        int linkedFiles = 0;
+        boolean linksSupported = true;
+
+        boolean complete = false;
+        try {
+            for (final Path runtimeDir : runtimeDirs) {
+                for (final Path file : listFiles(runtimeDir)) {
+                    try {
+                        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+                        final String sha256 = getSha256(file, attributes, oldIndex);
+                        final Path firstFile = firstFileByContent.putIfAbsent(sha256 + ":" + attributes.size(), file);
+
+                        if (firstFile != null) {
+                            if (Files.isSameFile(firstFile, file)) {
+                                savedBytes += attributes.size();
+                            } else if (linksSupported && hasSamePermissions(firstFile, file)) {
+                                try {
+                                    replaceByLink(file, firstFile);
+                                    attributes = Files.readAttributes(file, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+                                    savedBytes += attributes.size();
+                                    newlySavedBytes += attributes.size();
+                                    linkedFiles++;
+                                } catch (final UnsupportedOperationException e) {
+                                    LOG.info("File system of {} does not support hard links. Runtimes will not be deduplicated", cacheDir);
+                                    linksSupported = false;
+                                } catch (final FileSystemException e) {
+                                    LOG.debug("Could not link {} to {}: {}", file, firstFile, e.getMessage());
+                                }
+                            }
+                        }
+                        newIndex.setProperty(toIndexKey(file), toIndexValue(attributes, sha256));
+                    } catch (final NoSuchFileException e) {
+                        // another process removed the runtime during the deduplication
+                        LOG.debug("Skipping file {} that has been removed: {}", file, e.getMessage());
+                    }
+                }
+            }
+            complete = true;
+        } finally {
+            if (!complete) {
+                // keeps the checksums of the files that have not been visited, so they are not hashed again
+                oldIndex.forEach(newIndex::putIfAbsent);
+            }
+            saveIndex(newIndex);
+        }
+        LOG.info("Deduplication of {} runtimes linked {} files and saved {} bytes. In total {} bytes are saved by hard links",
+                runtimeDirs.size(), linkedFiles, newlySavedBytes, savedBytes);
+        return savedBytes;
+    }
+
+    private static List<Path> listFiles(final Path runtimeDir) throws IOException {
+        if (!Files.isDirectory(runtimeDir)) {
+            return Collections.emptyList();
+        }
+        final List<Path> files;
+        try (final Stream<Path> stream = Files.walk(runtimeDir)) {
+            files = stream
+                    .filter(file -> Files.isRegularFile(file, LinkOption.NOFOLLOW_LINKS))
+                    .sorted()
+                    .collect(Collectors.toList());
+        } catch (final NoSuchFileException | UncheckedIOException e) {
+            if (e instanceof UncheckedIOException && !(e.getCause() instanceof NoSuchFileException)) {
+                throw ((UncheckedIOException) e).getCause();
+            }
+            // another process removed the runtime during the deduplication
+            LOG.debug("Skipping runtime {} that has been removed: {}", runtimeDir, e.getMessage());
+            return Collections.emptyList();
+        }
+        // links that are left over from an interrupted deduplication
+        for (final Path file : files) {
+            if (file.getFileName().toString().endsWith(LINK_SUFFIX)) {
+                Files.deleteIfExists(file);
+            }
+        }
+        return files.stream()
+                .filter(file -> !file.getFileName().toString().endsWith(LINK_SUFFIX))
+                .filter(file -> sizeOf(file) >= MIN_FILE_SIZE)
+                .collect(Collectors.toList());
+    }
+
+    String getSha256(final Path file, final BasicFileAttributes attributes, final Properties index) throws IOException {
+        final String indexValue = index.getProperty(toIndexKey(file));
+        if (indexValue != null) {
+            final String[] parts = indexValue.split(":");
+            if (parts.length == 3
+                    && Objects.equals(parts[0], Long.toString(attributes.size()))
+                    && Objects.equals(parts[1], Long.toString(attributes.lastModifiedTime().toMillis()))) {
+                return parts[2];
+            }
+        }
+        return hash(file);
+    }
+
+    /**
+     * Replaces the file by a hard link in two steps. The link is created next to the file and
+     * moved over the file afterwards. By doing so the file is never missing.
+     */
+    private static void replaceByLink(final Path file, final Path existing) throws IOException {
+        final Path link = file.resolveSibling(file.getFileName() + "." + UUID.randomUUID() + LINK_SUFFIX);
+        try {
+            Files.createLink(link, existing);
+            try {
+                Files.move(link, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (final AtomicMoveNotSupportedException e) {
+                Files.move(link, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(link);
+        }
+    }
+
+    /**
+     * All links of a file share its permissions. Files with different permissions can therefore not be linked.
+     */
+    private static boolean hasSamePermissions(final Path first, final Path second) throws IOException {
+        final PosixFileAttributeView firstView = Files.getFileAttributeView(first, PosixFileAttributeView.class);
+        final PosixFileAttributeView secondView = Files.getFileAttributeView(second, PosixFileAttributeView.class);
+        if (firstView != null && secondView != null) {
+            return Objects.equals(firstView.readAttributes().permissions(), secondView.readAttributes().permissions());
+        }
+        return Files.isExecutable(first) == Files.isExecutable(second) && Files.isWritable(first) == Files.isWritable(second);
+    }
+
+    private String toIndexKey(final Path file) {
+        return cacheDir.relativize(file).toString().replace('\\', '/');
+    }
+
+    private static String toIndexValue(final BasicFileAttributes attributes, final String sha256) {
+        return attributes.size() + ":" + attributes.lastModifiedTime().toMillis() + ":" + sha256;
+    }
+
+    private Properties loadIndex() {
+        final Properties index = new Properties();
+        final Path indexFile = cacheDir.resolve(INDEX_FILENAME);
+        if (Files.isRegularFile(indexFile)) {
+            try (final InputStream inputStream = Files.newInputStream(indexFile)) {
+                index.load(inputStream);
+            } catch (final IOException e) {
+                LOG.warn("Could not read deduplication index {}: {}", indexFile, e.getMessage());
+            }
+        }
+        return index;
+    }
+
+    private void saveIndex(final Properties index) throws IOException {
+        Files.createDirectories(cacheDir);
+        final Path indexFile = cacheDir.resolve(INDEX_FILENAME);
+        final Path tempFile = cacheDir.resolve(INDEX_FILENAME + "." + UUID.randomUUID());
+        try (final OutputStream outputStream = Files.newOutputStream(tempFile)) {
+            index.store(outputStream, null);
+        }
+        try {
+            Files.move(tempFile, indexFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (final AtomicMoveNotSupportedException e) {
+            Files.move(tempFile, indexFile, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    static String hash(final Path file) throws IOException {
+        final MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (final NoSuchAlgorithmException e) {
+            throw new IOException("SHA-256 is not supported", e);
+        }
+        final byte[] buffer = new byte[64 * 1024];
+        try (final InputStream inputStream = Files.newInputStream(file)) {
+            int read;
+            while ((read = inputStream.read(buffer)) >= 0) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        final StringBuilder result = new StringBuilder();
+        for (final byte b : digest.digest()) {
+            result.append(String.format("%02x", b));
+        }
+        return result.toString();
+    }
+
+    private static long sizeOf(final Path path) {
+        try {
+            return Files.size(path);
+        } catch (final IOException e) {
+            return 0;
+        }
+    }
+}
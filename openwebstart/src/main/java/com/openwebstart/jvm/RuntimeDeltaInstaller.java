@@ -0,0 +1,152 @@
+package com.openwebstart.jvm;
+
+import com.openwebstart.http.DownloadVerificationException;
+import com.openwebstart.util.ExtractUtil;
+import net.adoptopenjdk.icedteaweb.Assert;
+import net.adoptopenjdk.icedteaweb.logging.Logger;
+import net.adoptopenjdk.icedteaweb.logging.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Creates a runtime from an installed runtime of a base version and a patch archive. The patch archive is a
+ * ZIP that contains all files that are new or have been changed in comparison to the base version. In addition
+ * the archive contains a manifest ({@value #MANIFEST_FILENAME}) in the format of {@code sha256sum} that lists
+ * every regular file of the new runtime:
+ * <pre>
+ * 3f1c...9a2e  bin/java
+ * 77b0...01cd  lib/modules
+ * </pre>
+ * Files that are listed in the manifest but not contained in the patch archive are taken from the base runtime.
+ * They are hard linked if the file system supports it and copied otherwise. The checksum of every file of the
+ * new runtime is verified against the manifest.
+ */
+class RuntimeDeltaInstaller {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RuntimeDeltaInstaller.class);
+
+    static final String MANIFEST_FILENAME = "ows-delta-manifest.txt";
+
+    private final Path baseJavaHome;
+
+    private final int threads;
+
+    RuntimeDeltaInstaller(final Path baseJavaHome, final int threads) {
+        this.baseJavaHome = Assert.requireNonNull(baseJavaHome, "baseJavaHome");
+        this.threads = threads;
+    }
+
+    /**
+     * Creates the new runtime in the target directory.
+     *
+     * @throws DownloadVerificationException if a file of the new runtime does not match the manifest
+     */
+    void install(final Path patchArchive, final Path targetDir) throws IOException {
+        Assert.requireNonNull(patchArchive, "patchArchive");
+        Assert.requireNonNull(targetDir, "targetDir");
+
+        ExtractUtil.unZipEntries(patchArchive, targetDir, threads);
+        final Path manifestFile = targetDir.resolve(MANIFEST_FILENAME);
+        if (!Files.isRegularFile(manifestFile)) {
+            throw new DownloadVerificationException("Patch archive " + patchArchive + " does not contain " + MANIFEST_FILENAME);
+        }
+        final Map<String, String> manifest = readManifest(manifestFile);
+        Files.delete(manifestFile);
+
+        final Set<String> patchedFiles = listFiles(targetDir);
+        for (final String patchedFile : patchedFiles) {
+            if (!manifest.containsKey(patchedFile)) {
+                throw new DownloadVerificationException("File " + patchedFile + " of patch archive is not listed in manifest");
+            }
+        }
+
+        int linkedFiles = 0;
+        int copiedFiles = 0;
+        boolean linksSupported = true;
+        for (final Map.Entry<String, String> entry : manifest.entrySet()) {
+            final Path target = resolve(targetDir, entry.getKey());
+            if (!patchedFiles.contains(entry.getKey())) {
+                final Path source = resolve(baseJavaHome, entry.getKey());
+                if (!Files.isRegularFile(source, LinkOption.NOFOLLOW_LINKS)) {
+                    throw new IOException("Base runtime " + baseJavaHome + " does not contain " + entry.getKey());
+                }
+                Files.createDirectories(target.getParent());
+                if (linksSupported) {
+                    try {
+                        Files.createLink(target, source);
+                        linkedFiles++;
+                    } catch (final UnsupportedOperationException | FileSystemException e) {
+                        LOG.debug("Could not link {} to {}: {}. Files of base runtime will be copied", target, source, e.getMessage());
+                        linksSupported = false;
+                    }
+                }
+                if (!linksSupported) {
+                    Files.copy(source, target, StandardCopyOption.COPY_ATTRIBUTES, StandardCopyOption.REPLACE_EXISTING);
+                    copiedFiles++;
+                }
+            }
+            final String sha256 = RuntimeDeduplicator.hash(target);
+            if (!sha256.equals(entry.getValue())) {
+                throw new DownloadVerificationException("Checksum of " + entry.getKey() + " is " + sha256 + " but " + entry.getValue() + " was expected");
+            }
+        }
+        LOG.info("Runtime created from base runtime {} with {} patched, {} linked and {} copied files",
+                baseJavaHome, patchedFiles.size(), linkedFiles, copiedFiles);
+    }
+
+    private static Map<String, String> readManifest(final Path manifestFile) throws IOException {
+        final Map<String, String> manifest = new LinkedHashMap<>();
+        try (final BufferedReader reader = Files.newBufferedReader(manifestFile, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+                final String[] parts = line.trim().split("\\s+\\*?", 2);
+                if (parts.length != 2 || parts[1].isEmpty()) {
+                    throw new DownloadVerificationException("Invalid line in " + MANIFEST_FILENAME + ": " + line);
+                }
+                manifest.put(normalize(parts[1]), parts[0].toLowerCase(Locale.ROOT));
+            }
+        }
+        return manifest;
+    }
+
+    private static Set<String> listFiles(final Path dir) throws IOException {
+        try (final Stream<Path> stream = Files.walk(dir)) {
+            return stream
+                    .filter(file -> Files.isRegularFile(file, LinkOption.NOFOLLOW_LINKS))
+                    .map(file -> normalize(dir.relativize(file).toString()))
+                    .collect(Collectors.toSet());
+        }
+    }
+
+    private static Path resolve(final Path dir, final String name) throws IOException {
+        final Path file = dir.resolve(name).normalize();
+        if (!file.startsWith(dir.normalize())) {
+            throw new DownloadVerificationException("File '" + name + "' of manifest is outside of the runtime");
+        }
+        return file;
+    }
+
+    private static String normalize(final String name) {
+        String result = name.replace('\\', '/');
+        while (result.startsWith("./")) {
+            result = result.substring(2);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,205 @@
+package com.openwebstart.jvm;
+
+import com.openwebstart.util.FilenameUtil;
+import net.adoptopenjdk.icedteaweb.Assert;
+import net.adoptopenjdk.icedteaweb.logging.Logger;
+import net.adoptopenjdk.icedteaweb.logging.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lock that ensures that a runtime is only installed by one process at a time. The lock is based on a
+ * file lock of the operating system and is therefore released automatically if a process ends.
+ * <p>
+ * The process that holds the lock publishes the progress of its download. Other processes can follow
+ * this progress while they wait for the lock.
+ */
+class RuntimeInstallLock implements Closeable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RuntimeInstallLock.class);
+
+    private static final String LOCK_SUFFIX = ".lock";
+
+    private static final String PROGRESS_SUFFIX = ".progress";
+
+    private static final long POLL_INTERVAL_IN_MILLIS = 250;
+
+    /**
+     * A file lock is held by the whole process. Threads of the same process are coordinated by these permits.
+     */
+    private static final Map<Path, Semaphore> IN_PROCESS_PERMITS = new ConcurrentHashMap<>();
+
+    private final Path lockFile;
+
+    private final Path progressFile;
+
+    private final Semaphore inProcessPermit;
+
+    private FileChannel channel;
+
+    private FileLock fileLock;
+
+    private long lastPublishTime;
+
+    RuntimeInstallLock(final Path lockDir, final String runtimeName) {
+        Assert.requireNonNull(lockDir, "lockDir");
+        final String fileName = FilenameUtil.toSimplifiedFileName(Assert.requireNonBlank(runtimeName, "runtimeName"));
+        this.lockFile = lockDir.resolve(fileName + LOCK_SUFFIX).toAbsolutePath();
+        this.progressFile = lockDir.resolve(fileName + PROGRESS_SUFFIX);
+        this.inProcessPermit = IN_PROCESS_PERMITS.computeIfAbsent(lockFile, f -> new Semaphore(1));
+    }
+
+    /**
+     * @return true if the lock has been acquired or is already held
+     */
+    synchronized boolean tryLock() throws IOException {
+        if (isHeld()) {
+            return true;
+        }
+        if (!inProcessPermit.tryAcquire()) {
+            return false;
+        }
+        try {
+            Files.createDirectories(lockFile.getParent());
+            channel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            fileLock = channel.tryLock();
+        } catch (final IOException | OverlappingFileLockException e) {
+            LOG.debug("Could not lock {}: {}", lockFile, e.getMessage());
+        }
+        if (!isHeld()) {
+            releaseQuietly();
+            return false;
+        }
+        // progress of a process that ended without releasing the lock
+        deleteProgressQuietly();
+        return true;
+    }
+
+    synchronized boolean isHeld() {
+        return fileLock != null && fileLock.isValid();
+    }
+
+    /**
+     * Publishes the number of bytes that have been downloaded by the process holding the lock.
+     */
+    void publishProgress(final long downloaded) {
+        final long now = System.nanoTime();
+        if (now - lastPublishTime < TimeUnit.MILLISECONDS.toNanos(POLL_INTERVAL_IN_MILLIS)) {
+            return;
+        }
+        lastPublishTime = now;
+        try {
+            Files.write(progressFile, Long.toString(downloaded).getBytes(StandardCharsets.UTF_8));
+        } catch (final IOException e) {
+            LOG.debug("Could not publish progress to {}: {}", progressFile, e.getMessage());
+        }
+    }
+
+    /**
+     * Returns a stream that waits for the lock. The stream provides as many bytes as the process holding
+     * the lock has downloaded and ends as soon as the lock has been acquired. By doing so the stream can be
+     * used to show the progress of the other process.
+     */
+    InputStream awaitLock() {
+        return new InputStream() {
+
+            private long provided;
+
+            @Override
+            public int read() throws IOException {
+                final byte[] b = new byte[1];
+                return read(b, 0, 1) < 0 ? -1 : b[0] & 0xFF;
+            }
+
+            @Override
+            public int read(final byte[] b, final int off, final int len) throws IOException {
+                if (len == 0) {
+                    return 0;
+                }
+                while (true) {
+                    final long available = readProgress() - provided;
+                    if (available > 0) {
+                        final int count = (int) Math.min(len, available);
+                        Arrays.fill(b, off, off + count, (byte) 0);
+                        provided += count;
+                        return count;
+                    }
+                    if (tryLock()) {
+                        return -1;
+                    }
+                    try {
+                        Thread.sleep(POLL_INTERVAL_IN_MILLIS);
+                    } catch (final InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new InterruptedIOException("Interrupted while waiting for " + lockFile);
+                    }
+                }
+            }
+        };
+    }
+
+    /**
+     * Releases the lock. The lock file stays in place since other processes might wait for it.
+     */
+    @Override
+    public synchronized void close() {
+        if (isHeld()) {
+            deleteProgressQuietly();
+            releaseQuietly();
+        }
+    }
+
+    private void deleteProgressQuietly() {
+        try {
+            Files.deleteIfExists(progressFile);
+        } catch (final IOException e) {
+            LOG.debug("Could not delete {}: {}", progressFile, e.getMessage());
+        }
+    }
+
+    private long readProgress() {
+        try {
+            if (Files.isRegularFile(progressFile)) {
+                return Long.parseLong(new String(Files.readAllBytes(progressFile), StandardCharsets.UTF_8).trim());
+            }
+        } catch (final IOException | NumberFormatException e) {
+            // the file is written at the same time
+        }
+        return 0;
+    }
+
+    private void releaseQuietly() {
+        try {
+            if (fileLock != null) {
+                fileLock.release();
+            }
+        } catch (final IOException e) {
+            LOG.debug("Could not release {}: {}", lockFile, e.getMessage());
+        }
+        try {
+            if (channel != null) {
+                channel.close();
+            }
+        } catch (final IOException e) {
+            LOG.debug("Could not close {}: {}", lockFile, e.getMessage());
+        }
+        fileLock = null;
+        channel = null;
+        inProcessPermit.release();
+    }
+}
@@ -17,11 +17,24 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
 
 import static com.openwebstart.config.OwsDefaultsProvider.ALLOW_DOWNLOAD_SERVER_FROM_JNLP;
 import static com.openwebstart.config.OwsDefaultsProvider.ALLOW_VENDOR_FROM_JNLP;
 import static com.openwebstart.config.OwsDefaultsProvider.DEFAULT_JVM_DOWNLOAD_SERVER;
+import static com.openwebstart.config.OwsDefaultsProvider.JVM_ARCHIVE_STORE_MAX_SIZE;
+import static com.openwebstart.config.OwsDefaultsProvider.JVM_ARCHIVE_STORE_MAX_SIZE_DEFAULT_VALUE;
+import static com.openwebstart.config.OwsDefaultsProvider.JVM_APP_CDS_ENABLED;
+import static com.openwebstart.config.OwsDefaultsProvider.JVM_CDS_ENABLED;
+import static com.openwebstart.config.OwsDefaultsProvider.JVM_DEDUPLICATION_ENABLED;
 import static com.openwebstart.config.OwsDefaultsProvider.DEFAULT_UPDATE_STRATEGY;
+import static com.openwebstart.config.OwsDefaultsProvider.JVM_DOWNLOAD_BACKGROUND_MAX_BANDWIDTH;
+import static com.openwebstart.config.OwsDefaultsProvider.JVM_DOWNLOAD_MAX_BANDWIDTH;
+import static com.openwebstart.config.OwsDefaultsProvider.JVM_DOWNLOAD_MAX_BANDWIDTH_DEFAULT_VALUE;
+import static com.openwebstart.config.OwsDefaultsProvider.JVM_DOWNLOAD_SEGMENTS;
+import static com.openwebstart.config.OwsDefaultsProvider.JVM_DOWNLOAD_SEGMENTS_DEFAULT_VALUE;
+import static com.openwebstart.config.OwsDefaultsProvider.JVM_EXTRACT_WRITER_THREADS;
+import static com.openwebstart.config.OwsDefaultsProvider.JVM_EXTRACT_WRITER_THREADS_DEFAULT_VALUE;
 import static com.openwebstart.config.OwsDefaultsProvider.JVM_SERVER_WHITELIST;
 import static com.openwebstart.config.OwsDefaultsProvider.JVM_SUPPORTED_VERSION_RANGE;
 import static com.openwebstart.config.OwsDefaultsProvider.JVM_UPDATE_STRATEGY;
@@ -105,6 +118,86 @@ public class RuntimeManagerConfig {
         config().setProperty(MAX_DAYS_UNUSED_IN_JVM_CACHE, maxDaysUnusedInJvmCache);
     }
 
+    public static int getDownloadSegments() {
+        final String segments = config().getProperty(JVM_DOWNLOAD_SEGMENTS);
+        return Integer.parseInt(segments != null ? segments : JVM_DOWNLOAD_SEGMENTS_DEFAULT_VALUE);
+    }
+
+    public static void setDownloadSegments(final int segments) {
+        config().setProperty(JVM_DOWNLOAD_SEGMENTS, Integer.toString(segments));
+    }
+
+    /**
+     * @return the max bandwidth in KB per second of all runtime downloads or 0 if the bandwidth is not limited
+     */
+    public static long getDownloadMaxBandwidth() {
+        final String maxBandwidth = config().getProperty(JVM_DOWNLOAD_MAX_BANDWIDTH);
+        return Long.parseLong(maxBandwidth != null ? maxBandwidth : JVM_DOWNLOAD_MAX_BANDWIDTH_DEFAULT_VALUE);
+    }
+
+    public static void setDownloadMaxBandwidth(final long maxBandwidthInKB) {
+        config().setProperty(JVM_DOWNLOAD_MAX_BANDWIDTH, Long.toString(maxBandwidthInKB));
+    }
+
+    /**
+     * @return the max bandwidth in KB per second of runtime downloads in the background or 0 if the bandwidth is not limited
+     */
+    public static long getBackgroundDownloadMaxBandwidth() {
+        final String maxBandwidth = config().getProperty(JVM_DOWNLOAD_BACKGROUND_MAX_BANDWIDTH);
+        return Long.parseLong(maxBandwidth != null ? maxBandwidth : JVM_DOWNLOAD_MAX_BANDWIDTH_DEFAULT_VALUE);
+    }
+
+    public static void setBackgroundDownloadMaxBandwidth(final long maxBandwidthInKB) {
+        config().setProperty(JVM_DOWNLOAD_BACKGROUND_MAX_BANDWIDTH, Long.toString(maxBandwidthInKB));
+    }
+
+    public static int getExtractWriterThreads() {
+        final String threads = config().getProperty(JVM_EXTRACT_WRITER_THREADS);
+        return Integer.parseInt(threads != null ? threads : JVM_EXTRACT_WRITER_THREADS_DEFAULT_VALUE);
+    }
+
+    public static void setExtractWriterThreads(final int threads) {
+        config().setProperty(JVM_EXTRACT_WRITER_THREADS, Integer.toString(threads));
+    }
+
+    /**
+     * @return the maximum size of the archive store in MB. {@code 0} disables the store
+     */
+    public static long getArchiveStoreMaxSize() {
+        final String maxSize = config().getProperty(JVM_ARCHIVE_STORE_MAX_SIZE);
+        return Long.parseLong(maxSize != null ? maxSize : JVM_ARCHIVE_STORE_MAX_SIZE_DEFAULT_VALUE);
+    }
+
+    public static void setArchiveStoreMaxSize(final long maxSizeInMB) {
+        config().setProperty(JVM_ARCHIVE_STORE_MAX_SIZE, Long.toString(maxSizeInMB));
+    }
+
+    public static boolean isDeduplicationEnabled() {
+        final String enabled = config().getProperty(JVM_DEDUPLICATION_ENABLED);
+        return enabled == null || Boolean.parseBoolean(enabled);
+    }
+
+    public static void setDeduplicationEnabled(final boolean deduplicationEnabled) {
+        config().setProperty(JVM_DEDUPLICATION_ENABLED, Boolean.toString(deduplicationEnabled));
+    }
+
+    public static boolean isClassDataSharingEnabled() {
+        final String enabled = config().getProperty(JVM_CDS_ENABLED);
+        return enabled == null || Boolean.parseBoolean(enabled);
+    }
+
+    public static void setClassDataSharingEnabled(final boolean classDataSharingEnabled) {
+        config().setProperty(JVM_CDS_ENABLED, Boolean.toString(classDataSharingEnabled));
+    }
+
+    public static boolean isApplicationClassDataSharingEnabled() {
+        return Boolean.parseBoolean(config().getProperty(JVM_APP_CDS_ENABLED));
+    }
+
+    public static void setApplicationClassDataSharingEnabled(final boolean applicationClassDataSharingEnabled) {
+        config().setProperty(JVM_APP_CDS_ENABLED, Boolean.toString(applicationClassDataSharingEnabled));
+    }
+
     public static void setDefaultVendor(final String defaultVendor) {
         config().setProperty(JVM_VENDOR, defaultVendor);
     }
@@ -137,6 +230,22 @@ public class RuntimeManagerConfig {
         config().setProperty(OwsDefaultsProvider.JVM_CACHE_DIR, cachePath.normalize().toAbsolutePath().toString());
     }
 
+    /**
+     * @return the machine-wide read-only runtime cache that is populated by an administrator
+     */
+    public static Optional<Path> getSharedCachePath() {
+        final String sharedCacheDir = config().getProperty(OwsDefaultsProvider.JVM_SHARED_CACHE_DIR);
+        if (sharedCacheDir == null || sharedCacheDir.trim().isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(Paths.get(sharedCacheDir.trim()));
+    }
+
+    public static void setSharedCachePath(final Path sharedCachePath) {
+        final String sharedCacheDir = sharedCachePath != null ? sharedCachePath.normalize().toAbsolutePath().toString() : null;
+        config().setProperty(OwsDefaultsProvider.JVM_SHARED_CACHE_DIR, sharedCacheDir);
+    }
+
     private static DeploymentConfiguration config() {
         return deploymentConfiguration != null ? deploymentConfiguration : JNLPRuntime.getConfiguration();
     }
@@ -4,4 +4,16 @@ public interface RuntimeManagerConstants {
 
     String JSON_STORE_FILENAME = "cache.json";
 
+    String DOWNLOAD_DIR_NAME = "downloads";
+
+    String PARTIAL_DOWNLOAD_SUFFIX = ".part";
+
+    String DELTA_DOWNLOAD_SUFFIX = ".delta";
+
+    String ARCHIVE_STORE_DIR_NAME = "archives";
+
+    String INSTALL_LOCK_DIR_NAME = "locks";
+
+    String CDS_DIR_NAME = "cds";
+
 }
@@ -10,11 +10,25 @@ public class CacheStore implements Serializable {
 
     private final List<LocalJavaRuntime> runtimes;
 
+    /**
+     * Identifies the journal of changes that belongs to this store, {@code null} if the store has no journal.
+     */
+    private final String journalId;
+
     public CacheStore(final List<LocalJavaRuntime> runtimes) {
+        this(runtimes, null);
+    }
+
+    public CacheStore(final List<LocalJavaRuntime> runtimes, final String journalId) {
         this.runtimes = Collections.unmodifiableList(runtimes);
+        this.journalId = journalId;
     }
 
     public List<LocalJavaRuntime> getRuntimes() {
         return runtimes;
     }
+
+    public String getJournalId() {
+        return journalId;
+    }
 }
@@ -0,0 +1,38 @@
+package com.openwebstart.jvm.json;
+
+import com.openwebstart.jvm.runtimes.LocalJavaRuntime;
+import net.adoptopenjdk.icedteaweb.Assert;
+
+import java.io.Serializable;
+
+/**
+ * A change of a {@link CacheStore} as it is written to the journal of the store. A runtime is identified by its
+ * java home: putting a runtime replaces a runtime with the same java home.
+ */
+public class CacheStoreChange implements Serializable {
+
+    private final LocalJavaRuntime put;
+
+    private final LocalJavaRuntime remove;
+
+    private CacheStoreChange(final LocalJavaRuntime put, final LocalJavaRuntime remove) {
+        this.put = put;
+        this.remove = remove;
+    }
+
+    public static CacheStoreChange put(final LocalJavaRuntime runtime) {
+        return new CacheStoreChange(Assert.requireNonNull(runtime, "runtime"), null);
+    }
+
+    public static CacheStoreChange remove(final LocalJavaRuntime runtime) {
+        return new CacheStoreChange(null, Assert.requireNonNull(runtime, "runtime"));
+    }
+
+    public LocalJavaRuntime getPut() {
+        return put;
+    }
+
+    public LocalJavaRuntime getRemove() {
+        return remove;
+    }
+}
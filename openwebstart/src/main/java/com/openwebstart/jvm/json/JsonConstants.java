@@ -16,6 +16,18 @@ interface JsonConstants {
 
     String HREF_PROPERTY = "href";
 
+    String SHA256_PROPERTY = "sha256";
+
+    String SIZE_PROPERTY = "size";
+
+    String ALTERNATIVES_PROPERTY = "alternatives";
+
+    String MIRRORS_PROPERTY = "mirrors";
+
+    String DELTAS_PROPERTY = "deltas";
+
+    String BASE_VERSION_PROPERTY = "baseVersion";
+
     String LAST_USAGE_PROPERTY = "lastUsage";
 
     String RUNTIMES_PROPERTY = "runtimes";
@@ -12,11 +12,15 @@ public class JsonHandler {
 
     private final Gson gson;
 
+    private final Gson compactGson;
+
     private JsonHandler() {
-        gson = new GsonBuilder()
+        compactGson = new GsonBuilder()
                 .registerTypeAdapter(LocalJavaRuntime.class, new LocalRuntimeSerializer())
                 .registerTypeAdapter(RemoteJavaRuntime.class, new RemoteRuntimeSerializer())
                 .registerTypeAdapter(RemoteRuntimeList.class, new RemoteRuntimeListSerializer())
+                .create();
+        gson = compactGson.newBuilder()
                 .setPrettyPrinting()
                 .create();
     }
@@ -29,6 +33,17 @@ public class JsonHandler {
         }
     }
 
+    /**
+     * Like {@link #toJson(Object)} but without any line breaks and indentation.
+     */
+    public String toCompactJson(final Object src) {
+        try {
+            return compactGson.toJson(src);
+        } catch (final Exception e) {
+            throw new JsonSyntaxException("Error in JSON conversion", e);
+        }
+    }
+
     public <T> T fromJson(String json, Class<T> cls) throws JsonSyntaxException {
         try {
             return gson.fromJson(json, cls);
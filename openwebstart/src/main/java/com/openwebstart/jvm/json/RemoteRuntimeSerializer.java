@@ -1,6 +1,7 @@
 package com.openwebstart.jvm.json;
 
 import com.google.gson.JsonDeserializationContext;
+import com.google.gson.JsonArray;
 import com.google.gson.JsonDeserializer;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
@@ -9,8 +10,13 @@ import com.google.gson.JsonSerializationContext;
 import com.google.gson.JsonSerializer;
 import com.openwebstart.jvm.os.OperationSystem;
 import com.openwebstart.jvm.runtimes.RemoteJavaRuntime;
+import com.openwebstart.jvm.runtimes.RemoteRuntimeDelta;
+import com.openwebstart.util.ExtractUtil;
 
 import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
 
 public class RemoteRuntimeSerializer implements JsonSerializer<RemoteJavaRuntime>, JsonDeserializer<RemoteJavaRuntime> {
 
@@ -22,7 +28,25 @@ public class RemoteRuntimeSerializer implements JsonSerializer<RemoteJavaRuntime
         jsonObject.addProperty(JsonConstants.VENDOR_PROPERTY, remoteJavaRuntime.getVendor().getName());
         jsonObject.addProperty(JsonConstants.OS_PROPERTY, remoteJavaRuntime.getOperationSystem().name());
         jsonObject.addProperty(JsonConstants.HREF_PROPERTY, remoteJavaRuntime.getHref());
-
+        remoteJavaRuntime.getSha256().ifPresent(sha256 -> jsonObject.addProperty(JsonConstants.SHA256_PROPERTY, sha256));
+        remoteJavaRuntime.getSize().ifPresent(size -> jsonObject.addProperty(JsonConstants.SIZE_PROPERTY, size));
+        if (!remoteJavaRuntime.getMirrors().isEmpty()) {
+            final JsonArray mirrors = new JsonArray();
+            remoteJavaRuntime.getMirrors().forEach(mirrors::add);
+            jsonObject.add(JsonConstants.MIRRORS_PROPERTY, mirrors);
+        }
+        if (!remoteJavaRuntime.getDeltas().isEmpty()) {
+            final JsonArray deltas = new JsonArray();
+            for (final RemoteRuntimeDelta delta : remoteJavaRuntime.getDeltas()) {
+                final JsonObject deltaObject = new JsonObject();
+                deltaObject.addProperty(JsonConstants.BASE_VERSION_PROPERTY, delta.getBaseVersion().toString());
+                deltaObject.addProperty(JsonConstants.HREF_PROPERTY, delta.getHref());
+                delta.getSha256().ifPresent(sha256 -> deltaObject.addProperty(JsonConstants.SHA256_PROPERTY, sha256));
+                delta.getSize().ifPresent(size -> deltaObject.addProperty(JsonConstants.SIZE_PROPERTY, size));
+                deltas.add(deltaObject);
+            }
+            jsonObject.add(JsonConstants.DELTAS_PROPERTY, deltas);
+        }
 
         return jsonObject;
     }
@@ -35,13 +59,58 @@ public class RemoteRuntimeSerializer implements JsonSerializer<RemoteJavaRuntime
             final String version = jsonObject.get(JsonConstants.VERSION_PROPERTY).getAsString();
             final String vendor = jsonObject.get(JsonConstants.VENDOR_PROPERTY).getAsString();
             final OperationSystem os = OperationSystem.parse(jsonObject.get(JsonConstants.OS_PROPERTY).getAsString());
-            final String href = jsonObject.get(JsonConstants.HREF_PROPERTY).getAsString();
+            final JsonObject archive = selectArchive(jsonObject);
+            final String href = archive.get(JsonConstants.HREF_PROPERTY).getAsString();
+            final String sha256 = archive.has(JsonConstants.SHA256_PROPERTY) ? archive.get(JsonConstants.SHA256_PROPERTY).getAsString() : null;
+            final long size = archive.has(JsonConstants.SIZE_PROPERTY) ? archive.get(JsonConstants.SIZE_PROPERTY).getAsLong() : -1;
+            final List<String> mirrors = new ArrayList<>();
+            if (archive.has(JsonConstants.MIRRORS_PROPERTY)) {
+                archive.getAsJsonArray(JsonConstants.MIRRORS_PROPERTY).forEach(mirror -> mirrors.add(mirror.getAsString()));
+            }
 
-
-            return new RemoteJavaRuntime(version, os, vendor, href);
+            return new RemoteJavaRuntime(version, os, vendor, href, sha256, size, mirrors, readDeltas(jsonObject));
 
         } catch (final Exception e) {
             throw new JsonParseException("Cannot parse RemoteJavaRuntime", e);
         }
     }
+
+    /**
+     * A runtime can be published in several archive formats. The smallest archive in a supported format is used.
+     * The default archive is used if no alternative is smaller or if the sizes are not known. The format of a
+     * default archive without a known extension is detected when it is installed, so it is always a candidate.
+     */
+    private static JsonObject selectArchive(final JsonObject jsonObject) {
+        final List<JsonObject> archives = new ArrayList<>();
+        if (jsonObject.has(JsonConstants.ALTERNATIVES_PROPERTY)) {
+            for (final JsonElement alternative : jsonObject.getAsJsonArray(JsonConstants.ALTERNATIVES_PROPERTY)) {
+                final JsonObject archive = alternative.getAsJsonObject();
+                if (archive.has(JsonConstants.HREF_PROPERTY) && ExtractUtil.isSupportedArchive(archive.get(JsonConstants.HREF_PROPERTY).getAsString())) {
+                    archives.add(archive);
+                }
+            }
+        }
+        // the default archive might use a format that is not supported. It is only used as last resort in that case
+        if (archives.isEmpty() || !ExtractUtil.isUnsupportedArchive(jsonObject.get(JsonConstants.HREF_PROPERTY).getAsString())) {
+            archives.add(0, jsonObject);
+        }
+        return archives.stream()
+                .min(Comparator.comparingLong(archive -> archive.has(JsonConstants.SIZE_PROPERTY) ? archive.get(JsonConstants.SIZE_PROPERTY).getAsLong() : Long.MAX_VALUE))
+                .orElse(jsonObject);
+    }
+
+    private static List<RemoteRuntimeDelta> readDeltas(final JsonObject jsonObject) {
+        final List<RemoteRuntimeDelta> deltas = new ArrayList<>();
+        if (jsonObject.has(JsonConstants.DELTAS_PROPERTY)) {
+            for (final JsonElement element : jsonObject.getAsJsonArray(JsonConstants.DELTAS_PROPERTY)) {
+                final JsonObject delta = element.getAsJsonObject();
+                final String baseVersion = delta.get(JsonConstants.BASE_VERSION_PROPERTY).getAsString();
+                final String href = delta.get(JsonConstants.HREF_PROPERTY).getAsString();
+                final String sha256 = delta.has(JsonConstants.SHA256_PROPERTY) ? delta.get(JsonConstants.SHA256_PROPERTY).getAsString() : null;
+                final long size = delta.has(JsonConstants.SIZE_PROPERTY) ? delta.get(JsonConstants.SIZE_PROPERTY).getAsLong() : -1;
+                deltas.add(new RemoteRuntimeDelta(baseVersion, href, sha256, size));
+            }
+        }
+        return deltas;
+    }
 }
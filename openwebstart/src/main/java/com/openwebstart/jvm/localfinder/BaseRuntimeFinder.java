@@ -1,9 +1,7 @@
 package com.openwebstart.jvm.localfinder;
 
 import com.openwebstart.config.OwsDefaultsProvider;
-import com.openwebstart.func.ResultWithInput;
 import com.openwebstart.jvm.os.OperationSystem;
-import com.openwebstart.jvm.runtimes.LocalJavaRuntime;
 import net.adoptopenjdk.icedteaweb.StringUtils;
 import net.adoptopenjdk.icedteaweb.logging.Logger;
 import net.adoptopenjdk.icedteaweb.logging.LoggerFactory;
@@ -21,7 +19,7 @@ import java.util.stream.Collectors;
 abstract class BaseRuntimeFinder {
     private static final Logger LOG = LoggerFactory.getLogger(BaseRuntimeFinder.class);
 
-    List<ResultWithInput<Path, LocalJavaRuntime>> findLocalRuntimes(DeploymentConfiguration config) {
+    List<Path> getSearchRoots(DeploymentConfiguration config) {
         LOG.debug("Searching for local runtimes");
 
         final List<Path> pathToSearchIn = new ArrayList<>();
@@ -29,15 +27,9 @@ abstract class BaseRuntimeFinder {
         pathToSearchIn.addAll(defaultPaths(config));
         pathToSearchIn.addAll(customPaths(config));
 
-        return findLocalRuntimes(pathToSearchIn);
-    }
-
-    private List<ResultWithInput<Path, LocalJavaRuntime>> findLocalRuntimes(final Collection<Path> searchRoots) {
-        return searchRoots.stream()
+        return pathToSearchIn.stream()
                 .map(Path::normalize)
                 .map(Path::toAbsolutePath)
-                .map(JdkFinder::findLocalRuntimes)
-                .flatMap(List::stream)
                 .collect(Collectors.toList());
     }
 
@@ -0,0 +1,158 @@
+package com.openwebstart.jvm.localfinder;
+
+import com.openwebstart.jvm.util.JavaExecutableFinder;
+import com.openwebstart.jvm.util.JavaRuntimePropertiesDetector;
+import com.openwebstart.jvm.util.JavaRuntimePropertiesDetector.JavaRuntimeProperties;
+import net.adoptopenjdk.icedteaweb.Assert;
+import net.adoptopenjdk.icedteaweb.logging.Logger;
+import net.adoptopenjdk.icedteaweb.logging.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Remembers the properties of local JVMs, so a JVM is only started to detect its properties if its java
+ * executable has changed. An entry is identified by the path, the size and the last modification time of
+ * the java executable. Entries of executables that do not exist anymore are dropped when the cache is saved.
+ */
+class JavaRuntimePropertiesCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(JavaRuntimePropertiesCache.class);
+
+    static final String FILENAME = "local-runtimes.properties";
+
+    private static final String SIZE_SUFFIX = ".size";
+    private static final String LAST_MODIFIED_SUFFIX = ".lastModified";
+    private static final String VENDOR_SUFFIX = ".vendor";
+    private static final String VERSION_SUFFIX = ".version";
+    private static final String OS_NAME_SUFFIX = ".osName";
+    private static final String OS_ARCH_SUFFIX = ".osArch";
+    private static final String BITNESS_SUFFIX = ".bitness";
+
+    private final Path file;
+
+    private final Function<Path, JavaRuntimeProperties> detector;
+
+    private final Properties properties = new Properties();
+
+    private boolean modified;
+
+    JavaRuntimePropertiesCache(final Path cacheDir) {
+        this(cacheDir, JavaRuntimePropertiesDetector::getProperties);
+    }
+
+    JavaRuntimePropertiesCache(final Path cacheDir, final Function<Path, JavaRuntimeProperties> detector) {
+        this.file = Assert.requireNonNull(cacheDir, "cacheDir").resolve(FILENAME);
+        this.detector = Assert.requireNonNull(detector, "detector");
+        if (Files.isRegularFile(file)) {
+            try (final InputStream inputStream = Files.newInputStream(file)) {
+                properties.load(inputStream);
+            } catch (final IOException e) {
+                LOG.debug("Could not read {}: {}", file, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Returns the properties of the JVM. The JVM is only started if the cache does not contain the
+     * properties of its current java executable. This method can be called by several threads in parallel.
+     */
+    JavaRuntimeProperties getProperties(final Path javaHome) throws IOException {
+        Assert.requireNonNull(javaHome, "javaHome");
+        final Path java = Paths.get(JavaExecutableFinder.findJavaExecutable(javaHome));
+        final String size = Long.toString(Files.size(java));
+        final String lastModified = Long.toString(Files.getLastModifiedTime(java).toMillis());
+        final String key = java.toString();
+
+        synchronized (properties) {
+            if (size.equals(properties.getProperty(key + SIZE_SUFFIX)) && lastModified.equals(properties.getProperty(key + LAST_MODIFIED_SUFFIX))) {
+                LOG.debug("Using cached properties of JVM at '{}'", javaHome);
+                return new JavaRuntimeProperties(
+                        properties.getProperty(key + VENDOR_SUFFIX),
+                        properties.getProperty(key + VERSION_SUFFIX),
+                        properties.getProperty(key + OS_NAME_SUFFIX),
+                        properties.getProperty(key + OS_ARCH_SUFFIX),
+                        properties.getProperty(key + BITNESS_SUFFIX)
+                );
+            }
+        }
+
+        final JavaRuntimeProperties jreProps = detector.apply(javaHome);
+        synchronized (properties) {
+            properties.setProperty(key + SIZE_SUFFIX, size);
+            properties.setProperty(key + LAST_MODIFIED_SUFFIX, lastModified);
+            setProperty(key + VENDOR_SUFFIX, jreProps.getVendor());
+            setProperty(key + VERSION_SUFFIX, jreProps.getVersion());
+            setProperty(key + OS_NAME_SUFFIX, jreProps.getOsName());
+            setProperty(key + OS_ARCH_SUFFIX, jreProps.getOsArch());
+            setProperty(key + BITNESS_SUFFIX, jreProps.getBitness());
+            modified = true;
+        }
+        return jreProps;
+    }
+
+    /**
+     * Saves the cache if new JVMs have been detected since the cache has been loaded.
+     */
+    void save() {
+        synchronized (properties) {
+            if (!modified) {
+                return;
+            }
+            properties.stringPropertyNames().stream()
+                    .filter(key -> key.endsWith(SIZE_SUFFIX))
+                    .map(key -> key.substring(0, key.length() - SIZE_SUFFIX.length()))
+                    .filter(java -> !Files.isRegularFile(Paths.get(java)))
+                    .forEach(this::remove);
+
+            final Path tempFile = file.resolveSibling(FILENAME + "." + UUID.randomUUID());
+            try {
+                Files.createDirectories(file.getParent());
+                try (final OutputStream outputStream = Files.newOutputStream(tempFile)) {
+                    properties.store(outputStream, null);
+                }
+                try {
+                    Files.move(tempFile, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                } catch (final AtomicMoveNotSupportedException e) {
+                    Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
+                }
+                modified = false;
+            } catch (final IOException e) {
+                LOG.warn("Could not save properties of local JVMs: {}", e.getMessage());
+            } finally {
+                try {
+                    Files.deleteIfExists(tempFile);
+                } catch (final IOException e) {
+                    LOG.debug("Could not delete {}: {}", tempFile, e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void setProperty(final String key, final String value) {
+        if (value != null) {
+            properties.setProperty(key, value);
+        } else {
+            properties.remove(key);
+        }
+    }
+
+    private void remove(final String key) {
+        properties.remove(key + SIZE_SUFFIX);
+        properties.remove(key + LAST_MODIFIED_SUFFIX);
+        properties.remove(key + VENDOR_SUFFIX);
+        properties.remove(key + VERSION_SUFFIX);
+        properties.remove(key + OS_NAME_SUFFIX);
+        properties.remove(key + OS_ARCH_SUFFIX);
+        properties.remove(key + BITNESS_SUFFIX);
+    }
+}
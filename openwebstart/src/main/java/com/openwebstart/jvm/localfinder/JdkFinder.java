@@ -2,6 +2,7 @@ package com.openwebstart.jvm.localfinder;
 
 import com.openwebstart.func.Result;
 import com.openwebstart.func.ResultWithInput;
+import com.openwebstart.jvm.RuntimeManagerConfig;
 import com.openwebstart.jvm.os.OperationSystem;
 import com.openwebstart.jvm.runtimes.LocalJavaRuntime;
 import com.openwebstart.jvm.util.JavaRuntimePropertiesDetector;
@@ -13,16 +14,31 @@ import net.sourceforge.jnlp.config.DeploymentConfiguration;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
 import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import static com.openwebstart.concurrent.ThreadPoolHolder.getDaemonExecutorService;
 import static com.openwebstart.jvm.os.OperationSystem.getOperationSystem;
 
 public class JdkFinder {
@@ -31,6 +47,23 @@ public class JdkFinder {
 
     private static final OperationSystem LOCAL_OS = OperationSystem.getLocalSystem();
 
+    static final int MAX_SEARCH_DEPTH = 5;
+
+    private static final int MAX_PROBE_THREADS = 4;
+
+    private static final String JRE_FOLDER_NAME = "jre";
+
+    private static final String SDK_MAN_CANDIDATES_FOLDER_NAME = "candidates";
+
+    private static final String SDK_MAN_JAVA_FOLDER_NAME = "java";
+
+    /**
+     * Folders that never contain a JVM, like the download folders of SDKMAN.
+     */
+    private static final Set<String> PRUNED_FOLDER_NAMES = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            "archives", "tmp", "node_modules", ".git"
+    )));
+
     private static final BaseRuntimeFinder[] FINDERS = {
             new WindowsRuntimeFinder(),
             new MacRuntimeFinder(),
@@ -38,40 +71,190 @@ public class JdkFinder {
     };
 
     public static List<ResultWithInput<Path, LocalJavaRuntime>> findLocalRuntimes(final DeploymentConfiguration deploymentConfiguration) {
-        final OperationSystem currentOs = OperationSystem.getLocalSystem();
+        return findLocalRuntimes(deploymentConfiguration, false);
+    }
+
+    /**
+     * Searches only the search roots that have changed since they have been searched the last time. JVMs of
+     * unchanged search roots have already been found by a former search.
+     *
+     * @see SearchRootFingerprints
+     */
+    public static List<ResultWithInput<Path, LocalJavaRuntime>> findLocalRuntimesInChangedSearchRoots(final DeploymentConfiguration deploymentConfiguration) {
+        return findLocalRuntimes(deploymentConfiguration, true);
+    }
 
-        final List<ResultWithInput<Path, LocalJavaRuntime>> foundRuntimes = Stream.of(FINDERS)
+    public static List<ResultWithInput<Path, LocalJavaRuntime>> findLocalRuntimes(final Path searchRoot) {
+        return getLocalJavaRuntimes(findJavaHomes(searchRoot));
+    }
+
+    private static List<ResultWithInput<Path, LocalJavaRuntime>> findLocalRuntimes(final DeploymentConfiguration deploymentConfiguration, final boolean onlyChangedSearchRoots) {
+        final List<Path> searchRoots = getSearchRoots(deploymentConfiguration);
+        final SearchRootFingerprints fingerprints = new SearchRootFingerprints(RuntimeManagerConfig.getCachePath());
+
+        final Map<Path, List<Path>> javaHomesBySearchRoot = new LinkedHashMap<>();
+        final Map<Path, Map<Path, FileTime>> foldersBySearchRoot = new HashMap<>();
+        for (final Path searchRoot : searchRoots) {
+            if (onlyChangedSearchRoots && fingerprints.isUnchanged(searchRoot)) {
+                LOG.debug("Skipping unchanged search root {}", searchRoot);
+                continue;
+            }
+            final Map<Path, FileTime> folders = new HashMap<>();
+            javaHomesBySearchRoot.put(searchRoot, findJavaHomes(searchRoot, MAX_SEARCH_DEPTH, folders));
+            foldersBySearchRoot.put(searchRoot, folders);
+        }
+
+        final List<Path> javaHomes = javaHomesBySearchRoot.values().stream()
+                .flatMap(List::stream)
+                .distinct()
+                .collect(Collectors.toList());
+        final List<ResultWithInput<Path, LocalJavaRuntime>> localRuntimes = getLocalJavaRuntimes(javaHomes);
+
+        // a search root with a JVM that could not be probed is searched again on the next start
+        final Set<Path> failedJavaHomes = localRuntimes.stream()
+                .filter(Result::isFailed)
+                .map(ResultWithInput::getInput)
+                .collect(Collectors.toSet());
+        javaHomesBySearchRoot.forEach((searchRoot, javaHomesOfSearchRoot) -> {
+            if (javaHomesOfSearchRoot.stream().anyMatch(failedJavaHomes::contains)) {
+                fingerprints.remove(searchRoot);
+            } else {
+                fingerprints.record(searchRoot, foldersBySearchRoot.get(searchRoot), javaHomesOfSearchRoot);
+            }
+        });
+        fingerprints.retainAll(searchRoots);
+        fingerprints.save();
+
+        return Collections.unmodifiableList(localRuntimes);
+    }
+
+    static List<Path> getSearchRoots(final DeploymentConfiguration deploymentConfiguration) {
+        final OperationSystem currentOs = OperationSystem.getLocalSystem();
+        return Stream.of(FINDERS)
                 .filter(finder -> finder.getSupportedOperationSystems().contains(currentOs))
-                .map(finder -> finder.findLocalRuntimes(deploymentConfiguration))
+                .map(finder -> finder.getSearchRoots(deploymentConfiguration))
                 .flatMap(List::stream)
+                .distinct()
                 .collect(Collectors.toList());
+    }
 
-        return Collections.unmodifiableList(foundRuntimes);
+    static List<Path> findJavaHomes(final Path searchRoot) {
+        return findJavaHomes(searchRoot, MAX_SEARCH_DEPTH, new HashMap<>());
     }
 
-    public static List<ResultWithInput<Path, LocalJavaRuntime>> findLocalRuntimes(final Path searchRoot) {
+    /**
+     * Walks the search root and returns all java homes. The walk does not descend into java homes, except for
+     * the jre folder of a JDK 8, and into folders that are known to not contain any JVMs.
+     *
+     * @param folders receives all visited folders that are not java homes together with their last modification
+     *                time. These are the folders in which new JVMs are found by a later search.
+     */
+    static List<Path> findJavaHomes(final Path searchRoot, final int maxDepth, final Map<Path, FileTime> folders) {
         LOG.debug("About to look for local JVMs at the following location: {}", searchRoot);
 
-        if (Files.isDirectory(searchRoot)) {
+        if (!Files.isDirectory(searchRoot)) {
+            return Collections.emptyList();
+        }
+        final List<Path> javaHomes = new ArrayList<>();
+        try {
+            Files.walkFileTree(searchRoot, Collections.emptySet(), maxDepth, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult preVisitDirectory(final Path dir, final BasicFileAttributes attrs) {
+                    if (!dir.equals(searchRoot) && isPruned(dir)) {
+                        return FileVisitResult.SKIP_SUBTREE;
+                    }
+                    if (isJavaHome(dir, attrs)) {
+                        javaHomes.add(dir.toAbsolutePath().normalize());
+                    } else {
+                        folders.put(dir.toAbsolutePath().normalize(), attrs.lastModifiedTime());
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(final Path file, final BasicFileAttributes attrs) {
+                    // directories at the max depth are not visited but passed as files
+                    if (isJavaHome(file, attrs)) {
+                        javaHomes.add(file.toAbsolutePath().normalize());
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(final Path file, final IOException e) {
+                    LOG.debug("Skipping '{}' while searching for local JVMs: {}", file, e.getMessage());
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (final IOException e) {
+            throw new RuntimeException("Error while searching for local JVMs at '" + searchRoot + "'", e);
+        }
+        return javaHomes;
+    }
+
+    private static boolean isPruned(final Path dir) {
+        final Path parent = dir.getParent();
+        final String name = dir.getFileName().toString();
+        if (parent != null && isJavaHome(parent)) {
+            return !JRE_FOLDER_NAME.equals(name);
+        }
+        if (parent != null && SDK_MAN_CANDIDATES_FOLDER_NAME.equals(parent.getFileName().toString())) {
+            return !SDK_MAN_JAVA_FOLDER_NAME.equals(name);
+        }
+        return PRUNED_FOLDER_NAMES.contains(name);
+    }
+
+    /**
+     * Detects the properties of the java homes in parallel. Properties of JVMs that have been detected before
+     * are taken from a cache if their java executable has not changed.
+     */
+    static List<ResultWithInput<Path, LocalJavaRuntime>> getLocalJavaRuntimes(final List<Path> javaHomes) {
+        if (javaHomes.isEmpty()) {
+            return Collections.emptyList();
+        }
+        final JavaRuntimePropertiesCache propertiesCache = new JavaRuntimePropertiesCache(RuntimeManagerConfig.getCachePath());
+        final AtomicReferenceArray<ResultWithInput<Path, LocalJavaRuntime>> results = new AtomicReferenceArray<>(javaHomes.size());
+        final AtomicInteger nextIndex = new AtomicInteger();
+        final Runnable worker = () -> {
+            int index;
+            while ((index = nextIndex.getAndIncrement()) < javaHomes.size()) {
+                results.set(index, Result.<Path, LocalJavaRuntime>withInput(javaHome -> getLocalJavaRuntime(javaHome, propertiesCache)).apply(javaHomes.get(index)));
+            }
+        };
+
+        final int threads = Math.min(javaHomes.size(), Math.max(1, Math.min(MAX_PROBE_THREADS, Runtime.getRuntime().availableProcessors())));
+        final List<Future<?>> workers = new ArrayList<>();
+        for (int i = 1; i < threads; i++) {
+            workers.add(getDaemonExecutorService().submit(worker));
+        }
+        worker.run();
+        for (final Future<?> future : workers) {
             try {
-                return Files.find(searchRoot, 5, JdkFinder::isJavaHome)
-                        .map(Path::toAbsolutePath)
-                        .map(Path::normalize)
-                        .distinct()
-                        .map(Result.withInput(JdkFinder::getLocalJavaRuntime))
-                        .collect(Collectors.toList());
-            } catch (final IOException e) {
-                throw new RuntimeException("Error while searching for local JVMs at '" + searchRoot + "'", e);
+                future.get();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while searching for local JVMs", e);
+            } catch (final ExecutionException e) {
+                throw new RuntimeException("Error while searching for local JVMs", e.getCause());
             }
         }
-        return Collections.emptyList();
+        propertiesCache.save();
+
+        final List<ResultWithInput<Path, LocalJavaRuntime>> localRuntimes = new ArrayList<>();
+        for (int i = 0; i < results.length(); i++) {
+            localRuntimes.add(results.get(i));
+        }
+        return localRuntimes;
     }
 
     public static boolean isJavaHome(final Path path, final BasicFileAttributes basicFileAttributes) {
         if (!basicFileAttributes.isDirectory()) {
             return false;
         }
+        return isJavaHome(path);
+    }
 
+    static boolean isJavaHome(final Path path) {
         if (Files.isRegularFile(path.resolve("bin" + File.separatorChar + "java"))) {
             return true;
         }
@@ -79,14 +262,14 @@ public class JdkFinder {
         return Files.isRegularFile(path.resolve("bin" + File.separatorChar + "java.exe"));
     }
 
-    private static LocalJavaRuntime getLocalJavaRuntime(final Path javaHome) {
+    private static LocalJavaRuntime getLocalJavaRuntime(final Path javaHome, final JavaRuntimePropertiesCache propertiesCache) {
         Assert.requireNonNull(javaHome, "javaHome");
         if (isInternalJvm(javaHome)) {
             LOG.info("JVM '{}' won't be used since it is the internal OpenWebStart JVM", javaHome);
             throw new IllegalArgumentException("The selected JVM at '" + javaHome + "' is the internal OpenWebStart JVM");
         }
         try {
-            final JavaRuntimePropertiesDetector.JavaRuntimeProperties jreProps = JavaRuntimePropertiesDetector.getProperties(javaHome);
+            final JavaRuntimePropertiesDetector.JavaRuntimeProperties jreProps = propertiesCache.getProperties(javaHome);
             final String version = jreProps.getVersion();
             final String vendor = jreProps.getVendor();
             final OperationSystem os = getOperationSystem(jreProps.getOsName(), jreProps.getOsArch(), jreProps.getBitness()).orElse(LOCAL_OS);
@@ -0,0 +1,203 @@
+package com.openwebstart.jvm.localfinder;
+
+import com.openwebstart.func.ResultWithInput;
+import com.openwebstart.jvm.runtimes.LocalJavaRuntime;
+import net.adoptopenjdk.icedteaweb.Assert;
+import net.adoptopenjdk.icedteaweb.logging.Logger;
+import net.adoptopenjdk.icedteaweb.logging.LoggerFactory;
+import net.sourceforge.jnlp.config.DeploymentConfiguration;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import static com.openwebstart.concurrent.ThreadPoolHolder.getDaemonExecutorService;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+/**
+ * Watches the folders of the search roots for JVMs that are installed or removed while the watcher is open.
+ * Events are collected until the file system has been quiet for a moment, so a JVM that is still extracted
+ * is probed once it is complete. Search roots that do not exist when the watcher is started are not watched.
+ */
+public class LocalRuntimeWatcher implements Closeable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(LocalRuntimeWatcher.class);
+
+    private static final long QUIET_PERIOD_IN_MILLIS = 2_000;
+
+    private final WatchService watchService;
+
+    private final Consumer<List<LocalJavaRuntime>> addedHandler;
+
+    private final Consumer<Path> removedHandler;
+
+    private final Map<WatchKey, Path> folderByKey = new HashMap<>();
+
+    private final Map<Path, Integer> remainingDepthByFolder = new HashMap<>();
+
+    private final Set<Path> javaHomes = new HashSet<>();
+
+    private LocalRuntimeWatcher(final WatchService watchService, final Consumer<List<LocalJavaRuntime>> addedHandler, final Consumer<Path> removedHandler) {
+        this.watchService = Assert.requireNonNull(watchService, "watchService");
+        this.addedHandler = Assert.requireNonNull(addedHandler, "addedHandler");
+        this.removedHandler = Assert.requireNonNull(removedHandler, "removedHandler");
+    }
+
+    /**
+     * Starts to watch the search roots in the background.
+     *
+     * @param deploymentConfiguration the configuration that defines the search roots
+     * @param addedHandler            receives the JVMs that have been installed
+     * @param removedHandler          receives the java homes of the JVMs that have been removed
+     * @return the watcher that must be closed to stop watching
+     */
+    public static LocalRuntimeWatcher start(final DeploymentConfiguration deploymentConfiguration, final Consumer<List<LocalJavaRuntime>> addedHandler, final Consumer<Path> removedHandler) throws IOException {
+        Assert.requireNonNull(deploymentConfiguration, "deploymentConfiguration");
+        final List<Path> searchRoots = JdkFinder.getSearchRoots(deploymentConfiguration);
+        final LocalRuntimeWatcher watcher = new LocalRuntimeWatcher(FileSystems.getDefault().newWatchService(), addedHandler, removedHandler);
+        getDaemonExecutorService().execute(() -> watcher.run(searchRoots));
+        return watcher;
+    }
+
+    @Override
+    public void close() {
+        try {
+            watchService.close();
+        } catch (final IOException e) {
+            LOG.debug("Could not close watch service: {}", e.getMessage());
+        }
+    }
+
+    private void run(final List<Path> searchRoots) {
+        try {
+            searchRoots.forEach(searchRoot -> javaHomes.addAll(scan(searchRoot, JdkFinder.MAX_SEARCH_DEPTH)));
+            LOG.debug("Watching {} folders for installed or removed JVMs", remainingDepthByFolder.size());
+
+            while (true) {
+                final Set<Path> changedFolders = new HashSet<>();
+                WatchKey key = watchService.take();
+                do {
+                    handleEvents(key, changedFolders);
+                } while ((key = watchService.poll(QUIET_PERIOD_IN_MILLIS, TimeUnit.MILLISECONDS)) != null);
+                handleChangedFolders(changedFolders);
+            }
+        } catch (final ClosedWatchServiceException e) {
+            LOG.debug("Stopped watching for installed or removed JVMs");
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (final Exception e) {
+            LOG.error("Error while watching for installed or removed JVMs", e);
+        } finally {
+            close();
+        }
+    }
+
+    private void handleEvents(final WatchKey key, final Set<Path> changedFolders) {
+        final Path folder = folderByKey.get(key);
+        if (folder != null) {
+            for (final WatchEvent<?> event : key.pollEvents()) {
+                if (event.kind() == ENTRY_DELETE) {
+                    handleDeleted(folder.resolve((Path) event.context()));
+                } else if (event.kind() == ENTRY_CREATE || event.kind() == OVERFLOW) {
+                    changedFolders.add(folder);
+                }
+            }
+        }
+        if (!key.reset()) {
+            folderByKey.remove(key);
+            if (folder != null) {
+                remainingDepthByFolder.remove(folder);
+            }
+        }
+    }
+
+    private void handleDeleted(final Path path) {
+        final List<Path> removed = javaHomes.stream()
+                .filter(javaHome -> javaHome.startsWith(path))
+                .collect(Collectors.toList());
+        removed.forEach(javaHome -> {
+            LOG.info("JVM at '{}' has been removed", javaHome);
+            javaHomes.remove(javaHome);
+            removedHandler.accept(javaHome);
+        });
+    }
+
+    private void handleChangedFolders(final Set<Path> changedFolders) {
+        final List<Path> newJavaHomes = new ArrayList<>();
+        for (final Path folder : changedFolders) {
+            final Integer remainingDepth = remainingDepthByFolder.get(folder);
+            if (remainingDepth == null || !Files.isDirectory(folder)) {
+                continue;
+            }
+            // a folder becomes a java home once the extraction of a JVM into it has been finished
+            for (Path parent = folder; remainingDepthByFolder.containsKey(parent); parent = parent.getParent()) {
+                if (JdkFinder.isJavaHome(parent) && javaHomes.add(parent)) {
+                    newJavaHomes.add(parent);
+                }
+            }
+            scan(folder, remainingDepth).stream()
+                    .filter(javaHomes::add)
+                    .forEach(newJavaHomes::add);
+        }
+        if (newJavaHomes.isEmpty()) {
+            return;
+        }
+
+        final List<ResultWithInput<Path, LocalJavaRuntime>> results = JdkFinder.getLocalJavaRuntimes(newJavaHomes);
+        final List<LocalJavaRuntime> added = new ArrayList<>();
+        results.forEach(result -> {
+            if (result.isSuccessful()) {
+                LOG.info("JVM at '{}' has been installed", result.getInput());
+                added.add(result.getResult());
+            } else {
+                // the JVM is probed again on the next change of its folder
+                LOG.debug("Could not add JVM at '{}': {}", result.getInput(), result.getException().getMessage());
+                javaHomes.remove(result.getInput());
+            }
+        });
+        if (!added.isEmpty()) {
+            addedHandler.accept(added);
+        }
+    }
+
+    /**
+     * Searches the folder for java homes and watches all of its folders that might contain a JVM.
+     *
+     * @return the java homes in the folder
+     */
+    private List<Path> scan(final Path folder, final int maxDepth) {
+        final Map<Path, FileTime> folders = new HashMap<>();
+        final List<Path> found = JdkFinder.findJavaHomes(folder, maxDepth, folders);
+        for (final Path subFolder : folders.keySet()) {
+            if (!remainingDepthByFolder.containsKey(subFolder)) {
+                try {
+                    folderByKey.put(subFolder.register(watchService, ENTRY_CREATE, ENTRY_DELETE), subFolder);
+                    // the relative path of the folder itself is empty but still has one name element
+                    final int depth = subFolder.equals(folder) ? 0 : folder.relativize(subFolder).getNameCount();
+                    remainingDepthByFolder.put(subFolder, maxDepth - depth);
+                } catch (final IOException e) {
+                    LOG.debug("Could not watch '{}': {}", subFolder, e.getMessage());
+                }
+            }
+        }
+        return found;
+    }
+}
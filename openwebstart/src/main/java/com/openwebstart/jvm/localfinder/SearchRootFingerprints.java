@@ -0,0 +1,199 @@
+package com.openwebstart.jvm.localfinder;
+
+import net.adoptopenjdk.icedteaweb.Assert;
+import net.adoptopenjdk.icedteaweb.logging.Logger;
+import net.adoptopenjdk.icedteaweb.logging.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Remembers the folders of each search root that have been visited by the last search for local JVMs together
+ * with their last modification time. Installing, moving or removing a JVM changes the last modification time
+ * of the folder that contains the JVM. A JVM that is updated in place keeps its folder, so the fingerprint also
+ * contains the size and the last modification time of the {@code release} file (or the java executable) of
+ * every JVM that has been found. A search root only needs to be searched again if one of these has changed.
+ * Checking a fingerprint only reads the attributes of the recorded files and folders and does not list the
+ * content of any folder.
+ */
+class SearchRootFingerprints {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SearchRootFingerprints.class);
+
+    static final String FILENAME = "search-roots.properties";
+
+    private static final long MISSING = -1;
+
+    private static final String LINE_SEPARATOR = "\n";
+
+    private static final char FIELD_SEPARATOR = ' ';
+
+    private static final char SIZE_SEPARATOR = '@';
+
+    private static final String RELEASE_FILE_NAME = "release";
+
+    private final Path file;
+
+    private final Properties properties = new Properties();
+
+    private boolean modified;
+
+    SearchRootFingerprints(final Path cacheDir) {
+        this.file = Assert.requireNonNull(cacheDir, "cacheDir").resolve(FILENAME);
+        if (Files.isRegularFile(file)) {
+            try (final InputStream inputStream = Files.newInputStream(file)) {
+                properties.load(inputStream);
+            } catch (final IOException e) {
+                LOG.debug("Could not read {}: {}", file, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Returns true if a fingerprint has been recorded for the search root and none of its folders has been
+     * modified, created or removed since then.
+     */
+    boolean isUnchanged(final Path searchRoot) {
+        Assert.requireNonNull(searchRoot, "searchRoot");
+        final String fingerprint = properties.getProperty(searchRoot.toString());
+        if (fingerprint == null) {
+            return false;
+        }
+        for (final String line : fingerprint.split(LINE_SEPARATOR)) {
+            final int separatorIndex = line.indexOf(FIELD_SEPARATOR);
+            if (separatorIndex < 0) {
+                return false;
+            }
+            try {
+                final String attributes = line.substring(0, separatorIndex);
+                final Path path = Paths.get(line.substring(separatorIndex + 1));
+                final int sizeIndex = attributes.indexOf(SIZE_SEPARATOR);
+                if (sizeIndex < 0) {
+                    if (Long.parseLong(attributes) != getLastModified(path)) {
+                        return false;
+                    }
+                } else if (Long.parseLong(attributes.substring(0, sizeIndex)) != getLastModified(path)
+                        || Long.parseLong(attributes.substring(sizeIndex + 1)) != getSize(path)) {
+                    return false;
+                }
+            } catch (final RuntimeException e) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Records the fingerprint of a search root.
+     *
+     * @param searchRoot the search root
+     * @param folders    all folders of the search root that might contain a JVM and their last modification time
+     * @param javaHomes  the java homes that have been found in the search root
+     */
+    void record(final Path searchRoot, final Map<Path, FileTime> folders, final Collection<Path> javaHomes) {
+        Assert.requireNonNull(searchRoot, "searchRoot");
+        Assert.requireNonNull(folders, "folders");
+        Assert.requireNonNull(javaHomes, "javaHomes");
+        final Map<Path, String> fingerprint = new TreeMap<>();
+        folders.forEach((folder, lastModified) -> fingerprint.put(folder, Long.toString(lastModified.toMillis())));
+        for (final Path javaHome : javaHomes) {
+            final Path file = getVersionFile(javaHome);
+            fingerprint.put(file, getLastModified(file) + "" + SIZE_SEPARATOR + getSize(file));
+        }
+        // a search root that does not exist yet has to be searched once it has been created
+        fingerprint.putIfAbsent(searchRoot, Long.toString(getLastModified(searchRoot)));
+        final String value = fingerprint.entrySet().stream()
+                .map(entry -> entry.getValue() + "" + FIELD_SEPARATOR + entry.getKey())
+                .collect(Collectors.joining(LINE_SEPARATOR));
+        properties.setProperty(searchRoot.toString(), value);
+        modified = true;
+    }
+
+    void remove(final Path searchRoot) {
+        Assert.requireNonNull(searchRoot, "searchRoot");
+        modified |= properties.remove(searchRoot.toString()) != null;
+    }
+
+    /**
+     * Drops the fingerprints of all search roots that are not part of the given search roots anymore.
+     */
+    void retainAll(final Collection<Path> searchRoots) {
+        Assert.requireNonNull(searchRoots, "searchRoots");
+        final Set<String> keys = searchRoots.stream().map(Path::toString).collect(Collectors.toSet());
+        properties.stringPropertyNames().stream()
+                .filter(key -> !keys.contains(key))
+                .forEach(key -> {
+                    properties.remove(key);
+                    modified = true;
+                });
+    }
+
+    void save() {
+        if (!modified) {
+            return;
+        }
+        final Path tempFile = file.resolveSibling(FILENAME + "." + UUID.randomUUID());
+        try {
+            Files.createDirectories(file.getParent());
+            try (final OutputStream outputStream = Files.newOutputStream(tempFile)) {
+                properties.store(outputStream, null);
+            }
+            try {
+                Files.move(tempFile, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (final AtomicMoveNotSupportedException e) {
+                Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+            modified = false;
+        } catch (final IOException e) {
+            LOG.warn("Could not save fingerprints of JVM search roots: {}", e.getMessage());
+        } finally {
+            try {
+                Files.deleteIfExists(tempFile);
+            } catch (final IOException e) {
+                LOG.debug("Could not delete {}: {}", tempFile, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Returns the file of a java home that is replaced if the JVM is updated.
+     */
+    private static Path getVersionFile(final Path javaHome) {
+        final Path release = javaHome.resolve(RELEASE_FILE_NAME);
+        if (Files.isRegularFile(release)) {
+            return release;
+        }
+        final Path java = javaHome.resolve("bin").resolve("java");
+        return Files.isRegularFile(java) ? java : javaHome.resolve("bin").resolve("java.exe");
+    }
+
+    private static long getLastModified(final Path path) {
+        try {
+            return Files.getLastModifiedTime(path).toMillis();
+        } catch (final IOException e) {
+            return MISSING;
+        }
+    }
+
+    private static long getSize(final Path file) {
+        try {
+            return Files.size(file);
+        } catch (final IOException e) {
+            return MISSING;
+        }
+    }
+}
@@ -5,14 +5,52 @@ import net.adoptopenjdk.icedteaweb.Assert;
 
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.regex.Pattern;
 
 public class RemoteJavaRuntime extends JavaRuntime {
 
+    private static final Pattern SHA_256_PATTERN = Pattern.compile("[0-9a-f]{64}");
+
     private final String href;
 
+    private final String sha256;
+
+    private final long size;
+
+    private final List<String> mirrors;
+
+    private final List<RemoteRuntimeDelta> deltas;
+
     public RemoteJavaRuntime(final String version, final OperationSystem operationSystem, final String vendor, final String href) {
+        this(version, operationSystem, vendor, href, null, -1);
+    }
+
+    /**
+     * @param sha256 the SHA-256 checksum (hex encoded) of the archive or {@code null} if unknown. A blank or
+     *               malformed checksum is handled as unknown
+     * @param size   the size of the archive in bytes or {@code -1} if unknown
+     */
+    public RemoteJavaRuntime(final String version, final OperationSystem operationSystem, final String vendor, final String href, final String sha256, final long size) {
+        this(version, operationSystem, vendor, href, sha256, size, Collections.emptyList(), Collections.emptyList());
+    }
+
+    /**
+     * @param mirrors other URLs of exactly the same archive in the order of preference
+     * @param deltas  patch archives that create this runtime from an installed runtime of a base version
+     */
+    public RemoteJavaRuntime(final String version, final OperationSystem operationSystem, final String vendor, final String href, final String sha256, final long size, final List<String> mirrors, final List<RemoteRuntimeDelta> deltas) {
         super(version, operationSystem, vendor);
         this.href = Assert.requireNonNull(href, "href");
+        this.sha256 = normalizeSha256(sha256);
+        this.size = size >= 0 ? size : -1;
+        this.mirrors = Collections.unmodifiableList(new ArrayList<>(Assert.requireNonNull(mirrors, "mirrors")));
+        this.deltas = Collections.unmodifiableList(new ArrayList<>(Assert.requireNonNull(deltas, "deltas")));
     }
 
     public String getHref() {
@@ -22,4 +60,43 @@ public class RemoteJavaRuntime extends JavaRuntime {
     public URL getEndpoint() throws MalformedURLException {
         return new URL(href);
     }
+
+    public List<String> getMirrors() {
+        return mirrors;
+    }
+
+    /**
+     * @return the URL of the archive followed by the URLs of all mirrors
+     */
+    public List<URL> getEndpoints() throws MalformedURLException {
+        final List<URL> endpoints = new ArrayList<>();
+        endpoints.add(getEndpoint());
+        for (final String mirror : mirrors) {
+            endpoints.add(new URL(mirror));
+        }
+        return endpoints;
+    }
+
+    public Optional<String> getSha256() {
+        return Optional.ofNullable(sha256);
+    }
+
+    /**
+     * @return the lower case checksum or {@code null} if the checksum is missing, blank or not a hex encoded SHA-256 checksum
+     */
+    static String normalizeSha256(final String sha256) {
+        if (sha256 == null) {
+            return null;
+        }
+        final String normalized = sha256.trim().toLowerCase(Locale.ROOT);
+        return SHA_256_PATTERN.matcher(normalized).matches() ? normalized : null;
+    }
+
+    public OptionalLong getSize() {
+        return size >= 0 ? OptionalLong.of(size) : OptionalLong.empty();
+    }
+
+    public List<RemoteRuntimeDelta> getDeltas() {
+        return deltas;
+    }
 }
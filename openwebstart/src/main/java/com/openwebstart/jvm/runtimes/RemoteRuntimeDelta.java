@@ -0,0 +1,56 @@
+package com.openwebstart.jvm.runtimes;
+
+import net.adoptopenjdk.icedteaweb.Assert;
+import net.adoptopenjdk.icedteaweb.jnlp.version.VersionId;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.Optional;
+import java.util.OptionalLong;
+
+/**
+ * Patch archive that creates a remote runtime from an installed runtime of a base version. The archive
+ * contains the changed files and a manifest of all files of the new runtime.
+ */
+public class RemoteRuntimeDelta {
+
+    private final VersionId baseVersion;
+
+    private final String href;
+
+    private final String sha256;
+
+    private final long size;
+
+    /**
+     * @param sha256 the SHA-256 checksum (hex encoded) of the patch archive or {@code null} if unknown. A blank
+     *               or malformed checksum is handled as unknown
+     * @param size   the size of the patch archive in bytes or {@code -1} if unknown
+     */
+    public RemoteRuntimeDelta(final String baseVersion, final String href, final String sha256, final long size) {
+        this.baseVersion = VersionId.fromString(Assert.requireNonBlank(baseVersion, "baseVersion"));
+        this.href = Assert.requireNonNull(href, "href");
+        this.sha256 = RemoteJavaRuntime.normalizeSha256(sha256);
+        this.size = size >= 0 ? size : -1;
+    }
+
+    public VersionId getBaseVersion() {
+        return baseVersion;
+    }
+
+    public String getHref() {
+        return href;
+    }
+
+    public URL getEndpoint() throws MalformedURLException {
+        return new URL(href);
+    }
+
+    public Optional<String> getSha256() {
+        return Optional.ofNullable(sha256);
+    }
+
+    public OptionalLong getSize() {
+        return size >= 0 ? OptionalLong.of(size) : OptionalLong.empty();
+    }
+}
@@ -14,6 +14,7 @@ import com.openwebstart.jvm.ui.list.RuntimeListComponent;
 import com.openwebstart.ui.ListComponentModel;
 import com.openwebstart.ui.Notifications;
 import com.openwebstart.util.LayoutFactory;
+import com.openwebstart.util.Subscription;
 import net.adoptopenjdk.icedteaweb.Assert;
 import net.adoptopenjdk.icedteaweb.i18n.Translator;
 import net.adoptopenjdk.icedteaweb.logging.Logger;
@@ -29,6 +30,10 @@ import javax.swing.JPanel;
 import javax.swing.JScrollPane;
 import javax.swing.SwingUtilities;
 import java.awt.BorderLayout;
+import java.awt.Window;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.awt.event.WindowListener;
 import java.nio.file.Path;
 import java.util.Collections;
 import java.util.List;
@@ -45,6 +50,16 @@ public final class RuntimeManagerPanel extends JPanel {
     private final DeploymentConfiguration configuration;
     private final LocalRuntimeManager localRuntimeManager;
 
+    private Subscription localRuntimeWatch;
+
+    private final WindowListener loadChangesOfOtherProcessesOnActivation = new WindowAdapter() {
+        @Override
+        public void windowActivated(final WindowEvent e) {
+            // runtimes might have been installed or removed by applications that have been started in the meantime
+            getNonDaemonExecutorService().execute(localRuntimeManager::loadChangesOfOtherProcesses);
+        }
+    };
+
     public RuntimeManagerPanel(final DeploymentConfiguration deploymentConfiguration) {
         translator = Translator.getInstance();
         configuration = deploymentConfiguration;
@@ -97,6 +112,29 @@ public final class RuntimeManagerPanel extends JPanel {
         listModel.replaceData(localRuntimeManager.getAll());
     }
 
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        localRuntimeWatch = localRuntimeManager.watchLocalRuntimes(configuration);
+        final Window window = SwingUtilities.getWindowAncestor(this);
+        if (window != null) {
+            window.addWindowListener(loadChangesOfOtherProcessesOnActivation);
+        }
+    }
+
+    @Override
+    public void removeNotify() {
+        if (localRuntimeWatch != null) {
+            localRuntimeWatch.unsubscribe();
+            localRuntimeWatch = null;
+        }
+        final Window window = SwingUtilities.getWindowAncestor(this);
+        if (window != null) {
+            window.removeWindowListener(loadChangesOfOtherProcessesOnActivation);
+        }
+        super.removeNotify();
+    }
+
     private void onRemoveAll() {
         final List<LocalJavaRuntime> runtimes = Collections.list(listModel.elements());
 
@@ -71,7 +71,6 @@ public class RuntimeDownloadDialog extends ModalDialog {
         panel.add(innerPanel, BorderLayout.CENTER);
         add(panel);
 
-        inputStream.setUpdateChunkSize(10_000);
         inputStream.addDownloadDoneListener(e -> SwingUtilities.invokeLater(this::close));
         inputStream.addDownloadErrorListener(e -> SwingUtilities.invokeLater(this::close));
         inputStream.addDownloadPercentageListener(p -> SwingUtilities.invokeLater(() -> {
@@ -79,7 +78,7 @@ public class RuntimeDownloadDialog extends ModalDialog {
                 final long downloadSize = inputStream.getDownloaded();
                 final ByteUnit unit = ByteUnit.findBestUnit(downloadSize);
 
-                progressLabel.setText(String.format("%.0f", unit.convertBytesToUnit(downloadSize)) + " " + unit.getDecimalShortName());
+                progressLabel.setText(String.format("%.0f", unit.convertBytesToUnit(downloadSize)) + " " + unit.getDecimalShortName() + throughputText(inputStream));
             } else {
                 progressBar.setValue((int) (p * 100.0));
 
@@ -89,11 +88,20 @@ public class RuntimeDownloadDialog extends ModalDialog {
                 final long completeSize = inputStream.getDataSize();
                 final ByteUnit completeSizeUnit = ByteUnit.findBestUnit(completeSize);
 
-                progressLabel.setText(String.format("%.0f", downloadSizeUnit.convertBytesToUnit(downloadSize)) + " " + downloadSizeUnit.getDecimalShortName() + " from " + String.format("%.2f", completeSizeUnit.convertBytesToUnit(completeSize)) + " " + completeSizeUnit.getDecimalShortName());
+                progressLabel.setText(String.format("%.0f", downloadSizeUnit.convertBytesToUnit(downloadSize)) + " " + downloadSizeUnit.getDecimalShortName() + " from " + String.format("%.2f", completeSizeUnit.convertBytesToUnit(completeSize)) + " " + completeSizeUnit.getDecimalShortName() + throughputText(inputStream));
             }
         }));
 
         pack();
         setLocationRelativeTo(null);
     }
+
+    private static String throughputText(final DownloadInputStream inputStream) {
+        final long throughput = inputStream.getThroughput();
+        if (throughput <= 0) {
+            return "";
+        }
+        final ByteUnit unit = ByteUnit.findBestUnit(throughput);
+        return " (" + String.format("%.1f", unit.convertBytesToUnit(throughput)) + " " + unit.getDecimalShortName() + "/s)";
+    }
 }
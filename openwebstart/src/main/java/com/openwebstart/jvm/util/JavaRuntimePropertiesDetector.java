@@ -1,19 +1,34 @@
 package com.openwebstart.jvm.util;
 
 import com.openwebstart.func.Result;
-import com.openwebstart.launcher.OwsJvmLauncher;
+import com.openwebstart.jvm.RuntimeManagerConfig;
 import com.openwebstart.util.ProcessResult;
+import net.adoptopenjdk.icedteaweb.StringUtils;
+import net.adoptopenjdk.icedteaweb.io.IOUtils;
 import net.adoptopenjdk.icedteaweb.logging.Logger;
 import net.adoptopenjdk.icedteaweb.logging.LoggerFactory;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
 import java.util.Set;
+import java.util.UUID;
 import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
 import java.util.stream.Stream;
+import java.util.zip.CRC32;
 
 import static com.openwebstart.jvm.os.OperationSystem.OS_BITNESS;
 import static com.openwebstart.util.ProcessUtil.runProcess;
@@ -27,7 +42,8 @@ import static net.adoptopenjdk.icedteaweb.JavaSystemPropertiesConstants.OS_ARCH;
 import static net.adoptopenjdk.icedteaweb.JavaSystemPropertiesConstants.OS_NAME;
 
 /**
- * Algorithm to extract the Java Runtime Properties by executing "java -XshowSettings:properties -version"
+ * Algorithm to extract the Java Runtime Properties. The properties are read from the release file of the java home.
+ * If the release file is missing or incomplete they are extracted by executing "java -XshowSettings:properties -version"
  */
 public final class JavaRuntimePropertiesDetector {
 
@@ -45,12 +61,30 @@ public final class JavaRuntimePropertiesDetector {
     private static final String VERSION_ARG = "-version";
     private static final String CP_ARG = "-cp";
 
+    private static final String PROPERTIES_PRINTER_JAR_PREFIX = "system-properties-printer-";
+
+    private static final String RELEASE_FILENAME = "release";
+    private static final String RELEASE_JAVA_VERSION = "JAVA_VERSION";
+    private static final String RELEASE_IMPLEMENTOR = "IMPLEMENTOR";
+    private static final String RELEASE_OS_NAME = "OS_NAME";
+    private static final String RELEASE_OS_ARCH = "OS_ARCH";
+    private static final String RELEASE_OS_NAME_MAC = "Darwin";
+    private static final String RELEASE_OS_ARCH_X64 = "x86_64";
+    private static final String OS_NAME_MAC = "Mac OS X";
+    private static final String OS_ARCH_X64 = "amd64";
+    private static final String OS_ARCH_S390X = "s390x";
+
     private JavaRuntimePropertiesDetector() {
         // Utility class, do not instantiate.
     }
 
     public static JavaRuntimeProperties getProperties(Path javaHome) throws IllegalStateException {
         LOG.info("Trying to get definition of local JVM at '{}'", javaHome);
+        final Optional<JavaRuntimeProperties> fromReleaseFile = readReleaseFile(javaHome);
+        if (fromReleaseFile.isPresent()) {
+            return fromReleaseFile.get();
+        }
+
         final String java = JavaExecutableFinder.findJavaExecutable(javaHome);
 
         final Result<JavaRuntimeProperties> fromShowSettings = fetchRuntimeProperties(java, JavaRuntimePropertiesDetector::showSettings);
@@ -68,6 +102,53 @@ public final class JavaRuntimePropertiesDetector {
         throw new IllegalStateException(message, fromShowSettings.getException());
     }
 
+    /**
+     * Reads the properties from the release file of the java home, so no JVM needs to be started. The file
+     * does not contain the bitness of the JVM, it is derived from the architecture. The operation system and
+     * the architecture are converted to the values of the corresponding system properties.
+     *
+     * @return the properties or an empty result if the java home does not contain a complete release file
+     */
+    static Optional<JavaRuntimeProperties> readReleaseFile(final Path javaHome) {
+        final Path releaseFile = javaHome.resolve(RELEASE_FILENAME);
+        if (!Files.isRegularFile(releaseFile)) {
+            return Optional.empty();
+        }
+        final Properties release = new Properties();
+        try (final InputStream inputStream = Files.newInputStream(releaseFile)) {
+            release.load(inputStream);
+        } catch (final IOException | IllegalArgumentException e) {
+            LOG.debug("Could not read release file of JVM at '{}': {}", javaHome, e.getMessage());
+            return Optional.empty();
+        }
+
+        final String version = releaseValue(release, RELEASE_JAVA_VERSION);
+        final String vendor = releaseValue(release, RELEASE_IMPLEMENTOR);
+        final String osName = releaseValue(release, RELEASE_OS_NAME);
+        final String osArch = releaseValue(release, RELEASE_OS_ARCH);
+        if (StringUtils.isBlank(version) || StringUtils.isBlank(vendor) || StringUtils.isBlank(osName) || StringUtils.isBlank(osArch)) {
+            LOG.debug("Release file of JVM at '{}' is incomplete", javaHome);
+            return Optional.empty();
+        }
+
+        final boolean isMac = RELEASE_OS_NAME_MAC.equalsIgnoreCase(osName);
+        final String arch = !isMac && RELEASE_OS_ARCH_X64.equals(osArch) ? OS_ARCH_X64 : osArch;
+        final String bitness = arch.contains("64") || arch.equals(OS_ARCH_S390X) ? "64" : "32";
+        return Optional.of(new JavaRuntimeProperties(vendor, version, isMac ? OS_NAME_MAC : osName, arch, bitness));
+    }
+
+    private static String releaseValue(final Properties release, final String key) {
+        final String value = release.getProperty(key);
+        if (value == null) {
+            return null;
+        }
+        final String trimmed = value.trim();
+        if (trimmed.length() >= 2 && trimmed.startsWith("\"") && trimmed.endsWith("\"")) {
+            return trimmed.substring(1, trimmed.length() - 1);
+        }
+        return trimmed;
+    }
+
     private static Result<JavaRuntimeProperties> fetchRuntimeProperties(String java, Function<String, ProcessBuilder> fetchPropsCommand) {
         try {
             final ProcessResult processResultShowSettings = runProcess(fetchPropsCommand.apply(java), 5, SECONDS);
@@ -90,9 +171,53 @@ public final class JavaRuntimePropertiesDetector {
     }
 
     private static ProcessBuilder showSystemProperties(String java) {
-        final String openWebStartJar = OwsJvmLauncher.getOpenWebStartJar().getAbsolutePath();
+        final String propertiesPrinterJar = getPropertiesPrinterJar().toString();
         final String mainClass = SystemPropertiesPrinter.class.getName();
-        return new ProcessBuilder(java, CP_ARG, openWebStartJar, mainClass);
+        return new ProcessBuilder(java, CP_ARG, propertiesPrinterJar, mainClass);
+    }
+
+    /**
+     * Returns a jar that only contains the {@link SystemPropertiesPrinter}, so the JVM does not need to open the
+     * complete openwebstart.jar. The jar is created in the JVM cache. Its name contains the checksum of the class,
+     * so a jar of another OpenWebStart version is never used.
+     */
+    private static Path getPropertiesPrinterJar() {
+        final String classFileName = SystemPropertiesPrinter.class.getName().replace('.', '/') + ".class";
+        try (final InputStream inputStream = SystemPropertiesPrinter.class.getClassLoader().getResourceAsStream(classFileName)) {
+            if (inputStream == null) {
+                throw new IOException("Can not find " + classFileName);
+            }
+            final ByteArrayOutputStream content = new ByteArrayOutputStream();
+            IOUtils.copy(inputStream, content);
+            final byte[] classContent = content.toByteArray();
+            final CRC32 checksum = new CRC32();
+            checksum.update(classContent);
+
+            final Path jar = RuntimeManagerConfig.getCachePath().resolve(PROPERTIES_PRINTER_JAR_PREFIX + Long.toHexString(checksum.getValue()) + ".jar");
+            if (Files.isRegularFile(jar)) {
+                return jar;
+            }
+
+            Files.createDirectories(jar.getParent());
+            final Path tempFile = jar.resolveSibling(jar.getFileName() + "." + UUID.randomUUID());
+            try {
+                try (final JarOutputStream outputStream = new JarOutputStream(Files.newOutputStream(tempFile))) {
+                    outputStream.putNextEntry(new JarEntry(classFileName));
+                    outputStream.write(classContent);
+                    outputStream.closeEntry();
+                }
+                try {
+                    Files.move(tempFile, jar, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                } catch (final AtomicMoveNotSupportedException e) {
+                    Files.move(tempFile, jar, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } finally {
+                Files.deleteIfExists(tempFile);
+            }
+            return jar;
+        } catch (final IOException e) {
+            throw new UncheckedIOException("Can not create jar of " + SystemPropertiesPrinter.class.getSimpleName(), e);
+        }
     }
 
     private static JavaRuntimeProperties extractProperties(final String stdOut, final String stdErr) {
@@ -127,11 +252,15 @@ public final class JavaRuntimePropertiesDetector {
         private final String bitness;
 
         private JavaRuntimeProperties(Map<String, String> properties) {
-            this.version = properties.get(JAVA_VERSION);
-            this.vendor = properties.get(JAVA_VENDOR);
-            this.osName = properties.get(OS_NAME);
-            this.osArch = properties.get(OS_ARCH);
-            this.bitness = properties.get(OS_BITNESS);
+            this(properties.get(JAVA_VENDOR), properties.get(JAVA_VERSION), properties.get(OS_NAME), properties.get(OS_ARCH), properties.get(OS_BITNESS));
+        }
+
+        public JavaRuntimeProperties(final String vendor, final String version, final String osName, final String osArch, final String bitness) {
+            this.vendor = vendor;
+            this.version = version;
+            this.osName = osName;
+            this.osArch = osArch;
+            this.bitness = bitness;
         }
 
         public String getVendor() {
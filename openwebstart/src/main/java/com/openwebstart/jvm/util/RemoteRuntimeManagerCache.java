@@ -1,6 +1,7 @@
 package com.openwebstart.jvm.util;
 
 import com.openwebstart.jvm.json.RemoteRuntimeList;
+import com.openwebstart.jvm.runtimes.RemoteJavaRuntime;
 import net.adoptopenjdk.icedteaweb.Assert;
 
 import java.io.Serializable;
@@ -14,6 +15,8 @@ public class RemoteRuntimeManagerCache implements Serializable {
     private final RemoteRuntimeList list;
     private final LocalDateTime endOfCache;
 
+    private transient volatile RuntimeIndex<RemoteJavaRuntime> index;
+
     public RemoteRuntimeManagerCache(final URL endpointForRequest, final RemoteRuntimeList list) {
         this.endpointForRequest = Assert.requireNonNull(endpointForRequest, "endpointForRequest");
         this.list = Assert.requireNonNull(list, "list");
@@ -24,6 +27,18 @@ public class RemoteRuntimeManagerCache implements Serializable {
         return list;
     }
 
+    /**
+     * Returns an index of the runtimes of the list. The index is built on the first call.
+     */
+    public RuntimeIndex<RemoteJavaRuntime> getIndex() {
+        RuntimeIndex<RemoteJavaRuntime> result = index;
+        if (result == null) {
+            result = new RuntimeIndex<>(list.getRuntimes());
+            index = result;
+        }
+        return result;
+    }
+
     public URL getEndpointForRequest() {
         return endpointForRequest;
     }
@@ -0,0 +1,167 @@
+package com.openwebstart.jvm.util;
+
+import com.openwebstart.jvm.os.OperationSystem;
+import com.openwebstart.jvm.runtimes.JavaRuntime;
+import com.openwebstart.jvm.runtimes.Vendor;
+import net.adoptopenjdk.icedteaweb.Assert;
+import net.adoptopenjdk.icedteaweb.jnlp.version.JNLPVersionPatterns;
+import net.adoptopenjdk.icedteaweb.jnlp.version.VersionId;
+import net.adoptopenjdk.icedteaweb.jnlp.version.VersionString;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+import static com.openwebstart.jvm.runtimes.Vendor.ANY_VENDOR;
+
+/**
+ * Immutable index of runtimes by operation system, vendor and major version. Looking up the runtimes that match a
+ * version string only checks the runtimes of the requested operation system and vendor whose major version can
+ * match the version string, instead of all runtimes.
+ *
+ * @param <T> the type of the runtimes
+ */
+public final class RuntimeIndex<T extends JavaRuntime> {
+
+    private static final int JAVA_9 = 9;
+
+    private static final Comparator<JavaRuntime> NEWEST_FIRST = Comparator.<JavaRuntime, VersionId>comparing(JavaRuntime::getVersion).reversed();
+
+    private final Map<OperationSystem, Map<Vendor, NavigableMap<Integer, List<T>>>> byVendor = new EnumMap<>(OperationSystem.class);
+
+    private final Map<OperationSystem, NavigableMap<Integer, List<T>>> byOperationSystem = new EnumMap<>(OperationSystem.class);
+
+    private final int size;
+
+    public RuntimeIndex(final Collection<T> runtimes) {
+        Assert.requireNonNull(runtimes, "runtimes");
+        for (final T runtime : runtimes) {
+            final int major = getMajorVersion(runtime.getVersion());
+            add(byOperationSystem.computeIfAbsent(runtime.getOperationSystem(), os -> new TreeMap<>(Comparator.reverseOrder())), major, runtime);
+            add(byVendor.computeIfAbsent(runtime.getOperationSystem(), os -> new HashMap<>())
+                    .computeIfAbsent(runtime.getVendor(), vendor -> new TreeMap<>(Comparator.reverseOrder())), major, runtime);
+        }
+        byOperationSystem.values().forEach(RuntimeIndex::sort);
+        byVendor.values().forEach(vendors -> vendors.values().forEach(RuntimeIndex::sort));
+        this.size = runtimes.size();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns all runtimes of the operation system and vendor that match the version string, the newest first.
+     *
+     * @param versionString   the requested version
+     * @param vendor          the requested vendor or {@link Vendor#ANY_VENDOR}
+     * @param operationSystem the requested operation system
+     */
+    public List<T> find(final VersionString versionString, final Vendor vendor, final OperationSystem operationSystem) {
+        Assert.requireNonNull(versionString, "versionString");
+        Assert.requireNonNull(vendor, "vendor");
+        Assert.requireNonNull(operationSystem, "operationSystem");
+
+        final NavigableMap<Integer, List<T>> byMajorVersion = ANY_VENDOR.equals(vendor)
+                ? byOperationSystem.get(operationSystem)
+                : byVendor.getOrDefault(operationSystem, Collections.emptyMap()).get(vendor);
+        if (byMajorVersion == null) {
+            return Collections.emptyList();
+        }
+
+        final List<T> result = new ArrayList<>();
+        final int[] range = getMajorVersionRange(versionString);
+        // the map is ordered by descending major version
+        byMajorVersion.subMap(range[1], true, range[0], true).values().forEach(runtimes -> runtimes.stream()
+                .filter(runtime -> versionString.contains(runtime.getVersion()))
+                .forEach(result::add));
+        return Collections.unmodifiableList(result);
+    }
+
+    private static <T extends JavaRuntime> void add(final NavigableMap<Integer, List<T>> byMajorVersion, final int major, final T runtime) {
+        byMajorVersion.computeIfAbsent(major, m -> new ArrayList<>()).add(runtime);
+    }
+
+    private static <T extends JavaRuntime> void sort(final NavigableMap<Integer, List<T>> byMajorVersion) {
+        byMajorVersion.values().forEach(runtimes -> runtimes.sort(NEWEST_FIRST));
+    }
+
+    /**
+     * Returns the major version of a JVM version. The major version of {@code 1.8.0_202} is 8, the major version
+     * of {@code 11.0.2} is 11.
+     */
+    static int getMajorVersion(final VersionId version) {
+        final List<Integer> tuples = getNumericPrefixTuples(version.toString());
+        if (tuples.isEmpty()) {
+            return 0;
+        }
+        if (tuples.get(0) == 1 && tuples.size() > 1) {
+            return tuples.get(1);
+        }
+        return tuples.get(0);
+    }
+
+    /**
+     * Returns the smallest and the largest major version of the versions that can match the version string.
+     * The range might be larger than necessary but never excludes a matching version.
+     */
+    static int[] getMajorVersionRange(final VersionString versionString) {
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+        for (final String range : versionString.toString().trim().split("\\s+")) {
+            int rangeMin = 0;
+            int rangeMax = Integer.MAX_VALUE;
+            for (final String element : range.split("&")) {
+                final int[] elementRange = getMajorVersionRange(element);
+                rangeMin = Math.max(rangeMin, elementRange[0]);
+                rangeMax = Math.min(rangeMax, elementRange[1]);
+            }
+            if (rangeMin <= rangeMax) {
+                min = Math.min(min, rangeMin);
+                max = Math.max(max, rangeMax);
+            }
+        }
+        return min <= max ? new int[]{min, max} : new int[]{0, Integer.MAX_VALUE};
+    }
+
+    private static int[] getMajorVersionRange(final String element) {
+        final boolean prefixMatch = element.endsWith("*");
+        final boolean greaterOrEqual = element.endsWith("+");
+        final String version = prefixMatch || greaterOrEqual ? element.substring(0, element.length() - 1) : element;
+        final List<Integer> tuples = getNumericPrefixTuples(version);
+        if (tuples.isEmpty()) {
+            return new int[]{0, Integer.MAX_VALUE};
+        }
+
+        if (tuples.get(0) != 1) {
+            final int major = tuples.get(0);
+            return new int[]{major, greaterOrEqual ? Integer.MAX_VALUE : major};
+        }
+        if (tuples.size() == 1) {
+            // 1* matches all versions before Java 9
+            return new int[]{0, greaterOrEqual ? Integer.MAX_VALUE : JAVA_9 - 1};
+        }
+        final int major = tuples.get(1);
+        // Java 9 and later are greater than any 1.x version
+        return greaterOrEqual ? new int[]{Math.min(major, JAVA_9), Integer.MAX_VALUE} : new int[]{major, major};
+    }
+
+    private static List<Integer> getNumericPrefixTuples(final String version) {
+        final List<Integer> tuples = new ArrayList<>();
+        for (final String tuple : version.split(JNLPVersionPatterns.REGEXP_SEPARATOR)) {
+            try {
+                tuples.add(Integer.parseInt(tuple));
+            } catch (final NumberFormatException e) {
+                return tuples;
+            }
+        }
+        return tuples;
+    }
+}
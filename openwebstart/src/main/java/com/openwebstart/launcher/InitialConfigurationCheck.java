@@ -22,7 +22,16 @@ import static com.openwebstart.config.OwsDefaultsProvider.CUSTOM_JVM_LOCATION;
 import static com.openwebstart.config.OwsDefaultsProvider.DEFAULT_JVM_DOWNLOAD_SERVER;
 import static com.openwebstart.config.OwsDefaultsProvider.EXCLUDE_DEFAULT_JVM_LOCATION;
 import static com.openwebstart.config.OwsDefaultsProvider.JVM_CACHE_CLEANUP_ENABLED;
+import static com.openwebstart.config.OwsDefaultsProvider.JVM_ARCHIVE_STORE_MAX_SIZE;
 import static com.openwebstart.config.OwsDefaultsProvider.JVM_CACHE_DIR;
+import static com.openwebstart.config.OwsDefaultsProvider.JVM_APP_CDS_ENABLED;
+import static com.openwebstart.config.OwsDefaultsProvider.JVM_CDS_ENABLED;
+import static com.openwebstart.config.OwsDefaultsProvider.JVM_DEDUPLICATION_ENABLED;
+import static com.openwebstart.config.OwsDefaultsProvider.JVM_DOWNLOAD_BACKGROUND_MAX_BANDWIDTH;
+import static com.openwebstart.config.OwsDefaultsProvider.JVM_DOWNLOAD_MAX_BANDWIDTH;
+import static com.openwebstart.config.OwsDefaultsProvider.JVM_DOWNLOAD_SEGMENTS;
+import static com.openwebstart.config.OwsDefaultsProvider.JVM_EXTRACT_WRITER_THREADS;
+import static com.openwebstart.config.OwsDefaultsProvider.JVM_SHARED_CACHE_DIR;
 import static com.openwebstart.config.OwsDefaultsProvider.JVM_SERVER_WHITELIST;
 import static com.openwebstart.config.OwsDefaultsProvider.JVM_SUPPORTED_VERSION_RANGE;
 import static com.openwebstart.config.OwsDefaultsProvider.JVM_UPDATE_STRATEGY;
@@ -62,6 +71,7 @@ class InitialConfigurationCheck {
 
     private static final List<String> KEYS_OF_PROPERTIES_TO_TAKE_FROM_RESPONSE_VAR_FILE = Arrays.asList(
             JVM_CACHE_DIR,
+            JVM_SHARED_CACHE_DIR,
             DEFAULT_JVM_DOWNLOAD_SERVER,
             ALLOW_DOWNLOAD_SERVER_FROM_JNLP,
             JVM_VENDOR,
@@ -88,6 +98,14 @@ class InitialConfigurationCheck {
             KEY_SECURITY_SERVER_WHITELIST,
             KEY_ENABLE_MANIFEST_ATTRIBUTES_CHECK,
             MAX_DAYS_UNUSED_IN_JVM_CACHE,
+            JVM_DOWNLOAD_SEGMENTS,
+            JVM_DOWNLOAD_MAX_BANDWIDTH,
+            JVM_DOWNLOAD_BACKGROUND_MAX_BANDWIDTH,
+            JVM_EXTRACT_WRITER_THREADS,
+            JVM_ARCHIVE_STORE_MAX_SIZE,
+            JVM_DEDUPLICATION_ENABLED,
+            JVM_CDS_ENABLED,
+            JVM_APP_CDS_ENABLED,
             KEY_ENABLE_DEBUG_LOGGING,
             KEY_ENABLE_LOGGING_TOFILE,
             KEY_JVM_ARGS_WHITELIST,
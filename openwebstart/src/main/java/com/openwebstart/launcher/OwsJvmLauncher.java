@@ -2,7 +2,10 @@ package com.openwebstart.launcher;
 
 import com.openwebstart.config.OwsDefaultsProvider;
 import com.openwebstart.install4j.Install4JUtils;
+import com.openwebstart.jvm.ApplicationClassDataSharingArchive;
+import com.openwebstart.jvm.ClassDataSharingArchive;
 import com.openwebstart.jvm.LocalRuntimeManager;
+import com.openwebstart.jvm.RuntimeManagerConfig;
 import com.openwebstart.jvm.runtimes.LocalJavaRuntime;
 import com.openwebstart.jvm.runtimes.Vendor;
 import com.openwebstart.jvm.ui.dialogs.DialogFactory;
@@ -29,6 +32,7 @@ import net.sourceforge.jnlp.runtime.JNLPRuntime;
 
 import java.io.File;
 import java.io.IOException;
+import java.net.URL;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -142,26 +146,75 @@ public class OwsJvmLauncher implements JvmLauncher {
         vmArgs.addAll(runtimeInfo.jreDesc.getAllVmArgs());
         vmArgs.addAll(extractVmArgs(jnlpFile));
         vmArgs.addAll(vmArgumentsFromEnv());
+        final Optional<ClassDataSharingArchive> cdsArchive = getClassDataSharingArchive(javaRuntime, webstartJar);
+        final Optional<ApplicationClassDataSharingArchive> appCdsArchive = cdsArchive.flatMap(archive -> getApplicationClassDataSharingArchive(archive, jnlpFile));
+        // added first, so the CDS args can be overwritten by the args of the application
+        vmArgs.addAll(0, appCdsArchive.map(ApplicationClassDataSharingArchive::getVmArgs)
+                .orElseGet(() -> cdsArchive.map(ClassDataSharingArchive::getVmArgs).orElse(Collections.emptyList())));
 
         final String pathToJavaBinary = JavaExecutableFinder.findJavaExecutable(javaRuntime.getJavaHome());
         final VersionId version = javaRuntime.getVersion();
 
         LocalRuntimeManager.touch(javaRuntime);
 
-        if (JAVA_1_8.contains(version)) {
-            checkForJava9Arg(vmArgs);
-            launchExternal(pathToJavaBinary, webstartJar.getPath(), vmArgs, javawsArgs);
-        } else if (JAVA_9_OR_GREATER.contains(version)) {
-            List<String> mergedVMArgs = JvmUtils.mergeJavaModulesVMArgs(vmArgs);
-            if (JAVA_18_OR_GREATER.contains(version)) {
-                mergedVMArgs.add("-Djava.security.manager=allow");
+        try {
+            if (JAVA_1_8.contains(version)) {
+                checkForJava9Arg(vmArgs);
+                launchExternal(pathToJavaBinary, webstartJar.getPath(), vmArgs, javawsArgs);
+            } else if (JAVA_9_OR_GREATER.contains(version)) {
+                List<String> mergedVMArgs = JvmUtils.mergeJavaModulesVMArgs(vmArgs);
+                if (JAVA_18_OR_GREATER.contains(version)) {
+                    mergedVMArgs.add("-Djava.security.manager=allow");
+                }
+                launchExternal(pathToJavaBinary, webstartJar.getPath(), mergedVMArgs, javawsArgs);
+            } else {
+                throw new RuntimeException("Java " + version + " is not supported");
             }
-            launchExternal(pathToJavaBinary, webstartJar.getPath(), mergedVMArgs, javawsArgs);
-        } else {
-            throw new RuntimeException("Java " + version + " is not supported");
+        } finally {
+            appCdsArchive.ifPresent(ApplicationClassDataSharingArchive::onApplicationExit);
+            // OWS exits after the application, which would abort the creation of a CDS archive
+            ClassDataSharingArchive.awaitGenerations();
+        }
+    }
+
+    /**
+     * The CDS archive of a managed runtime is used if it matches the runtime and the openwebstart.jar.
+     * Otherwise the runtime is launched without the archive and a new archive is created in the background.
+     */
+    private Optional<ClassDataSharingArchive> getClassDataSharingArchive(final LocalJavaRuntime javaRuntime, final File webstartJar) {
+        if (!javaRuntime.isManaged() || !RuntimeManagerConfig.isClassDataSharingEnabled()) {
+            return Optional.empty();
+        }
+        try {
+            final ClassDataSharingArchive archive = new ClassDataSharingArchive(javaRuntime, webstartJar);
+            if (archive.getVmArgs().isEmpty()) {
+                LOG.debug("No CDS archive for runtime {}", javaRuntime.getJavaHome());
+                archive.generateInBackground();
+            }
+            return Optional.of(archive);
+        } catch (final Exception e) {
+            LOG.warn("Could not use CDS archive for runtime {}: {}", javaRuntime.getJavaHome(), e.getMessage());
+            return Optional.empty();
         }
     }
 
+    /**
+     * The CDS archive of the application is recorded by the first launch and used by all further launches.
+     */
+    private Optional<ApplicationClassDataSharingArchive> getApplicationClassDataSharingArchive(final ClassDataSharingArchive runtimeArchive, final JNLPFile jnlpFile) {
+        if (!RuntimeManagerConfig.isApplicationClassDataSharingEnabled() || !ApplicationClassDataSharingArchive.isSupported(runtimeArchive.getRuntime())) {
+            return Optional.empty();
+        }
+        final URL applicationLocation = Optional.ofNullable(jnlpFile.getSourceLocation()).orElseGet(jnlpFile::getFileLocation);
+        if (applicationLocation == null) {
+            return Optional.empty();
+        }
+        final List<String> resources = Arrays.stream(jnlpFile.getResources().getJARs())
+                .map(jar -> jar.getVersion() != null ? jar.getLocation() + "@" + jar.getVersion() : jar.getLocation().toString())
+                .collect(Collectors.toList());
+        return Optional.of(new ApplicationClassDataSharingArchive(runtimeArchive, applicationLocation.toString(), resources));
+    }
+
     private List<String> vmArgumentsFromEnv() {
         final String args = System.getenv(JAVAWS_VM_ARGS);
         if (StringUtils.isBlank(args)) {
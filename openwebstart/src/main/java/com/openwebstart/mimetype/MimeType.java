@@ -15,7 +15,9 @@ public enum MimeType {
 
     TAR(new byte[]{0x75, 0x73, 0x74, 0x61, 0x72}),
     ZIP(new byte[]{0x50, 0x4b}),
-    GZIP(new byte[]{0x1f, (byte) 0x8b});
+    GZIP(new byte[]{0x1f, (byte) 0x8b}),
+    XZ(new byte[]{(byte) 0xfd, 0x37, 0x7a, 0x58, 0x5a, 0x00}),
+    ZSTD(new byte[]{0x28, (byte) 0xb5, 0x2f, (byte) 0xfd});
 
     private final byte[] magicBytes;
 
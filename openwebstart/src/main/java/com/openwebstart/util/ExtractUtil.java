@@ -1,5 +1,6 @@
 package com.openwebstart.util;
 
+import com.openwebstart.concurrent.ThreadPoolHolder;
 import com.openwebstart.jvm.localfinder.JdkFinder;
 import net.adoptopenjdk.icedteaweb.Assert;
 import net.adoptopenjdk.icedteaweb.io.FileUtils;
@@ -8,24 +9,53 @@ import net.adoptopenjdk.icedteaweb.logging.Logger;
 import net.adoptopenjdk.icedteaweb.logging.LoggerFactory;
 import org.apache.commons.compress.archivers.ArchiveEntry;
 import org.apache.commons.compress.archivers.ArchiveInputStream;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
 import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
 import org.apache.commons.compress.archivers.zip.ZipArchiveInputStream;
+import org.apache.commons.compress.archivers.zip.ZipFile;
 import org.apache.commons.compress.compressors.gzip.GzipCompressorInputStream;
+import org.apache.commons.compress.compressors.xz.XZCompressorInputStream;
+import org.apache.commons.compress.compressors.xz.XZUtils;
+import org.apache.commons.compress.compressors.zstandard.ZstdCompressorInputStream;
+import org.apache.commons.compress.compressors.zstandard.ZstdUtils;
 
-import java.io.File;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.OutputStream;
+import java.io.InterruptedIOException;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.FileAlreadyExistsException;
-import java.nio.file.FileVisitOption;
 import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.LinkOption;
 import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
 import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.PosixFilePermission;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.EnumSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static java.nio.file.FileVisitResult.CONTINUE;
 
@@ -33,50 +63,303 @@ public class ExtractUtil {
 
     private static final Logger LOG = LoggerFactory.getLogger(ExtractUtil.class);
 
+    private static final String JAVA_EXECUTABLE = "bin/java";
+
+    private static final int MAX_JAVA_HOME_DEPTH = 5;
+
+    private static final List<String> UNSUPPORTED_ARCHIVE_EXTENSIONS = Arrays.asList(
+            ".tar.xz", ".txz", ".tar.zst", ".tzst", ".tar.bz2", ".tbz2", ".7z", ".rar"
+    );
+
     public static void unZip(final InputStream inputStream, final Path baseDir) throws IOException {
+        unZip(inputStream, baseDir, 1);
+    }
+
+    /**
+     * Extracts a ZIP archive. Files are written by the given number of threads while the archive is read.
+     */
+    public static void unZip(final InputStream inputStream, final Path baseDir, final int writerThreads) throws IOException {
         Assert.requireNonNull(inputStream, "inputStream");
         try (final ZipArchiveInputStream zipInputStream = new ZipArchiveInputStream(inputStream)) {
-            extract(zipInputStream, baseDir);
+            extract(zipInputStream, baseDir, writerThreads);
+        }
+    }
+
+    /**
+     * Extracts a ZIP archive that is stored on disk. The central directory of the archive is read first, so the
+     * Java home is known before any file is written. The entries are inflated by the given number of threads
+     * directly into their final location.
+     */
+    public static void unZip(final Path archive, final Path baseDir, final int threads) throws IOException {
+        Assert.requireNonNull(archive, "archive");
+        Assert.requireNonNull(baseDir, "baseDir");
+        if (threads < 1) {
+            throw new IllegalArgumentException("number of threads must be > 0");
+        }
+
+        try (final SeekableByteChannel channel = Files.newByteChannel(archive);
+             final ZipFile zipFile = new ZipFile(channel)) {
+            final List<ZipArchiveEntry> entries = Collections.list(zipFile.getEntriesInPhysicalOrder());
+            final Optional<String> javaHomePrefix = entries.stream()
+                    .map(entry -> detectJavaHomePrefix(normalizeEntryName(entry.getName())))
+                    .filter(Optional::isPresent)
+                    .map(Optional::get)
+                    .min(Comparator.comparingInt(String::length));
+
+            if (javaHomePrefix.isPresent()) {
+                LOG.debug("Detected Java home at '{}' in archive", javaHomePrefix.get());
+                extractEntries(zipFile, entries, baseDir, javaHomePrefix.get(), threads);
+            } else {
+                final Path tempDir = baseDir.resolve(UUID.randomUUID().toString());
+                try {
+                    extractEntries(zipFile, entries, tempDir, "", threads);
+                    moveJavaHomeToTarget(tempDir, baseDir);
+                } finally {
+                    FileUtils.recursiveDelete(tempDir.toFile(), tempDir.toFile());
+                }
+            }
+        }
+    }
+
+    /**
+     * Extracts all entries of a ZIP archive that is stored on disk relative to the base directory. In contrast
+     * to {@link #unZip(Path, Path, int)} the archive does not need to contain a Java home.
+     */
+    public static void unZipEntries(final Path archive, final Path baseDir, final int threads) throws IOException {
+        Assert.requireNonNull(archive, "archive");
+        Assert.requireNonNull(baseDir, "baseDir");
+        if (threads < 1) {
+            throw new IllegalArgumentException("number of threads must be > 0");
+        }
+
+        try (final SeekableByteChannel channel = Files.newByteChannel(archive);
+             final ZipFile zipFile = new ZipFile(channel)) {
+            extractEntries(zipFile, Collections.list(zipFile.getEntriesInPhysicalOrder()), baseDir, "", threads);
         }
     }
 
     public static void unTar(final InputStream inputStream, final Path baseDir) throws IOException {
+        unTar(inputStream, baseDir, 1);
+    }
+
+    /**
+     * Extracts a TAR archive. Files are written by the given number of threads while the archive is read.
+     */
+    public static void unTar(final InputStream inputStream, final Path baseDir, final int writerThreads) throws IOException {
         Assert.requireNonNull(inputStream, "inputStream");
         try (final TarArchiveInputStream tarInputstream = new TarArchiveInputStream(inputStream)) {
-            extract(tarInputstream, baseDir);
+            extract(tarInputstream, baseDir, writerThreads);
         }
     }
 
     public static void unTarGzip(final InputStream inputStream, final Path baseDir) throws IOException {
+        unTarGzip(inputStream, baseDir, 1);
+    }
+
+    /**
+     * Extracts a gzipped TAR archive. Files are written by the given number of threads while the archive is read.
+     */
+    public static void unTarGzip(final InputStream inputStream, final Path baseDir, final int writerThreads) throws IOException {
         Assert.requireNonNull(inputStream, "inputStream");
         Assert.requireNonNull(baseDir, "baseDir");
         try (final GzipCompressorInputStream gzipInputStream = new GzipCompressorInputStream(inputStream)) {
-            unTar(gzipInputStream, baseDir);
+            unTar(gzipInputStream, baseDir, writerThreads);
+        }
+    }
+
+    public static void unTarXz(final InputStream inputStream, final Path baseDir) throws IOException {
+        unTarXz(inputStream, baseDir, 1);
+    }
+
+    /**
+     * Extracts a xz compressed TAR archive. Files are written by the given number of threads while the archive is read.
+     */
+    public static void unTarXz(final InputStream inputStream, final Path baseDir, final int writerThreads) throws IOException {
+        Assert.requireNonNull(inputStream, "inputStream");
+        Assert.requireNonNull(baseDir, "baseDir");
+        try (final XZCompressorInputStream xzInputStream = new XZCompressorInputStream(inputStream)) {
+            unTar(xzInputStream, baseDir, writerThreads);
         }
     }
 
-    private static void extract(final ArchiveInputStream inputStream, final Path baseDir) throws IOException {
+    public static void unTarZstd(final InputStream inputStream, final Path baseDir) throws IOException {
+        unTarZstd(inputStream, baseDir, 1);
+    }
+
+    /**
+     * Extracts a Zstandard compressed TAR archive. Files are written by the given number of threads while the archive is read.
+     */
+    public static void unTarZstd(final InputStream inputStream, final Path baseDir, final int writerThreads) throws IOException {
         Assert.requireNonNull(inputStream, "inputStream");
         Assert.requireNonNull(baseDir, "baseDir");
+        try (final ZstdCompressorInputStream zstdInputStream = new ZstdCompressorInputStream(inputStream)) {
+            unTar(zstdInputStream, baseDir, writerThreads);
+        }
+    }
 
-        final File tempDir = new File(baseDir.toFile(), UUID.randomUUID().toString());
-        if (!tempDir.mkdirs()) {
-            throw new RuntimeException("could not create temp dir " + tempDir);
+    /**
+     * Checks by the file extension if an archive can be extracted. The xz and Zstandard formats depend on
+     * libraries that might not be available on all platforms. Names without a known extension are not supported.
+     */
+    public static boolean isSupportedArchive(final String fileName) {
+        Assert.requireNonNull(fileName, "fileName");
+        final String name = fileName.toLowerCase(Locale.ROOT);
+        if (name.endsWith(".zip") || name.endsWith(".tar.gz") || name.endsWith(".tgz") || name.endsWith(".tar")) {
+            return true;
+        }
+        if (name.endsWith(".tar.xz") || name.endsWith(".txz")) {
+            return XZUtils.isXZCompressionAvailable();
         }
+        if (name.endsWith(".tar.zst") || name.endsWith(".tzst")) {
+            return ZstdUtils.isZstdCompressionAvailable();
+        }
+        return false;
+    }
 
-        try {
+    /**
+     * Checks if the file extension names an archive format that cannot be extracted. The format of a name without
+     * a known extension, like a download URL that redirects to the archive, is detected by the content of the archive.
+     */
+    public static boolean isUnsupportedArchive(final String fileName) {
+        Assert.requireNonNull(fileName, "fileName");
+        final String name = fileName.toLowerCase(Locale.ROOT);
+        return !isSupportedArchive(name) && UNSUPPORTED_ARCHIVE_EXTENSIONS.stream().anyMatch(name::endsWith);
+    }
+
+    private static void extract(final ArchiveInputStream inputStream, final Path baseDir, final int writerThreads) throws IOException {
+        Assert.requireNonNull(inputStream, "inputStream");
+        Assert.requireNonNull(baseDir, "baseDir");
+
+        final Path tempDir = baseDir.resolve(UUID.randomUUID().toString());
+        final boolean posixSupported = baseDir.getFileSystem().supportedFileAttributeViews().contains("posix");
+        Files.createDirectories(tempDir);
+
+        try (final ParallelFileWriter writer = new ParallelFileWriter(writerThreads)) {
+            String javaHomePrefix = null;
             ArchiveEntry entry = inputStream.getNextEntry();
             while (entry != null) {
-                storeFileOnDisc(inputStream, tempDir.toPath(), entry);
+                final String name = normalizeEntryName(entry.getName());
+                if (javaHomePrefix != null) {
+                    if (name.startsWith(javaHomePrefix) && name.length() > javaHomePrefix.length()) {
+                        storeFileOnDisc(inputStream, baseDir, name.substring(javaHomePrefix.length()), entry, writer, posixSupported);
+                    } else {
+                        LOG.debug("Skipping entry {} as it is not part of the Java home", name);
+                    }
+                } else {
+                    storeFileOnDisc(inputStream, tempDir, name, entry, writer, posixSupported);
+                    javaHomePrefix = detectJavaHomePrefix(name).orElse(null);
+                    if (javaHomePrefix != null) {
+                        LOG.debug("Detected Java home at '{}' in archive", javaHomePrefix);
+                        writer.awaitPendingWrites();
+                        moveChildren(tempDir.resolve(javaHomePrefix), baseDir);
+                    }
+                }
                 entry = inputStream.getNextEntry();
             }
-            moveJavaHomeToTarget(tempDir.toPath(), baseDir);
-            LOG.debug("Done moving from {} to {}", tempDir.toPath(), baseDir);
+            writer.awaitPendingWrites();
+            if (javaHomePrefix == null) {
+                LOG.debug("Java home could not be detected while extracting. Searching in {}", tempDir);
+                moveJavaHomeToTarget(tempDir, baseDir);
+            }
         } finally {
-            FileUtils.recursiveDelete(tempDir, tempDir);
+            FileUtils.recursiveDelete(tempDir.toFile(), tempDir.toFile());
+        }
+    }
+
+    /**
+     * Directories and links are created on the calling thread. The files are inflated by worker threads
+     * that take the entries from a shared queue, starting with the largest entries.
+     */
+    private static void extractEntries(final ZipFile zipFile, final List<ZipArchiveEntry> entries, final Path baseDir, final String javaHomePrefix, final int threads) throws IOException {
+        final boolean posixSupported = baseDir.getFileSystem().supportedFileAttributeViews().contains("posix");
+        final Queue<ZipArchiveEntry> files = new PriorityBlockingQueue<>(Math.max(1, entries.size()), Comparator.comparingLong(ZipArchiveEntry::getSize).reversed());
+        final Map<ZipArchiveEntry, Path> targets = new IdentityHashMap<>();
+        final List<ZipArchiveEntry> links = new ArrayList<>();
+
+        Files.createDirectories(baseDir);
+        for (final ZipArchiveEntry entry : entries) {
+            final String name = normalizeEntryName(entry.getName());
+            if (!name.startsWith(javaHomePrefix) || name.length() <= javaHomePrefix.length()) {
+                LOG.debug("Skipping entry {} as it is not part of the Java home", name);
+                continue;
+            }
+            final Path target = resolveEntry(baseDir, name.substring(javaHomePrefix.length()), entry);
+            targets.put(entry, target);
+            if (entry.isDirectory()) {
+                Files.createDirectories(target);
+            } else {
+                Files.createDirectories(target.getParent());
+                if (entry.isUnixSymlink()) {
+                    links.add(entry);
+                } else {
+                    files.add(entry);
+                }
+            }
+        }
+
+        final List<Future<?>> workers = new ArrayList<>();
+        final AtomicReference<IOException> failure = new AtomicReference<>();
+        for (int i = 0; i < Math.min(threads, files.size()); i++) {
+            workers.add(ThreadPoolHolder.getDaemonExecutorService().submit(() -> {
+                ZipArchiveEntry entry;
+                while (failure.get() == null && (entry = files.poll()) != null) {
+                    final Path target = targets.get(entry);
+                    try (final InputStream inputStream = zipFile.getInputStream(entry)) {
+                        Files.copy(inputStream, target, StandardCopyOption.REPLACE_EXISTING);
+                        applyMode(target, entry.getUnixMode(), posixSupported);
+                    } catch (final IOException e) {
+                        failure.compareAndSet(null, new IOException("Error while extracting " + entry.getName() + ": " + e.getMessage(), e));
+                    }
+                }
+            }));
+        }
+        awaitWorkers(workers);
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+
+        for (final ZipArchiveEntry link : links) {
+            try (final InputStream inputStream = zipFile.getInputStream(link)) {
+                createSymbolicLink(baseDir, targets.get(link), getLinkTarget(inputStream, link));
+            }
+        }
+    }
+
+    private static void awaitWorkers(final List<Future<?>> workers) throws IOException {
+        for (final Future<?> worker : workers) {
+            try {
+                worker.get();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while extracting archive");
+            } catch (final ExecutionException e) {
+                throw new IOException("Error while extracting archive", e.getCause());
+            }
         }
     }
 
+    /**
+     * Checks if the given entry is the java executable of a Java home and returns the path of the Java home
+     * within the archive. Executables in a {@code jre} folder are ignored since such a folder can be nested in
+     * a JDK whose own executable may only follow later in the archive.
+     */
+    static Optional<String> detectJavaHomePrefix(final String entryName) {
+        return Stream.of(JAVA_EXECUTABLE, JAVA_EXECUTABLE + ".exe")
+                .filter(executable -> entryName.equals(executable) || entryName.endsWith("/" + executable))
+                .map(executable -> entryName.substring(0, entryName.length() - executable.length()))
+                .filter(prefix -> !prefix.equals("jre/") && !prefix.endsWith("/jre/"))
+                .filter(prefix -> prefix.chars().filter(c -> c == '/').count() <= MAX_JAVA_HOME_DEPTH)
+                .findFirst();
+    }
+
+    private static String normalizeEntryName(final String name) {
+        String result = name.replace('\\', '/');
+        while (result.startsWith("./")) {
+            result = result.substring(2);
+        }
+        return result;
+    }
+
     /**
      * Finds a Java home within the search directory and moves it to the target directory.
      * This is required as some vendors do have a subdirectory structure in their archives.
@@ -90,19 +373,40 @@ public class ExtractUtil {
                         .min(Comparator.comparingInt(Path::getNameCount))
                         .orElseThrow(() -> new IllegalStateException("Java not found in " + searchRoot));
 
-                moveFiles(targetDir, javaHome);
+                moveChildren(javaHome, targetDir);
             } catch (final IOException e) {
                 throw new RuntimeException("Error while searching for local JVMs at '" + searchRoot + "'", e);
             }
         }
     }
 
-    private static void moveFiles(final Path targetDir, final Path javaHome) throws IOException {
-        Files.walkFileTree(javaHome, EnumSet.of(FileVisitOption.FOLLOW_LINKS), Integer.MAX_VALUE,
-                new SimpleFileVisitor<Path>() {
+    /**
+     * Moves the content of the source directory to the target directory. Each child is moved by a single
+     * rename. Only if a child already exists in the target directory its content is merged file by file.
+     */
+    private static void moveChildren(final Path sourceDir, final Path targetDir) throws IOException {
+        if (!Files.isDirectory(sourceDir)) {
+            return;
+        }
+        final List<Path> children;
+        try (final Stream<Path> stream = Files.list(sourceDir)) {
+            children = stream.collect(Collectors.toList());
+        }
+        for (final Path child : children) {
+            final Path target = targetDir.resolve(child.getFileName().toString());
+            if (Files.exists(target, LinkOption.NOFOLLOW_LINKS)) {
+                moveFiles(target, child);
+            } else {
+                Files.move(child, target);
+            }
+        }
+    }
+
+    private static void moveFiles(final Path targetDir, final Path sourceDir) throws IOException {
+        Files.walkFileTree(sourceDir, new SimpleFileVisitor<Path>() {
                     @Override
                     public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
-                        final Path currentTargetDir = targetDir.resolve(javaHome.relativize(dir));
+                        final Path currentTargetDir = targetDir.resolve(sourceDir.relativize(dir).toString());
                         try {
                             Files.copy(dir, currentTargetDir);
                         } catch (FileAlreadyExistsException e) {
@@ -115,28 +419,130 @@ public class ExtractUtil {
 
                     @Override
                     public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
-                        Files.move(file, targetDir.resolve(javaHome.relativize(file)));
+                        Files.move(file, targetDir.resolve(sourceDir.relativize(file).toString()), LinkOption.NOFOLLOW_LINKS);
                         return CONTINUE;
                     }
                 });
     }
 
-    private static void storeFileOnDisc(final InputStream inputStream, final Path baseDir, final ArchiveEntry entry) throws IOException {
+    private static void storeFileOnDisc(final InputStream inputStream, final Path baseDir, final String name, final ArchiveEntry entry, final ParallelFileWriter writer, final boolean posixSupported) throws IOException {
         Assert.requireNonNull(inputStream, "inputStream");
         Assert.requireNonNull(baseDir, "baseDir");
         Assert.requireNonNull(entry, "entry");
 
-        final Path newFile = baseDir.resolve(entry.getName());
+        final Path newFile = resolveEntry(baseDir, name, entry);
+
         if (entry.isDirectory()) {
             Files.createDirectories(newFile);
+        } else if (isSymbolicLink(entry)) {
+            Files.createDirectories(newFile.getParent());
+            createSymbolicLink(baseDir, newFile, getLinkTarget(inputStream, entry));
         } else {
             Files.createDirectories(newFile.getParent());
-            try (final OutputStream outputStream = Files.newOutputStream(newFile)) {
-                IOUtils.copy(inputStream, outputStream);
+            final int mode = getUnixMode(entry);
+            writer.write(inputStream, newFile, file -> applyMode(file, mode, posixSupported));
+        }
+    }
+
+    /**
+     * Resolves the path of an entry in the target directory. An entry must not be written outside of the target
+     * directory, neither by its name nor through a symbolic link that has been extracted before.
+     */
+    private static Path resolveEntry(final Path baseDir, final String name, final ArchiveEntry entry) throws IOException {
+        final Path newFile = baseDir.resolve(name).normalize();
+        if (!newFile.startsWith(baseDir.normalize())) {
+            throw new IOException("Archive entry '" + entry.getName() + "' is outside of the target directory");
+        }
+        if (!toRealPathOfExistingAncestor(newFile).startsWith(toRealPathOfExistingAncestor(baseDir))) {
+            throw new IOException("Archive entry '" + entry.getName() + "' is written through a symbolic link outside of the target directory");
+        }
+        return newFile;
+    }
+
+    /**
+     * Returns the real path of the file or of its nearest ancestor that exists. Symbolic links are followed.
+     */
+    private static Path toRealPathOfExistingAncestor(final Path file) throws IOException {
+        Path existing = file.toAbsolutePath();
+        while (existing.getParent() != null && !Files.exists(existing)) {
+            existing = existing.getParent();
+        }
+        return existing.toRealPath();
+    }
+
+    /**
+     * Creates a symbolic link. Absolute link targets and link targets outside of the target directory are rejected.
+     */
+    private static void createSymbolicLink(final Path baseDir, final Path link, final String linkTarget) throws IOException {
+        final Path target;
+        try {
+            target = Paths.get(linkTarget);
+        } catch (final InvalidPathException e) {
+            throw new IOException("Symbolic link '" + link + "' has an invalid target: " + linkTarget, e);
+        }
+        if (target.isAbsolute() || !link.getParent().resolve(target).normalize().startsWith(baseDir.normalize())) {
+            throw new IOException("Symbolic link '" + link + "' points outside of the target directory: " + linkTarget);
+        }
+        try {
+            Files.createSymbolicLink(link, target);
+        } catch (final UnsupportedOperationException | IOException e) {
+            LOG.warn("failed to create symbolic link {} -> {}: {}", link, linkTarget, e.getMessage());
+        }
+    }
+
+    private static boolean isSymbolicLink(final ArchiveEntry entry) {
+        if (entry instanceof TarArchiveEntry) {
+            return ((TarArchiveEntry) entry).isSymbolicLink();
+        }
+        return entry instanceof ZipArchiveEntry && ((ZipArchiveEntry) entry).isUnixSymlink();
+    }
+
+    private static String getLinkTarget(final InputStream inputStream, final ArchiveEntry entry) throws IOException {
+        if (entry instanceof TarArchiveEntry) {
+            return ((TarArchiveEntry) entry).getLinkName();
+        }
+        // the content of a zip entry that is a link contains the target of the link
+        final ByteArrayOutputStream target = new ByteArrayOutputStream();
+        IOUtils.copy(inputStream, target);
+        return new String(target.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private static int getUnixMode(final ArchiveEntry entry) {
+        if (entry instanceof TarArchiveEntry) {
+            return ((TarArchiveEntry) entry).getMode();
+        }
+        if (entry instanceof ZipArchiveEntry) {
+            return ((ZipArchiveEntry) entry).getUnixMode();
+        }
+        return 0;
+    }
+
+    /**
+     * Applies the permissions of the archive entry. Archives that do not contain permissions (like a ZIP
+     * created on Windows) mark every file as executable.
+     */
+    private static void applyMode(final Path file, final int mode, final boolean posixSupported) throws IOException {
+        final int permissionBits = mode & 0777;
+        if (permissionBits == 0) {
+            if (!file.toFile().setExecutable(true)) {
+                LOG.warn("failed to set executable flag on file {}", file);
             }
-            if (!newFile.toFile().setExecutable(true)) {
-                LOG.warn("failed to set executable flag on file {}", newFile);
+        } else if (posixSupported) {
+            Files.setPosixFilePermissions(file, toPosixFilePermissions(permissionBits));
+        } else if ((permissionBits & 0111) != 0 && !file.toFile().setExecutable(true)) {
+            LOG.warn("failed to set executable flag on file {}", file);
+        }
+    }
+
+    static Set<PosixFilePermission> toPosixFilePermissions(final int mode) {
+        // PosixFilePermission is declared in the order of the bits from 0400 down to 0001
+        final PosixFilePermission[] permissions = PosixFilePermission.values();
+        final Set<PosixFilePermission> result = EnumSet.noneOf(PosixFilePermission.class);
+        for (int i = 0; i < permissions.length; i++) {
+            if ((mode & (0400 >> i)) != 0) {
+                result.add(permissions[i]);
             }
         }
+        return result;
     }
 }
@@ -0,0 +1,219 @@
+package com.openwebstart.util;
+
+import com.openwebstart.concurrent.ThreadPoolHolder;
+import net.adoptopenjdk.icedteaweb.Assert;
+import net.adoptopenjdk.icedteaweb.io.IOUtils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Writes files on a bounded number of threads. The content of a file is read on the calling thread into
+ * pooled buffers and handed over to a writer thread. The memory of all buffers that are in use is limited.
+ * Files that do not fit into the buffers of a single file are written on the calling thread.
+ * <p>
+ * The calling thread must create the parent directory of a file before the file is handed over. By doing
+ * so directories are always created in the order of the archive.
+ */
+class ParallelFileWriter implements Closeable {
+
+    static final int BUFFER_SIZE = 64 * 1024;
+
+    static final long DEFAULT_MEMORY_LIMIT = 32 * 1024 * 1024;
+
+    /**
+     * Action that is executed after a file has been written completely.
+     */
+    interface WrittenFileAction {
+        void apply(Path file) throws IOException;
+    }
+
+    private final int writerThreads;
+
+    private final Semaphore writerPermits;
+
+    private final Semaphore bufferPermits;
+
+    private final int maxBuffersPerFile;
+
+    private final Queue<byte[]> freeBuffers = new ConcurrentLinkedQueue<>();
+
+    private final List<Future<?>> pendingWrites = new ArrayList<>();
+
+    private volatile IOException failure;
+
+    ParallelFileWriter(final int writerThreads) {
+        this(writerThreads, DEFAULT_MEMORY_LIMIT);
+    }
+
+    ParallelFileWriter(final int writerThreads, final long memoryLimit) {
+        if (writerThreads < 1) {
+            throw new IllegalArgumentException("number of writer threads must be > 0");
+        }
+        final int bufferCount = (int) Math.max(2, memoryLimit / BUFFER_SIZE);
+        this.writerThreads = writerThreads;
+        this.writerPermits = new Semaphore(writerThreads);
+        this.bufferPermits = new Semaphore(bufferCount);
+        // a single file may never block all buffers. Otherwise the calling thread could not continue
+        this.maxBuffersPerFile = Math.max(1, bufferCount / 4);
+    }
+
+    /**
+     * Reads the complete content from the input stream and writes it to the given file.
+     * The input stream is not closed.
+     */
+    void write(final InputStream inputStream, final Path file, final WrittenFileAction action) throws IOException {
+        Assert.requireNonNull(inputStream, "inputStream");
+        Assert.requireNonNull(file, "file");
+        Assert.requireNonNull(action, "action");
+        checkForFailure();
+
+        if (writerThreads == 1) {
+            writeDirectly(inputStream, file, new ArrayList<>(), 0, action);
+            return;
+        }
+
+        final List<byte[]> buffers = new ArrayList<>();
+        int lastBufferLength = BUFFER_SIZE;
+        try {
+            while (lastBufferLength == BUFFER_SIZE) {
+                if (buffers.size() == maxBuffersPerFile) {
+                    writeDirectly(inputStream, file, buffers, lastBufferLength, action);
+                    return;
+                }
+                final byte[] buffer = acquireBuffer();
+                buffers.add(buffer);
+                lastBufferLength = readFully(inputStream, buffer);
+            }
+            acquire(writerPermits);
+        } catch (final IOException | RuntimeException e) {
+            releaseBuffers(buffers);
+            throw e;
+        }
+
+        final int finalLastBufferLength = lastBufferLength;
+        pendingWrites.add(ThreadPoolHolder.getDaemonExecutorService().submit(() -> {
+            try {
+                try (final OutputStream outputStream = Files.newOutputStream(file)) {
+                    writeBuffers(outputStream, buffers, finalLastBufferLength);
+                }
+                action.apply(file);
+            } catch (final IOException e) {
+                if (failure == null) {
+                    failure = e;
+                }
+            } finally {
+                releaseBuffers(buffers);
+                writerPermits.release();
+            }
+        }));
+    }
+
+    /**
+     * Waits until all files that have been handed over are written.
+     *
+     * @throws IOException if any of the files could not be written
+     */
+    void awaitPendingWrites() throws IOException {
+        try {
+            for (final Future<?> pendingWrite : pendingWrites) {
+                pendingWrite.get();
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for files to be written");
+        } catch (final ExecutionException e) {
+            throw new IOException("Error while writing file", e.getCause());
+        } finally {
+            pendingWrites.removeIf(Future::isDone);
+        }
+        checkForFailure();
+    }
+
+    /**
+     * Waits until all writer threads are done. Errors of the writer threads are ignored.
+     */
+    @Override
+    public void close() throws IOException {
+        for (final Future<?> pendingWrite : pendingWrites) {
+            try {
+                pendingWrite.get();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for files to be written");
+            } catch (final ExecutionException ignored) {
+                // already reported by awaitPendingWrites
+            }
+        }
+        pendingWrites.clear();
+    }
+
+    private void writeDirectly(final InputStream inputStream, final Path file, final List<byte[]> buffers, final int lastBufferLength, final WrittenFileAction action) throws IOException {
+        try (final OutputStream outputStream = Files.newOutputStream(file)) {
+            writeBuffers(outputStream, buffers, lastBufferLength);
+            IOUtils.copy(inputStream, outputStream);
+        } finally {
+            releaseBuffers(buffers);
+        }
+        action.apply(file);
+    }
+
+    private static void writeBuffers(final OutputStream outputStream, final List<byte[]> buffers, final int lastBufferLength) throws IOException {
+        for (int i = 0; i < buffers.size(); i++) {
+            final int length = i == buffers.size() - 1 ? lastBufferLength : BUFFER_SIZE;
+            outputStream.write(buffers.get(i), 0, length);
+        }
+    }
+
+    private static int readFully(final InputStream inputStream, final byte[] buffer) throws IOException {
+        int count = 0;
+        while (count < buffer.length) {
+            final int read = inputStream.read(buffer, count, buffer.length - count);
+            if (read < 0) {
+                break;
+            }
+            count += read;
+        }
+        return count;
+    }
+
+    private byte[] acquireBuffer() throws IOException {
+        acquire(bufferPermits);
+        final byte[] buffer = freeBuffers.poll();
+        return buffer != null ? buffer : new byte[BUFFER_SIZE];
+    }
+
+    private void releaseBuffers(final List<byte[]> buffers) {
+        buffers.forEach(freeBuffers::offer);
+        bufferPermits.release(buffers.size());
+        buffers.clear();
+    }
+
+    private void checkForFailure() throws IOException {
+        final IOException e = failure;
+        if (e != null) {
+            throw new IOException("Error while writing file: " + e.getMessage(), e);
+        }
+    }
+
+    private static void acquire(final Semaphore semaphore) throws IOException {
+        try {
+            semaphore.acquire();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a free writer");
+        }
+    }
+}
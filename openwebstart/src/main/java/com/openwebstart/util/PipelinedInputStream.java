@@ -0,0 +1,301 @@
+package com.openwebstart.util;
+
+import com.openwebstart.concurrent.ThreadPoolHolder;
+import net.adoptopenjdk.icedteaweb.Assert;
+import net.adoptopenjdk.icedteaweb.logging.Logger;
+import net.adoptopenjdk.icedteaweb.logging.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Input stream that reads its source on a separate thread. The reading thread fills a bounded ring of
+ * reusable buffers that are handed over to the thread consuming this stream. Once all buffers are filled
+ * the reading thread blocks until the consumer has returned a buffer (back-pressure).
+ * <p>
+ * By doing so the network transfer of a download can continue while the consuming thread decompresses
+ * and writes the content to disk.
+ */
+public class PipelinedInputStream extends InputStream {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PipelinedInputStream.class);
+
+    public static final int DEFAULT_BUFFER_SIZE = 256 * 1024;
+
+    public static final int DEFAULT_BUFFER_COUNT = 8;
+
+    private static final long CLOSE_TIMEOUT_IN_SECONDS = 10;
+
+    private static final Chunk END_OF_STREAM = new Chunk(new byte[0]);
+
+    private final InputStream source;
+
+    private final String name;
+
+    private final BlockingQueue<Chunk> freeChunks;
+
+    private final BlockingQueue<Chunk> filledChunks;
+
+    private final CountDownLatch producerDone = new CountDownLatch(1);
+
+    private volatile boolean closed;
+
+    private volatile Throwable failure;
+
+    private Chunk currentChunk;
+
+    private int currentPosition;
+
+    private boolean endReached;
+
+    private volatile long transferredBytes;
+
+    private volatile long sourceReadNanos;
+
+    private volatile long producerBlockedNanos;
+
+    private long consumerBlockedNanos;
+
+    public PipelinedInputStream(final InputStream source, final String name) {
+        this(source, name, DEFAULT_BUFFER_SIZE, DEFAULT_BUFFER_COUNT, ThreadPoolHolder.getDaemonExecutorService());
+    }
+
+    public PipelinedInputStream(final InputStream source, final String name, final int bufferSize, final int bufferCount, final Executor executor) {
+        this.source = Assert.requireNonNull(source, "source");
+        this.name = Assert.requireNonNull(name, "name");
+        Assert.requireNonNull(executor, "executor");
+        if (bufferSize <= 0 || bufferCount <= 0) {
+            throw new IllegalArgumentException("buffer size and buffer count must be > 0");
+        }
+
+        freeChunks = new ArrayBlockingQueue<>(bufferCount);
+        // one additional slot so that the end marker can always be added without blocking
+        filledChunks = new ArrayBlockingQueue<>(bufferCount + 1);
+        for (int i = 0; i < bufferCount; i++) {
+            freeChunks.add(new Chunk(new byte[bufferSize]));
+        }
+
+        executor.execute(this::transfer);
+    }
+
+    @Override
+    public int read() throws IOException {
+        final Chunk chunk = nextChunk();
+        if (chunk == null) {
+            return -1;
+        }
+        final int value = chunk.data[currentPosition++] & 0xFF;
+        recycleIfConsumed(chunk);
+        return value;
+    }
+
+    @Override
+    public int read(final byte[] b, final int off, final int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        final Chunk chunk = nextChunk();
+        if (chunk == null) {
+            return -1;
+        }
+        final int count = Math.min(len, chunk.length - currentPosition);
+        System.arraycopy(chunk.data, currentPosition, b, off, count);
+        currentPosition += count;
+        recycleIfConsumed(chunk);
+        return count;
+    }
+
+    @Override
+    public int available() throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+        return currentChunk != null ? currentChunk.length - currentPosition : 0;
+    }
+
+    /**
+     * Stops the reading thread and waits until it has closed the source stream. The source stream is closed
+     * right away, so a reading thread that is blocked in a read of the source (for example of a stalled
+     * connection) is woken up. The reading thread is only awaited for a limited time.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        currentChunk = null;
+        // hand all buffers back so that a blocked reading thread wakes up and sees the closed flag
+        Chunk chunk;
+        while ((chunk = filledChunks.poll()) != null) {
+            if (chunk != END_OF_STREAM) {
+                freeChunks.offer(chunk);
+            }
+        }
+        freeChunks.offer(new Chunk(new byte[0]));
+        if (producerDone.getCount() > 0) {
+            closeSourceQuietly();
+        }
+        try {
+            if (!producerDone.await(CLOSE_TIMEOUT_IN_SECONDS, TimeUnit.SECONDS)) {
+                LOG.warn("Reading thread of {} did not stop within {} seconds", name, CLOSE_TIMEOUT_IN_SECONDS);
+                return;
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the reading thread of " + name);
+        }
+        LOG.debug("Pipeline for {} transferred {} bytes. Source read: {} ms, reader blocked by consumer: {} ms, consumer waiting for data: {} ms",
+                name, transferredBytes, toMillis(sourceReadNanos), toMillis(producerBlockedNanos), toMillis(consumerBlockedNanos));
+    }
+
+    private void closeSourceQuietly() {
+        try {
+            source.close();
+        } catch (final IOException e) {
+            LOG.debug("Could not close source of {}: {}", name, e.getMessage());
+        }
+    }
+
+    public long getTransferredBytes() {
+        return transferredBytes;
+    }
+
+    /**
+     * @return the time the reading thread spent reading from the source stream
+     */
+    public long getSourceReadTime(final TimeUnit unit) {
+        return unit.convert(sourceReadNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @return the time the reading thread waited for a free buffer because the consumer was slower
+     */
+    public long getProducerBlockedTime(final TimeUnit unit) {
+        return unit.convert(producerBlockedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @return the time the consumer waited for data because the source was slower
+     */
+    public long getConsumerBlockedTime(final TimeUnit unit) {
+        return unit.convert(consumerBlockedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private Chunk nextChunk() throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+        if (currentChunk != null) {
+            return currentChunk;
+        }
+        if (endReached) {
+            return null;
+        }
+
+        final long start = System.nanoTime();
+        final Chunk chunk;
+        try {
+            chunk = filledChunks.take();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for data of " + name);
+        } finally {
+            consumerBlockedNanos += System.nanoTime() - start;
+        }
+
+        if (chunk == END_OF_STREAM) {
+            endReached = true;
+            final Throwable cause = failure;
+            if (cause != null) {
+                throw new IOException("Error while reading " + name + ": " + cause.getMessage(), cause);
+            }
+            return null;
+        }
+        currentChunk = chunk;
+        currentPosition = 0;
+        return chunk;
+    }
+
+    private void recycleIfConsumed(final Chunk chunk) {
+        if (currentPosition >= chunk.length) {
+            currentChunk = null;
+            freeChunks.offer(chunk);
+        }
+    }
+
+    private void transfer() {
+        try (final InputStream in = source) {
+            while (!closed) {
+                final long waitStart = System.nanoTime();
+                final Chunk chunk = freeChunks.take();
+                producerBlockedNanos += System.nanoTime() - waitStart;
+                if (closed) {
+                    break;
+                }
+
+                final long readStart = System.nanoTime();
+                final int count = fill(in, chunk.data);
+                sourceReadNanos += System.nanoTime() - readStart;
+
+                if (count < 0) {
+                    break;
+                }
+                if (count == 0) {
+                    freeChunks.offer(chunk);
+                    continue;
+                }
+                chunk.length = count;
+                transferredBytes += count;
+                filledChunks.put(chunk);
+            }
+        } catch (final Throwable e) {
+            if (!closed) {
+                failure = e;
+            }
+        } finally {
+            filledChunks.offer(END_OF_STREAM);
+            producerDone.countDown();
+        }
+    }
+
+    /**
+     * Reads until the buffer is full or no more data is available without blocking. Returns -1 only if
+     * the end of the source has been reached before any byte was read.
+     */
+    private static int fill(final InputStream in, final byte[] buffer) throws IOException {
+        int count = 0;
+        while (count < buffer.length) {
+            final int read = in.read(buffer, count, buffer.length - count);
+            if (read < 0) {
+                return count > 0 ? count : -1;
+            }
+            count += read;
+            if (in.available() <= 0) {
+                break;
+            }
+        }
+        return count;
+    }
+
+    private static long toMillis(final long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+
+    private static class Chunk {
+
+        private final byte[] data;
+
+        private int length;
+
+        Chunk(final byte[] data) {
+            this.data = data;
+        }
+    }
+}
@@ -42,6 +42,7 @@ public class ProcessUtil {
         if (process.waitFor(timeout, unit)) {
             return process.exitValue();
         }
+        process.destroyForcibly();
         throw new TimeoutException("Process not finished in given time periode");
     }
 
@@ -0,0 +1,64 @@
+package com.openwebstart.http;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+
+class BandwidthLimiterTest {
+
+    private static final int DATA_SIZE = 64 * 1024;
+
+    @Test
+    void checkReadIsLimited() throws IOException {
+        //given
+        final BandwidthLimiter limiter = new BandwidthLimiter(DATA_SIZE * 2);
+
+        //when
+        final long start = System.nanoTime();
+        readAll(limiter.limit(new ByteArrayInputStream(new byte[DATA_SIZE])));
+        final long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        //than
+        Assertions.assertTrue(elapsedMillis >= 400, "read took only " + elapsedMillis + " ms");
+    }
+
+    @Test
+    void checkParentLimitsChild() throws IOException {
+        //given
+        final BandwidthLimiter parent = new BandwidthLimiter(DATA_SIZE * 2);
+        final BandwidthLimiter child = new BandwidthLimiter(BandwidthLimiter.UNLIMITED, parent);
+
+        //when
+        final long start = System.nanoTime();
+        readAll(child.limit(new ByteArrayInputStream(new byte[DATA_SIZE])));
+        final long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        //than
+        Assertions.assertTrue(elapsedMillis >= 400, "read took only " + elapsedMillis + " ms");
+    }
+
+    @Test
+    void checkUnlimitedReadMeasuresThroughput() throws Exception {
+        //given
+        final BandwidthLimiter limiter = new BandwidthLimiter(BandwidthLimiter.UNLIMITED);
+        final InputStream inputStream = limiter.limit(new ByteArrayInputStream(new byte[DATA_SIZE]));
+
+        //when
+        readAll(inputStream);
+        Thread.sleep(1_100);
+
+        //than
+        Assertions.assertTrue(limiter.getThroughput() > 0);
+    }
+
+    private static void readAll(final InputStream inputStream) throws IOException {
+        final byte[] buffer = new byte[4096];
+        while (inputStream.read(buffer) >= 0) {
+            // consume
+        }
+    }
+}
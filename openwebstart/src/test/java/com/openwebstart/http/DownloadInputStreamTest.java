@@ -0,0 +1,135 @@
+package com.openwebstart.http;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+class DownloadInputStreamTest {
+
+    @Test
+    void checkBulkReadCountsAndHashes() throws Exception {
+        //given
+        final byte[] rawData = new byte[100_000];
+        new Random(42).nextBytes(rawData);
+        final DownloadInputStream inputStream = new DownloadInputStream(new ByteArrayInputStream(rawData), rawData.length, null);
+        final List<Long> doneEvents = new CopyOnWriteArrayList<>();
+        inputStream.addDownloadDoneListener(doneEvents::add);
+
+        //when
+        final byte[] buffer = new byte[8192];
+        while (inputStream.read(buffer, 0, buffer.length) >= 0) {
+            // consume
+        }
+
+        //than
+        final String expectedHash = ConnectionUtils.toHex(MessageDigest.getInstance("SHA-256").digest(rawData));
+        Assertions.assertEquals(rawData.length, inputStream.getDownloaded());
+        Assertions.assertEquals(expectedHash, inputStream.getHash().get(1, TimeUnit.SECONDS));
+        Assertions.assertEquals(1, doneEvents.size());
+    }
+
+    @Test
+    void checkPercentageEventsAreThrottled() throws IOException {
+        //given
+        final byte[] rawData = new byte[100_000];
+        final DownloadInputStream inputStream = new DownloadInputStream(new ByteArrayInputStream(rawData), rawData.length, null);
+        inputStream.setUpdateInterval(1, TimeUnit.HOURS);
+        final List<Double> percentageEvents = new CopyOnWriteArrayList<>();
+        inputStream.addDownloadPercentageListener(percentageEvents::add);
+
+        //when
+        while (inputStream.read() >= 0) {
+            // consume
+        }
+
+        //than
+        Assertions.assertTrue(percentageEvents.isEmpty());
+        Assertions.assertEquals(rawData.length, inputStream.getDownloaded());
+    }
+
+    @Test
+    void checkInvalidUpdateInterval() {
+        //given
+        final DownloadInputStream inputStream = new DownloadInputStream(new ByteArrayInputStream(new byte[0]), 0, null);
+
+        //than
+        Assertions.assertThrows(IllegalArgumentException.class, () -> inputStream.setUpdateInterval(0, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void checkExpectedChecksumIsAccepted() throws Exception {
+        //given
+        final byte[] rawData = new byte[100_000];
+        new Random(42).nextBytes(rawData);
+        final DownloadInputStream inputStream = new DownloadInputStream(new ByteArrayInputStream(rawData), rawData.length, null);
+        inputStream.setExpectedSize(rawData.length);
+        inputStream.setExpectedSha256(ConnectionUtils.toHex(MessageDigest.getInstance("SHA-256").digest(rawData)).toUpperCase());
+
+        //when
+        final byte[] buffer = new byte[8192];
+        while (inputStream.read(buffer, 0, buffer.length) >= 0) {
+            // consume
+        }
+
+        //than
+        Assertions.assertEquals(rawData.length, inputStream.getDownloaded());
+    }
+
+    @Test
+    void checkChecksumMismatchAbortsDownload() {
+        //given
+        final byte[] rawData = new byte[100_000];
+        new Random(42).nextBytes(rawData);
+        final DownloadInputStream inputStream = new DownloadInputStream(new ByteArrayInputStream(rawData), rawData.length, null);
+        inputStream.setExpectedSha256("0000000000000000000000000000000000000000000000000000000000000000");
+        final List<Long> doneEvents = new CopyOnWriteArrayList<>();
+        inputStream.addDownloadDoneListener(doneEvents::add);
+
+        //than
+        Assertions.assertThrows(DownloadVerificationException.class, () -> {
+            final byte[] buffer = new byte[8192];
+            while (inputStream.read(buffer, 0, buffer.length) >= 0) {
+                // consume
+            }
+        });
+        Assertions.assertTrue(doneEvents.isEmpty());
+    }
+
+    @Test
+    void checkSizeOverrunAbortsDownloadEarly() {
+        //given
+        final byte[] rawData = new byte[100_000];
+        final DownloadInputStream inputStream = new DownloadInputStream(new ByteArrayInputStream(rawData), -1, null);
+        inputStream.setExpectedSize(10_000);
+
+        //than
+        Assertions.assertThrows(DownloadVerificationException.class, () -> {
+            final byte[] buffer = new byte[8192];
+            while (inputStream.read(buffer, 0, buffer.length) >= 0) {
+                // consume
+            }
+        });
+        Assertions.assertTrue(inputStream.getDownloaded() < rawData.length);
+    }
+
+    @Test
+    void checkTruncatedContentIsRejected() {
+        //given
+        final DownloadInputStream inputStream = new DownloadInputStream(new ByteArrayInputStream(new byte[1_000]), -1, null);
+        inputStream.setExpectedSize(10_000);
+
+        //than
+        Assertions.assertThrows(DownloadVerificationException.class, () -> {
+            while (inputStream.read() >= 0) {
+                // consume
+            }
+        });
+    }
+}
@@ -0,0 +1,238 @@
+package com.openwebstart.http;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import spark.Request;
+import spark.Response;
+import spark.Spark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.ServerSocket;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+class ResumableDownloadTest {
+
+    private static final byte[] CONTENT = new byte[200_000];
+
+    static {
+        new Random(4711).nextBytes(CONTENT);
+    }
+
+    private final AtomicReference<String> etag = new AtomicReference<>("\"v1\"");
+
+    private final AtomicBoolean rangeNotSatisfiable = new AtomicBoolean();
+
+    private final AtomicInteger rangeShift = new AtomicInteger();
+
+    private URL archiveUrl;
+
+    private URL mirrorUrl;
+
+    private static int getFreePort() {
+        final int freePort;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            socket.setReuseAddress(true);
+            freePort = socket.getLocalPort();
+        } catch (Exception e) {
+            throw new RuntimeException();
+        }
+        return freePort;
+    }
+
+    @BeforeEach
+    public void init() throws Exception {
+        final int port = getFreePort();
+        Spark.port(port);
+        Spark.get("/archive", ((request, response) -> {
+            if (request.headers("Range") != null && rangeNotSatisfiable.get()) {
+                response.status(416);
+                return new byte[0];
+            }
+            return serve(request, response, etag.get(), rangeShift.get());
+        }));
+        Spark.get("/mirror", ((request, response) -> serve(request, response, "\"mirror\"", 0)));
+        Spark.init();
+        Spark.awaitInitialization();
+        archiveUrl = new URL("http://localhost:" + port + "/archive");
+        mirrorUrl = new URL("http://localhost:" + port + "/mirror");
+    }
+
+    private static byte[] serve(final Request request, final Response response, final String etag, final int rangeShift) {
+        response.header("ETag", etag);
+        response.header("Accept-Ranges", "bytes");
+        final String range = request.headers("Range");
+        final String ifRange = request.headers("If-Range");
+        if (range != null && (ifRange == null || ifRange.equals(etag))) {
+            final int start = Integer.parseInt(range.substring("bytes=".length(), range.indexOf('-'))) - rangeShift;
+            response.status(206);
+            response.header("Content-Range", "bytes " + start + "-" + (CONTENT.length - 1) + "/" + CONTENT.length);
+            return Arrays.copyOfRange(CONTENT, start, CONTENT.length);
+        }
+        return CONTENT;
+    }
+
+    @AfterEach
+    public void reset() {
+        Spark.stop();
+        Spark.awaitStop();
+    }
+
+    @Test
+    void continueInterruptedDownload(@TempDir final Path tempDir) throws IOException {
+        //given
+        final Path partFile = tempDir.resolve("archive.part");
+        interruptDownloadAfter(partFile, 100_000);
+
+        //when
+        final ResumableDownload download = new ResumableDownload(archiveUrl, partFile);
+        final byte[] content = readAll(download.open());
+        download.close();
+
+        //than
+        Assertions.assertEquals(100_000, download.getResumedFrom());
+        Assertions.assertEquals(CONTENT.length, download.getContentSize());
+        Assertions.assertTrue(download.isComplete());
+        Assertions.assertArrayEquals(CONTENT, content);
+        Assertions.assertArrayEquals(CONTENT, Files.readAllBytes(partFile));
+    }
+
+    @Test
+    void continueInterruptedDownloadFromMirror(@TempDir final Path tempDir) throws IOException {
+        //given
+        final Path partFile = tempDir.resolve("archive.part");
+        interruptDownloadAfter(partFile, 100_000);
+
+        //when
+        final ResumableDownload download = new ResumableDownload(mirrorUrl, partFile, new BandwidthLimiter(BandwidthLimiter.UNLIMITED), Collections.singletonList(archiveUrl));
+        final byte[] content = readAll(download.open());
+        download.close();
+
+        //than
+        Assertions.assertEquals(100_000, download.getResumedFrom());
+        Assertions.assertTrue(download.isComplete());
+        Assertions.assertArrayEquals(CONTENT, content);
+    }
+
+    @Test
+    void restartDownloadIfRemoteContentChanged(@TempDir final Path tempDir) throws IOException {
+        //given
+        final Path partFile = tempDir.resolve("archive.part");
+        interruptDownloadAfter(partFile, 100_000);
+        etag.set("\"v2\"");
+
+        //when
+        final ResumableDownload download = new ResumableDownload(archiveUrl, partFile);
+        final byte[] content = readAll(download.open());
+        download.close();
+
+        //than
+        Assertions.assertEquals(0, download.getResumedFrom());
+        Assertions.assertArrayEquals(CONTENT, content);
+    }
+
+    @Test
+    void restartDownloadIfPartialFileIsCorrupt(@TempDir final Path tempDir) throws IOException {
+        //given
+        final Path partFile = tempDir.resolve("archive.part");
+        interruptDownloadAfter(partFile, 100_000);
+        final byte[] corrupted = Files.readAllBytes(partFile);
+        corrupted[10] = (byte) ~corrupted[10];
+        Files.write(partFile, corrupted);
+
+        //when
+        final ResumableDownload download = new ResumableDownload(archiveUrl, partFile);
+        final byte[] content = readAll(download.open());
+        download.close();
+
+        //than
+        Assertions.assertEquals(0, download.getResumedFrom());
+        Assertions.assertArrayEquals(CONTENT, content);
+    }
+
+    @Test
+    void restartDownloadIfRangeIsNotSatisfiable(@TempDir final Path tempDir) throws IOException {
+        //given
+        final Path partFile = tempDir.resolve("archive.part");
+        interruptDownloadAfter(partFile, 100_000);
+        rangeNotSatisfiable.set(true);
+
+        //when
+        final ResumableDownload download = new ResumableDownload(archiveUrl, partFile);
+        final byte[] content = readAll(download.open());
+        download.close();
+
+        //than
+        Assertions.assertEquals(0, download.getResumedFrom());
+        Assertions.assertTrue(download.isComplete());
+        Assertions.assertArrayEquals(CONTENT, content);
+        Assertions.assertArrayEquals(CONTENT, Files.readAllBytes(partFile));
+    }
+
+    @Test
+    void restartDownloadIfServerSendsOtherRange(@TempDir final Path tempDir) throws IOException {
+        //given
+        final Path partFile = tempDir.resolve("archive.part");
+        interruptDownloadAfter(partFile, 100_000);
+        rangeShift.set(1000);
+
+        //when
+        final ResumableDownload download = new ResumableDownload(archiveUrl, partFile);
+        final byte[] content = readAll(download.open());
+        download.close();
+
+        //than
+        Assertions.assertEquals(0, download.getResumedFrom());
+        Assertions.assertTrue(download.isComplete());
+        Assertions.assertArrayEquals(CONTENT, content);
+        Assertions.assertArrayEquals(CONTENT, Files.readAllBytes(partFile));
+    }
+
+    @Test
+    void discardRemovesPartialDownload(@TempDir final Path tempDir) throws IOException {
+        //given
+        final Path partFile = tempDir.resolve("archive.part");
+        final ResumableDownload download = new ResumableDownload(archiveUrl, partFile);
+        readAll(download.open());
+
+        //when
+        download.discard();
+
+        //than
+        Assertions.assertFalse(Files.exists(partFile));
+        Assertions.assertFalse(Files.exists(tempDir.resolve("archive.part.journal")));
+    }
+
+    private void interruptDownloadAfter(final Path partFile, final int bytes) throws IOException {
+        final ResumableDownload download = new ResumableDownload(archiveUrl, partFile);
+        final InputStream inputStream = download.open();
+        final byte[] buffer = new byte[bytes];
+        int read = 0;
+        while (read < bytes) {
+            read += inputStream.read(buffer, read, bytes - read);
+        }
+        download.close();
+    }
+
+    private byte[] readAll(final InputStream inputStream) throws IOException {
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[8192];
+        int read;
+        while ((read = inputStream.read(buffer)) >= 0) {
+            outputStream.write(buffer, 0, read);
+        }
+        return outputStream.toByteArray();
+    }
+}
@@ -0,0 +1,156 @@
+package com.openwebstart.http;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import spark.Spark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.ServerSocket;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class SegmentedDownloadTest {
+
+    private static final byte[] CONTENT = new byte[(int) (3.5 * SegmentedDownload.MIN_SEGMENT_SIZE)];
+
+    static {
+        new Random(4711).nextBytes(CONTENT);
+    }
+
+    private final AtomicInteger rangeRequests = new AtomicInteger();
+
+    private final AtomicInteger shiftedRanges = new AtomicInteger();
+
+    private URL archiveUrl;
+
+    private URL noRangeUrl;
+
+    private static int getFreePort() {
+        final int freePort;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            socket.setReuseAddress(true);
+            freePort = socket.getLocalPort();
+        } catch (Exception e) {
+            throw new RuntimeException();
+        }
+        return freePort;
+    }
+
+    @BeforeEach
+    public void init() throws Exception {
+        final int port = getFreePort();
+        Spark.port(port);
+        Spark.get("/archive", ((request, response) -> {
+            response.header("ETag", "\"v1\"");
+            response.header("Accept-Ranges", "bytes");
+            final String range = request.headers("Range");
+            if (range != null) {
+                rangeRequests.incrementAndGet();
+                final String[] bounds = range.substring("bytes=".length()).split("-", -1);
+                final int start = Integer.parseInt(bounds[0]) > 0 && shiftedRanges.getAndDecrement() > 0 ? Integer.parseInt(bounds[0]) - 1000 : Integer.parseInt(bounds[0]);
+                final int end = bounds[1].isEmpty() ? CONTENT.length - 1 : Integer.parseInt(bounds[1]);
+                response.status(206);
+                response.header("Content-Range", "bytes " + start + "-" + end + "/" + CONTENT.length);
+                return Arrays.copyOfRange(CONTENT, start, end + 1);
+            }
+            return CONTENT;
+        }));
+        Spark.get("/no-range", ((request, response) -> CONTENT));
+        Spark.init();
+        Spark.awaitInitialization();
+        archiveUrl = new URL("http://localhost:" + port + "/archive");
+        noRangeUrl = new URL("http://localhost:" + port + "/no-range");
+    }
+
+    @AfterEach
+    public void reset() {
+        Spark.stop();
+        Spark.awaitStop();
+    }
+
+    @Test
+    void downloadInSegments(@TempDir final Path tempDir) throws IOException {
+        //given
+        final Path partFile = tempDir.resolve("archive.part");
+        final SegmentedDownload download = new SegmentedDownload(archiveUrl, partFile, 4);
+
+        //when
+        final byte[] content = readAll(download.open());
+
+        //than
+        Assertions.assertEquals(3, download.getSegmentCount());
+        Assertions.assertEquals(3, rangeRequests.get());
+        Assertions.assertEquals(CONTENT.length, download.getContentSize());
+        Assertions.assertTrue(download.isComplete());
+        Assertions.assertArrayEquals(CONTENT, content);
+        Assertions.assertArrayEquals(CONTENT, Files.readAllBytes(partFile));
+    }
+
+    @Test
+    void fetchSegmentAgainIfServerSendsOtherRange(@TempDir final Path tempDir) throws IOException {
+        //given
+        final Path partFile = tempDir.resolve("archive.part");
+        final SegmentedDownload download = new SegmentedDownload(archiveUrl, partFile, 4);
+        shiftedRanges.set(1);
+
+        //when
+        final byte[] content = readAll(download.open());
+
+        //than
+        Assertions.assertEquals(3, download.getSegmentCount());
+        Assertions.assertEquals(4, rangeRequests.get());
+        Assertions.assertTrue(download.isComplete());
+        Assertions.assertArrayEquals(CONTENT, content);
+        Assertions.assertArrayEquals(CONTENT, Files.readAllBytes(partFile));
+    }
+
+    @Test
+    void fallbackToSingleStreamIfRangesAreNotSupported(@TempDir final Path tempDir) throws IOException {
+        //given
+        final Path partFile = tempDir.resolve("archive.part");
+        final SegmentedDownload download = new SegmentedDownload(noRangeUrl, partFile, 4);
+
+        //when
+        final byte[] content = readAll(download.open());
+
+        //than
+        Assertions.assertEquals(1, download.getSegmentCount());
+        Assertions.assertTrue(download.isComplete());
+        Assertions.assertArrayEquals(CONTENT, content);
+    }
+
+    @Test
+    void discardRemovesPartialDownload(@TempDir final Path tempDir) throws IOException {
+        //given
+        final Path partFile = tempDir.resolve("archive.part");
+        final SegmentedDownload download = new SegmentedDownload(archiveUrl, partFile, 4);
+        readAll(download.open());
+
+        //when
+        download.discard();
+
+        //than
+        Assertions.assertFalse(Files.exists(partFile));
+    }
+
+    private static byte[] readAll(final InputStream inputStream) throws IOException {
+        try (final InputStream in = inputStream) {
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.openwebstart.jvm;
+
+import com.openwebstart.jvm.os.OperationSystem;
+import com.openwebstart.jvm.runtimes.LocalJavaRuntime;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ApplicationClassDataSharingArchiveTest {
+
+    private static final String APPLICATION_ID = "https://example.com/app.jnlp";
+
+    private static final List<String> RESOURCES = Collections.singletonList("https://example.com/app.jar@1.0");
+
+    private static final String RECORD_ARG = "-XX:ArchiveClassesAtExit=";
+
+    @Test
+    void recordedArchiveIsUsedByNextLaunch(@TempDir final Path tempDir) throws IOException {
+        //given
+        final ClassDataSharingArchive runtimeArchive = createRuntimeArchive(tempDir);
+        final ApplicationClassDataSharingArchive firstLaunch = new ApplicationClassDataSharingArchive(runtimeArchive, APPLICATION_ID, RESOURCES);
+        final Path recordedArchive = getRecordedArchive(firstLaunch.getVmArgs());
+        Files.write(recordedArchive, new byte[]{4, 5, 6});
+        firstLaunch.onApplicationExit();
+
+        //when
+        final List<String> args = new ApplicationClassDataSharingArchive(runtimeArchive, APPLICATION_ID, RESOURCES).getVmArgs();
+
+        //than
+        // the recorded archive has a unique suffix until it is activated
+        final String recordedName = recordedArchive.toString();
+        final String archives = runtimeArchive.getArchive() + File.pathSeparator + recordedName.substring(0, recordedName.lastIndexOf('.'));
+        assertEquals(Arrays.asList("-XX:SharedArchiveFile=" + archives, "-Xshare:auto"), args);
+        assertTrue(Files.notExists(recordedArchive));
+    }
+
+    @Test
+    void archiveIsRecordedAgainIfResourcesChange(@TempDir final Path tempDir) throws IOException {
+        //given
+        final ClassDataSharingArchive runtimeArchive = createRuntimeArchive(tempDir);
+        final ApplicationClassDataSharingArchive firstLaunch = new ApplicationClassDataSharingArchive(runtimeArchive, APPLICATION_ID, RESOURCES);
+        Files.write(getRecordedArchive(firstLaunch.getVmArgs()), new byte[]{4, 5, 6});
+        firstLaunch.onApplicationExit();
+
+        //when
+        final List<String> args = new ApplicationClassDataSharingArchive(runtimeArchive, APPLICATION_ID, Collections.singletonList("https://example.com/app.jar@1.1")).getVmArgs();
+
+        //than
+        assertTrue(args.stream().anyMatch(arg -> arg.startsWith(RECORD_ARG)));
+    }
+
+    private static Path getRecordedArchive(final List<String> args) {
+        return args.stream()
+                .filter(arg -> arg.startsWith(RECORD_ARG))
+                .map(arg -> Paths.get(arg.substring(RECORD_ARG.length())))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("archive is not recorded: " + args));
+    }
+
+    private static ClassDataSharingArchive createRuntimeArchive(final Path tempDir) throws IOException {
+        final Path javaHome = tempDir.resolve("jdk-17.0.8");
+        final Path java = javaHome.resolve("bin").resolve(OperationSystem.getLocalSystem().isWindows() ? "java.exe" : "java");
+        Files.createDirectories(java.getParent());
+        Files.write(java, "17.0.8".getBytes(StandardCharsets.UTF_8));
+        assertTrue(java.toFile().setExecutable(true));
+        final LocalJavaRuntime runtime = new LocalJavaRuntime("17.0.8", OperationSystem.getLocalSystem(), "Eclipse Adoptium", javaHome, LocalDateTime.now(), true, true);
+
+        final Path webStartJar = tempDir.resolve("openwebstart.jar");
+        Files.write(webStartJar, "ows".getBytes(StandardCharsets.UTF_8));
+
+        final ClassDataSharingArchive archive = new ClassDataSharingArchive(tempDir.resolve("cache"), runtime, webStartJar.toFile());
+        Files.createDirectories(archive.getArchiveDir());
+        Files.write(archive.getArchive(), new byte[]{1, 2, 3});
+        archive.writeStamp();
+        return archive;
+    }
+}
@@ -0,0 +1,136 @@
+package com.openwebstart.jvm;
+
+import com.openwebstart.jvm.os.OperationSystem;
+import com.openwebstart.jvm.runtimes.LocalJavaRuntime;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ClassDataSharingArchiveTest {
+
+    @Test
+    void noArgsWithoutArchive(@TempDir final Path tempDir) throws IOException {
+        //given
+        final LocalJavaRuntime runtime = createRuntime(tempDir, "17.0.8");
+        final File webStartJar = createJar(tempDir, "ows");
+
+        //when
+        final ClassDataSharingArchive archive = new ClassDataSharingArchive(tempDir.resolve("cache"), runtime, webStartJar);
+
+        //than
+        assertTrue(archive.getVmArgs().isEmpty());
+    }
+
+    @Test
+    void applicationArchiveIsUsedUntilJarChanges(@TempDir final Path tempDir) throws IOException {
+        //given
+        final Path cacheDir = tempDir.resolve("cache");
+        final LocalJavaRuntime runtime = createRuntime(tempDir, "17.0.8");
+        final File webStartJar = createJar(tempDir, "ows");
+        final Path archiveFile = cacheDir.resolve(RuntimeManagerConstants.CDS_DIR_NAME).resolve("jdk-17.0.8").resolve(ClassDataSharingArchive.ARCHIVE_FILENAME);
+        Files.createDirectories(archiveFile.getParent());
+        Files.write(archiveFile, new byte[]{1, 2, 3});
+        new ClassDataSharingArchive(cacheDir, runtime, webStartJar).writeStamp();
+
+        //when
+        final ClassDataSharingArchive archive = new ClassDataSharingArchive(cacheDir, runtime, webStartJar);
+
+        //than
+        assertEquals(Arrays.asList("-XX:SharedArchiveFile=" + archiveFile, "-Xshare:auto"), archive.getVmArgs());
+
+        //when
+        Files.write(webStartJar.toPath(), "updated ows".getBytes(StandardCharsets.UTF_8));
+
+        //than
+        assertTrue(archive.getVmArgs().isEmpty());
+    }
+
+    @Test
+    void defaultArchiveOnJava8(@TempDir final Path tempDir) throws IOException {
+        //given
+        final Path cacheDir = tempDir.resolve("cache");
+        final LocalJavaRuntime runtime = createRuntime(tempDir, "1.8.0_382");
+        final File webStartJar = createJar(tempDir, "ows");
+        Files.createDirectories(cacheDir.resolve(RuntimeManagerConstants.CDS_DIR_NAME).resolve("jdk-1.8.0_382"));
+        new ClassDataSharingArchive(cacheDir, runtime, webStartJar).writeStamp();
+
+        //when
+        final ClassDataSharingArchive archive = new ClassDataSharingArchive(cacheDir, runtime, webStartJar);
+
+        //than
+        assertEquals(Collections.singletonList("-Xshare:auto"), archive.getVmArgs());
+    }
+
+    @Test
+    void failedAttemptsAreNotRepeatedUntilJarChanges(@TempDir final Path tempDir) throws IOException {
+        //given
+        final LocalJavaRuntime runtime = createRuntime(tempDir, "17.0.8");
+        final File webStartJar = createJar(tempDir, "ows");
+        final ClassDataSharingArchive archive = new ClassDataSharingArchive(tempDir.resolve("cache"), runtime, webStartJar);
+
+        //when
+        for (int i = 0; i < ClassDataSharingArchive.MAX_ATTEMPTS; i++) {
+            assertFalse(archive.hasFailedBefore());
+            assertThrows(Exception.class, archive::generate);
+        }
+
+        //than
+        assertTrue(archive.hasFailedBefore());
+        assertTrue(Files.isRegularFile(archive.getArchiveDir().resolve(ClassDataSharingArchive.FAILURE_STAMP_FILENAME)));
+
+        //when
+        Files.write(webStartJar.toPath(), "updated ows".getBytes(StandardCharsets.UTF_8));
+
+        //than
+        assertFalse(archive.hasFailedBefore());
+    }
+
+    @Test
+    void staleFilesOfAbortedAttemptsAreDeleted(@TempDir final Path tempDir) throws IOException {
+        //given
+        final LocalJavaRuntime runtime = createRuntime(tempDir, "17.0.8");
+        final ClassDataSharingArchive archive = new ClassDataSharingArchive(tempDir.resolve("cache"), runtime, createJar(tempDir, "ows"));
+        Files.createDirectories(archive.getArchiveDir());
+        final Path staleArchive = Files.write(archive.getArchiveDir().resolve(ClassDataSharingArchive.ARCHIVE_FILENAME + "." + UUID.randomUUID()), new byte[]{1});
+        Files.setLastModifiedTime(staleArchive, FileTime.fromMillis(System.currentTimeMillis() - TimeUnit.HOURS.toMillis(1)));
+        final Path currentArchive = Files.write(archive.getArchiveDir().resolve(ClassDataSharingArchive.ARCHIVE_FILENAME + "." + UUID.randomUUID()), new byte[]{1});
+
+        //when
+        assertThrows(Exception.class, archive::generate);
+
+        //than
+        assertFalse(Files.exists(staleArchive));
+        assertTrue(Files.exists(currentArchive));
+    }
+
+    private static LocalJavaRuntime createRuntime(final Path tempDir, final String version) throws IOException {
+        final Path javaHome = tempDir.resolve("jdk-" + version);
+        final Path java = javaHome.resolve("bin").resolve(OperationSystem.getLocalSystem().isWindows() ? "java.exe" : "java");
+        Files.createDirectories(java.getParent());
+        Files.write(java, version.getBytes(StandardCharsets.UTF_8));
+        assertTrue(java.toFile().setExecutable(true));
+        return new LocalJavaRuntime(version, OperationSystem.getLocalSystem(), "Eclipse Adoptium", javaHome, LocalDateTime.now(), true, true);
+    }
+
+    private static File createJar(final Path tempDir, final String content) throws IOException {
+        final Path jar = tempDir.resolve("openwebstart.jar");
+        Files.write(jar, content.getBytes(StandardCharsets.UTF_8));
+        return jar.toFile();
+    }
+}
@@ -0,0 +1,43 @@
+package com.openwebstart.jvm;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.net.URL;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class HostThroughputStoreTest {
+
+    private static final long MB = 1024 * 1024;
+
+    @Test
+    void rememberThroughputOfHost(@TempDir final Path cacheDir) throws Exception {
+        //given
+        new HostThroughputStore(cacheDir).record(new URL("https://mirror.example.com/jdk1.zip"), 10 * MB, TimeUnit.SECONDS.toNanos(2));
+
+        //when
+        final HostThroughputStore store = new HostThroughputStore(cacheDir);
+
+        //than
+        assertEquals(5 * MB, store.getThroughput(new URL("https://mirror.example.com/jdk2.zip")));
+        assertEquals(0, store.getThroughput(new URL("https://other.example.com/jdk1.zip")));
+    }
+
+    @Test
+    void averageMeasurements(@TempDir final Path cacheDir) throws Exception {
+        //given
+        final HostThroughputStore store = new HostThroughputStore(cacheDir);
+        final URL url = new URL("https://mirror.example.com/jdk.zip");
+
+        //when
+        store.record(url, 10 * MB, TimeUnit.SECONDS.toNanos(1));
+        store.record(url, 2 * MB, TimeUnit.SECONDS.toNanos(1));
+        store.record(url, 1024, TimeUnit.SECONDS.toNanos(1));
+
+        //than
+        assertEquals(6 * MB, store.getThroughput(url));
+    }
+}
@@ -10,10 +10,12 @@ import net.sourceforge.jnlp.config.DeploymentConfiguration;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import java.io.File;
 import java.io.FileInputStream;
 import java.net.URL;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Objects;
@@ -64,6 +66,7 @@ public class LocalRuntimeManagerTest {
     public void reset() {
         RuntimeManagerConfig.setDefaultVendor(null);
         RuntimeManagerConfig.setSupportedVersionRange(null);
+        RuntimeManagerConfig.setSharedCachePath(null);
     }
 
     @Test
@@ -194,4 +197,28 @@ public class LocalRuntimeManagerTest {
         //than
         assertFalse(runtime.isPresent());
     }
+
+    @Test
+    public void checkBestActiveRuntimeFromSharedCache(@TempDir final Path sharedCacheFolder) throws Exception {
+        //given
+        final VersionString versionString = VersionString.fromString("1.8*");
+        final Path javaHome = sharedCacheFolder.resolve("1.8.220-adopt-mac");
+        Files.createDirectories(javaHome.resolve("bin"));
+        Files.createFile(javaHome.resolve("bin").resolve("java"));
+        final String cacheConfig = "{\"runtimes\": [{\"version\": \"1.8.220\", \"vendor\": \"AdoptOpenJDK\", \"javaHome\": \"" + javaHome.toUri()
+                + "\", \"active\": true, \"os\": \"MAC64\", \"managed\": true, \"lastUsage\": 1565046006408}]}";
+        FileUtils.saveFileUtf8(cacheConfig, sharedCacheFolder.resolve(RuntimeManagerConstants.JSON_STORE_FILENAME).toFile());
+
+        //when
+        RuntimeManagerConfig.setSharedCachePath(sharedCacheFolder);
+        LocalRuntimeManager.getInstance().loadRuntimes(new DeploymentConfiguration());
+        final Optional<LocalJavaRuntime> runtime = LocalRuntimeManager.getInstance().getBestActiveRuntime(versionString, ANY_VENDOR, MAC64);
+
+        //than
+        assertTrue(runtime.isPresent());
+        assertEquals(VERSION_1_8_220, runtime.get().getVersion());
+        assertEquals(javaHome, runtime.get().getJavaHome());
+        assertFalse(runtime.get().isManaged());
+        assertTrue(runtime.get().isActive());
+    }
 }
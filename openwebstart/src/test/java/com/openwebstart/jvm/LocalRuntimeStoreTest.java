@@ -0,0 +1,175 @@
+package com.openwebstart.jvm;
+
+import com.openwebstart.jvm.json.CacheStore;
+import com.openwebstart.jvm.json.CacheStoreChange;
+import com.openwebstart.jvm.json.JsonHandler;
+import com.openwebstart.jvm.runtimes.LocalJavaRuntime;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static com.openwebstart.jvm.os.OperationSystem.LINUX64;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LocalRuntimeStoreTest {
+
+    private static final LocalDateTime LAST_USAGE = LocalDateTime.of(2020, 1, 1, 12, 0);
+
+    @Test
+    void changesAreAppendedToTheJournal(@TempDir final Path cacheDir) throws IOException {
+        //given
+        final LocalRuntimeStore store = new LocalRuntimeStore(cacheDir);
+        final LocalJavaRuntime runtime11 = runtime(cacheDir, "11.0.2", LAST_USAGE);
+        final LocalJavaRuntime runtime17 = runtime(cacheDir, "17.0.1", LAST_USAGE);
+        store.save(Arrays.asList(runtime11, runtime17));
+        final byte[] snapshot = Files.readAllBytes(cacheDir.resolve(RuntimeManagerConstants.JSON_STORE_FILENAME));
+
+        //when
+        final LocalJavaRuntime usedRuntime17 = runtime(cacheDir, "17.0.1", LAST_USAGE.plusDays(1));
+        store.save(Collections.singletonList(usedRuntime17));
+
+        //than
+        final List<LocalJavaRuntime> loaded = new LocalRuntimeStore(cacheDir).load();
+        assertEquals(Collections.singletonList(usedRuntime17), loaded);
+        assertEquals(usedRuntime17.getLastUsage(), loaded.get(0).getLastUsage());
+        assertEquals(new String(snapshot, StandardCharsets.UTF_8), new String(Files.readAllBytes(cacheDir.resolve(RuntimeManagerConstants.JSON_STORE_FILENAME)), StandardCharsets.UTF_8));
+        assertFalse(new String(snapshot, StandardCharsets.UTF_8).contains("\n"));
+    }
+
+    @Test
+    void incompleteJournalEntryIsIgnored(@TempDir final Path cacheDir) throws IOException {
+        //given
+        final LocalRuntimeStore store = new LocalRuntimeStore(cacheDir);
+        final LocalJavaRuntime runtime11 = runtime(cacheDir, "11.0.2", LAST_USAGE);
+        store.save(Collections.singletonList(runtime11));
+        Files.write(cacheDir.resolve(LocalRuntimeStore.JOURNAL_FILENAME), "\n{\"put\":{\"version\":\"17".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+
+        //when
+        final LocalJavaRuntime runtime21 = runtime(cacheDir, "21.0.1", LAST_USAGE);
+        store.save(Arrays.asList(runtime11, runtime21));
+
+        //than
+        assertEquals(Arrays.asList(runtime11, runtime21), new LocalRuntimeStore(cacheDir).load());
+    }
+
+    @Test
+    void journalIsFoldedIntoSnapshot(@TempDir final Path cacheDir) throws IOException {
+        //given
+        final LocalRuntimeStore store = new LocalRuntimeStore(cacheDir);
+        final List<LocalJavaRuntime> runtimes = new ArrayList<>();
+
+        //when
+        for (int i = 0; i <= LocalRuntimeStore.MAX_JOURNAL_ENTRIES + 1; i++) {
+            runtimes.add(runtime(cacheDir, "11.0." + i, LAST_USAGE));
+            store.save(runtimes);
+        }
+
+        //than
+        final String snapshot = new String(Files.readAllBytes(cacheDir.resolve(RuntimeManagerConstants.JSON_STORE_FILENAME)), StandardCharsets.UTF_8);
+        final CacheStore cacheStore = JsonHandler.getInstance().fromJson(snapshot, CacheStore.class);
+        assertEquals(runtimes, cacheStore.getRuntimes());
+        assertEquals(runtimes, new LocalRuntimeStore(cacheDir).load());
+    }
+
+    @Test
+    void outdatedJournalIsIgnored(@TempDir final Path cacheDir) throws IOException {
+        //given
+        final LocalRuntimeStore store = new LocalRuntimeStore(cacheDir);
+        final LocalJavaRuntime runtime11 = runtime(cacheDir, "11.0.2", LAST_USAGE);
+        final LocalJavaRuntime runtime17 = runtime(cacheDir, "17.0.1", LAST_USAGE);
+        store.save(Collections.singletonList(runtime11));
+        store.save(Arrays.asList(runtime11, runtime17));
+
+        //when
+        final String snapshotWithoutJournal = JsonHandler.getInstance().toJson(new CacheStore(Collections.singletonList(runtime17)));
+        Files.write(cacheDir.resolve(RuntimeManagerConstants.JSON_STORE_FILENAME), snapshotWithoutJournal.getBytes(StandardCharsets.UTF_8));
+
+        //than
+        assertEquals(Collections.singletonList(runtime17), new LocalRuntimeStore(cacheDir).load());
+    }
+
+    @Test
+    void changesOfOtherProcessesAreMerged(@TempDir final Path cacheDir) throws IOException {
+        //given
+        final LocalRuntimeStore store = new LocalRuntimeStore(cacheDir);
+        final LocalRuntimeStore storeOfOtherProcess = new LocalRuntimeStore(cacheDir);
+        final LocalJavaRuntime runtime11 = runtime(cacheDir, "11.0.2", LAST_USAGE);
+        final LocalJavaRuntime runtime17 = runtime(cacheDir, "17.0.1", LAST_USAGE);
+        final LocalJavaRuntime runtime21 = runtime(cacheDir, "21.0.1", LAST_USAGE);
+        store.save(Collections.singletonList(runtime11));
+        storeOfOtherProcess.load();
+        storeOfOtherProcess.save(Arrays.asList(runtime11, runtime17));
+
+        //when
+        final List<CacheStoreChange> changesOfOtherProcess = store.save(Arrays.asList(runtime11, runtime21));
+
+        //than
+        assertEquals(1, changesOfOtherProcess.size());
+        assertEquals(runtime17, changesOfOtherProcess.get(0).getPut());
+        assertEquals(Arrays.asList(runtime11, runtime17, runtime21), new LocalRuntimeStore(cacheDir).load());
+    }
+
+    @Test
+    void storeIsOnlyReloadedIfModified(@TempDir final Path cacheDir) throws IOException {
+        //given
+        final LocalRuntimeStore store = new LocalRuntimeStore(cacheDir);
+        final LocalRuntimeStore storeOfOtherProcess = new LocalRuntimeStore(cacheDir);
+        final LocalJavaRuntime runtime11 = runtime(cacheDir, "11.0.2", LAST_USAGE);
+        final LocalJavaRuntime runtime17 = runtime(cacheDir, "17.0.1", LAST_USAGE);
+        store.save(Collections.singletonList(runtime11));
+        storeOfOtherProcess.load();
+
+        //when
+        final boolean modifiedBeforeSave = storeOfOtherProcess.isModified();
+        store.save(Arrays.asList(runtime11, runtime17));
+        final boolean modifiedAfterSave = storeOfOtherProcess.isModified();
+        final List<CacheStoreChange> changes = storeOfOtherProcess.reload();
+
+        //than
+        assertFalse(modifiedBeforeSave);
+        assertTrue(modifiedAfterSave);
+        assertEquals(1, changes.size());
+        assertEquals(runtime17, changes.get(0).getPut());
+        assertFalse(storeOfOtherProcess.isModified());
+        assertTrue(storeOfOtherProcess.reload().isEmpty());
+    }
+
+    @Test
+    void runtimeRemovedByOtherProcessStaysRemoved(@TempDir final Path cacheDir) throws IOException {
+        //given
+        final LocalRuntimeStore store = new LocalRuntimeStore(cacheDir);
+        final LocalRuntimeStore storeOfOtherProcess = new LocalRuntimeStore(cacheDir);
+        final LocalJavaRuntime runtime11 = runtime(cacheDir, "11.0.2", LAST_USAGE);
+        final LocalJavaRuntime runtime17 = runtime(cacheDir, "17.0.1", LAST_USAGE);
+        store.save(Arrays.asList(runtime11, runtime17));
+        storeOfOtherProcess.load();
+        storeOfOtherProcess.save(Collections.singletonList(runtime11));
+
+        //when
+        final LocalJavaRuntime usedRuntime17 = runtime(cacheDir, "17.0.1", LAST_USAGE.plusDays(1));
+        final List<CacheStoreChange> changesOfOtherProcess = store.save(Arrays.asList(runtime11, usedRuntime17));
+
+        //than
+        assertEquals(1, changesOfOtherProcess.size());
+        assertNull(changesOfOtherProcess.get(0).getPut());
+        assertEquals(usedRuntime17, changesOfOtherProcess.get(0).getRemove());
+        assertEquals(Collections.singletonList(runtime11), new LocalRuntimeStore(cacheDir).load());
+    }
+
+    private static LocalJavaRuntime runtime(final Path cacheDir, final String version, final LocalDateTime lastUsage) {
+        return new LocalJavaRuntime(version, LINUX64, "Eclipse Adoptium", cacheDir.resolve("jdk-" + version), lastUsage, true, true);
+    }
+}
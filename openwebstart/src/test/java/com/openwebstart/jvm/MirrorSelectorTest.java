@@ -0,0 +1,83 @@
+package com.openwebstart.jvm;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import spark.Spark;
+
+import java.net.ServerSocket;
+import java.net.URL;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MirrorSelectorTest {
+
+    private String baseUrl;
+
+    private static int getFreePort() {
+        final int freePort;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            socket.setReuseAddress(true);
+            freePort = socket.getLocalPort();
+        } catch (Exception e) {
+            throw new RuntimeException();
+        }
+        return freePort;
+    }
+
+    @BeforeEach
+    public void init() {
+        final int port = getFreePort();
+        Spark.port(port);
+        Spark.get("/slow", ((request, response) -> {
+            Thread.sleep(500);
+            return "archive";
+        }));
+        Spark.get("/fast", ((request, response) -> "archive"));
+        Spark.init();
+        Spark.awaitInitialization();
+        baseUrl = "http://localhost:" + port;
+    }
+
+    @AfterEach
+    public void reset() {
+        Spark.stop();
+        Spark.awaitStop();
+    }
+
+    @Test
+    void orderMirrorsByLatency(@TempDir final Path cacheDir) throws Exception {
+        //given
+        final URL slow = new URL(baseUrl + "/slow");
+        final URL missing = new URL(baseUrl + "/missing");
+        final URL fast = new URL(baseUrl + "/fast");
+
+        //when
+        final List<URL> mirrors = new MirrorSelector(new HostThroughputStore(cacheDir)).order(Arrays.asList(missing, slow, fast), OptionalLong.empty());
+
+        //than
+        assertEquals(Arrays.asList(fast, slow, missing), mirrors);
+    }
+
+    @Test
+    void preferHostWithHigherThroughput(@TempDir final Path cacheDir) throws Exception {
+        //given
+        final URL fast = new URL(baseUrl + "/fast");
+        final URL fastOnOtherHost = new URL(fast.toString().replace("localhost", "127.0.0.1"));
+        final HostThroughputStore throughputStore = new HostThroughputStore(cacheDir);
+        throughputStore.record(fast, 10 * 1024 * 1024, TimeUnit.SECONDS.toNanos(10));
+        throughputStore.record(fastOnOtherHost, 10 * 1024 * 1024, TimeUnit.SECONDS.toNanos(1));
+
+        //when
+        final List<URL> mirrors = new MirrorSelector(throughputStore).order(Arrays.asList(fast, fastOnOtherHost), OptionalLong.of(100 * 1024 * 1024));
+
+        //than
+        assertEquals(Arrays.asList(fastOnOtherHost, fast), mirrors);
+    }
+}
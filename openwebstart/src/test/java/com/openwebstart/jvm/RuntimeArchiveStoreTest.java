@@ -0,0 +1,152 @@
+package com.openwebstart.jvm;
+
+import com.openwebstart.jvm.os.OperationSystem;
+import com.openwebstart.jvm.runtimes.RemoteJavaRuntime;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RuntimeArchiveStoreTest {
+
+    private static final String SHA_1 = "1111111111111111111111111111111111111111111111111111111111111111";
+    private static final String SHA_2 = "2222222222222222222222222222222222222222222222222222222222222222";
+    private static final String SHA_3 = "3333333333333333333333333333333333333333333333333333333333333333";
+
+    private static final String VALIDATOR = "\"v1\"";
+
+    @Test
+    void findByHref(@TempDir final Path tempDir) throws IOException {
+        //given
+        final RuntimeArchiveStore store = new RuntimeArchiveStore(tempDir.resolve("archives"), 1024);
+        final RemoteJavaRuntime runtime = runtime("http://localhost/jdk1.zip", null, -1);
+
+        //when
+        store.add(runtime, archive(tempDir, "jdk1.part", 100), SHA_1, VALIDATOR);
+        final Optional<Path> archive = store.find(runtime, VALIDATOR);
+
+        //than
+        assertTrue(archive.isPresent());
+        assertEquals(SHA_1, archive.get().getFileName().toString());
+        assertFalse(Files.exists(tempDir.resolve("jdk1.part")));
+    }
+
+    @Test
+    void findByPublishedChecksum(@TempDir final Path tempDir) throws IOException {
+        //given
+        final RuntimeArchiveStore store = new RuntimeArchiveStore(tempDir.resolve("archives"), 1024);
+        store.add(runtime("http://localhost/jdk1.zip", null, -1), archive(tempDir, "jdk1.part", 100), SHA_1, VALIDATOR);
+
+        //when
+        final Optional<Path> sameContent = store.find(runtime("http://mirror/jdk1.zip", SHA_1, 100), VALIDATOR);
+        final Optional<Path> otherSize = store.find(runtime("http://mirror/jdk1.zip", SHA_1, 101), VALIDATOR);
+
+        //than
+        assertTrue(sameContent.isPresent());
+        assertFalse(otherSize.isPresent());
+    }
+
+    @Test
+    void republishedArchiveIsNotFoundWithoutChecksumOrSize(@TempDir final Path tempDir) throws IOException {
+        //given
+        final RuntimeArchiveStore store = new RuntimeArchiveStore(tempDir.resolve("archives"), 1024);
+        final RemoteJavaRuntime runtime = runtime("http://localhost/jdk1.zip", null, -1);
+        store.add(runtime, archive(tempDir, "jdk1.part", 100), SHA_1, VALIDATOR);
+
+        //when
+        final Optional<Path> sameArchive = store.find(runtime, VALIDATOR);
+        final Optional<Path> republishedArchive = store.find(runtime, "\"v2\"");
+        final Optional<Path> unknownArchive = store.find(runtime, null);
+
+        //than
+        assertTrue(sameArchive.isPresent());
+        assertFalse(republishedArchive.isPresent());
+        assertFalse(unknownArchive.isPresent());
+    }
+
+    @Test
+    void archiveWithoutChecksumSizeOrValidatorIsNotStored(@TempDir final Path tempDir) throws IOException {
+        //given
+        final RuntimeArchiveStore store = new RuntimeArchiveStore(tempDir.resolve("archives"), 1024);
+        final RemoteJavaRuntime runtime = runtime("http://localhost/jdk1.zip", null, -1);
+
+        //when
+        store.add(runtime, archive(tempDir, "jdk1.part", 100), SHA_1, null);
+
+        //than
+        assertFalse(Files.exists(tempDir.resolve("archives").resolve(SHA_1)));
+        assertTrue(Files.exists(tempDir.resolve("jdk1.part")));
+    }
+
+    @Test
+    void evictLeastRecentlyUsed(@TempDir final Path tempDir) throws IOException {
+        //given
+        final RuntimeArchiveStore store = new RuntimeArchiveStore(tempDir.resolve("archives"), 250);
+        final RemoteJavaRuntime runtime1 = runtime("http://localhost/jdk1.zip", null, -1);
+        final RemoteJavaRuntime runtime2 = runtime("http://localhost/jdk2.zip", null, -1);
+        final RemoteJavaRuntime runtime3 = runtime("http://localhost/jdk3.zip", null, -1);
+        store.add(runtime1, archive(tempDir, "jdk1.part", 100), SHA_1, VALIDATOR);
+        store.add(runtime2, archive(tempDir, "jdk2.part", 100), SHA_2, VALIDATOR);
+        Files.setLastModifiedTime(tempDir.resolve("archives").resolve(SHA_1), FileTime.fromMillis(2_000));
+        Files.setLastModifiedTime(tempDir.resolve("archives").resolve(SHA_2), FileTime.fromMillis(1_000));
+
+        //when
+        store.add(runtime3, archive(tempDir, "jdk3.part", 100), SHA_3, VALIDATOR);
+
+        //than
+        assertTrue(store.find(runtime1, VALIDATOR).isPresent());
+        assertFalse(store.find(runtime2, VALIDATOR).isPresent());
+        assertFalse(store.getSha256(runtime2, VALIDATOR).isPresent());
+        assertTrue(store.find(runtime3, VALIDATOR).isPresent());
+    }
+
+    @Test
+    void disabledStore(@TempDir final Path tempDir) throws IOException {
+        //given
+        final RuntimeArchiveStore store = new RuntimeArchiveStore(tempDir.resolve("archives"), 0);
+        final RemoteJavaRuntime runtime = runtime("http://localhost/jdk1.zip", null, -1);
+
+        //when
+        store.add(runtime, archive(tempDir, "jdk1.part", 100), SHA_1, VALIDATOR);
+
+        //than
+        assertFalse(store.find(runtime, VALIDATOR).isPresent());
+    }
+
+    @Test
+    void checksumIsNotUsedAsPath(@TempDir final Path tempDir) throws IOException {
+        //given
+        final Path storeDir = tempDir.resolve("archives");
+        final RuntimeArchiveStore store = new RuntimeArchiveStore(storeDir, 1024);
+        final Path victim = archive(tempDir, "victim", 100);
+        Files.createDirectories(storeDir);
+        Files.write(storeDir.resolve("index.properties"), "http\\://localhost/jdk2.zip=../victim\n".getBytes(StandardCharsets.ISO_8859_1));
+
+        //when
+        final Optional<Path> byPublishedChecksum = store.find(runtime("http://localhost/jdk1.zip", "../victim", 100), VALIDATOR);
+        final Optional<Path> byIndex = store.find(runtime("http://localhost/jdk2.zip", null, 100), VALIDATOR);
+
+        //than
+        assertFalse(byPublishedChecksum.isPresent());
+        assertFalse(byIndex.isPresent());
+        assertFalse(store.getSha256(runtime("http://localhost/jdk2.zip", null, 100), VALIDATOR).isPresent());
+        assertTrue(Files.exists(victim));
+    }
+
+    private static RemoteJavaRuntime runtime(final String href, final String sha256, final long size) {
+        return new RemoteJavaRuntime("11.0.1", OperationSystem.LINUX64, "AdoptOpenJDK", href, sha256, size);
+    }
+
+    private static Path archive(final Path dir, final String name, final int size) throws IOException {
+        return Files.write(dir.resolve(name), new byte[size]);
+    }
+}
@@ -0,0 +1,121 @@
+package com.openwebstart.jvm;
+
+import net.adoptopenjdk.icedteaweb.io.FileUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RuntimeDeduplicatorTest {
+
+    private static final int FILE_SIZE = (int) RuntimeDeduplicator.MIN_FILE_SIZE * 2;
+
+    @Test
+    void linkIdenticalFiles(@TempDir final Path cacheDir) throws IOException {
+        //given
+        final Path runtime1 = cacheDir.resolve("runtime1");
+        final Path runtime2 = cacheDir.resolve("runtime2");
+        createFile(runtime1.resolve("lib/rt.jar"), 1);
+        createFile(runtime2.resolve("lib/rt.jar"), 1);
+        createFile(runtime1.resolve("lib/modules"), 2);
+        createFile(runtime2.resolve("lib/modules"), 3);
+
+        //when
+        final long savedBytes = new RuntimeDeduplicator(cacheDir).deduplicate(Arrays.asList(runtime1, runtime2));
+
+        //than
+        assertEquals(FILE_SIZE, savedBytes);
+        assertTrue(Files.isSameFile(runtime1.resolve("lib/rt.jar"), runtime2.resolve("lib/rt.jar")));
+        assertFalse(Files.isSameFile(runtime1.resolve("lib/modules"), runtime2.resolve("lib/modules")));
+        assertTrue(Files.isRegularFile(cacheDir.resolve(RuntimeDeduplicator.INDEX_FILENAME)));
+    }
+
+    @Test
+    void secondPassKeepsLinks(@TempDir final Path cacheDir) throws IOException {
+        //given
+        final Path runtime1 = cacheDir.resolve("runtime1");
+        final Path runtime2 = cacheDir.resolve("runtime2");
+        createFile(runtime1.resolve("lib/rt.jar"), 1);
+        createFile(runtime2.resolve("lib/rt.jar"), 1);
+        new RuntimeDeduplicator(cacheDir).deduplicate(Arrays.asList(runtime1, runtime2));
+
+        //when
+        final long savedBytes = new RuntimeDeduplicator(cacheDir).deduplicate(Arrays.asList(runtime1, runtime2));
+
+        //than
+        assertEquals(FILE_SIZE, savedBytes);
+        assertTrue(Files.isSameFile(runtime1.resolve("lib/rt.jar"), runtime2.resolve("lib/rt.jar")));
+    }
+
+    @Test
+    void removeLinkedRuntime(@TempDir final Path cacheDir) throws IOException {
+        //given
+        final Path runtime1 = cacheDir.resolve("runtime1");
+        final Path runtime2 = cacheDir.resolve("runtime2");
+        createFile(runtime1.resolve("lib/rt.jar"), 1);
+        createFile(runtime2.resolve("lib/rt.jar"), 1);
+        new RuntimeDeduplicator(cacheDir).deduplicate(Arrays.asList(runtime1, runtime2));
+
+        //when
+        FileUtils.recursiveDelete(runtime1.toFile(), cacheDir.toFile());
+
+        //than
+        assertArrayEquals(content(1), Files.readAllBytes(runtime2.resolve("lib/rt.jar")));
+    }
+
+    @Test
+    void skipFilesRemovedDuringDeduplication(@TempDir final Path cacheDir) throws IOException {
+        //given
+        final Path runtime1 = cacheDir.resolve("runtime1");
+        final Path runtime2 = cacheDir.resolve("runtime2");
+        final Path runtime3 = cacheDir.resolve("runtime3");
+        createFile(runtime1.resolve("lib/rt.jar"), 1);
+        createFile(runtime2.resolve("lib/rt.jar"), 1);
+        createFile(runtime3.resolve("lib/rt.jar"), 1);
+        final RuntimeDeduplicator deduplicator = new RuntimeDeduplicator(cacheDir) {
+            @Override
+            String getSha256(final Path file, final BasicFileAttributes attributes, final Properties index) throws IOException {
+                if (file.startsWith(runtime2)) {
+                    // another process removes the runtime
+                    FileUtils.recursiveDelete(runtime2.toFile(), cacheDir.toFile());
+                }
+                return super.getSha256(file, attributes, index);
+            }
+        };
+
+        //when
+        final long savedBytes = deduplicator.deduplicate(Arrays.asList(runtime1, runtime2, runtime3));
+
+        //than
+        assertEquals(FILE_SIZE, savedBytes);
+        assertTrue(Files.isSameFile(runtime1.resolve("lib/rt.jar"), runtime3.resolve("lib/rt.jar")));
+        final Properties index = new Properties();
+        try (final InputStream inputStream = Files.newInputStream(cacheDir.resolve(RuntimeDeduplicator.INDEX_FILENAME))) {
+            index.load(inputStream);
+        }
+        assertEquals(new HashSet<>(Arrays.asList("runtime1/lib/rt.jar", "runtime3/lib/rt.jar")), index.keySet());
+    }
+
+    private static void createFile(final Path file, final int seed) throws IOException {
+        Files.createDirectories(file.getParent());
+        Files.write(file, content(seed));
+    }
+
+    private static byte[] content(final int seed) {
+        final byte[] content = new byte[FILE_SIZE];
+        Arrays.fill(content, (byte) seed);
+        return content;
+    }
+}
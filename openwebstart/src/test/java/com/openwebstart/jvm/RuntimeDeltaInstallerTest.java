@@ -0,0 +1,97 @@
+package com.openwebstart.jvm;
+
+import com.openwebstart.http.DownloadVerificationException;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RuntimeDeltaInstallerTest {
+
+    private static final byte[] JAVA = "java 17.0.8".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] MODULES = "modules 17.0.8".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] MODULES_PATCHED = "modules 17.0.9".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] RELEASE = "JAVA_VERSION=\"17.0.9\"".getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    void createRuntimeFromBase(@TempDir final Path tempDir) throws Exception {
+        //given
+        final Path base = createBase(tempDir);
+        final Map<String, byte[]> patch = new LinkedHashMap<>();
+        patch.put("lib/modules", MODULES_PATCHED);
+        patch.put("release", RELEASE);
+        final Path archive = createPatch(tempDir, patch, manifest(JAVA, MODULES_PATCHED, RELEASE));
+        final Path target = tempDir.resolve("jdk-17.0.9");
+
+        //when
+        new RuntimeDeltaInstaller(base, 2).install(archive, target);
+
+        //than
+        assertArrayEquals(JAVA, Files.readAllBytes(target.resolve("bin/java")));
+        assertArrayEquals(MODULES_PATCHED, Files.readAllBytes(target.resolve("lib/modules")));
+        assertArrayEquals(RELEASE, Files.readAllBytes(target.resolve("release")));
+        assertArrayEquals(MODULES, Files.readAllBytes(base.resolve("lib/modules")));
+        assertFalse(Files.exists(target.resolve(RuntimeDeltaInstaller.MANIFEST_FILENAME)));
+    }
+
+    @Test
+    void failOnChecksumMismatch(@TempDir final Path tempDir) throws Exception {
+        //given
+        final Path base = createBase(tempDir);
+        final Map<String, byte[]> patch = new LinkedHashMap<>();
+        patch.put("lib/modules", MODULES_PATCHED);
+        // the manifest expects another bin/java than the one of the base runtime
+        final Path archive = createPatch(tempDir, patch, manifest(RELEASE, MODULES_PATCHED, RELEASE));
+        final Path target = tempDir.resolve("jdk-17.0.9");
+
+        //than
+        assertThrows(DownloadVerificationException.class, () -> new RuntimeDeltaInstaller(base, 2).install(archive, target));
+    }
+
+    private static Path createBase(final Path tempDir) throws IOException {
+        final Path base = tempDir.resolve("jdk-17.0.8");
+        Files.createDirectories(base.resolve("bin"));
+        Files.createDirectories(base.resolve("lib"));
+        Files.write(base.resolve("bin/java"), JAVA);
+        Files.write(base.resolve("lib/modules"), MODULES);
+        return base;
+    }
+
+    private static String manifest(final byte[] java, final byte[] modules, final byte[] release) throws NoSuchAlgorithmException {
+        return sha256(java) + "  bin/java\n" + sha256(modules) + "  lib/modules\n" + sha256(release) + "  release\n";
+    }
+
+    private static Path createPatch(final Path tempDir, final Map<String, byte[]> files, final String manifest) throws IOException {
+        final Path archive = tempDir.resolve("patch.zip");
+        try (final ZipArchiveOutputStream outputStream = new ZipArchiveOutputStream(Files.newOutputStream(archive))) {
+            files.put(RuntimeDeltaInstaller.MANIFEST_FILENAME, manifest.getBytes(StandardCharsets.UTF_8));
+            for (final Map.Entry<String, byte[]> file : files.entrySet()) {
+                outputStream.putArchiveEntry(new ZipArchiveEntry(file.getKey()));
+                outputStream.write(file.getValue());
+                outputStream.closeArchiveEntry();
+            }
+        }
+        return archive;
+    }
+
+    private static String sha256(final byte[] content) throws NoSuchAlgorithmException {
+        final StringBuilder result = new StringBuilder();
+        for (final byte b : MessageDigest.getInstance("SHA-256").digest(content)) {
+            result.append(String.format("%02x", b));
+        }
+        return result.toString();
+    }
+}
@@ -0,0 +1,69 @@
+package com.openwebstart.jvm;
+
+import net.adoptopenjdk.icedteaweb.io.IOUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RuntimeInstallLockTest {
+
+    @Test
+    void lockIsExclusive(@TempDir final Path lockDir) throws Exception {
+        //given
+        final RuntimeInstallLock first = new RuntimeInstallLock(lockDir, "Eclipse_11.0.1_x64");
+        final RuntimeInstallLock second = new RuntimeInstallLock(lockDir, "Eclipse_11.0.1_x64");
+        final RuntimeInstallLock other = new RuntimeInstallLock(lockDir, "Eclipse_11.0.2_x64");
+
+        //when
+        final boolean firstLocked = first.tryLock();
+        final boolean secondLocked = second.tryLock();
+        final boolean otherLocked = other.tryLock();
+        first.close();
+        final boolean secondLockedAfterRelease = second.tryLock();
+
+        //than
+        assertTrue(firstLocked);
+        assertFalse(secondLocked);
+        assertTrue(otherLocked);
+        assertTrue(secondLockedAfterRelease);
+        second.close();
+        other.close();
+    }
+
+    @Test
+    void followProgressUntilLockIsReleased(@TempDir final Path lockDir) throws Exception {
+        //given
+        final RuntimeInstallLock leader = new RuntimeInstallLock(lockDir, "Eclipse_11.0.1_x64");
+        final RuntimeInstallLock follower = new RuntimeInstallLock(lockDir, "Eclipse_11.0.1_x64");
+        assertTrue(leader.tryLock());
+
+        //when
+        final CompletableFuture<Integer> followed = CompletableFuture.supplyAsync(() -> {
+            try (final InputStream inputStream = follower.awaitLock()) {
+                final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+                IOUtils.copy(inputStream, outputStream);
+                return outputStream.size();
+            } catch (final Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+        leader.publishProgress(1000);
+        Thread.sleep(600);
+        leader.close();
+        final int followedBytes = followed.get(5, TimeUnit.SECONDS);
+
+        //than
+        assertEquals(1000, followedBytes);
+        assertTrue(follower.isHeld());
+        follower.close();
+    }
+}
@@ -9,7 +9,10 @@ import org.junit.jupiter.api.Test;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.LocalDateTime;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
+import java.util.OptionalLong;
 import java.util.concurrent.CopyOnWriteArrayList;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -123,6 +126,118 @@ public class JsonHandlerTest {
         assertEquals(runtime.getHref(), runtimecopy.getHref());
     }
 
+    // This will verify the optional checksum and size of a RemoteJavaRuntime are converted
+    @Test
+    void CheckConversionWithChecksum() {
+        final String theOneAndOnlyJdkZip = "http://localhost:8090/jvms/jdk.zip";
+        final String sha256 = "0123456789abcdef0123456789abcdef0123456789abcdef0123456789abcdef";
+        final RemoteJavaRuntime runtime = new RemoteJavaRuntime("1.8.145", OperationSystem.ARM32, "adopt", theOneAndOnlyJdkZip, sha256, 4711);
+
+        //when
+        final String handler = JsonHandler.getInstance().toJson(runtime);
+        final RemoteJavaRuntime runtimecopy = JsonHandler.getInstance().fromJson(handler, RemoteJavaRuntime.class);
+        final RemoteJavaRuntime runtimeWithoutChecksum = JsonHandler.getInstance().fromJson(
+                "{\"version\":\"1.8.145\",\"vendor\":\"adopt\",\"os\":\"ARM32\",\"href\":\"" + theOneAndOnlyJdkZip + "\"}", RemoteJavaRuntime.class);
+
+        //then
+        assertEquals(Optional.of(sha256), runtimecopy.getSha256());
+        assertEquals(OptionalLong.of(4711), runtimecopy.getSize());
+        assertEquals(Optional.empty(), runtimeWithoutChecksum.getSha256());
+        assertEquals(OptionalLong.empty(), runtimeWithoutChecksum.getSize());
+    }
+
+    // This will verify that a blank or malformed checksum is handled as unknown
+    @Test
+    void CheckConversionWithInvalidChecksum() {
+        //given
+        final String jsonWithBlankChecksum = "{\"version\":\"11.0.6\",\"vendor\":\"adopt\",\"os\":\"WIN64\",\"href\":\"http://localhost/jdk.zip\",\"sha256\":\" \"}";
+        final String jsonWithMalformedChecksum = "{\"version\":\"11.0.6\",\"vendor\":\"adopt\",\"os\":\"WIN64\",\"href\":\"http://localhost/jdk.zip\",\"sha256\":\"0123\","
+                + "\"deltas\":[{\"baseVersion\":\"11.0.5\",\"href\":\"http://localhost/jdk-11.0.5-11.0.6.zip\",\"sha256\":\"\"}]}";
+
+        //when
+        final RemoteJavaRuntime runtimeWithBlankChecksum = JsonHandler.getInstance().fromJson(jsonWithBlankChecksum, RemoteJavaRuntime.class);
+        final RemoteJavaRuntime runtimeWithMalformedChecksum = JsonHandler.getInstance().fromJson(jsonWithMalformedChecksum, RemoteJavaRuntime.class);
+
+        //then
+        assertEquals(Optional.empty(), runtimeWithBlankChecksum.getSha256());
+        assertEquals(Optional.empty(), runtimeWithMalformedChecksum.getSha256());
+        assertEquals(Optional.empty(), runtimeWithMalformedChecksum.getDeltas().get(0).getSha256());
+    }
+
+    // This will verify the smallest archive of a supported format is selected
+    @Test
+    void CheckConversionWithAlternatives() {
+        //given
+        final String json = "{\"version\":\"11.0.6\",\"vendor\":\"adopt\",\"os\":\"WIN64\",\"href\":\"http://localhost/jdk.tar.gz\",\"size\":100,"
+                + "\"alternatives\":[{\"href\":\"http://localhost/jdk.zip\",\"sha256\":\"0123456789abcdef0123456789abcdef0123456789abcdef0123456789abcdef\",\"size\":80},"
+                + "{\"href\":\"http://localhost/jdk.7z\",\"size\":10}]}";
+        final String jsonWithoutSizes = "{\"version\":\"11.0.6\",\"vendor\":\"adopt\",\"os\":\"WIN64\",\"href\":\"http://localhost/jdk.tar.gz\","
+                + "\"alternatives\":[{\"href\":\"http://localhost/jdk.zip\"}]}";
+
+        //when
+        final RemoteJavaRuntime runtime = JsonHandler.getInstance().fromJson(json, RemoteJavaRuntime.class);
+        final RemoteJavaRuntime runtimeWithoutSizes = JsonHandler.getInstance().fromJson(jsonWithoutSizes, RemoteJavaRuntime.class);
+
+        //then
+        assertEquals("http://localhost/jdk.zip", runtime.getHref());
+        assertEquals(Optional.of("0123456789abcdef0123456789abcdef0123456789abcdef0123456789abcdef"), runtime.getSha256());
+        assertEquals(OptionalLong.of(80), runtime.getSize());
+        assertEquals("http://localhost/jdk.tar.gz", runtimeWithoutSizes.getHref());
+    }
+
+    // This will verify that a default archive without a known extension is kept
+    @Test
+    void CheckConversionWithAlternativesAndRedirectingDefault() {
+        //given
+        final String json = "{\"version\":\"11.0.6\",\"vendor\":\"adopt\",\"os\":\"WIN64\",\"href\":\"http://localhost/download?id=4711\","
+                + "\"alternatives\":[{\"href\":\"http://localhost/jdk.zip\"}]}";
+        final String jsonWithUnsupportedDefault = "{\"version\":\"11.0.6\",\"vendor\":\"adopt\",\"os\":\"WIN64\",\"href\":\"http://localhost/jdk.7z\",\"size\":10,"
+                + "\"alternatives\":[{\"href\":\"http://localhost/jdk.zip\",\"size\":80}]}";
+
+        //when
+        final RemoteJavaRuntime runtime = JsonHandler.getInstance().fromJson(json, RemoteJavaRuntime.class);
+        final RemoteJavaRuntime runtimeWithUnsupportedDefault = JsonHandler.getInstance().fromJson(jsonWithUnsupportedDefault, RemoteJavaRuntime.class);
+
+        //then
+        assertEquals("http://localhost/download?id=4711", runtime.getHref());
+        assertEquals("http://localhost/jdk.zip", runtimeWithUnsupportedDefault.getHref());
+    }
+
+    @Test
+    void CheckConversionWithMirrors() {
+        //given
+        final String json = "{\"version\":\"17.0.9\",\"vendor\":\"adopt\",\"os\":\"LINUX64\",\"href\":\"http://internal/jdk.zip\","
+                + "\"mirrors\":[\"http://mirror1/jdk.zip\",\"http://mirror2/jdk.zip\"]}";
+
+        //when
+        final RemoteJavaRuntime runtime = JsonHandler.getInstance().fromJson(json, RemoteJavaRuntime.class);
+        final RemoteJavaRuntime copy = JsonHandler.getInstance().fromJson(JsonHandler.getInstance().toJson(runtime), RemoteJavaRuntime.class);
+
+        //then
+        assertEquals(Arrays.asList("http://mirror1/jdk.zip", "http://mirror2/jdk.zip"), runtime.getMirrors());
+        assertEquals(runtime.getMirrors(), copy.getMirrors());
+    }
+
+    @Test
+    void CheckConversionWithDeltas() {
+        //given
+        final String json = "{\"version\":\"17.0.9\",\"vendor\":\"adopt\",\"os\":\"LINUX64\",\"href\":\"http://localhost/jdk.zip\","
+                + "\"deltas\":[{\"baseVersion\":\"17.0.8\",\"href\":\"http://localhost/jdk-17.0.8-17.0.9.zip\",\"sha256\":\"0123456789abcdef0123456789abcdef0123456789abcdef0123456789abcdef\",\"size\":80}]}";
+
+        //when
+        final RemoteJavaRuntime runtime = JsonHandler.getInstance().fromJson(json, RemoteJavaRuntime.class);
+        final RemoteJavaRuntime copy = JsonHandler.getInstance().fromJson(JsonHandler.getInstance().toJson(runtime), RemoteJavaRuntime.class);
+
+        //then
+        assertEquals(1, runtime.getDeltas().size());
+        assertEquals("17.0.8", runtime.getDeltas().get(0).getBaseVersion().toString());
+        assertEquals("http://localhost/jdk-17.0.8-17.0.9.zip", runtime.getDeltas().get(0).getHref());
+        assertEquals(Optional.of("0123456789abcdef0123456789abcdef0123456789abcdef0123456789abcdef"), runtime.getDeltas().get(0).getSha256());
+        assertEquals(OptionalLong.of(80), runtime.getDeltas().get(0).getSize());
+        assertEquals(1, copy.getDeltas().size());
+        assertEquals(runtime.getDeltas().get(0).getHref(), copy.getDeltas().get(0).getHref());
+    }
+
     // This will verify the RemoteRuntimeList class is getting converted to json object
     @Test
     void CheckConversion3() {
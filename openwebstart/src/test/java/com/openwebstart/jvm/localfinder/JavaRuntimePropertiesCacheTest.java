@@ -0,0 +1,71 @@
+package com.openwebstart.jvm.localfinder;
+
+import com.openwebstart.jvm.util.JavaRuntimePropertiesDetector.JavaRuntimeProperties;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JavaRuntimePropertiesCacheTest {
+
+    @Test
+    void unchangedJvmIsNotProbedAgain(@TempDir final Path tempDir) throws IOException {
+        //given
+        final Path javaHome = createJavaHome(tempDir);
+        final AtomicInteger probes = new AtomicInteger();
+        final JavaRuntimePropertiesCache cache = new JavaRuntimePropertiesCache(tempDir, countingDetector(probes));
+        cache.getProperties(javaHome);
+        cache.save();
+
+        //when
+        final JavaRuntimeProperties properties = new JavaRuntimePropertiesCache(tempDir, countingDetector(probes)).getProperties(javaHome);
+
+        //than
+        assertEquals(1, probes.get());
+        assertEquals("17.0.8", properties.getVersion());
+        assertEquals("Eclipse Adoptium", properties.getVendor());
+        assertEquals("64", properties.getBitness());
+    }
+
+    @Test
+    void changedJvmIsProbedAgain(@TempDir final Path tempDir) throws IOException {
+        //given
+        final Path javaHome = createJavaHome(tempDir);
+        final AtomicInteger probes = new AtomicInteger();
+        final JavaRuntimePropertiesCache cache = new JavaRuntimePropertiesCache(tempDir, countingDetector(probes));
+        cache.getProperties(javaHome);
+        cache.save();
+
+        //when
+        final Path java = javaHome.resolve("bin").resolve("java");
+        Files.setLastModifiedTime(java, FileTime.fromMillis(Files.getLastModifiedTime(java).toMillis() - 60_000));
+        new JavaRuntimePropertiesCache(tempDir, countingDetector(probes)).getProperties(javaHome);
+
+        //than
+        assertEquals(2, probes.get());
+    }
+
+    private static Function<Path, JavaRuntimeProperties> countingDetector(final AtomicInteger probes) {
+        return javaHome -> {
+            probes.incrementAndGet();
+            return new JavaRuntimeProperties("Eclipse Adoptium", "17.0.8", "Linux", "amd64", "64");
+        };
+    }
+
+    private static Path createJavaHome(final Path tempDir) throws IOException {
+        final Path javaHome = tempDir.resolve("jdk-17.0.8");
+        final Path java = javaHome.resolve("bin").resolve("java");
+        Files.createDirectories(java.getParent());
+        Files.write(java, new byte[]{1, 2, 3});
+        assertTrue(java.toFile().setExecutable(true));
+        return javaHome;
+    }
+}
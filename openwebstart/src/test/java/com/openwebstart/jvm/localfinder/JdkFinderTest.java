@@ -2,7 +2,16 @@ package com.openwebstart.jvm.localfinder;
 
 import net.sourceforge.jnlp.config.DeploymentConfiguration;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 
 /**
@@ -14,4 +23,29 @@ class JdkFinderTest {
     void shouldNotThrowAnException() {
         assertNotNull(JdkFinder.findLocalRuntimes(new DeploymentConfiguration()));
     }
+
+    @Test
+    void shouldNotSearchInsideOfJavaHomesAndPrunedFolders(@TempDir final Path tempDir) throws IOException {
+        //given
+        final Path root = tempDir.toAbsolutePath().normalize();
+        final Path jdk17 = createJavaHome(root.resolve("jdk-17"));
+        createJavaHome(jdk17.resolve("lib").resolve("fake"));
+        final Path jdk8 = createJavaHome(root.resolve("jdk-8"));
+        final Path jre8 = createJavaHome(jdk8.resolve("jre"));
+        final Path sdkManJava = createJavaHome(root.resolve(".sdkman").resolve("candidates").resolve("java").resolve("17"));
+        createJavaHome(root.resolve(".sdkman").resolve("candidates").resolve("gradle").resolve("8"));
+        createJavaHome(root.resolve(".sdkman").resolve("tmp").resolve("jdk"));
+
+        //when
+        final List<Path> javaHomes = JdkFinder.findJavaHomes(root);
+
+        //than
+        assertEquals(new HashSet<>(Arrays.asList(jdk17, jdk8, jre8, sdkManJava)), new HashSet<>(javaHomes));
+    }
+
+    private static Path createJavaHome(final Path javaHome) throws IOException {
+        Files.createDirectories(javaHome.resolve("bin"));
+        Files.write(javaHome.resolve("bin").resolve("java"), new byte[]{1});
+        return javaHome;
+    }
 }
@@ -0,0 +1,101 @@
+package com.openwebstart.jvm.localfinder;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SearchRootFingerprintsTest {
+
+    @Test
+    void unchangedSearchRootIsDetectedAfterRestart(@TempDir final Path tempDir) throws IOException {
+        //given
+        final Path cacheDir = Files.createDirectory(tempDir.resolve("cache"));
+        final Path searchRoot = Files.createDirectories(tempDir.resolve("jvm").resolve("vendor"));
+        createJavaHome(searchRoot.resolve("jdk-17"));
+        record(cacheDir, searchRoot.getParent());
+
+        //when
+        final boolean unchanged = new SearchRootFingerprints(cacheDir).isUnchanged(searchRoot.getParent());
+
+        //than
+        assertTrue(unchanged);
+    }
+
+    @Test
+    void installedJvmChangesFingerprint(@TempDir final Path tempDir) throws IOException {
+        //given
+        final Path cacheDir = Files.createDirectory(tempDir.resolve("cache"));
+        final Path searchRoot = Files.createDirectories(tempDir.resolve("jvm"));
+        final Path vendorFolder = Files.createDirectory(searchRoot.resolve("vendor"));
+        final List<Path> javaHomes = record(cacheDir, searchRoot);
+
+        //when
+        createJavaHome(vendorFolder.resolve("jdk-17"));
+        Files.setLastModifiedTime(vendorFolder, FileTime.fromMillis(Files.getLastModifiedTime(vendorFolder).toMillis() + 60_000));
+
+        //than
+        assertEquals(Collections.emptyList(), javaHomes);
+        assertFalse(new SearchRootFingerprints(cacheDir).isUnchanged(searchRoot));
+    }
+
+    @Test
+    void updatedJvmChangesFingerprint(@TempDir final Path tempDir) throws IOException {
+        //given
+        final Path cacheDir = Files.createDirectory(tempDir.resolve("cache"));
+        final Path searchRoot = Files.createDirectories(tempDir.resolve("jvm"));
+        final Path javaHome = searchRoot.resolve("temurin-17.jdk");
+        createJavaHome(javaHome);
+        final Path release = Files.write(javaHome.resolve("release"), "JAVA_VERSION=\"17.0.1\"".getBytes(StandardCharsets.UTF_8));
+        final FileTime searchRootLastModified = Files.getLastModifiedTime(searchRoot);
+        record(cacheDir, searchRoot);
+
+        //when
+        Files.write(release, "JAVA_VERSION=\"17.0.10\"".getBytes(StandardCharsets.UTF_8));
+        Files.setLastModifiedTime(searchRoot, searchRootLastModified);
+
+        //than
+        assertFalse(new SearchRootFingerprints(cacheDir).isUnchanged(searchRoot));
+    }
+
+    @Test
+    void createdSearchRootChangesFingerprint(@TempDir final Path tempDir) throws IOException {
+        //given
+        final Path cacheDir = Files.createDirectory(tempDir.resolve("cache"));
+        final Path searchRoot = tempDir.resolve("jvm");
+        record(cacheDir, searchRoot);
+
+        //when
+        Files.createDirectory(searchRoot);
+
+        //than
+        assertFalse(new SearchRootFingerprints(cacheDir).isUnchanged(searchRoot));
+    }
+
+    private static List<Path> record(final Path cacheDir, final Path searchRoot) {
+        final Map<Path, FileTime> folders = new HashMap<>();
+        final List<Path> javaHomes = JdkFinder.findJavaHomes(searchRoot, JdkFinder.MAX_SEARCH_DEPTH, folders);
+        final SearchRootFingerprints fingerprints = new SearchRootFingerprints(cacheDir);
+        fingerprints.record(searchRoot, folders, javaHomes);
+        fingerprints.save();
+        return javaHomes;
+    }
+
+    private static void createJavaHome(final Path javaHome) throws IOException {
+        final Path java = javaHome.resolve("bin").resolve("java");
+        Files.createDirectories(java.getParent());
+        Files.write(java, new byte[]{1, 2, 3});
+    }
+}
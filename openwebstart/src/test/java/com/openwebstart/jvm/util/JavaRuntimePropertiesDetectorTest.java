@@ -1,15 +1,23 @@
 package com.openwebstart.jvm.util;
 
+import com.openwebstart.jvm.runtimes.Vendor;
 import com.openwebstart.jvm.util.JavaRuntimePropertiesDetector.JavaRuntimeProperties;
 import net.adoptopenjdk.icedteaweb.JavaSystemProperties;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.FileSystems;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Optional;
 
 import static com.openwebstart.jvm.os.OperationSystem.OS_BITNESS;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class JavaRuntimePropertiesDetectorTest {
 
@@ -20,10 +28,56 @@ class JavaRuntimePropertiesDetectorTest {
         final JavaRuntimeProperties result = JavaRuntimePropertiesDetector.getProperties(home);
 
         assertNotNull(result);
-        assertEquals(JavaSystemProperties.getJavaVendor(), result.getVendor());
+        // the implementor of the release file might be another name of the vendor
+        assertEquals(Vendor.fromString(JavaSystemProperties.getJavaVendor()), Vendor.fromString(result.getVendor()));
         assertEquals(JavaSystemProperties.getJavaVersion(), result.getVersion());
         assertEquals(JavaSystemProperties.getOsName(), result.getOsName());
         assertEquals(JavaSystemProperties.getOsArch(), result.getOsArch());
         assertEquals(System.getProperty(OS_BITNESS), result.getBitness());
     }
+
+    @Test
+    void testReleaseFileOfMac(@TempDir final Path javaHome) throws IOException {
+        //given
+        writeRelease(javaHome, "IMPLEMENTOR=\"Eclipse Adoptium\"\nJAVA_VERSION=\"17.0.9\"\nOS_ARCH=\"x86_64\"\nOS_NAME=\"Darwin\"\n");
+
+        //when
+        final Optional<JavaRuntimeProperties> result = JavaRuntimePropertiesDetector.readReleaseFile(javaHome);
+
+        //than
+        assertTrue(result.isPresent());
+        assertEquals("Eclipse Adoptium", result.get().getVendor());
+        assertEquals("17.0.9", result.get().getVersion());
+        assertEquals("Mac OS X", result.get().getOsName());
+        assertEquals("x86_64", result.get().getOsArch());
+        assertEquals("64", result.get().getBitness());
+    }
+
+    @Test
+    void testReleaseFileOf32BitWindows(@TempDir final Path javaHome) throws IOException {
+        //given
+        writeRelease(javaHome, "JAVA_VERSION=\"1.8.0_392\"\nOS_NAME=\"Windows\"\nOS_ARCH=\"i586\"\nIMPLEMENTOR=\"Eclipse Adoptium\"\n");
+
+        //when
+        final Optional<JavaRuntimeProperties> result = JavaRuntimePropertiesDetector.readReleaseFile(javaHome);
+
+        //than
+        assertTrue(result.isPresent());
+        assertEquals("Windows", result.get().getOsName());
+        assertEquals("i586", result.get().getOsArch());
+        assertEquals("32", result.get().getBitness());
+    }
+
+    @Test
+    void testIncompleteReleaseFile(@TempDir final Path javaHome) throws IOException {
+        //given
+        writeRelease(javaHome, "JAVA_VERSION=\"1.8.0_392\"\nOS_NAME=\"Linux\"\nOS_ARCH=\"amd64\"\n");
+
+        //than
+        assertFalse(JavaRuntimePropertiesDetector.readReleaseFile(javaHome).isPresent());
+    }
+
+    private static void writeRelease(final Path javaHome, final String content) throws IOException {
+        Files.write(javaHome.resolve("release"), content.getBytes(StandardCharsets.UTF_8));
+    }
 }
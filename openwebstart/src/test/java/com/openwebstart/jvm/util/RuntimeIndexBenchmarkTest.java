@@ -0,0 +1,71 @@
+package com.openwebstart.jvm.util;
+
+import com.openwebstart.jvm.os.OperationSystem;
+import com.openwebstart.jvm.runtimes.RemoteJavaRuntime;
+import com.openwebstart.jvm.runtimes.Vendor;
+import net.adoptopenjdk.icedteaweb.jnlp.version.VersionString;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import static com.openwebstart.jvm.runtimes.Vendor.ANY_VENDOR;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Benchmark that compares selecting the best runtime by scanning all runtimes with selecting it from a
+ * {@link RuntimeIndex}.
+ * <p>
+ * The benchmark is only executed if the system property {@code ows.benchmark} is set to {@code true}:
+ * {@code mvn test -Dtest=RuntimeIndexBenchmarkTest -Dows.benchmark=true}. The results are published as report
+ * entries of the test.
+ */
+@EnabledIfSystemProperty(named = "ows.benchmark", matches = "true")
+class RuntimeIndexBenchmarkTest {
+
+    private static final int WARMUP_ITERATIONS = 20_000;
+
+    private static final int ITERATIONS = 100_000;
+
+    @Test
+    void compareScanAndIndex(final TestReporter reporter) {
+        final List<RemoteJavaRuntime> runtimes = RuntimeIndexTest.createRuntimes();
+        final VersionString versionString = VersionString.fromString("11*");
+        final OperationSystem os = OperationSystem.WIN64;
+        final RuntimeVersionComparator comparator = new RuntimeVersionComparator(versionString);
+        final RuntimeIndex<RemoteJavaRuntime> index = new RuntimeIndex<>(runtimes);
+        final Supplier<Optional<RemoteJavaRuntime>> scan = () -> scan(runtimes, versionString, ANY_VENDOR, os, comparator);
+        final Supplier<Optional<RemoteJavaRuntime>> lookup = () -> index.find(versionString, ANY_VENDOR, os).stream().max(comparator);
+
+        assertEquals(scan.get(), lookup.get());
+        run(scan, WARMUP_ITERATIONS);
+        run(lookup, WARMUP_ITERATIONS);
+
+        reporter.publishEntry("Runtimes", Integer.toString(index.size()));
+        reporter.publishEntry("Scan in ns per selection", Long.toString(run(scan, ITERATIONS)));
+        reporter.publishEntry("Index in ns per selection", Long.toString(run(lookup, ITERATIONS)));
+    }
+
+    private static Optional<RemoteJavaRuntime> scan(final List<RemoteJavaRuntime> runtimes, final VersionString versionString, final Vendor vendor, final OperationSystem os, final RuntimeVersionComparator comparator) {
+        return runtimes.stream()
+                .filter(r -> r.getOperationSystem() == os)
+                .filter(r -> Objects.equals(vendor, ANY_VENDOR) || Objects.equals(vendor, r.getVendor()))
+                .filter(r -> versionString.contains(r.getVersion()))
+                .max(comparator);
+    }
+
+    /**
+     * @return the time of one selection in nanoseconds
+     */
+    private static long run(final Supplier<Optional<RemoteJavaRuntime>> selection, final int iterations) {
+        final long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            selection.get();
+        }
+        return (System.nanoTime() - start) / iterations;
+    }
+}
@@ -0,0 +1,105 @@
+package com.openwebstart.jvm.util;
+
+import com.openwebstart.jvm.os.OperationSystem;
+import com.openwebstart.jvm.runtimes.RemoteJavaRuntime;
+import com.openwebstart.jvm.runtimes.Vendor;
+import net.adoptopenjdk.icedteaweb.jnlp.version.VersionId;
+import net.adoptopenjdk.icedteaweb.jnlp.version.VersionString;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+import static com.openwebstart.jvm.runtimes.Vendor.ANY_VENDOR;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RuntimeIndexTest {
+
+    private static final List<String> VERSION_STRINGS = Arrays.asList(
+            "1.8*", "1.8+", "11*", "11+", "17.0.2", "1*", "1.7+", "9+", "11* 17*", "21*"
+    );
+
+    private static final List<Vendor> VENDORS = Arrays.asList(ANY_VENDOR, Vendor.ECLIPSE, Vendor.AZUL, Vendor.ORACLE);
+
+    @Test
+    void findsSameRuntimesAsFullScan() {
+        //given
+        final List<RemoteJavaRuntime> runtimes = createRuntimes();
+        final RuntimeIndex<RemoteJavaRuntime> index = new RuntimeIndex<>(runtimes);
+
+        for (final String version : VERSION_STRINGS) {
+            for (final Vendor vendor : VENDORS) {
+                for (final OperationSystem os : OperationSystem.values()) {
+                    final VersionString versionString = VersionString.fromString(version);
+
+                    //when
+                    final List<RemoteJavaRuntime> found = index.find(versionString, vendor, os);
+
+                    //than
+                    final List<RemoteJavaRuntime> expected = runtimes.stream()
+                            .filter(r -> r.getOperationSystem() == os)
+                            .filter(r -> Objects.equals(vendor, ANY_VENDOR) || Objects.equals(vendor, r.getVendor()))
+                            .filter(r -> versionString.contains(r.getVersion()))
+                            .collect(Collectors.toList());
+                    assertEquals(expected.size(), found.size(), version + " " + vendor + " " + os);
+                    assertTrue(found.containsAll(expected));
+                }
+            }
+        }
+    }
+
+    @Test
+    void newestRuntimeIsFirst() {
+        //given
+        final RuntimeIndex<RemoteJavaRuntime> index = new RuntimeIndex<>(Arrays.asList(
+                new RemoteJavaRuntime("11.0.2", OperationSystem.LINUX64, Vendor.ECLIPSE.getName(), "http://localhost/11.0.2"),
+                new RemoteJavaRuntime("11.0.12", OperationSystem.LINUX64, Vendor.ECLIPSE.getName(), "http://localhost/11.0.12"),
+                new RemoteJavaRuntime("11.0.7", OperationSystem.LINUX64, Vendor.ECLIPSE.getName(), "http://localhost/11.0.7")
+        ));
+
+        //when
+        final List<RemoteJavaRuntime> found = index.find(VersionString.fromString("11*"), ANY_VENDOR, OperationSystem.LINUX64);
+
+        //than
+        assertEquals(Arrays.asList(VersionId.fromString("11.0.12"), VersionId.fromString("11.0.7"), VersionId.fromString("11.0.2")),
+                found.stream().map(RemoteJavaRuntime::getVersion).collect(Collectors.toList()));
+    }
+
+    @Test
+    void majorVersionRange() {
+        assertArrayEquals(new int[]{8, 8}, RuntimeIndex.getMajorVersionRange(VersionString.fromString("1.8*")));
+        assertArrayEquals(new int[]{8, Integer.MAX_VALUE}, RuntimeIndex.getMajorVersionRange(VersionString.fromString("1.8+")));
+        assertArrayEquals(new int[]{11, 17}, RuntimeIndex.getMajorVersionRange(VersionString.fromString("11* 17*")));
+        assertArrayEquals(new int[]{0, 8}, RuntimeIndex.getMajorVersionRange(VersionString.fromString("1*")));
+        assertEquals(8, RuntimeIndex.getMajorVersionRange(VersionString.fromString("1.8.0_202"))[0]);
+    }
+
+    /**
+     * Creates a list with the size of a typical list of a JVM server.
+     */
+    static List<RemoteJavaRuntime> createRuntimes() {
+        final List<RemoteJavaRuntime> runtimes = new ArrayList<>();
+        final List<String> vendors = Arrays.asList(Vendor.ECLIPSE.getName(), Vendor.AZUL.getName(), Vendor.ORACLE.getName());
+        final List<OperationSystem> operationSystems = Arrays.asList(OperationSystem.LINUX64, OperationSystem.MAC64, OperationSystem.WIN64, OperationSystem.WIN32);
+        for (final String vendor : vendors) {
+            for (final OperationSystem os : operationSystems) {
+                for (int update = 192; update < 212; update += 4) {
+                    runtimes.add(new RemoteJavaRuntime("1.8.0_" + update, os, vendor, "http://localhost/8/" + update));
+                }
+                for (final int major : new int[]{11, 17, 21}) {
+                    for (int patch = 1; patch < 6; patch++) {
+                        runtimes.add(new RemoteJavaRuntime(major + ".0." + patch, os, vendor, "http://localhost/" + major + "/" + patch));
+                    }
+                }
+            }
+        }
+        Collections.shuffle(runtimes);
+        return runtimes;
+    }
+}
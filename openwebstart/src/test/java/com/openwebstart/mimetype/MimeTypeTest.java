@@ -20,6 +20,30 @@ class MimeTypeTest {
         assertEquals(MimeType.ZIP, mimeType);
     }
 
+    @Test
+    void checkXzFormat() {
+        //given
+        final byte[] data = {(byte) 0xfd, 0x37, 0x7a, 0x58, 0x5a, 0x00, 0x00, 0x04};
+
+        //when
+        final MimeType mimeType = MimeType.getForMagicBytes(data, data.length).orElse(null);
+
+        //than
+        assertEquals(MimeType.XZ, mimeType);
+    }
+
+    @Test
+    void checkZstdFormat() {
+        //given
+        final byte[] data = {0x28, (byte) 0xb5, 0x2f, (byte) 0xfd, 0x24};
+
+        //when
+        final MimeType mimeType = MimeType.getForMagicBytes(data, data.length).orElse(null);
+
+        //than
+        assertEquals(MimeType.ZSTD, mimeType);
+    }
+
     @Test
     void checkUnknownFormat() {
         //given
@@ -63,6 +87,6 @@ class MimeTypeTest {
 
     @Test
     void checkMaxMagicByteSize() {
-        assertEquals(5, MimeType.getMaxMagicByteSize());
+        assertEquals(6, MimeType.getMaxMagicByteSize());
     }
 }
@@ -0,0 +1,161 @@
+package com.openwebstart.util;
+
+import org.apache.commons.compress.archivers.ArchiveEntry;
+import org.apache.commons.compress.archivers.ArchiveOutputStream;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Benchmark for the extraction of a synthetic archive that has the shape of a JDK (about 500 files
+ * in 60 directories, mostly small files plus a few large ones).
+ * <p>
+ * The benchmark is only executed if the system property {@code ows.benchmark} is set to {@code true}:
+ * {@code mvn test -Dtest=ExtractUtilBenchmarkTest -Dows.benchmark=true}. The results are published as report
+ * entries of the tests.
+ */
+@EnabledIfSystemProperty(named = "ows.benchmark", matches = "true")
+class ExtractUtilBenchmarkTest {
+
+    private static final int WARMUP_RUNS = 3;
+
+    private static final int MEASURED_RUNS = 10;
+
+    @Test
+    void compareSequentialAndParallelExtraction(@TempDir final Path tempDir, final TestReporter reporter) throws IOException {
+        final byte[] archive = createJdkShapedTar();
+
+        for (final int writerThreads : new int[]{1, 2, 4, 8}) {
+            for (int i = 0; i < WARMUP_RUNS; i++) {
+                extract(archive, tempDir, writerThreads);
+            }
+            long total = 0;
+            for (int i = 0; i < MEASURED_RUNS; i++) {
+                total += extract(archive, tempDir, writerThreads);
+            }
+            reporter.publishEntry("Extraction with " + writerThreads + " writer thread(s) in ms", Long.toString(TimeUnit.NANOSECONDS.toMillis(total / MEASURED_RUNS)));
+        }
+    }
+
+    @Test
+    void compareStreamingAndRandomAccessZipExtraction(@TempDir final Path tempDir, final TestReporter reporter) throws IOException {
+        final Path archive = createJdkShapedZip(tempDir.resolve("jdk.zip"));
+
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            extractZipStream(archive, tempDir);
+        }
+        long total = 0;
+        for (int i = 0; i < MEASURED_RUNS; i++) {
+            total += extractZipStream(archive, tempDir);
+        }
+        reporter.publishEntry("Streaming ZIP extraction in ms", Long.toString(TimeUnit.NANOSECONDS.toMillis(total / MEASURED_RUNS)));
+
+        for (final int threads : new int[]{1, 2, 4, 8}) {
+            for (int i = 0; i < WARMUP_RUNS; i++) {
+                extractZipFile(archive, tempDir, threads);
+            }
+            total = 0;
+            for (int i = 0; i < MEASURED_RUNS; i++) {
+                total += extractZipFile(archive, tempDir, threads);
+            }
+            reporter.publishEntry("Random access ZIP extraction with " + threads + " thread(s) in ms", Long.toString(TimeUnit.NANOSECONDS.toMillis(total / MEASURED_RUNS)));
+        }
+    }
+
+    private long extractZipStream(final Path archive, final Path tempDir) throws IOException {
+        final Path targetDir = Files.createDirectories(tempDir.resolve(UUID.randomUUID().toString()));
+        final long start = System.nanoTime();
+        try (final InputStream inputStream = Files.newInputStream(archive)) {
+            ExtractUtil.unZip(inputStream, targetDir);
+        }
+        final long duration = System.nanoTime() - start;
+        assertTrue(Files.isRegularFile(targetDir.resolve("bin/java")));
+        return duration;
+    }
+
+    private long extractZipFile(final Path archive, final Path tempDir, final int threads) throws IOException {
+        final Path targetDir = Files.createDirectories(tempDir.resolve(UUID.randomUUID().toString()));
+        final long start = System.nanoTime();
+        ExtractUtil.unZip(archive, targetDir, threads);
+        final long duration = System.nanoTime() - start;
+        assertTrue(Files.isRegularFile(targetDir.resolve("bin/java")));
+        return duration;
+    }
+
+    private long extract(final byte[] archive, final Path tempDir, final int writerThreads) throws IOException {
+        final Path targetDir = Files.createDirectories(tempDir.resolve(UUID.randomUUID().toString()));
+        final long start = System.nanoTime();
+        ExtractUtil.unTar(new ByteArrayInputStream(archive), targetDir, writerThreads);
+        final long duration = System.nanoTime() - start;
+        assertTrue(Files.isRegularFile(targetDir.resolve("bin/java")));
+        return duration;
+    }
+
+    private static byte[] createJdkShapedTar() throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (final TarArchiveOutputStream tarOutputStream = new TarArchiveOutputStream(out)) {
+            addJdkShapedFiles(tarOutputStream, (name, size) -> {
+                final TarArchiveEntry entry = new TarArchiveEntry(name);
+                entry.setSize(size);
+                entry.setMode(0644);
+                return entry;
+            });
+        }
+        return out.toByteArray();
+    }
+
+    private static Path createJdkShapedZip(final Path archive) throws IOException {
+        try (final ZipArchiveOutputStream zipOutputStream = new ZipArchiveOutputStream(archive.toFile())) {
+            addJdkShapedFiles(zipOutputStream, (name, size) -> new ZipArchiveEntry(name));
+        }
+        return archive;
+    }
+
+    private static void addJdkShapedFiles(final ArchiveOutputStream outputStream, final EntryFactory entryFactory) throws IOException {
+        final Random random = new Random(4711);
+        addFile(outputStream, entryFactory, "jdk/bin/java", 16 * 1024, random);
+        for (int i = 0; i < 40; i++) {
+            addFile(outputStream, entryFactory, "jdk/bin/tool" + i, 16 * 1024, random);
+        }
+        for (int dir = 0; dir < 60; dir++) {
+            for (int i = 0; i < 7; i++) {
+                addFile(outputStream, entryFactory, "jdk/lib/module" + dir + "/file" + i, 1024 + random.nextInt(64 * 1024), random);
+            }
+        }
+        addFile(outputStream, entryFactory, "jdk/lib/modules", 40 * 1024 * 1024, random);
+        addFile(outputStream, entryFactory, "jdk/lib/src.zip", 20 * 1024 * 1024, random);
+    }
+
+    private static void addFile(final ArchiveOutputStream outputStream, final EntryFactory entryFactory, final String name, final int size, final Random random) throws IOException {
+        // content with a limited alphabet so that a ZIP archive needs to inflate it
+        final byte[] content = new byte[size];
+        random.nextBytes(content);
+        for (int i = 0; i < size; i++) {
+            content[i] = (byte) ('a' + (content[i] & 0x0F));
+        }
+        outputStream.putArchiveEntry(entryFactory.create(name, size));
+        outputStream.write(content);
+        outputStream.closeArchiveEntry();
+    }
+
+    private interface EntryFactory {
+        ArchiveEntry create(String name, int size);
+    }
+}
@@ -1,12 +1,29 @@
 package com.openwebstart.util;
 
+import org.apache.commons.compress.archivers.ArchiveEntry;
+import org.apache.commons.compress.archivers.ArchiveOutputStream;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.apache.commons.compress.compressors.gzip.GzipCompressorOutputStream;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.attribute.PosixFilePermission;
+import java.util.EnumSet;
+import java.util.Optional;
 import java.util.UUID;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
@@ -84,6 +101,216 @@ class ExtractUtilTest {
         assertJvmFilesIn(cacheDir);
     }
 
+    @Test
+    void extractTarGzipWithPrefix(@TempDir final File cacheDir) throws IOException {
+        // given
+        final byte[] archive = createTarGzip("jdk8u242-b08/");
+
+        // when
+        ExtractUtil.unTarGzip(new ByteArrayInputStream(archive), cacheDir.toPath());
+
+        // then
+        assertJvmFilesIn(cacheDir);
+        assertEquals(8, cacheDir.list().length, "unexpected files in target dir");
+        if (cacheDir.toPath().getFileSystem().supportedFileAttributeViews().contains("posix")) {
+            assertTrue(new File(cacheDir, "bin/java").canExecute(), "bin/java is not executable");
+            assertFalse(new File(cacheDir, "LICENSE").canExecute(), "LICENSE is executable");
+        }
+    }
+
+    @Test
+    void extractTarGzipWithParallelWriters(@TempDir final File cacheDir) throws IOException {
+        // given
+        final byte[] archive = createTarGzip("jdk-11.0.6+10/");
+
+        // when
+        ExtractUtil.unTarGzip(new ByteArrayInputStream(archive), cacheDir.toPath(), 4);
+
+        // then
+        assertJvmFilesIn(cacheDir);
+        assertEquals("jdk-11.0.6+10/lib/tools.jar", new String(Files.readAllBytes(new File(cacheDir, "lib/tools.jar").toPath()), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void extractTarGzipWithJreBeforeJavaHome(@TempDir final File cacheDir) throws IOException {
+        // given
+        final byte[] archive = createTarGzip("azul/jdk8/", "jre/bin/java");
+
+        // when
+        ExtractUtil.unTarGzip(new ByteArrayInputStream(archive), cacheDir.toPath());
+
+        // then
+        assertJvmFilesIn(cacheDir);
+        assertTrue(new File(cacheDir, "jre/bin/java").isFile(), "cannot find jre/bin/java");
+    }
+
+    @Test
+    void extractZipWithoutPrefix(@TempDir final File cacheDir) throws IOException {
+        // given
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (final ZipArchiveOutputStream zipOutputStream = new ZipArchiveOutputStream(out)) {
+            for (final String name : JVM_FILES) {
+                addEntry(zipOutputStream, new ZipArchiveEntry(name));
+            }
+        }
+
+        // when
+        ExtractUtil.unZip(new ByteArrayInputStream(out.toByteArray()), cacheDir.toPath());
+
+        // then
+        assertJvmFilesIn(cacheDir);
+        assertEquals(8, cacheDir.list().length, "unexpected files in target dir");
+    }
+
+    @Test
+    void extractZipFileInParallel(@TempDir final File tempDir) throws IOException {
+        // given
+        final File archive = new File(tempDir, "jdk.zip");
+        final File cacheDir = new File(tempDir, "runtime");
+        try (final ZipArchiveOutputStream zipOutputStream = new ZipArchiveOutputStream(archive)) {
+            addEntry(zipOutputStream, new ZipArchiveEntry("zulu11/jdk/jre/bin/java.exe"));
+            for (final String name : JVM_FILES) {
+                addEntry(zipOutputStream, new ZipArchiveEntry("zulu11/jdk/" + name));
+            }
+            addEntry(zipOutputStream, new ZipArchiveEntry("zulu11/README.txt"));
+        }
+
+        // when
+        ExtractUtil.unZip(archive.toPath(), cacheDir.toPath(), 4);
+
+        // then
+        assertJvmFilesIn(cacheDir);
+        assertEquals(9, cacheDir.list().length, "unexpected files in target dir");
+        assertTrue(new File(cacheDir, "jre/bin/java.exe").isFile(), "cannot find jre/bin/java.exe");
+        assertEquals("zulu11/jdk/lib/tools.jar", new String(Files.readAllBytes(new File(cacheDir, "lib/tools.jar").toPath()), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void rejectSymbolicLinkToAbsolutePath(@TempDir final File cacheDir) throws IOException {
+        // given
+        final byte[] archive = createTarGzipWithLink("jdk/lib/home", "/home");
+
+        // when
+        assertThrows(IOException.class, () -> ExtractUtil.unTarGzip(new ByteArrayInputStream(archive), cacheDir.toPath()));
+
+        // then
+        assertFalse(Files.isSymbolicLink(new File(cacheDir, "lib/home").toPath()), "link has been created");
+    }
+
+    @Test
+    void rejectSymbolicLinkOutsideOfTargetDirectory(@TempDir final File tempDir) throws IOException {
+        // given
+        final File cacheDir = new File(tempDir, "runtime");
+        final byte[] archive = createTarGzipWithLink("jdk/lib/outside", "../../..");
+
+        // when
+        assertThrows(IOException.class, () -> ExtractUtil.unTarGzip(new ByteArrayInputStream(archive), cacheDir.toPath()));
+
+        // then
+        assertFalse(Files.isSymbolicLink(new File(cacheDir, "lib/outside").toPath()), "link has been created");
+    }
+
+    @Test
+    void rejectEntryWrittenThroughSymbolicLink(@TempDir final File tempDir) throws IOException {
+        // given
+        final File outsideDir = createDir(tempDir, "outside");
+        final File cacheDir = createDir(tempDir, "runtime");
+        Files.createSymbolicLink(new File(cacheDir, "lib").toPath(), outsideDir.toPath());
+        final byte[] archive = createTarGzip("jdk/");
+
+        // when
+        assertThrows(IOException.class, () -> ExtractUtil.unTarGzip(new ByteArrayInputStream(archive), cacheDir.toPath()));
+
+        // then
+        assertEquals(0, outsideDir.list().length, "file has been written through the link");
+    }
+
+    @Test
+    void rejectZipSymbolicLinkOutsideOfTargetDirectory(@TempDir final File tempDir) throws IOException {
+        // given
+        final File archive = new File(tempDir, "jdk.zip");
+        final File cacheDir = new File(tempDir, "runtime");
+        try (final ZipArchiveOutputStream zipOutputStream = new ZipArchiveOutputStream(archive)) {
+            for (final String name : JVM_FILES) {
+                addEntry(zipOutputStream, new ZipArchiveEntry("jdk/" + name));
+            }
+            final ZipArchiveEntry link = new ZipArchiveEntry("jdk/lib/outside");
+            link.setUnixMode(0120777);
+            zipOutputStream.putArchiveEntry(link);
+            zipOutputStream.write("../../..".getBytes(StandardCharsets.UTF_8));
+            zipOutputStream.closeArchiveEntry();
+        }
+
+        // when
+        assertThrows(IOException.class, () -> ExtractUtil.unZip(archive.toPath(), cacheDir.toPath(), 2));
+
+        // then
+        assertFalse(Files.isSymbolicLink(new File(cacheDir, "lib/outside").toPath()), "link has been created");
+    }
+
+    @Test
+    void detectJavaHomePrefix() {
+        assertEquals(Optional.of(""), ExtractUtil.detectJavaHomePrefix("bin/java"));
+        assertEquals(Optional.of("jdk-11/"), ExtractUtil.detectJavaHomePrefix("jdk-11/bin/java.exe"));
+        assertEquals(Optional.of("jdk-11.jdk/Contents/Home/"), ExtractUtil.detectJavaHomePrefix("jdk-11.jdk/Contents/Home/bin/java"));
+        assertEquals(Optional.empty(), ExtractUtil.detectJavaHomePrefix("jdk8/jre/bin/java"));
+        assertEquals(Optional.empty(), ExtractUtil.detectJavaHomePrefix("jdk8/bin/javac"));
+    }
+
+    @Test
+    void convertUnixModeToPermissions() {
+        assertEquals(EnumSet.of(PosixFilePermission.OWNER_READ, PosixFilePermission.OWNER_WRITE, PosixFilePermission.OWNER_EXECUTE,
+                PosixFilePermission.GROUP_READ, PosixFilePermission.GROUP_EXECUTE, PosixFilePermission.OTHERS_READ, PosixFilePermission.OTHERS_EXECUTE),
+                ExtractUtil.toPosixFilePermissions(0755));
+        assertEquals(EnumSet.of(PosixFilePermission.OWNER_READ, PosixFilePermission.GROUP_READ, PosixFilePermission.OTHERS_READ),
+                ExtractUtil.toPosixFilePermissions(0444));
+    }
+
+    private static final String[] JVM_FILES = {"bin/java", "bin/javac", "lib/jconsole.jar", "lib/tools.jar", "lib/amd64/libjawt.so",
+            "ASSEMBLY_EXCEPTION", "LICENSE", "readme.txt", "release", "src.zip", "THIRD_PARTY_README"};
+
+    private byte[] createTarGzip(final String prefix, final String... leadingFiles) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (final TarArchiveOutputStream tarOutputStream = new TarArchiveOutputStream(new GzipCompressorOutputStream(out))) {
+            tarOutputStream.putArchiveEntry(new TarArchiveEntry(prefix));
+            tarOutputStream.closeArchiveEntry();
+            for (final String name : leadingFiles) {
+                addEntry(tarOutputStream, tarEntry(prefix + name, 0755));
+            }
+            for (final String name : JVM_FILES) {
+                addEntry(tarOutputStream, tarEntry(prefix + name, name.startsWith("bin/") ? 0755 : 0644));
+            }
+        }
+        return out.toByteArray();
+    }
+
+    private byte[] createTarGzipWithLink(final String linkName, final String linkTarget) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (final TarArchiveOutputStream tarOutputStream = new TarArchiveOutputStream(new GzipCompressorOutputStream(out))) {
+            for (final String name : JVM_FILES) {
+                addEntry(tarOutputStream, tarEntry("jdk/" + name, 0644));
+            }
+            final TarArchiveEntry link = new TarArchiveEntry(linkName, TarArchiveEntry.LF_SYMLINK);
+            link.setLinkName(linkTarget);
+            tarOutputStream.putArchiveEntry(link);
+            tarOutputStream.closeArchiveEntry();
+        }
+        return out.toByteArray();
+    }
+
+    private TarArchiveEntry tarEntry(final String name, final int mode) {
+        final TarArchiveEntry entry = new TarArchiveEntry(name);
+        entry.setMode(mode);
+        entry.setSize(name.getBytes(StandardCharsets.UTF_8).length);
+        return entry;
+    }
+
+    private void addEntry(final ArchiveOutputStream outputStream, final ArchiveEntry entry) throws IOException {
+        outputStream.putArchiveEntry(entry);
+        outputStream.write(entry.getName().getBytes(StandardCharsets.UTF_8));
+        outputStream.closeArchiveEntry();
+    }
+
     private void createJvmFilesIn(final File dir) throws IOException {
         final File bin = createDir(dir, "bin");
         createFile(bin, "java");
@@ -0,0 +1,127 @@
+package com.openwebstart.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Test for {@link PipelinedInputStream}.
+ */
+class PipelinedInputStreamTest {
+
+    private static final byte[] CONTENT = new byte[100_000];
+
+    static {
+        new Random(4711).nextBytes(CONTENT);
+    }
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    @Test
+    void transferContentInOrder() throws IOException {
+        //given
+        final PipelinedInputStream inputStream = new PipelinedInputStream(new ByteArrayInputStream(CONTENT), "test", 1024, 3, executor);
+
+        //when
+        final byte[] content = readAll(inputStream);
+
+        //than
+        Assertions.assertArrayEquals(CONTENT, content);
+        Assertions.assertEquals(CONTENT.length, inputStream.getTransferredBytes());
+    }
+
+    @Test
+    void propagateErrorOfSource() {
+        //given
+        final InputStream failingSource = new FilterInputStream(new ByteArrayInputStream(CONTENT)) {
+            private int count;
+
+            @Override
+            public int read(final byte[] b, final int off, final int len) throws IOException {
+                if (count > 50_000) {
+                    throw new IOException("connection reset");
+                }
+                final int read = super.read(b, off, Math.min(len, 1000));
+                count += read;
+                return read;
+            }
+        };
+        final PipelinedInputStream inputStream = new PipelinedInputStream(failingSource, "test", 1024, 3, executor);
+
+        //than
+        Assertions.assertThrows(IOException.class, () -> readAll(inputStream));
+    }
+
+    @Test
+    void closeStopsReadingAndClosesSource() throws IOException {
+        //given
+        final AtomicBoolean sourceClosed = new AtomicBoolean(false);
+        final InputStream source = new ByteArrayInputStream(CONTENT) {
+            @Override
+            public void close() {
+                sourceClosed.set(true);
+            }
+        };
+        final PipelinedInputStream inputStream = new PipelinedInputStream(source, "test", 1024, 3, executor);
+        inputStream.read(new byte[10]);
+
+        //when
+        inputStream.close();
+
+        //than
+        Assertions.assertTrue(sourceClosed.get());
+        Assertions.assertTrue(inputStream.getTransferredBytes() < CONTENT.length);
+    }
+
+    @Test
+    void closeDoesNotWaitForBlockedSource() throws IOException {
+        //given
+        final CountDownLatch sourceClosed = new CountDownLatch(1);
+        final InputStream stalledSource = new InputStream() {
+            @Override
+            public int read() throws IOException {
+                try {
+                    sourceClosed.await();
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                throw new IOException("Socket closed");
+            }
+
+            @Override
+            public void close() {
+                sourceClosed.countDown();
+            }
+        };
+        final PipelinedInputStream inputStream = new PipelinedInputStream(stalledSource, "test", 1024, 3, executor);
+
+        //when
+        Assertions.assertTimeoutPreemptively(Duration.ofSeconds(5), inputStream::close);
+
+        //than
+        Assertions.assertEquals(0, sourceClosed.getCount());
+    }
+
+    private static byte[] readAll(final InputStream inputStream) throws IOException {
+        try (final InputStream in = inputStream) {
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[700];
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        }
+    }
+}
@@ -21,7 +21,7 @@ public final class SystemPropertiesPrinter {
      */
     @SuppressWarnings("StaticCollection")
     private static final List<String> REQUIRED_PROPS =
-            unmodifiableList(asList("java.vendor", "java.version", "os.name", "os.arch"));
+            unmodifiableList(asList("java.vendor", "java.version", "os.name", "os.arch", "sun.arch.data.model"));
 
     private SystemPropertiesPrinter() {
         // Utility class, do not instantiate.